@@ -0,0 +1,79 @@
+package com.example.devopsproj.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer of variable-length integers: seven bits a byte, low bits first,
+ * with the high bit set on every byte but the last, as in protobuf. Small values take
+ * one byte; signed values are zigzag-encoded first so small negative ones do too.
+ */
+class ByteSeries {
+
+    private byte[] bytes;
+    private int length;
+
+    ByteSeries() {
+        this(new byte[16], 0);
+    }
+
+    private ByteSeries(byte[] bytes, int length) {
+        this.bytes = bytes;
+        this.length = length;
+    }
+
+    static ByteSeries of(byte[] encoded) {
+        return new ByteSeries(encoded, encoded.length);
+    }
+
+    void writeVarLong(long value) {
+        if (length + 10 > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+        }
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    void writeZigZag(long value) {
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte[] toByteArray() {
+        return Arrays.copyOf(bytes, length);
+    }
+
+    Reader reader() {
+        return new Reader();
+    }
+
+    final class Reader {
+
+        private int position;
+
+        boolean hasNext() {
+            return position < length;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte next = bytes[position++];
+                value |= (long) (next & 0x7F) << shift;
+                if (next >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        long readZigZag() {
+            long encoded = readVarLong();
+            return (encoded >>> 1) ^ -(encoded & 1);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.devopsproj.analyzer;
+
+/**
+ * Snapshot statistics over one time window: how many snapshots it holds, how many were
+ * left to fit the growth rates after trimming, the growth rates in KB per simulated
+ * second, live-object stagnation and the seconds from the window's first snapshot to its
+ * last.
+ */
+public record GrowthWindow(int snapshotCount,
+                           int fittedSnapshotCount,
+                           double heapGrowthRate,
+                           double oldGenGrowthRate,
+                           double liveObjectStagnation,
+                           long durationSeconds) {
+}
@@ -1,20 +1,24 @@
 package com.example.devopsproj.analyzer;
 
+import com.example.devopsproj.engine.EpochCache;
 import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.SimulationClock;
 import com.example.devopsproj.model.*;
 import com.example.devopsproj.repository.GCEventRepository;
 import com.example.devopsproj.repository.HeapSnapshotRepository;
 import com.example.devopsproj.repository.LeakReportRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Component
 @Slf4j
@@ -25,15 +29,35 @@ public class LeakAnalyzer {
     private final GCEventRepository gcEventRepository;
     private final LeakReportRepository leakReportRepository;
     private final HeapSimulationEngine heapSimulationEngine;
+    private final SimulationClock simulationClock;
+    private final SnapshotStatistics snapshotStatistics = new SnapshotStatistics();
+    private volatile boolean statisticsLoaded;
+    private final EpochCache<Double> cachedGCEfficiency = new EpochCache<>();
+    private final EpochCache<Double> cachedLiveObjectRatio = new EpochCache<>();
+    private final EpochCache<String> cachedLeakingObjectTypes = new EpochCache<>();
+
+    /** Share of a window's snapshots left out of the growth fit at each end. */
+    @Value("${simulation.leak.growth-trim-percent:10}")
+    private Integer growthTrimPercent = 10;
 
     public LeakReport analyzeAndGenerateReport() {
+        return analyzeAndGenerateReport(null, null, null);
+    }
+
+    /**
+     * Reports on the snapshots from {@code startTime} to {@code endTime}, either open-ended
+     * when {@code null}. Growth rates are fitted after trimming {@code trimPercent} of the
+     * window's snapshots from each end, or the configured share when {@code null}.
+     */
+    public LeakReport analyzeAndGenerateReport(LocalDateTime startTime, LocalDateTime endTime, Integer trimPercent) {
         log.info("Starting leak analysis");
 
-        double heapGrowthRate = calculateHeapGrowthRate();
+        GrowthWindow window = calculateGrowthWindow(startTime, endTime, trimPercent);
+        double heapGrowthRate = window.heapGrowthRate();
         double gcEfficiency = calculateGCEfficiency();
         double liveObjectRatio = calculateLiveObjectRatio();
-        double oldGenGrowthRate = calculateOldGenGrowthRate();
-        double liveObjectStagnation = calculateLiveObjectStagnation();
+        double oldGenGrowthRate = window.oldGenGrowthRate();
+        double liveObjectStagnation = window.liveObjectStagnation();
 
         double suspicionScore = calculateSuspicionScore(
                 heapGrowthRate,
@@ -45,7 +69,7 @@ public class LeakAnalyzer {
         Verdict verdict = determineVerdict(suspicionScore);
 
         String leakingObjectTypes = identifyLeakingObjectTypes();
-        Long suspectedLeakDuration = calculateSuspectedLeakDuration();
+        Long suspectedLeakDuration = window.durationSeconds();
 
         LeakReport report = LeakReport.builder()
                 .suspicionScore(suspicionScore)
@@ -55,8 +79,11 @@ public class LeakAnalyzer {
                 .gcEfficiency(gcEfficiency)
                 .oldGenGrowthRate(oldGenGrowthRate)
                 .liveObjectStagnation(liveObjectStagnation)
+                .windowStart(startTime)
+                .windowEnd(endTime)
+                .snapshotCount(window.snapshotCount())
                 .verdict(verdict)
-                .createdAt(LocalDateTime.now())
+                .createdAt(simulationClock.now())
                 .build();
 
         leakReportRepository.save(report);
@@ -66,32 +93,31 @@ public class LeakAnalyzer {
         return report;
     }
 
-    public double calculateHeapGrowthRate() {
-        Optional<HeapSnapshot> firstSnapshot = heapSnapshotRepository.findFirstSnapshot();
-        Optional<HeapSnapshot> latestSnapshot = heapSnapshotRepository.findLatestSnapshot();
-
-        if (firstSnapshot.isEmpty() || latestSnapshot.isEmpty()) {
-            return 0.0;
-        }
-
-        HeapSnapshot first = firstSnapshot.get();
-        HeapSnapshot latest = latestSnapshot.get();
-
-        if (first.getId().equals(latest.getId())) {
-            return 0.0;
-        }
-
-        long heapDiff = latest.getTotalHeapUsed() - first.getTotalHeapUsed();
-        long timeDiffSeconds = Duration.between(first.getTimestamp(), latest.getTimestamp()).getSeconds();
-
-        if (timeDiffSeconds == 0) {
-            return 0.0;
-        }
+    /**
+     * Statistics over the snapshots from {@code startTime} to {@code endTime}, either
+     * open-ended when {@code null}, answered from the snapshot index in O(log n).
+     */
+    public GrowthWindow calculateGrowthWindow(LocalDateTime startTime, LocalDateTime endTime, Integer trimPercent) {
+        return statistics().window(startTime, endTime, trimPercent != null ? trimPercent : growthTrimPercent);
+    }
 
-        return (double) heapDiff / timeDiffSeconds;
+    /**
+     * Trimmed least-squares slope of heap used over simulated seconds across every
+     * snapshot, in KB per second.
+     */
+    public double calculateHeapGrowthRate() {
+        return calculateGrowthWindow(null, null, null).heapGrowthRate();
     }
 
+    /**
+     * Average efficiency of every collection, cached until the heap's mutation epoch
+     * moves, which every collection does once its event is committed.
+     */
     public double calculateGCEfficiency() {
+        return cachedGCEfficiency.get(heapSimulationEngine.getMutationEpoch(), this::averageGCEfficiency);
+    }
+
+    private double averageGCEfficiency() {
         Double avgEfficiency = gcEventRepository.calculateAverageGCEfficiency();
 
         if (avgEfficiency == null) {
@@ -113,6 +139,10 @@ public class LeakAnalyzer {
     }
 
     public double calculateLiveObjectRatio() {
+        return cachedLiveObjectRatio.get(heapSimulationEngine.getMutationEpoch(), this::liveObjectRatio);
+    }
+
+    private double liveObjectRatio() {
         long liveObjects = heapSimulationEngine.getLiveObjectCount();
         long totalObjects = liveObjects + heapSimulationEngine.getUnreachableObjectCount();
 
@@ -123,59 +153,20 @@ public class LeakAnalyzer {
         return (double) liveObjects / totalObjects;
     }
 
+    /**
+     * Trimmed least-squares slope of old-generation size over simulated seconds across
+     * every snapshot, in KB per second.
+     */
     public double calculateOldGenGrowthRate() {
-        List<HeapSnapshot> snapshots = heapSnapshotRepository.findAllOrderByTimestampDesc();
-
-        if (snapshots.size() < 2) {
-            return 0.0;
-        }
-
-        snapshots.sort((a, b) -> a.getTimestamp().compareTo(b.getTimestamp()));
-
-        HeapSnapshot first = snapshots.get(0);
-        HeapSnapshot last = snapshots.get(snapshots.size() - 1);
-
-        Long firstOldGen = first.getOldGenSize() != null ? first.getOldGenSize() : 0L;
-        Long lastOldGen = last.getOldGenSize() != null ? last.getOldGenSize() : 0L;
-
-        long oldGenDiff = lastOldGen - firstOldGen;
-        long timeDiffSeconds = Duration.between(first.getTimestamp(), last.getTimestamp()).getSeconds();
-
-        if (timeDiffSeconds == 0) {
-            return 0.0;
-        }
-
-        return (double) oldGenDiff / timeDiffSeconds;
+        return calculateGrowthWindow(null, null, null).oldGenGrowthRate();
     }
 
+    /**
+     * How flat the live-object count has stayed over the latest snapshots: one minus its
+     * coefficient of variation.
+     */
     public double calculateLiveObjectStagnation() {
-        List<HeapSnapshot> snapshots = heapSnapshotRepository.findAllOrderByTimestampDesc();
-
-        if (snapshots.size() < 3) {
-            return 0.0;
-        }
-
-        snapshots = snapshots.subList(0, Math.min(5, snapshots.size()));
-
-        double avgLiveObjects = snapshots.stream()
-                .mapToInt(HeapSnapshot::getLiveObjectsCount)
-                .average()
-                .orElse(0.0);
-
-        double variance = snapshots.stream()
-                .mapToDouble(s -> Math.pow(s.getLiveObjectsCount() - avgLiveObjects, 2))
-                .average()
-                .orElse(0.0);
-
-        double standardDeviation = Math.sqrt(variance);
-
-        if (avgLiveObjects == 0) {
-            return 0.0;
-        }
-
-        double coefficientOfVariation = standardDeviation / avgLiveObjects;
-
-        return 1.0 - Math.min(coefficientOfVariation, 1.0);
+        return calculateGrowthWindow(null, null, null).liveObjectStagnation();
     }
 
     public double calculateSuspicionScore(
@@ -206,38 +197,84 @@ public class LeakAnalyzer {
         }
     }
 
+    /**
+     * The five types retaining the most live old-generation KB, from the engine's running
+     * per-type totals, so the cost depends on the number of types, not objects. Cached
+     * until the heap's mutation epoch moves.
+     */
     public String identifyLeakingObjectTypes() {
-        List<HeapObject> liveObjects = heapSimulationEngine.getAllObjects().stream()
-                .filter(HeapObject::getReferenced)
-                .filter(obj -> obj.getGeneration() == Generation.OLD)
-                .toList();
-
-        if (liveObjects.isEmpty()) {
-            return "None identified";
-        }
+        return cachedLeakingObjectTypes.get(heapSimulationEngine.getMutationEpoch(), this::rankLeakingObjectTypes);
+    }
 
-        Map<String, Long> objectTypeCounts = liveObjects.stream()
-                .collect(Collectors.groupingBy(HeapObject::getObjectType, Collectors.counting()));
+    private String rankLeakingObjectTypes() {
+        long[] liveOldCounts = heapSimulationEngine.countLiveObjectsByType(Generation.OLD);
+        long[] liveOldSizesKB = heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD);
 
-        return objectTypeCounts.entrySet().stream()
-                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
+        String leakingTypes = IntStream.range(0, liveOldCounts.length)
+                .filter(typeId -> liveOldCounts[typeId] > 0)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingLong(typeId -> liveOldSizesKB[typeId])
+                        .thenComparingLong(typeId -> liveOldCounts[typeId])
+                        .reversed())
                 .limit(5)
-                .map(entry -> entry.getKey() + " (" + entry.getValue() + ")")
+                .map(typeId -> heapSimulationEngine.getObjectTypeName(typeId)
+                        + " (" + liveOldSizesKB[typeId] + " KB, " + liveOldCounts[typeId] + " objects)")
                 .collect(Collectors.joining(", "));
+
+        return leakingTypes.isEmpty() ? "None identified" : leakingTypes;
+    }
+
+    /**
+     * The {@code limit} types whose live old-generation KB grew fastest over the snapshots
+     * from {@code startTime} to {@code endTime}, either open-ended when {@code null}.
+     */
+    public List<TypeGrowth> rankTypeGrowth(LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        List<TypeTrend> growing = statistics().typeTrends(startTime, endTime).stream()
+                .filter(trend -> trend.kbPerSecond() > 0)
+                .toList();
+        double totalGrowth = growing.stream().mapToDouble(TypeTrend::kbPerSecond).sum();
+
+        return growing.stream()
+                .sorted(Comparator.comparingDouble(TypeTrend::kbPerSecond).reversed())
+                .limit(limit)
+                .map(trend -> new TypeGrowth(
+                        heapSimulationEngine.getObjectTypeName(trend.typeId()),
+                        trend.liveKB(),
+                        trend.liveObjects(),
+                        trend.kbPerSecond(),
+                        trend.objectsPerSecond(),
+                        100.0 * trend.kbPerSecond() / totalGrowth))
+                .toList();
     }
 
     public Long calculateSuspectedLeakDuration() {
-        Optional<HeapSnapshot> firstSnapshot = heapSnapshotRepository.findFirstSnapshot();
-        Optional<HeapSnapshot> latestSnapshot = heapSnapshotRepository.findLatestSnapshot();
+        return calculateGrowthWindow(null, null, null).durationSeconds();
+    }
 
-        if (firstSnapshot.isEmpty() || latestSnapshot.isEmpty()) {
-            return 0L;
-        }
+    /**
+     * Adds a newly saved snapshot to the running statistics.
+     */
+    public void recordSnapshot(HeapSnapshot snapshot) {
+        statistics().add(snapshot);
+    }
 
-        return Duration.between(
-                firstSnapshot.get().getTimestamp(),
-                latestSnapshot.get().getTimestamp()
-        ).getSeconds();
+    /**
+     * The running statistics, seeded on first use with the snapshots already in the
+     * repository, such as those kept from an earlier run.
+     */
+    private SnapshotStatistics statistics() {
+        if (!statisticsLoaded) {
+            synchronized (snapshotStatistics) {
+                if (!statisticsLoaded) {
+                    List<HeapSnapshot> history = new ArrayList<>(heapSnapshotRepository.findAllOrderByTimestampDesc());
+                    history.sort(Comparator.comparing(HeapSnapshot::getId, Comparator.nullsFirst(Comparator.naturalOrder())));
+                    history.forEach(snapshotStatistics::add);
+                    statisticsLoaded = true;
+                    log.info("Leak analyzer loaded {} heap snapshots", history.size());
+                }
+            }
+        }
+        return snapshotStatistics;
     }
 
     public List<LeakReport> getAllReports() {
@@ -0,0 +1,218 @@
+package com.example.devopsproj.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Segment tree over the snapshot history, in time order, that answers the mean, variance
+ * and least-squares slope against time of heap used, old-generation size and live-object
+ * count for any run of consecutive snapshots in O(log n).
+ *
+ * <p>Each node holds the centred moments of its range: the count, the means, the sums of
+ * squared deviations and the sums of co-deviations with time. Two ranges combine exactly
+ * with the pairwise update of Chan, Golub and LeVeque, so no node ever subtracts large raw
+ * sums of squares, which would cancel when a narrow window lies far from the first
+ * snapshot. Appending a snapshot updates one leaf and its ancestors; the tree doubles its
+ * capacity when full. Not thread-safe.
+ */
+class SnapshotIndex {
+
+    static final int HEAP = 0;
+    static final int OLD_GEN = 1;
+    static final int LIVE_OBJECTS = 2;
+    private static final int SERIES = 3;
+
+    // Node layout: count, mean time, squared time deviations, then per series its mean,
+    // squared deviations and co-deviations with time.
+    private static final int COUNT = 0;
+    private static final int MEAN_T = 1;
+    private static final int M2_T = 2;
+    private static final int STRIDE = 3 + 3 * SERIES;
+
+    private long[] timeMillis;
+    private double[] nodes;
+    private int capacity;
+    private int size;
+
+    SnapshotIndex() {
+        capacity = 64;
+        timeMillis = new long[capacity];
+        nodes = new double[2 * capacity * STRIDE];
+    }
+
+    /**
+     * Appends a snapshot taken {@code millis} after the first one. The history must be in
+     * time order; an earlier time is taken as that of the snapshot before.
+     */
+    void add(long millis, long heapUsed, long oldGenSize, int liveObjects) {
+        if (size == capacity) {
+            grow();
+        }
+        long time = size > 0 ? Math.max(millis, timeMillis[size - 1]) : millis;
+        timeMillis[size] = time;
+
+        int leaf = (capacity + size) * STRIDE;
+        nodes[leaf + COUNT] = 1;
+        nodes[leaf + MEAN_T] = time / 1000.0;
+        nodes[leaf + M2_T] = 0;
+        setLeafSeries(leaf, HEAP, heapUsed);
+        setLeafSeries(leaf, OLD_GEN, oldGenSize);
+        setLeafSeries(leaf, LIVE_OBJECTS, liveObjects);
+        size++;
+
+        for (int node = (capacity + size - 1) >>> 1; node > 0; node >>>= 1) {
+            merge(nodes, 2 * node * STRIDE, nodes, (2 * node + 1) * STRIDE, nodes, node * STRIDE);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long timeMillis(int index) {
+        return timeMillis[index];
+    }
+
+    /**
+     * Index of the first snapshot taken at or after {@code millis}.
+     */
+    int lowerBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeMillis[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Index of the first snapshot taken after {@code millis}.
+     */
+    int upperBound(long millis) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timeMillis[mid] <= millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Moments of the snapshots with indexes in {@code [from, to)}.
+     */
+    Moments query(int from, int to) {
+        double[] result = new double[STRIDE];
+        double[] merged = new double[STRIDE];
+        for (int left = from + capacity, right = to + capacity; left < right; left >>>= 1, right >>>= 1) {
+            if ((left & 1) == 1) {
+                merge(result, 0, nodes, left * STRIDE, merged, 0);
+                System.arraycopy(merged, 0, result, 0, STRIDE);
+                left++;
+            }
+            if ((right & 1) == 1) {
+                right--;
+                merge(result, 0, nodes, right * STRIDE, merged, 0);
+                System.arraycopy(merged, 0, result, 0, STRIDE);
+            }
+        }
+        return new Moments(result);
+    }
+
+    private void setLeafSeries(int leaf, int series, double value) {
+        int offset = leaf + 3 + 3 * series;
+        nodes[offset] = value;
+        nodes[offset + 1] = 0;
+        nodes[offset + 2] = 0;
+    }
+
+    private void grow() {
+        int newCapacity = capacity * 2;
+        double[] newNodes = new double[2 * newCapacity * STRIDE];
+        System.arraycopy(nodes, capacity * STRIDE, newNodes, newCapacity * STRIDE, capacity * STRIDE);
+        for (int node = newCapacity - 1; node > 0; node--) {
+            merge(newNodes, 2 * node * STRIDE, newNodes, (2 * node + 1) * STRIDE, newNodes, node * STRIDE);
+        }
+        timeMillis = Arrays.copyOf(timeMillis, newCapacity);
+        nodes = newNodes;
+        capacity = newCapacity;
+    }
+
+    /**
+     * Writes the moments of ranges {@code a} and {@code b} combined to {@code out}, which
+     * must not overlap either.
+     */
+    private static void merge(double[] aArray, int a, double[] bArray, int b, double[] outArray, int out) {
+        double countA = aArray[a + COUNT];
+        double countB = bArray[b + COUNT];
+        if (countB == 0) {
+            System.arraycopy(aArray, a, outArray, out, STRIDE);
+            return;
+        }
+        if (countA == 0) {
+            System.arraycopy(bArray, b, outArray, out, STRIDE);
+            return;
+        }
+        double count = countA + countB;
+        double weight = countA * countB / count;
+        double deltaT = bArray[b + MEAN_T] - aArray[a + MEAN_T];
+        outArray[out + COUNT] = count;
+        outArray[out + MEAN_T] = aArray[a + MEAN_T] + deltaT * countB / count;
+        outArray[out + M2_T] = aArray[a + M2_T] + bArray[b + M2_T] + deltaT * deltaT * weight;
+        for (int series = 0; series < SERIES; series++) {
+            int offset = 3 + 3 * series;
+            double deltaY = bArray[b + offset] - aArray[a + offset];
+            outArray[out + offset] = aArray[a + offset] + deltaY * countB / count;
+            outArray[out + offset + 1] = aArray[a + offset + 1] + bArray[b + offset + 1] + deltaY * deltaY * weight;
+            outArray[out + offset + 2] = aArray[a + offset + 2] + bArray[b + offset + 2] + deltaT * deltaY * weight;
+        }
+    }
+
+    /**
+     * Count, means, variances and slopes against time of one range of snapshots.
+     */
+    static final class Moments {
+
+        private final double[] values;
+
+        private Moments(double[] values) {
+            this.values = values;
+        }
+
+        long count() {
+            return (long) values[COUNT];
+        }
+
+        /** Mean snapshot time, in seconds after the first snapshot. */
+        double meanTime() {
+            return values[MEAN_T];
+        }
+
+        /** Sum of squared deviations of snapshot times from their mean. */
+        double timeSquares() {
+            return values[M2_T];
+        }
+
+        double mean(int series) {
+            return values[3 + 3 * series];
+        }
+
+        /** Population variance. */
+        double variance(int series) {
+            return count() > 0 ? values[3 + 3 * series + 1] / count() : 0.0;
+        }
+
+        /** Least-squares slope per second; 0 unless the range spans two distinct times. */
+        double slope(int series) {
+            return values[M2_T] > 0 ? values[3 + 3 * series + 2] / values[M2_T] : 0.0;
+        }
+    }
+}
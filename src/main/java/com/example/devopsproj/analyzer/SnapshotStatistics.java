@@ -0,0 +1,115 @@
+package com.example.devopsproj.analyzer;
+
+import com.example.devopsproj.model.HeapSnapshot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Statistics over every heap snapshot taken, kept in a {@link SnapshotIndex} as each
+ * snapshot is saved, so any window of the history is summarized in O(log n) however long
+ * it grows.
+ *
+ * <p>Growth rates are least-squares slopes of KB over simulated seconds, after trimming a
+ * share of the window's snapshots from each end. The end points weigh most in a least-squares
+ * fit, so trimming drops a warm-up phase or a last-moment GC spike first. Live-object
+ * stagnation is one minus the coefficient of variation over the latest
+ * {@value #STAGNATION_WINDOW} snapshots of the window. Per-type old-generation growth is
+ * kept alongside in a {@link TypeGrowthSeries}. All methods are synchronized.
+ */
+class SnapshotStatistics {
+
+    static final int STAGNATION_WINDOW = 5;
+
+    private final SnapshotIndex index = new SnapshotIndex();
+    private final TypeGrowthSeries typeGrowth = new TypeGrowthSeries();
+    private LocalDateTime origin;
+    private long lastSnapshotId;
+
+    /**
+     * Adds a snapshot. A snapshot whose id is not above the last one added was already
+     * counted and is ignored.
+     */
+    synchronized void add(HeapSnapshot snapshot) {
+        if (snapshot.getId() != null) {
+            if (snapshot.getId() <= lastSnapshotId) {
+                return;
+            }
+            lastSnapshotId = snapshot.getId();
+        }
+        if (origin == null) {
+            origin = snapshot.getTimestamp();
+        }
+        index.add(millisSinceOrigin(snapshot.getTimestamp()),
+                snapshot.getTotalHeapUsed(),
+                snapshot.getOldGenSize() != null ? snapshot.getOldGenSize() : 0L,
+                snapshot.getLiveObjectsCount());
+        typeGrowth.add(index.timeMillis(index.size() - 1) / 1000.0, snapshot.getOldGenTypeVector());
+    }
+
+    synchronized long getCount() {
+        return index.size();
+    }
+
+    /**
+     * Summarizes the snapshots taken from {@code from} to {@code to}, both inclusive and
+     * either open-ended when {@code null}, trimming {@code trimPercent} of them from each
+     * end before fitting the growth rates. At least two snapshots are always fitted.
+     */
+    synchronized GrowthWindow window(LocalDateTime from, LocalDateTime to, int trimPercent) {
+        int first = firstIndex(from);
+        int end = endIndex(to);
+        int count = Math.max(0, end - first);
+        if (count == 0) {
+            return new GrowthWindow(0, 0, 0.0, 0.0, 0.0, 0L);
+        }
+
+        int trim = Math.min((int) ((long) count * trimPercent / 100), Math.max(0, (count - 2) / 2));
+        SnapshotIndex.Moments fitted = index.query(first + trim, end - trim);
+
+        double stagnation = 0.0;
+        if (count >= 3) {
+            SnapshotIndex.Moments latest = index.query(Math.max(first, end - STAGNATION_WINDOW), end);
+            double mean = latest.mean(SnapshotIndex.LIVE_OBJECTS);
+            if (mean != 0) {
+                double coefficientOfVariation = Math.sqrt(latest.variance(SnapshotIndex.LIVE_OBJECTS)) / mean;
+                stagnation = 1.0 - Math.min(coefficientOfVariation, 1.0);
+            }
+        }
+
+        long durationSeconds = Duration.ofMillis(index.timeMillis(end - 1) - index.timeMillis(first)).getSeconds();
+        return new GrowthWindow(count, (int) fitted.count(),
+                fitted.slope(SnapshotIndex.HEAP),
+                fitted.slope(SnapshotIndex.OLD_GEN),
+                stagnation,
+                durationSeconds);
+    }
+
+    /**
+     * Growth of the live old-generation KB and objects of every type seen, over the
+     * snapshots taken from {@code from} to {@code to}, both inclusive and either open-ended
+     * when {@code null}.
+     */
+    synchronized List<TypeTrend> typeTrends(LocalDateTime from, LocalDateTime to) {
+        int first = firstIndex(from);
+        int end = endIndex(to);
+        if (end <= first) {
+            return List.of();
+        }
+        SnapshotIndex.Moments moments = index.query(first, end);
+        return typeGrowth.trends(first, end, moments.meanTime(), moments.timeSquares());
+    }
+
+    private int firstIndex(LocalDateTime from) {
+        return from != null && origin != null ? index.lowerBound(millisSinceOrigin(from)) : 0;
+    }
+
+    private int endIndex(LocalDateTime to) {
+        return to != null && origin != null ? index.upperBound(millisSinceOrigin(to)) : index.size();
+    }
+
+    private long millisSinceOrigin(LocalDateTime timestamp) {
+        return Duration.between(origin, timestamp).toMillis();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.devopsproj.analyzer;
+
+/**
+ * A type growing in the old generation over a window of snapshots: its live KB and
+ * objects at the end of the window, its least-squares growth per simulated second, and
+ * its share of the summed growth of all growing types.
+ */
+public record TypeGrowth(String objectType,
+                         long liveKB,
+                         long liveObjects,
+                         double kbPerSecond,
+                         double objectsPerSecond,
+                         double contributionPercent) {
+}
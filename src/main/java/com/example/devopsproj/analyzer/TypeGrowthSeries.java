@@ -0,0 +1,184 @@
+package com.example.devopsproj.analyzer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Live old-generation KB and object count of every type at every snapshot, and their
+ * least-squares growth over any window of snapshots.
+ *
+ * <p>A type's series only records the snapshots where its values change, each as the gap
+ * in snapshots and the zigzag deltas of KB and count in a {@link ByteSeries}, so a type
+ * that stays put costs nothing per snapshot and one that changes a little costs a few
+ * bytes. Beside the encoded changes, each type keeps the sums of its values and of its
+ * values times snapshot time over its finished runs, which gives the slope over the whole
+ * history in O(1) per type; other windows decode the type's changes. Not thread-safe.
+ */
+class TypeGrowthSeries {
+
+    private final List<Series> seriesByType = new ArrayList<>();
+    /** {@code prefixSeconds[i]} is the sum of the times of the first {@code i} snapshots. */
+    private double[] prefixSeconds = new double[65];
+    private int snapshots;
+
+    /**
+     * Appends a snapshot taken {@code seconds} after the first one, with the types in its
+     * encoded {@link TypeVector}; types missing from it have no live old-generation objects.
+     */
+    void add(double seconds, byte[] typeVector) {
+        int index = snapshots;
+        if (index + 1 == prefixSeconds.length) {
+            prefixSeconds = Arrays.copyOf(prefixSeconds, prefixSeconds.length * 2);
+        }
+        prefixSeconds[index + 1] = prefixSeconds[index] + seconds;
+        snapshots++;
+        if (typeVector != null) {
+            TypeVector.decode(typeVector, (typeId, sizeKB, count) -> series(typeId).set(index, sizeKB, count));
+        }
+        for (Series series : seriesByType) {
+            if (series != null && series.lastSeen != index) {
+                series.set(index, 0, 0);
+            }
+        }
+    }
+
+    int size() {
+        return snapshots;
+    }
+
+    /**
+     * Bytes of encoded changes across all types.
+     */
+    long encodedBytes() {
+        return seriesByType.stream().filter(series -> series != null).mapToLong(series -> series.changes.length()).sum();
+    }
+
+    /**
+     * Growth of every type seen over the snapshots with indexes in {@code [from, to)}, given
+     * the mean of their times and the sum of squared deviations from it.
+     */
+    List<TypeTrend> trends(int from, int to, double meanSeconds, double timeSquares) {
+        List<TypeTrend> trends = new ArrayList<>();
+        for (int typeId = 0; typeId < seriesByType.size(); typeId++) {
+            Series series = seriesByType.get(typeId);
+            if (series == null) {
+                continue;
+            }
+            Window window = from == 0 && to == snapshots
+                    ? series.wholeHistory(meanSeconds)
+                    : series.window(from, to, meanSeconds);
+            trends.add(new TypeTrend(typeId, window.lastKB, window.lastCount,
+                    timeSquares > 0 ? window.kbCovariance / timeSquares : 0.0,
+                    timeSquares > 0 ? window.countCovariance / timeSquares : 0.0));
+        }
+        return trends;
+    }
+
+    private Series series(int typeId) {
+        while (seriesByType.size() <= typeId) {
+            seriesByType.add(null);
+        }
+        Series series = seriesByType.get(typeId);
+        if (series == null) {
+            series = new Series();
+            seriesByType.set(typeId, series);
+        }
+        return series;
+    }
+
+    private double secondsBetween(int from, int to) {
+        return prefixSeconds[to] - prefixSeconds[from];
+    }
+
+    private final class Series {
+
+        private final ByteSeries changes = new ByteSeries();
+        private int lastSeen = -1;
+        private int runStart;
+        private long sizeKB;
+        private long count;
+        // Sums over the snapshots before runStart.
+        private double sumKB;
+        private double sumTimesKB;
+        private double sumCount;
+        private double sumTimesCount;
+
+        void set(int index, long newSizeKB, long newCount) {
+            lastSeen = index;
+            if (newSizeKB == sizeKB && newCount == count) {
+                return;
+            }
+            sumKB += (double) sizeKB * (index - runStart);
+            sumTimesKB += sizeKB * secondsBetween(runStart, index);
+            sumCount += (double) count * (index - runStart);
+            sumTimesCount += count * secondsBetween(runStart, index);
+            changes.writeVarLong(index - runStart);
+            changes.writeZigZag(newSizeKB - sizeKB);
+            changes.writeZigZag(newCount - count);
+            runStart = index;
+            sizeKB = newSizeKB;
+            count = newCount;
+        }
+
+        Window wholeHistory(double meanSeconds) {
+            Window window = new Window();
+            double totalKB = sumKB + (double) sizeKB * (snapshots - runStart);
+            double totalTimesKB = sumTimesKB + sizeKB * secondsBetween(runStart, snapshots);
+            double totalCount = sumCount + (double) count * (snapshots - runStart);
+            double totalTimesCount = sumTimesCount + count * secondsBetween(runStart, snapshots);
+            window.kbCovariance = totalTimesKB - meanSeconds * totalKB;
+            window.countCovariance = totalTimesCount - meanSeconds * totalCount;
+            window.lastKB = sizeKB;
+            window.lastCount = count;
+            return window;
+        }
+
+        Window window(int from, int to, double meanSeconds) {
+            Window window = new Window();
+            ByteSeries.Reader reader = changes.reader();
+            int start = 0;
+            long runKB = 0;
+            long runCount = 0;
+            while (reader.hasNext()) {
+                int next = start + (int) reader.readVarLong();
+                window.addRun(start, next, runKB, runCount, from, to, meanSeconds);
+                if (next >= to) {
+                    return window;
+                }
+                start = next;
+                runKB += reader.readZigZag();
+                runCount += reader.readZigZag();
+            }
+            window.addRun(start, snapshots, runKB, runCount, from, to, meanSeconds);
+            return window;
+        }
+    }
+
+    private final class Window {
+
+        private double kbCovariance;
+        private double countCovariance;
+        private long lastKB;
+        private long lastCount;
+
+        /**
+         * Adds the part within {@code [from, to)} of a run of snapshots {@code [start, end)}
+         * with the same values.
+         */
+        void addRun(int start, int end, long runKB, long runCount, int from, int to, double meanSeconds) {
+            int low = Math.max(start, from);
+            int high = Math.min(end, to);
+            if (low >= high) {
+                return;
+            }
+            double deviations = secondsBetween(low, high) - meanSeconds * (high - low);
+            kbCovariance += runKB * deviations;
+            countCovariance += runCount * deviations;
+            if (high == to) {
+                lastKB = runKB;
+                lastCount = runCount;
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.devopsproj.analyzer;
+
+/**
+ * One type's live old-generation KB and objects at the end of a window of snapshots, and
+ * their least-squares growth per simulated second over it.
+ */
+record TypeTrend(int typeId, long liveKB, long liveObjects, double kbPerSecond, double objectsPerSecond) {
+}
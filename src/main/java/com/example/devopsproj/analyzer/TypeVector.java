@@ -0,0 +1,50 @@
+package com.example.devopsproj.analyzer;
+
+/**
+ * Compact encoding of the live old-generation KB and object count of every type that has
+ * any, as stored with each heap snapshot: per type, the gap to the previous type id, the
+ * KB and the count, each as a variable-length integer. A type with a few objects costs
+ * three or four bytes and a type with none costs nothing.
+ */
+public final class TypeVector {
+
+    private TypeVector() {
+    }
+
+    /**
+     * Encodes the types with live objects, from per-type counts and KB indexed by type id.
+     */
+    public static byte[] encode(long[] counts, long[] sizesKB) {
+        ByteSeries encoded = new ByteSeries();
+        int previousTypeId = -1;
+        int types = Math.min(counts.length, sizesKB.length);
+        for (int typeId = 0; typeId < types; typeId++) {
+            if (counts[typeId] > 0) {
+                encoded.writeVarLong(typeId - previousTypeId - 1);
+                encoded.writeVarLong(sizesKB[typeId]);
+                encoded.writeVarLong(counts[typeId]);
+                previousTypeId = typeId;
+            }
+        }
+        return encoded.toByteArray();
+    }
+
+    /**
+     * Passes every encoded type to {@code consumer} in type id order.
+     */
+    public static void decode(byte[] encoded, EntryConsumer consumer) {
+        ByteSeries.Reader reader = ByteSeries.of(encoded).reader();
+        int typeId = -1;
+        while (reader.hasNext()) {
+            typeId += (int) reader.readVarLong() + 1;
+            long sizeKB = reader.readVarLong();
+            long count = reader.readVarLong();
+            consumer.accept(typeId, sizeKB, count);
+        }
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int typeId, long sizeKB, long count);
+    }
+}
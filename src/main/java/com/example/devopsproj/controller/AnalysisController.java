@@ -3,6 +3,7 @@ package com.example.devopsproj.controller;
 import com.example.devopsproj.dto.ApiResponse;
 import com.example.devopsproj.dto.GCEventResponse;
 import com.example.devopsproj.dto.LeakReportResponse;
+import com.example.devopsproj.dto.TypeGrowthResponse;
 import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.HeapSnapshot;
 import com.example.devopsproj.model.LeakReport;
@@ -29,12 +30,28 @@ public class AnalysisController {
     private final LeakAnalysisService leakAnalysisService;
 
     @GetMapping("/leak")
-    @Operation(summary = "Generate leak report", description = "Analyze heap and generate memory leak detection report")
-    public ResponseEntity<ApiResponse<LeakReportResponse>> generateLeakReport() {
+    @Operation(summary = "Generate leak report",
+            description = "Analyze heap and generate memory leak detection report, optionally over a window of snapshot history")
+    public ResponseEntity<ApiResponse<LeakReportResponse>> generateLeakReport(
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime startTime,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime endTime,
+
+            @RequestParam(required = false) Integer trimPercent) {
 
         log.info("Controller: Generating leak report");
 
-        LeakReport report = leakAnalysisService.generateLeakReport();
+        if (startTime != null && endTime != null && startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("startTime must not be after endTime");
+        }
+        if (trimPercent != null && (trimPercent < 0 || trimPercent >= 50)) {
+            throw new IllegalArgumentException("trimPercent must be between 0 and 49");
+        }
+        LeakReport report = leakAnalysisService.generateLeakReport(startTime, endTime, trimPercent);
 
         LeakReportResponse response = mapToResponse(report);
 
@@ -44,6 +61,42 @@ public class AnalysisController {
         ));
     }
 
+    @GetMapping("/types/growth")
+    @Operation(summary = "Get fastest-growing types",
+            description = "Types whose live old-generation KB grew fastest over a window of snapshot history")
+    public ResponseEntity<ApiResponse<List<TypeGrowthResponse>>> getTopGrowingTypes(
+            @RequestParam(defaultValue = "10") int limit,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime startTime,
+
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+            LocalDateTime endTime) {
+
+        log.info("Controller: Getting fastest-growing types");
+
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        List<TypeGrowthResponse> responses = leakAnalysisService.getTopGrowingTypes(startTime, endTime, limit).stream()
+                .map(growth -> TypeGrowthResponse.builder()
+                        .objectType(growth.objectType())
+                        .liveKB(growth.liveKB())
+                        .liveObjects(growth.liveObjects())
+                        .growthKBPerSecond(growth.kbPerSecond())
+                        .growthObjectsPerSecond(growth.objectsPerSecond())
+                        .contributionPercent(growth.contributionPercent())
+                        .build())
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Retrieved " + responses.size() + " growing types",
+                responses
+        ));
+    }
+
     @GetMapping("/history")
     @Operation(summary = "Get heap history", description = "Retrieve heap snapshots over time")
     public ResponseEntity<ApiResponse<List<HeapSnapshot>>> getHeapHistory(
@@ -130,6 +183,9 @@ public class AnalysisController {
                 .gcEfficiency(report.getGcEfficiency())
                 .oldGenGrowthRate(report.getOldGenGrowthRate())
                 .liveObjectStagnation(report.getLiveObjectStagnation())
+                .windowStart(report.getWindowStart())
+                .windowEnd(report.getWindowEnd())
+                .snapshotCount(report.getSnapshotCount())
                 .verdict(report.getVerdict())
                 .createdAt(report.getCreatedAt())
                 .summary(summary)
@@ -161,6 +217,15 @@ public class AnalysisController {
                 .afterHeap(gcEvent.getAfterHeap())
                 .reclaimedMemory(gcEvent.getReclaimedMemory())
                 .objectsCollected(gcEvent.getObjectsCollected())
+                .objectsPromoted(gcEvent.getObjectsPromoted())
+                .promotedMemory(gcEvent.getPromotedMemory())
+                .tenuringThreshold(gcEvent.getTenuringThreshold())
+                .collectedRegions(gcEvent.getCollectedRegions())
+                .pauseTimeNanos(gcEvent.getPauseTimeNanos())
+                .markTimeNanos(gcEvent.getMarkTimeNanos())
+                .sweepTimeNanos(gcEvent.getSweepTimeNanos())
+                .promoteTimeNanos(gcEvent.getPromoteTimeNanos())
+                .persistTimeNanos(gcEvent.getPersistTimeNanos())
                 .timestamp(gcEvent.getTimestamp())
                 .efficiency(efficiency)
                 .build();
@@ -1,17 +1,28 @@
 package com.example.devopsproj.controller;
 
 import com.example.devopsproj.dto.ApiResponse;
+import com.example.devopsproj.dto.ConcurrentCycleResponse;
+import com.example.devopsproj.dto.ErgonomicsResponse;
 import com.example.devopsproj.dto.GCEventResponse;
+import com.example.devopsproj.dto.PauseStatisticsResponse;
+import com.example.devopsproj.dto.RegionResponse;
+import com.example.devopsproj.engine.PauseHistogram;
+import com.example.devopsproj.engine.RegionTable;
 import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.model.GCType;
 import com.example.devopsproj.service.GarbageCollectionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -21,6 +32,8 @@ import java.util.stream.Collectors;
 @Tag(name = "Garbage Collection", description = "Garbage collection simulation operations")
 public class GarbageCollectionController {
 
+    private static final double NANOS_PER_MS = 1_000_000.0;
+
     private final GarbageCollectionService garbageCollectionService;
 
     @PostMapping("/minor")
@@ -40,11 +53,20 @@ public class GarbageCollectionController {
     }
 
     @PostMapping("/major")
-    @Operation(summary = "Run Major GC", description = "Execute Major GC (Old Generation)")
+    @Operation(summary = "Run Major GC",
+            description = "Execute Major GC (Old Generation); with the CONCURRENT collector, start a concurrent cycle")
     public ResponseEntity<ApiResponse<GCEventResponse>> runMajorGC() {
 
         log.info("Controller: Running Major GC");
 
+        if (garbageCollectionService.isConcurrentCollector()) {
+            garbageCollectionService.startConcurrentGC();
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                    "Concurrent GC cycle started; see GET /simulate/gc/concurrent",
+                    null
+            ));
+        }
+
         GCEvent gcEvent = garbageCollectionService.runMajorGC();
 
         GCEventResponse response = mapToResponse(gcEvent);
@@ -71,6 +93,123 @@ public class GarbageCollectionController {
         ));
     }
 
+    @PostMapping("/concurrent")
+    @Operation(summary = "Start concurrent GC",
+            description = "Start a concurrent mark-sweep cycle in the background; allocation and reference changes "
+                    + "continue while it marks")
+    public ResponseEntity<ApiResponse<ConcurrentCycleResponse>> runConcurrentGC() {
+
+        log.info("Controller: Starting concurrent GC");
+
+        garbageCollectionService.startConcurrentGC();
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                "Concurrent GC cycle started",
+                concurrentCycleResponse()
+        ));
+    }
+
+    @GetMapping("/concurrent")
+    @Operation(summary = "Concurrent GC status",
+            description = "Whether a concurrent cycle is running, and the event of the last one to complete")
+    public ResponseEntity<ApiResponse<ConcurrentCycleResponse>> getConcurrentGC() {
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Concurrent GC status retrieved successfully",
+                concurrentCycleResponse()
+        ));
+    }
+
+    @PostMapping("/mixed")
+    @Operation(summary = "Run Mixed GC",
+            description = "Collect the regions with the most garbage within a pause-time target (REGIONAL heap layout)")
+    public ResponseEntity<ApiResponse<GCEventResponse>> runMixedGC(
+            @RequestParam(required = false) Long pauseTargetMs) {
+
+        log.info("Controller: Running Mixed GC");
+
+        if (pauseTargetMs != null && pauseTargetMs < 0) {
+            throw new IllegalArgumentException("pauseTargetMs must not be negative");
+        }
+        GCEvent gcEvent = garbageCollectionService.runMixedGC(pauseTargetMs);
+
+        GCEventResponse response = mapToResponse(gcEvent);
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Mixed GC completed successfully",
+                response
+        ));
+    }
+
+    @GetMapping("/regions")
+    @Operation(summary = "Get heap regions", description = "Per-region used, live and garbage KB (REGIONAL heap layout)")
+    public ResponseEntity<ApiResponse<List<RegionResponse>>> getRegions() {
+
+        log.info("Controller: Getting heap regions");
+
+        long regionSizeKB = garbageCollectionService.getRegionSizeKB();
+        List<RegionResponse> responses = garbageCollectionService.getRegions().stream()
+                .map(region -> mapRegionToResponse(region, regionSizeKB))
+                .collect(Collectors.toList());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Retrieved " + responses.size() + " regions",
+                responses
+        ));
+    }
+
+    @GetMapping("/ergonomics")
+    @Operation(summary = "Get GC ergonomics state",
+            description = "Current adaptive triggers and the collections each ergonomics policy has started")
+    public ResponseEntity<ApiResponse<ErgonomicsResponse>> getErgonomics() {
+
+        log.info("Controller: Getting GC ergonomics state");
+
+        Map<String, Long> triggered = new LinkedHashMap<>();
+        garbageCollectionService.getErgonomicsTriggeredCollections()
+                .forEach((policy, count) -> triggered.put(policy.name(), count));
+
+        ErgonomicsResponse response = ErgonomicsResponse.builder()
+                .enabled(garbageCollectionService.isErgonomicsEnabled())
+                .youngTriggerPercent(garbageCollectionService.getErgonomicsYoungTriggerPercent())
+                .oldTriggerPercent(garbageCollectionService.getErgonomicsOldTriggerPercent())
+                .oldCollectionsSuspendedChecks(garbageCollectionService.getErgonomicsSuspendedChecks())
+                .triggeredCollections(triggered)
+                .build();
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "GC ergonomics state retrieved successfully",
+                response
+        ));
+    }
+
+    @GetMapping("/pauses")
+    @Operation(summary = "Get GC pause statistics",
+            description = "Pause-time percentiles per GC type over every collection since startup")
+    public ResponseEntity<ApiResponse<List<PauseStatisticsResponse>>> getPauseStatistics() {
+
+        log.info("Controller: Getting GC pause statistics");
+
+        List<PauseStatisticsResponse> response = new ArrayList<>();
+        for (GCType gcType : GCType.values()) {
+            PauseHistogram histogram = garbageCollectionService.getPauseHistogram(gcType);
+            response.add(PauseStatisticsResponse.builder()
+                    .gcType(gcType.name())
+                    .count(histogram.getTotalCount())
+                    .meanMs(histogram.getMean() / NANOS_PER_MS)
+                    .p50Ms(histogram.valueAtPercentile(50.0) / NANOS_PER_MS)
+                    .p99Ms(histogram.valueAtPercentile(99.0) / NANOS_PER_MS)
+                    .p999Ms(histogram.valueAtPercentile(99.9) / NANOS_PER_MS)
+                    .maxMs(histogram.getMaxValue() / NANOS_PER_MS)
+                    .build());
+        }
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "GC pause statistics retrieved successfully",
+                response
+        ));
+    }
+
     @GetMapping("/history")
     @Operation(summary = "Get GC history", description = "Retrieve history of all GC events")
     public ResponseEntity<ApiResponse<List<GCEventResponse>>> getGCHistory() {
@@ -89,6 +228,26 @@ public class GarbageCollectionController {
         ));
     }
 
+    private RegionResponse mapRegionToResponse(RegionTable.RegionStats region, long regionSizeKB) {
+        return RegionResponse.builder()
+                .index(region.index())
+                .startAddressKB(region.index() * regionSizeKB)
+                .usedKB(region.usedKB())
+                .liveKB(region.liveKB())
+                .garbageKB(region.garbageKB())
+                .livePercent(region.livePercent())
+                .objectCount(region.objectCount())
+                .build();
+    }
+
+    private ConcurrentCycleResponse concurrentCycleResponse() {
+        GCEvent lastEvent = garbageCollectionService.getLastConcurrentEvent();
+        return ConcurrentCycleResponse.builder()
+                .running(garbageCollectionService.isConcurrentCycleRunning())
+                .lastEvent(lastEvent != null ? mapToResponse(lastEvent) : null)
+                .build();
+    }
+
     private GCEventResponse mapToResponse(GCEvent gcEvent) {
         double efficiency = gcEvent.getBeforeHeap() > 0
                 ? (double) gcEvent.getReclaimedMemory() / gcEvent.getBeforeHeap()
@@ -101,6 +260,15 @@ public class GarbageCollectionController {
                 .afterHeap(gcEvent.getAfterHeap())
                 .reclaimedMemory(gcEvent.getReclaimedMemory())
                 .objectsCollected(gcEvent.getObjectsCollected())
+                .objectsPromoted(gcEvent.getObjectsPromoted())
+                .promotedMemory(gcEvent.getPromotedMemory())
+                .tenuringThreshold(gcEvent.getTenuringThreshold())
+                .collectedRegions(gcEvent.getCollectedRegions())
+                .pauseTimeNanos(gcEvent.getPauseTimeNanos())
+                .markTimeNanos(gcEvent.getMarkTimeNanos())
+                .sweepTimeNanos(gcEvent.getSweepTimeNanos())
+                .promoteTimeNanos(gcEvent.getPromoteTimeNanos())
+                .persistTimeNanos(gcEvent.getPersistTimeNanos())
                 .timestamp(gcEvent.getTimestamp())
                 .efficiency(efficiency)
                 .build();
@@ -0,0 +1,86 @@
+package com.example.devopsproj.controller;
+
+import com.example.devopsproj.dto.ApiResponse;
+import com.example.devopsproj.dto.ScenarioRequest;
+import com.example.devopsproj.dto.ScenarioStatusResponse;
+import com.example.devopsproj.scenario.ScenarioEngine;
+import com.example.devopsproj.scenario.ScenarioRun;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Comparator;
+import java.util.List;
+
+@RestController
+@RequestMapping("/scenarios")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Scenarios", description = "Server-side workload scenarios")
+public class ScenarioController {
+
+    private final ScenarioEngine scenarioEngine;
+
+    @PostMapping
+    @Operation(summary = "Start scenario",
+            description = "Run a declarative workload (allocation rates, lifetimes, GC policy, duration) inside "
+                    + "the server; it takes snapshots as it goes and ends with a leak report")
+    public ResponseEntity<ApiResponse<ScenarioStatusResponse>> startScenario(
+            @Valid @RequestBody ScenarioRequest request) {
+
+        log.info("Controller: Starting scenario '{}' for {} s", request.getName(), request.getDurationSeconds());
+
+        ScenarioRun run = scenarioEngine.start(request);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(
+                "Scenario " + run.getId() + " started",
+                run.toResponse()
+        ));
+    }
+
+    @GetMapping
+    @Operation(summary = "List scenarios", description = "Status of every scenario submitted since startup")
+    public ResponseEntity<ApiResponse<List<ScenarioStatusResponse>>> getScenarios() {
+
+        List<ScenarioStatusResponse> scenarios = scenarioEngine.getRuns().stream()
+                .sorted(Comparator.comparingLong(ScenarioRun::getId).reversed())
+                .map(ScenarioRun::toResponse)
+                .toList();
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Retrieved " + scenarios.size() + " scenarios",
+                scenarios
+        ));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get scenario", description = "Progress, outcome and leak report of one scenario")
+    public ResponseEntity<ApiResponse<ScenarioStatusResponse>> getScenario(@PathVariable Long id) {
+
+        return scenarioEngine.getRun(id)
+                .map(run -> ResponseEntity.ok(ApiResponse.success(
+                        "Scenario " + id + " is " + run.getStatus(),
+                        run.toResponse())))
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Scenario " + id + " not found")));
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancel scenario", description = "Stop a running scenario after its current tick")
+    public ResponseEntity<ApiResponse<ScenarioStatusResponse>> cancelScenario(@PathVariable Long id) {
+
+        log.info("Controller: Cancelling scenario {}", id);
+
+        return scenarioEngine.cancel(id)
+                .map(run -> ResponseEntity.ok(ApiResponse.success(
+                        "Scenario " + id + " cancellation requested",
+                        run.toResponse())))
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Scenario " + id + " not found")));
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.devopsproj.controller;
 
 import com.example.devopsproj.dto.AllocateRequest;
+import com.example.devopsproj.dto.AllocationSummaryResponse;
 import com.example.devopsproj.dto.ApiResponse;
 import com.example.devopsproj.dto.DereferenceRequest;
 import com.example.devopsproj.dto.HeapStateResponse;
+import com.example.devopsproj.dto.RandomAllocateRequest;
+import com.example.devopsproj.dto.ReferenceRequest;
 import com.example.devopsproj.model.HeapObject;
 import com.example.devopsproj.model.HeapSnapshot;
 import com.example.devopsproj.service.SimulationService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/simulate")
@@ -25,6 +37,7 @@ import java.util.List;
 public class SimulationController {
 
     private final SimulationService simulationService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/allocate")
     @Operation(summary = "Allocate objects", description = "Allocate specified number of objects to the heap")
@@ -37,7 +50,9 @@ public class SimulationController {
                 request.getCount(),
                 request.getSizeInKB(),
                 request.getObjectType(),
-                request.getCreateReferences()
+                request.getCreateReferences(),
+                request.getLifetimeMs(),
+                request.getLifetimeDistribution()
         );
 
         return ResponseEntity.ok(ApiResponse.success(
@@ -46,8 +61,75 @@ public class SimulationController {
         ));
     }
 
+    @PostMapping(value = "/allocate", params = "mode=summary")
+    @Operation(summary = "Allocate objects (summary)",
+            description = "Allocate objects and return ID ranges, total KB and per-type counts instead of every object")
+    public ResponseEntity<ApiResponse<AllocationSummaryResponse>> allocateObjectsSummary(
+            @Valid @RequestBody AllocateRequest request) {
+
+        log.info("Controller: Allocating {} objects of type {} (summary)", request.getCount(), request.getObjectType());
+
+        AllocationSummaryResponse summary = simulationService.allocateObjectsSummary(
+                request.getCount(),
+                request.getSizeInKB(),
+                request.getObjectType(),
+                request.getCreateReferences(),
+                request.getLifetimeMs(),
+                request.getLifetimeDistribution()
+        );
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Successfully allocated " + summary.getObjectCount() + " objects",
+                summary
+        ));
+    }
+
+    @PostMapping(value = "/allocate", params = "mode=stream")
+    @Operation(summary = "Allocate objects (NDJSON stream)",
+            description = "Allocate objects and stream each one as a JSON line while batches are written")
+    public ResponseEntity<StreamingResponseBody> allocateObjectsStream(
+            @Valid @RequestBody AllocateRequest request) {
+
+        log.info("Controller: Allocating {} objects of type {} (stream)", request.getCount(), request.getObjectType());
+
+        return ndjson(sink -> simulationService.streamAllocatedObjects(
+                request.getCount(),
+                request.getSizeInKB(),
+                request.getObjectType(),
+                request.getCreateReferences(),
+                request.getLifetimeMs(),
+                request.getLifetimeDistribution(),
+                sink
+        ));
+    }
+
+    @PostMapping("/allocate/random")
+    @Operation(summary = "Allocate random objects",
+            description = "Allocate objects with sizes drawn from a uniform, normal, log-normal or Pareto "
+                    + "distribution. The same seed reproduces the same heap")
+    public ResponseEntity<ApiResponse<AllocationSummaryResponse>> allocateRandomObjects(
+            @Valid @RequestBody RandomAllocateRequest request) {
+
+        log.info("Controller: Allocating {} random objects of type {}", request.getCount(), request.getObjectType());
+
+        AllocationSummaryResponse summary = simulationService.allocateRandomObjectsSummary(
+                request.getCount(),
+                request.getMinSizeInKB(),
+                request.getMaxSizeInKB(),
+                request.getObjectType(),
+                request.getDistribution(),
+                request.getSeed()
+        );
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Successfully allocated " + summary.getObjectCount() + " objects (seed " + summary.getSeed() + ")",
+                summary
+        ));
+    }
+
     @PostMapping("/dereference")
-    @Operation(summary = "Dereference objects", description = "Remove references from specified objects")
+    @Operation(summary = "Dereference objects",
+            description = "Drop the application's references to the specified objects, removing them from the GC roots")
     public ResponseEntity<ApiResponse<String>> dereferenceObjects(
             @Valid @RequestBody DereferenceRequest request) {
 
@@ -61,6 +143,35 @@ public class SimulationController {
         ));
     }
 
+    @PostMapping("/references")
+    @Operation(summary = "Add reference",
+            description = "Make one object reference another; the target stays live while the source is reachable")
+    public ResponseEntity<ApiResponse<String>> addReference(@Valid @RequestBody ReferenceRequest request) {
+
+        log.info("Controller: Adding reference {} -> {}", request.getSourceId(), request.getTargetId());
+
+        simulationService.addReference(request.getSourceId(), request.getTargetId());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Object " + request.getSourceId() + " now references object " + request.getTargetId(),
+                null
+        ));
+    }
+
+    @DeleteMapping("/references")
+    @Operation(summary = "Remove reference", description = "Remove a reference between two objects")
+    public ResponseEntity<ApiResponse<String>> removeReference(@Valid @RequestBody ReferenceRequest request) {
+
+        log.info("Controller: Removing reference {} -> {}", request.getSourceId(), request.getTargetId());
+
+        simulationService.removeReference(request.getSourceId(), request.getTargetId());
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Object " + request.getSourceId() + " no longer references object " + request.getTargetId(),
+                null
+        ));
+    }
+
     @GetMapping("/heap")
     @Operation(summary = "Get heap state", description = "Get current heap state and statistics")
     public ResponseEntity<ApiResponse<HeapStateResponse>> getHeapState() {
@@ -156,4 +267,60 @@ public class SimulationController {
                 cyclicObjects
         ));
     }
+
+    @PostMapping(value = "/allocate/cyclic", params = "mode=summary")
+    @Operation(summary = "Create cyclic references (summary)",
+            description = "Create a circular reference chain and return only its allocation summary")
+    public ResponseEntity<ApiResponse<AllocationSummaryResponse>> allocateCyclicSummary(
+            @RequestParam(defaultValue = "5") Integer chainLength,
+            @RequestParam(defaultValue = "50") Integer sizeInKB) {
+
+        log.info("Controller: Creating cyclic reference chain of length {} (summary)", chainLength);
+
+        AllocationSummaryResponse summary = simulationService.allocateCyclicReferencesSummary(chainLength, sizeInKB);
+
+        return ResponseEntity.ok(ApiResponse.success(
+                "Created circular reference chain of " + chainLength + " objects",
+                summary
+        ));
+    }
+
+    @PostMapping(value = "/allocate/cyclic", params = "mode=stream")
+    @Operation(summary = "Create cyclic references (NDJSON stream)",
+            description = "Create a circular reference chain and stream each object as a JSON line")
+    public ResponseEntity<StreamingResponseBody> allocateCyclicStream(
+            @RequestParam(defaultValue = "5") Integer chainLength,
+            @RequestParam(defaultValue = "50") Integer sizeInKB) {
+
+        log.info("Controller: Creating cyclic reference chain of length {} (stream)", chainLength);
+
+        return ndjson(sink -> simulationService.streamCyclicReferences(chainLength, sizeInKB, sink));
+    }
+
+    /**
+     * Runs the allocation on the response thread and writes every batch as
+     * newline-delimited JSON as soon as it is persisted, flushing per batch so
+     * only one batch is ever buffered.
+     */
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<Consumer<List<HeapObject>>> allocation) {
+        ObjectWriter writer = objectMapper.writerFor(HeapObject.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = out -> allocation.accept(batch -> {
+            try {
+                for (HeapObject obj : batch) {
+                    writer.writeValue(out, obj);
+                    out.write('\n');
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.devopsproj.dto;
 
+import com.example.devopsproj.scenario.LifetimeDistribution;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -27,4 +28,14 @@ public class AllocateRequest {
 
     @Builder.Default
     private Boolean createReferences = true;
+
+    /**
+     * Mean time in milliseconds the objects stay referenced before they are dereferenced
+     * automatically; without it they stay until dereferenced through the API.
+     */
+    @Min(value = 1, message = "Lifetime must be at least 1 ms")
+    private Long lifetimeMs;
+
+    @Builder.Default
+    private LifetimeDistribution lifetimeDistribution = LifetimeDistribution.FIXED;
 }
@@ -0,0 +1,34 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AllocationSummaryResponse {
+
+    private Long objectCount;
+    private Long totalSizeInKB;
+    private List<IdRange> idRanges;
+    private Map<String, Long> countsByType;
+
+    /**
+     * Seed of a random allocation; replaying it on an empty heap reproduces the objects.
+     */
+    private Long seed;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class IdRange {
+        private Long firstId;
+        private Long lastId;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConcurrentCycleResponse {
+
+    private Boolean running;
+    /**
+     * Event of the last concurrent cycle to complete; null before the first.
+     */
+    private GCEventResponse lastEvent;
+}
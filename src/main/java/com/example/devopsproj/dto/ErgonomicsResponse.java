@@ -0,0 +1,21 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErgonomicsResponse {
+
+    private Boolean enabled;
+    private Integer youngTriggerPercent;
+    private Integer oldTriggerPercent;
+    private Integer oldCollectionsSuspendedChecks;
+    private Map<String, Long> triggeredCollections;
+}
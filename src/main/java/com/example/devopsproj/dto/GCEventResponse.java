@@ -20,6 +20,15 @@ public class GCEventResponse {
     private Long afterHeap;
     private Long reclaimedMemory;
     private Integer objectsCollected;
+    private Integer objectsPromoted;
+    private Long promotedMemory;
+    private Integer tenuringThreshold;
+    private String collectedRegions;
+    private Long pauseTimeNanos;
+    private Long markTimeNanos;
+    private Long sweepTimeNanos;
+    private Long promoteTimeNanos;
+    private Long persistTimeNanos;
     private LocalDateTime timestamp;
     private Double efficiency;
 }
@@ -22,6 +22,9 @@ public class LeakReportResponse {
     private Double gcEfficiency;
     private Double oldGenGrowthRate;
     private Double liveObjectStagnation;
+    private LocalDateTime windowStart;
+    private LocalDateTime windowEnd;
+    private Integer snapshotCount;
     private Verdict verdict;
     private LocalDateTime createdAt;
     private String summary;
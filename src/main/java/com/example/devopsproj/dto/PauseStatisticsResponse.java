@@ -0,0 +1,21 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PauseStatisticsResponse {
+
+    private String gcType;
+    private Long count;
+    private Double meanMs;
+    private Double p50Ms;
+    private Double p99Ms;
+    private Double p999Ms;
+    private Double maxMs;
+}
@@ -0,0 +1,40 @@
+package com.example.devopsproj.dto;
+
+import com.example.devopsproj.engine.SizeDistribution;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RandomAllocateRequest {
+
+    @NotNull(message = "Count is required")
+    @Min(value = 1, message = "Count must be at least 1")
+    private Integer count;
+
+    @NotNull(message = "Minimum size is required")
+    @Min(value = 1, message = "Minimum size must be at least 1 KB")
+    private Integer minSizeInKB;
+
+    @NotNull(message = "Maximum size is required")
+    @Min(value = 1, message = "Maximum size must be at least 1 KB")
+    private Integer maxSizeInKB;
+
+    @NotBlank(message = "Object type is required")
+    private String objectType;
+
+    @Builder.Default
+    private SizeDistribution distribution = SizeDistribution.UNIFORM;
+
+    /**
+     * Generator seed; a random one is chosen (and returned) when omitted.
+     */
+    private Long seed;
+}
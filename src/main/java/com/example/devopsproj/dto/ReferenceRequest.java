@@ -0,0 +1,20 @@
+package com.example.devopsproj.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReferenceRequest {
+
+    @NotNull(message = "Source object ID is required")
+    private Long sourceId;
+
+    @NotNull(message = "Target object ID is required")
+    private Long targetId;
+}
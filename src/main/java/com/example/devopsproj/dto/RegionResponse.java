@@ -0,0 +1,21 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegionResponse {
+
+    private Long index;
+    private Long startAddressKB;
+    private Long usedKB;
+    private Long liveKB;
+    private Long garbageKB;
+    private Double livePercent;
+    private Integer objectCount;
+}
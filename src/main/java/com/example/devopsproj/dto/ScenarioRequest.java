@@ -0,0 +1,60 @@
+package com.example.devopsproj.dto;
+
+import com.example.devopsproj.scenario.GcPolicy;
+import com.example.devopsproj.scenario.ScenarioClockMode;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioRequest {
+
+    @NotBlank(message = "Scenario name is required")
+    private String name;
+
+    @NotNull(message = "Duration is required")
+    @Min(value = 1, message = "Duration must be at least 1 second")
+    private Integer durationSeconds;
+
+    @Builder.Default
+    private ScenarioClockMode clockMode = ScenarioClockMode.WALL;
+
+    @Builder.Default
+    @Min(value = 10, message = "Tick must be at least 10 ms")
+    private Integer tickMillis = 1000;
+
+    @Builder.Default
+    @Min(value = 1, message = "Snapshot interval must be at least 1 second")
+    private Integer snapshotIntervalSeconds = 10;
+
+    @Builder.Default
+    private GcPolicy gcPolicy = GcPolicy.ON_ALLOCATION_FAILURE;
+
+    @Builder.Default
+    @Min(value = 1, message = "Minor GC interval must be at least 1 second")
+    private Integer minorGcIntervalSeconds = 5;
+
+    @Builder.Default
+    @Min(value = 1, message = "Full GC interval must be at least 1 second")
+    private Integer fullGcIntervalSeconds = 60;
+
+    /**
+     * Seed for sizes and lifetimes; a random one is chosen (and reported) when omitted.
+     */
+    private Long seed;
+
+    @Valid
+    @NotEmpty(message = "At least one workload is required")
+    private List<ScenarioWorkload> workloads;
+}
@@ -0,0 +1,39 @@
+package com.example.devopsproj.dto;
+
+import com.example.devopsproj.model.Verdict;
+import com.example.devopsproj.scenario.ScenarioClockMode;
+import com.example.devopsproj.scenario.ScenarioStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioStatusResponse {
+
+    private Long id;
+    private String name;
+    private ScenarioStatus status;
+    private ScenarioClockMode clockMode;
+    private Long seed;
+    private Long elapsedTicks;
+    private Long totalTicks;
+    /**
+     * Scenario start plus the simulated time covered so far.
+     */
+    private LocalDateTime simulatedTime;
+    private Long objectsAllocated;
+    private Long objectsExpired;
+    private Integer snapshotsTaken;
+    private Integer gcRuns;
+    private Long leakReportId;
+    private Verdict verdict;
+    private String message;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,44 @@
+package com.example.devopsproj.dto;
+
+import com.example.devopsproj.engine.SizeDistribution;
+import com.example.devopsproj.scenario.LifetimeDistribution;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScenarioWorkload {
+
+    @NotBlank(message = "Object type is required")
+    private String objectType;
+
+    @NotNull(message = "Allocation rate is required")
+    @DecimalMin(value = "0.0", inclusive = false, message = "Allocation rate must be positive")
+    private Double objectsPerSecond;
+
+    @NotNull(message = "Minimum size is required")
+    @Min(value = 1, message = "Minimum size must be at least 1 KB")
+    private Integer minSizeInKB;
+
+    @NotNull(message = "Maximum size is required")
+    @Min(value = 1, message = "Maximum size must be at least 1 KB")
+    private Integer maxSizeInKB;
+
+    @Builder.Default
+    private SizeDistribution sizeDistribution = SizeDistribution.UNIFORM;
+
+    @Builder.Default
+    private LifetimeDistribution lifetimeDistribution = LifetimeDistribution.EXPONENTIAL;
+
+    @Builder.Default
+    @DecimalMin(value = "0.0", inclusive = false, message = "Mean lifetime must be positive")
+    private Double meanLifetimeSeconds = 30.0;
+}
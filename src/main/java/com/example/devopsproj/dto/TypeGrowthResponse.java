@@ -0,0 +1,20 @@
+package com.example.devopsproj.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeGrowthResponse {
+
+    private String objectType;
+    private Long liveKB;
+    private Long liveObjects;
+    private Double growthKBPerSecond;
+    private Double growthObjectsPerSecond;
+    private Double contributionPercent;
+}
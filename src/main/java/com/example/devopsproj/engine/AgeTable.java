@@ -0,0 +1,42 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Total size of the young survivors of one collection by age, after aging. Like HotSpot's
+ * age table, it yields the tenuring threshold for the next collection. If the survivors up
+ * to some age exceed the desired survivor size, the survivors of that age and older are
+ * tenured by the next collection; otherwise the threshold is the maximum. Thresholds count
+ * the age an object reaches in a collection, so objects of the overflowing age {@code a}
+ * are tenured as they turn {@code a + 1}.
+ */
+public class AgeTable {
+
+    private long[] sizesKB = new long[16];
+
+    public void add(int age, long sizeKB) {
+        if (age >= sizesKB.length) {
+            sizesKB = Arrays.copyOf(sizesKB, Math.max(age + 1, sizesKB.length * 2));
+        }
+        sizesKB[age] += sizeKB;
+    }
+
+    public long getSizeKB(int age) {
+        return age < sizesKB.length ? sizesKB[age] : 0;
+    }
+
+    public long getTotalKB() {
+        return Arrays.stream(sizesKB).sum();
+    }
+
+    public int computeTenuringThreshold(long desiredSurvivorKB, int maxThreshold) {
+        long total = 0;
+        for (int age = 1; age < Math.min(sizesKB.length, maxThreshold); age++) {
+            total += sizesKB[age];
+            if (total > desiredSurvivorKB) {
+                return age + 1;
+            }
+        }
+        return maxThreshold;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongPredicate;
+
+/**
+ * Card table over the simulated address space, for the copying young collector.
+ *
+ * <p>The address space is divided into cards of a fixed size. A card is dirtied when an
+ * old object starting in it gains a reference to a young object, so a minor GC finds
+ * every old-to-young reference by scanning the objects on dirty cards instead of the
+ * whole old generation. Each card keeps the ids of the old objects starting in it, in
+ * the role of HotSpot's block offset table; ids of objects removed since are dropped
+ * when the card is next scanned.
+ *
+ * <p>{@link #dirty} may be called concurrently with itself; everything else follows the
+ * store's rules for structural operations.
+ */
+public class CardTable {
+
+    private final long cardSizeKB;
+    private final Map<Long, Card> oldObjectsByCard = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyCards = ConcurrentHashMap.newKeySet();
+
+    public CardTable(long cardSizeKB) {
+        if (cardSizeKB < 1) {
+            throw new IllegalArgumentException("Card size must be positive");
+        }
+        this.cardSizeKB = cardSizeKB;
+    }
+
+    public long cardOf(long addressKB) {
+        return addressKB / cardSizeKB;
+    }
+
+    /**
+     * Registers an object that is, or has just become, old.
+     */
+    void addOldObject(long id, long addressKB) {
+        oldObjectsByCard.computeIfAbsent(cardOf(addressKB), card -> new Card()).add(id);
+    }
+
+    public void dirty(long addressKB) {
+        dirtyCards.add(cardOf(addressKB));
+    }
+
+    public boolean isDirty(long card) {
+        return dirtyCards.contains(card);
+    }
+
+    /**
+     * The dirty cards at this moment.
+     */
+    public long[] dirtyCards() {
+        return dirtyCards.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    /**
+     * Visits the old objects registered on {@code card}, dropping those for which
+     * {@code visitor} returns {@code false}. Returns the number of objects visited.
+     */
+    int scan(long card, LongPredicate visitor) {
+        Card objects = oldObjectsByCard.get(card);
+        if (objects == null) {
+            return 0;
+        }
+        int visited = objects.count;
+        if (objects.retain(visitor) == 0) {
+            oldObjectsByCard.remove(card);
+        }
+        return visited;
+    }
+
+    public void clean(long card) {
+        dirtyCards.remove(card);
+    }
+
+    public int getDirtyCardCount() {
+        return dirtyCards.size();
+    }
+
+    void clear() {
+        oldObjectsByCard.clear();
+        dirtyCards.clear();
+    }
+
+    private static final class Card {
+
+        private long[] ids = new long[8];
+        private int count;
+
+        synchronized void add(long id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[count++] = id;
+        }
+
+        synchronized int retain(LongPredicate keep) {
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                if (keep.test(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            count = kept;
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.devopsproj.engine;
+
+/**
+ * How {@link GarbageCollectionEngine} collects the old generation.
+ */
+public enum CollectorMode {
+    /** Mark and sweep in one pause that blocks every allocation and reference change. */
+    STOP_THE_WORLD,
+    /**
+     * Mark incrementally alongside the mutators, pausing them only to snapshot the roots
+     * and for the final remark and sweep.
+     */
+    CONCURRENT
+}
@@ -0,0 +1,831 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.Generation;
+import com.example.devopsproj.model.HeapObject;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * In-memory heap organised by column rather than by object.
+ *
+ * <p>Objects are addressed by id. Ids are split into fixed-size pages and every page
+ * holds one primitive array per field plus three bitsets (occupied, referenced and root), so a
+ * simulated object costs under 30 bytes instead of a map entry, a boxed key and a JPA
+ * entity with two {@link LocalDateTime}s. Pages whose objects have all been removed are
+ * released, except the one holding the highest id, so memory follows the live set rather
+ * than the number of ids ever issued.
+ *
+ * <p>A root is an object the application holds directly. Referenced objects are roots
+ * plus objects that may still be reachable through a {@link ReferenceGraph}; the mark
+ * phase settles which of the latter really are (see {@link #clearUnmarked}).
+ *
+ * <p>With a {@link RegionTable} enabled the store also keeps per-region accounting, and
+ * {@link #sweepRegion} collects one region by visiting only the objects placed in it.
+ * With a {@link CardTable} enabled every old object is registered on the card its
+ * address starts in, for the copying young collector to find old-to-young references.
+ *
+ * <p>{@link #add} may be called concurrently for distinct ids. Structural operations
+ * ({@link #remove}, {@link #sweepUnreachable}, {@link #ageYoungObjects}, {@link #clear})
+ * must not overlap with {@code add}; {@link HeapSimulationEngine} guarantees this with its
+ * heap lock.
+ */
+public class ColumnarHeapStore {
+
+    static final int PAGE_SHIFT = 12;
+    static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private static final byte YOUNG = (byte) Generation.YOUNG.ordinal();
+    private static final byte OLD = (byte) Generation.OLD.ordinal();
+    private static final Generation[] GENERATIONS = Generation.values();
+
+    private final TypeDictionary typeDictionary;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private volatile Page[] pages = new Page[64];
+    /** Highest page ever created; only written under the page-creation lock. */
+    private volatile int highestPageIndex = -1;
+
+    private final LongAdder objectCount = new LongAdder();
+    private final LongAdder liveCount = new LongAdder();
+    private final LongAdder rootCount = new LongAdder();
+    private final LongAdder liveSizeKB = new LongAdder();
+    private final LongAdder youngSizeKB = new LongAdder();
+    private final LongAdder oldSizeKB = new LongAdder();
+    /** Young objects that have survived at least one collection, i.e. not in eden. */
+    private final LongAdder survivorSizeKB = new LongAdder();
+    private final LiveTypeTotals liveTypeTotals = new LiveTypeTotals();
+    /** Bumped after every change; never reset, so equal readings mean nothing changed. */
+    private final LongAdder modifications = new LongAdder();
+    private RegionTable regions;
+    private CardTable cards;
+
+    public ColumnarHeapStore(TypeDictionary typeDictionary) {
+        this.typeDictionary = typeDictionary;
+    }
+
+    public TypeDictionary getTypeDictionary() {
+        return typeDictionary;
+    }
+
+    /**
+     * Starts keeping per-region accounting. Must be called while the store is empty.
+     */
+    public void enableRegions(RegionTable regionTable) {
+        if (objectCount.sum() > 0) {
+            throw new IllegalStateException("Regions must be enabled before objects are added");
+        }
+        this.regions = regionTable;
+    }
+
+    /**
+     * The region accounting, or {@code null} when regions are not enabled.
+     */
+    public RegionTable getRegions() {
+        return regions;
+    }
+
+    /**
+     * Starts registering old objects on {@code cardTable}. Must be called while the store
+     * is empty.
+     */
+    public void enableCardTable(CardTable cardTable) {
+        if (objectCount.sum() > 0) {
+            throw new IllegalStateException("The card table must be enabled before objects are added");
+        }
+        this.cards = cardTable;
+    }
+
+    /**
+     * The card table, or {@code null} when it is not enabled.
+     */
+    public CardTable getCardTable() {
+        return cards;
+    }
+
+    public void add(long id, int sizeInKB, long address, long allocationEpochMillis, boolean referenced,
+                    int typeId, Generation generation, int age) {
+        add(id, sizeInKB, address, allocationEpochMillis, referenced, referenced, typeId, generation, age);
+    }
+
+    /**
+     * Adds an object whose root flag may differ from its referenced flag, e.g. one that
+     * was loaded while only held through references. Roots must be referenced.
+     */
+    public void add(long id, int sizeInKB, long address, long allocationEpochMillis, boolean referenced,
+                    boolean root, int typeId, Generation generation, int age) {
+        if (root && !referenced) {
+            throw new IllegalArgumentException("Heap object " + id + " cannot be an unreferenced root");
+        }
+        Page page = pageForWrite(id);
+        int slot = (int) (id & PAGE_MASK);
+
+        page.sizeInKB[slot] = sizeInKB;
+        page.address[slot] = address;
+        page.age[slot] = (short) age;
+        page.generation[slot] = (byte) generation.ordinal();
+        page.allocationEpochMillis[slot] = allocationEpochMillis;
+        page.typeId[slot] = typeId;
+        if (referenced) {
+            setBit(page.referenced, slot);
+        }
+        if (root) {
+            setBit(page.root, slot);
+        }
+        // Publishing the occupied bit last makes the columns above visible to readers.
+        if (!setBit(page.occupied, slot)) {
+            throw new IllegalArgumentException("Heap object " + id + " already exists");
+        }
+        page.occupiedCount.incrementAndGet();
+
+        objectCount.increment();
+        if (referenced) {
+            liveCount.increment();
+            liveSizeKB.add(sizeInKB);
+            liveTypeTotals.add(typeId, generation.ordinal(), sizeInKB);
+        }
+        if (root) {
+            rootCount.increment();
+        }
+        generationSize(generation.ordinal()).add(sizeInKB);
+        if (generation == Generation.YOUNG && age > 0) {
+            survivorSizeKB.add(sizeInKB);
+        }
+        if (regions != null) {
+            regions.add(id, address, sizeInKB, referenced);
+        }
+        if (cards != null && generation == Generation.OLD) {
+            cards.addOldObject(id, address);
+        }
+        modifications.increment();
+    }
+
+    public void add(HeapObject obj) {
+        add(obj.getId(),
+                obj.getSizeInKB(),
+                obj.getAddress() != null ? obj.getAddress() : 0L,
+                toEpochMillis(obj.getAllocationTime()),
+                Boolean.TRUE.equals(obj.getReferenced()),
+                obj.getRoot() != null ? obj.getRoot() : Boolean.TRUE.equals(obj.getReferenced()),
+                obj.getTypeId() != null ? obj.getTypeId() : typeDictionary.intern(obj.getObjectType()),
+                obj.getGeneration(),
+                obj.getAge() != null ? obj.getAge() : 0);
+    }
+
+    public boolean contains(long id) {
+        Page page = page(id);
+        return page != null && testBit(page.occupied, (int) (id & PAGE_MASK));
+    }
+
+    public boolean isReferenced(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        return page != null && testBit(page.occupied, slot) && testBit(page.referenced, slot);
+    }
+
+    public boolean isRoot(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        return page != null && testBit(page.occupied, slot) && testBit(page.root, slot);
+    }
+
+    /**
+     * Generation of an object, or {@code null} if it does not exist.
+     */
+    public Generation getGeneration(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        return page != null && testBit(page.occupied, slot) ? GENERATIONS[page.generation[slot]] : null;
+    }
+
+    /**
+     * Age of an existing object.
+     */
+    public int getAge(long id) {
+        return page(id).age[(int) (id & PAGE_MASK)];
+    }
+
+    /**
+     * Size in KB of an existing object.
+     */
+    public int getSizeInKB(long id) {
+        return page(id).sizeInKB[(int) (id & PAGE_MASK)];
+    }
+
+    /**
+     * Simulated address, in KB, of an existing object.
+     */
+    public long getAddress(long id) {
+        return page(id).address[(int) (id & PAGE_MASK)];
+    }
+
+    /**
+     * Takes an object out of the root set; it stays referenced until
+     * {@link #dereference} or the mark phase finds it unreachable. Returns {@code false}
+     * if the object does not exist or was not a root.
+     */
+    public boolean removeRoot(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        if (page == null || !testBit(page.occupied, slot) || !clearBit(page.root, slot)) {
+            return false;
+        }
+        rootCount.decrement();
+        modifications.increment();
+        return true;
+    }
+
+    /**
+     * Clears the referenced bit, and the root bit with it. Returns {@code false} if the
+     * object does not exist or was already unreferenced, so concurrent callers never
+     * double-count.
+     */
+    public boolean dereference(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        if (page == null || !testBit(page.occupied, slot) || !clearBit(page.referenced, slot)) {
+            return false;
+        }
+        liveCount.decrement();
+        liveSizeKB.add(-page.sizeInKB[slot]);
+        liveTypeTotals.remove(page.typeId[slot], page.generation[slot], page.sizeInKB[slot]);
+        if (clearBit(page.root, slot)) {
+            rootCount.decrement();
+        }
+        if (regions != null) {
+            regions.release(page.address[slot], page.sizeInKB[slot]);
+        }
+        modifications.increment();
+        return true;
+    }
+
+    /**
+     * Overwrites age and generation of an existing object, keeping the generation
+     * totals in step.
+     */
+    public void update(long id, Generation generation, int age) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        if (page == null || !testBit(page.occupied, slot)) {
+            return;
+        }
+        byte newGeneration = (byte) generation.ordinal();
+        if (isSurvivor(page, slot)) {
+            survivorSizeKB.add(-page.sizeInKB[slot]);
+        }
+        if (page.generation[slot] != newGeneration) {
+            generationSize(page.generation[slot]).add(-page.sizeInKB[slot]);
+            generationSize(newGeneration).add(page.sizeInKB[slot]);
+            if (testBit(page.referenced, slot)) {
+                liveTypeTotals.move(page.typeId[slot], page.generation[slot], newGeneration, page.sizeInKB[slot]);
+            }
+            page.generation[slot] = newGeneration;
+            if (cards != null && newGeneration == OLD) {
+                cards.addOldObject(id, page.address[slot]);
+            }
+        }
+        page.age[slot] = (short) age;
+        if (isSurvivor(page, slot)) {
+            survivorSizeKB.add(page.sizeInKB[slot]);
+        }
+        modifications.increment();
+    }
+
+    public boolean remove(long id) {
+        int pageIndex = (int) (id >>> PAGE_SHIFT);
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        if (page == null || !clearBit(page.occupied, slot)) {
+            return false;
+        }
+        evict(page, pageIndex, slot);
+        modifications.increment();
+        return true;
+    }
+
+    /**
+     * Removes every unreferenced object of the given generation ({@code null} for both)
+     * by walking the occupied and referenced bitsets a word at a time.
+     */
+    public SweepResult sweepUnreachable(Generation generation) {
+        return sweepUnreachable(generation, id -> { });
+    }
+
+    /**
+     * Same as {@link #sweepUnreachable(Generation)}, reporting the id of every removed
+     * object to {@code removed}.
+     */
+    public SweepResult sweepUnreachable(Generation generation, LongConsumer removed) {
+        Page[] snapshot = pages;
+        int objectsCollected = 0;
+        long reclaimedKB = 0;
+
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.occupied.length(); word++) {
+                long candidates = page.occupied.get(word) & ~page.referenced.get(word);
+                while (candidates != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(candidates);
+                    candidates &= candidates - 1;
+                    if (generation != null && page.generation[slot] != generation.ordinal()) {
+                        continue;
+                    }
+                    clearBit(page.occupied, slot);
+                    objectsCollected++;
+                    reclaimedKB += page.sizeInKB[slot];
+                    evict(page, pageIndex, slot);
+                    removed.accept(base + slot);
+                }
+            }
+        }
+
+        modifications.increment();
+        return new SweepResult(objectsCollected, reclaimedKB);
+    }
+
+    /**
+     * Removes the unreferenced objects placed in region {@code index}, reporting the id of
+     * every removed object to {@code removed}. Only that region's objects are visited.
+     */
+    public SweepResult sweepRegion(long index, LongConsumer removed) {
+        if (regions == null) {
+            throw new IllegalStateException("Regions are not enabled");
+        }
+        int[] objectsCollected = {0};
+        long[] reclaimedKB = {0};
+
+        regions.compact(index, id -> {
+            Page page = page(id);
+            int slot = (int) (id & PAGE_MASK);
+            if (page == null || !testBit(page.occupied, slot)) {
+                return false;
+            }
+            if (testBit(page.referenced, slot)) {
+                return true;
+            }
+            clearBit(page.occupied, slot);
+            objectsCollected[0]++;
+            reclaimedKB[0] += page.sizeInKB[slot];
+            evict(page, (int) (id >>> PAGE_SHIFT), slot);
+            removed.accept(id);
+            return false;
+        });
+
+        modifications.increment();
+        return new SweepResult(objectsCollected[0], reclaimedKB[0]);
+    }
+
+    /**
+     * Increments the age of every young object and tenures those reaching
+     * {@code tenuringThreshold}, reporting how many objects and KB were promoted.
+     */
+    public PromotionResult ageYoungObjects(int tenuringThreshold) {
+        return ageYoungObjects(tenuringThreshold, id -> { });
+    }
+
+    /**
+     * Same as {@link #ageYoungObjects(int)}, reporting the id of every aged object to
+     * {@code aged}.
+     */
+    public PromotionResult ageYoungObjects(int tenuringThreshold, LongConsumer aged) {
+        return ageYoungObjects(tenuringThreshold, aged, new AgeTable());
+    }
+
+    /**
+     * Same as {@link #ageYoungObjects(int, LongConsumer)}, adding every object that stays
+     * young to {@code survivors} under its new age.
+     */
+    public PromotionResult ageYoungObjects(int tenuringThreshold, LongConsumer aged, AgeTable survivors) {
+        Page[] snapshot = pages;
+        int promoted = 0;
+        long promotedKB = 0;
+        long newSurvivorKB = 0;
+
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.occupied.length(); word++) {
+                long occupied = page.occupied.get(word);
+                while (occupied != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(occupied);
+                    occupied &= occupied - 1;
+                    if (page.generation[slot] != YOUNG) {
+                        continue;
+                    }
+                    int age = ++page.age[slot];
+                    if (age >= tenuringThreshold) {
+                        page.generation[slot] = OLD;
+                        if (testBit(page.referenced, slot)) {
+                            liveTypeTotals.move(page.typeId[slot], YOUNG, OLD, page.sizeInKB[slot]);
+                        }
+                        promoted++;
+                        promotedKB += page.sizeInKB[slot];
+                        if (age > 1) {
+                            newSurvivorKB -= page.sizeInKB[slot];
+                        }
+                        if (cards != null) {
+                            cards.addOldObject(base + slot, page.address[slot]);
+                        }
+                    } else {
+                        if (age == 1) {
+                            newSurvivorKB += page.sizeInKB[slot];
+                        }
+                        survivors.add(age, page.sizeInKB[slot]);
+                    }
+                    aged.accept(base + slot);
+                }
+            }
+        }
+
+        youngSizeKB.add(-promotedKB);
+        oldSizeKB.add(promotedKB);
+        survivorSizeKB.add(newSurvivorKB);
+        modifications.increment();
+        return new PromotionResult(promoted, promotedKB);
+    }
+
+    /**
+     * Ids of all roots, in ascending order.
+     */
+    public long[] rootIds() {
+        long[] roots = new long[(int) Math.min(rootCount.sum(), Integer.MAX_VALUE - 8)];
+        int count = 0;
+        Page[] snapshot = pages;
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.root.length(); word++) {
+                long bits = page.root.get(word) & page.occupied.get(word);
+                while (bits != 0) {
+                    if (count == roots.length) {
+                        roots = Arrays.copyOf(roots, Math.max(16, roots.length * 2));
+                    }
+                    roots[count++] = base + (word << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+        return count == roots.length ? roots : Arrays.copyOf(roots, count);
+    }
+
+    /**
+     * Clears the referenced bit of every referenced object the mark phase did not reach,
+     * reporting each id to {@code cleared}. Returns the number of objects cleared.
+     */
+    public long clearUnmarked(MarkBitmap marks, LongConsumer cleared) {
+        Page[] snapshot = pages;
+        long count = 0;
+
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.referenced.length(); word++) {
+                long unmarked = page.occupied.get(word) & page.referenced.get(word) & ~marks.word(pageIndex, word);
+                while (unmarked != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(unmarked);
+                    unmarked &= unmarked - 1;
+                    if (clearBit(page.referenced, slot)) {
+                        liveCount.decrement();
+                        liveSizeKB.add(-page.sizeInKB[slot]);
+                        liveTypeTotals.remove(page.typeId[slot], page.generation[slot], page.sizeInKB[slot]);
+                        if (clearBit(page.root, slot)) {
+                            rootCount.decrement();
+                        }
+                        if (regions != null) {
+                            regions.release(page.address[slot], page.sizeInKB[slot]);
+                        }
+                        count++;
+                        cleared.accept(base + slot);
+                    }
+                }
+            }
+        }
+
+        modifications.increment();
+        return count;
+    }
+
+    /**
+     * Counts referenced objects of one generation ({@code null} for both) per type,
+     * indexed by type id. Read from running totals, not by scanning the store.
+     */
+    public long[] countLiveByType(Generation generation) {
+        return liveTypeTotals.counts(generation != null ? generation.ordinal() : -1, typeDictionary.size());
+    }
+
+    /**
+     * KB of referenced objects of one generation ({@code null} for both) per type, indexed
+     * by type id; see {@link #countLiveByType}.
+     */
+    public long[] sumLiveSizeKBByType(Generation generation) {
+        return liveTypeTotals.sizesKB(generation != null ? generation.ordinal() : -1, typeDictionary.size());
+    }
+
+    /**
+     * Visits the id of every object currently in the store, in ascending id order.
+     */
+    public void forEachId(LongConsumer action) {
+        Page[] snapshot = pages;
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.occupied.length(); word++) {
+                long occupied = page.occupied.get(word);
+                while (occupied != 0) {
+                    action.accept(base + (word << 6) + Long.numberOfTrailingZeros(occupied));
+                    occupied &= occupied - 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the id of every object of {@code generation}, in ascending id order.
+     */
+    public void forEachInGeneration(Generation generation, LongConsumer action) {
+        Page[] snapshot = pages;
+        for (int pageIndex = 0; pageIndex < snapshot.length; pageIndex++) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            long base = (long) pageIndex << PAGE_SHIFT;
+            for (int word = 0; word < page.occupied.length(); word++) {
+                long occupied = page.occupied.get(word);
+                while (occupied != 0) {
+                    int slot = (word << 6) + Long.numberOfTrailingZeros(occupied);
+                    occupied &= occupied - 1;
+                    if (page.generation[slot] == generation.ordinal()) {
+                        action.accept(base + slot);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Materialises a detached {@link HeapObject} view of a stored object, or
+     * {@code null} if it does not exist.
+     */
+    public HeapObject toHeapObject(long id) {
+        Page page = page(id);
+        int slot = (int) (id & PAGE_MASK);
+        if (page == null || !testBit(page.occupied, slot)) {
+            return null;
+        }
+        LocalDateTime allocationTime = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(page.allocationEpochMillis[slot]), zone);
+
+        return HeapObject.builder()
+                .id(id)
+                .sizeInKB(page.sizeInKB[slot])
+                .address(page.address[slot])
+                .allocationTime(allocationTime)
+                .lastAccessTime(allocationTime)
+                .referenced(testBit(page.referenced, slot))
+                .root(testBit(page.root, slot))
+                .typeId(page.typeId[slot])
+                .objectType(typeDictionary.name(page.typeId[slot]))
+                .generation(GENERATIONS[page.generation[slot]])
+                .age((int) page.age[slot])
+                .build();
+    }
+
+    public void clear() {
+        synchronized (this) {
+            pages = new Page[64];
+            highestPageIndex = -1;
+        }
+        objectCount.reset();
+        liveCount.reset();
+        rootCount.reset();
+        liveSizeKB.reset();
+        youngSizeKB.reset();
+        oldSizeKB.reset();
+        survivorSizeKB.reset();
+        liveTypeTotals.clear();
+        if (regions != null) {
+            regions.clear();
+        }
+        if (cards != null) {
+            cards.clear();
+        }
+        modifications.increment();
+    }
+
+    /**
+     * Highest id currently stored, or -1 if the store is empty.
+     */
+    public long getHighestId() {
+        Page[] snapshot = pages;
+        for (int pageIndex = snapshot.length - 1; pageIndex >= 0; pageIndex--) {
+            Page page = snapshot[pageIndex];
+            if (page == null) {
+                continue;
+            }
+            for (int word = page.occupied.length() - 1; word >= 0; word--) {
+                long occupied = page.occupied.get(word);
+                if (occupied != 0) {
+                    return ((long) pageIndex << PAGE_SHIFT) + (word << 6) + 63 - Long.numberOfLeadingZeros(occupied);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * End (exclusive, in KB) of the highest simulated address in use, or 0 if empty.
+     */
+    public long getHighestAddressEnd() {
+        long[] highest = {0};
+        forEachId(id -> {
+            Page page = page(id);
+            int slot = (int) (id & PAGE_MASK);
+            highest[0] = Math.max(highest[0], page.address[slot] + page.sizeInKB[slot]);
+        });
+        return highest[0];
+    }
+
+    /**
+     * Number of changes made so far. It only ever grows, and moves after a change is
+     * complete, so a figure computed while it read {@code n} is current for as long as it
+     * still reads {@code n}.
+     */
+    public long getModificationCount() {
+        return modifications.sum();
+    }
+
+    public long getObjectCount() {
+        return objectCount.sum();
+    }
+
+    public long getLiveObjectCount() {
+        return liveCount.sum();
+    }
+
+    public long getRootCount() {
+        return rootCount.sum();
+    }
+
+    public long getUnreachableObjectCount() {
+        return objectCount.sum() - liveCount.sum();
+    }
+
+    public long getLiveSizeKB() {
+        return liveSizeKB.sum();
+    }
+
+    public long getGenerationSizeKB(Generation generation) {
+        return generationSize(generation.ordinal()).sum();
+    }
+
+    /**
+     * KB of young objects that have survived at least one collection.
+     */
+    public long getSurvivorSizeKB() {
+        return survivorSizeKB.sum();
+    }
+
+    /**
+     * KB of young objects not yet through a collection.
+     */
+    public long getEdenSizeKB() {
+        return youngSizeKB.sum() - survivorSizeKB.sum();
+    }
+
+    /**
+     * Approximate bytes held by the column pages, excluding the type dictionary.
+     */
+    public long estimateFootprintBytes() {
+        long allocatedPages = Arrays.stream(pages).filter(p -> p != null).count();
+        return allocatedPages * Page.BYTES;
+    }
+
+    public long toEpochMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private void evict(Page page, int pageIndex, int slot) {
+        int size = page.sizeInKB[slot];
+        objectCount.decrement();
+        boolean referenced = clearBit(page.referenced, slot);
+        if (referenced) {
+            liveCount.decrement();
+            liveSizeKB.add(-size);
+            liveTypeTotals.remove(page.typeId[slot], page.generation[slot], size);
+        }
+        if (clearBit(page.root, slot)) {
+            rootCount.decrement();
+        }
+        generationSize(page.generation[slot]).add(-size);
+        if (isSurvivor(page, slot)) {
+            survivorSizeKB.add(-size);
+        }
+        if (regions != null) {
+            regions.remove(page.address[slot], size, referenced);
+        }
+
+        // Release a page once none of its slots is occupied, going by the occupied count
+        // alone: ids a thread has reserved in its allocation buffer but not used yet do not
+        // keep it, and if one is added later pageForWrite creates the page again. The page
+        // of the highest id is kept, as that is where sequential allocation is still filling.
+        if (page.occupiedCount.decrementAndGet() == 0 && pageIndex < highestPageIndex) {
+            Page[] current = pages;
+            if (pageIndex < current.length && current[pageIndex] == page) {
+                current[pageIndex] = null;
+            }
+        }
+    }
+
+    private static boolean isSurvivor(Page page, int slot) {
+        return page.generation[slot] == YOUNG && page.age[slot] > 0;
+    }
+
+    private LongAdder generationSize(int generationOrdinal) {
+        return generationOrdinal == YOUNG ? youngSizeKB : oldSizeKB;
+    }
+
+    private Page page(long id) {
+        Page[] snapshot = pages;
+        long pageIndex = id >>> PAGE_SHIFT;
+        return pageIndex < snapshot.length ? snapshot[(int) pageIndex] : null;
+    }
+
+    private Page pageForWrite(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Heap object id must not be negative: " + id);
+        }
+        Page page = page(id);
+        return page != null ? page : createPage(id);
+    }
+
+    private synchronized Page createPage(long id) {
+        int pageIndex = Math.toIntExact(id >>> PAGE_SHIFT);
+        Page[] current = pages;
+        if (pageIndex >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, pageIndex + 1));
+        }
+        if (current[pageIndex] == null) {
+            current[pageIndex] = new Page();
+        }
+        highestPageIndex = Math.max(highestPageIndex, pageIndex);
+        pages = current;
+        return current[pageIndex];
+    }
+
+    private static boolean testBit(AtomicLongArray bits, int slot) {
+        return (bits.get(slot >>> 6) & (1L << slot)) != 0;
+    }
+
+    private static boolean setBit(AtomicLongArray bits, int slot) {
+        long mask = 1L << slot;
+        long previous = bits.getAndAccumulate(slot >>> 6, mask, (word, m) -> word | m);
+        return (previous & mask) == 0;
+    }
+
+    private static boolean clearBit(AtomicLongArray bits, int slot) {
+        long mask = 1L << slot;
+        long previous = bits.getAndAccumulate(slot >>> 6, mask, (word, m) -> word & ~m);
+        return (previous & mask) != 0;
+    }
+
+    private static final class Page {
+
+        static final long BYTES = (long) PAGE_SIZE * (Integer.BYTES + Long.BYTES + Short.BYTES + Byte.BYTES
+                + Long.BYTES + Integer.BYTES) + 3L * (PAGE_SIZE / Byte.SIZE);
+
+        final int[] sizeInKB = new int[PAGE_SIZE];
+        final long[] address = new long[PAGE_SIZE];
+        final short[] age = new short[PAGE_SIZE];
+        final byte[] generation = new byte[PAGE_SIZE];
+        final long[] allocationEpochMillis = new long[PAGE_SIZE];
+        final int[] typeId = new int[PAGE_SIZE];
+        final AtomicLongArray occupied = new AtomicLongArray(PAGE_SIZE / Long.SIZE);
+        final AtomicLongArray referenced = new AtomicLongArray(PAGE_SIZE / Long.SIZE);
+        final AtomicLongArray root = new AtomicLongArray(PAGE_SIZE / Long.SIZE);
+        final AtomicInteger occupiedCount = new AtomicInteger();
+    }
+}
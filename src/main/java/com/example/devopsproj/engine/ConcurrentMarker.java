@@ -0,0 +1,130 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongPredicate;
+
+/**
+ * One cycle of concurrent, incremental tri-color marking.
+ *
+ * <p>White objects have no mark bit, grey objects are marked and queued for scanning,
+ * black objects are marked and scanned. The cycle starts from a snapshot of the roots
+ * taken in a short pause; {@link #step} then scans grey objects a bounded number at a
+ * time while mutators keep running.
+ *
+ * <p>Mutators keep the snapshot intact through the write barrier: {@link #shade} must be
+ * called with the target of every reference added or removed while the cycle is active,
+ * so an object reachable when marking started, or made reachable since, can never be
+ * left white. Objects allocated during the cycle are marked black straight away
+ * ({@link #markAllocated}). Whatever is still white once the final remark has drained
+ * the grey queue is garbage; objects that became unreachable during the cycle stay
+ * marked and are left for the next one.
+ */
+public class ConcurrentMarker {
+
+    private final ReferenceGraph graph;
+    private final LongPredicate exists;
+    private final MarkBitmap marks = new MarkBitmap();
+    private final LongAdder barrierShades = new LongAdder();
+
+    /** Grey objects; shared by the marking thread and mutators running the barrier. */
+    private long[] grey = new long[1024];
+    private int greyCount;
+
+    private volatile boolean abandoned;
+
+    /**
+     * Starts a cycle from {@code roots}, which must be taken while mutators are paused.
+     */
+    public ConcurrentMarker(long[] roots, ReferenceGraph graph, LongPredicate exists) {
+        this.graph = graph;
+        this.exists = exists;
+        for (long root : roots) {
+            greyIfWhite(root);
+        }
+    }
+
+    /**
+     * Write barrier: greys {@code id} if it is still white.
+     */
+    public void shade(long id) {
+        if (greyIfWhite(id)) {
+            barrierShades.increment();
+        }
+    }
+
+    /**
+     * Marks an object allocated during the cycle. It has no references yet, so it is
+     * black at once.
+     */
+    public void markAllocated(long id) {
+        marks.mark(id);
+    }
+
+    /**
+     * Scans up to {@code budget} grey objects, greying their white targets. Returns
+     * {@code true} while grey objects remain.
+     */
+    public boolean step(int budget) {
+        for (int scanned = 0; scanned < budget; scanned++) {
+            long id;
+            synchronized (this) {
+                if (greyCount == 0) {
+                    return false;
+                }
+                id = grey[--greyCount];
+            }
+            for (long target : graph.targets(id)) {
+                if (exists.test(target)) {
+                    greyIfWhite(target);
+                }
+            }
+        }
+        synchronized (this) {
+            return greyCount > 0;
+        }
+    }
+
+    /**
+     * Scans until no grey objects are left. Called in the remark pause, when the barrier
+     * can no longer add work.
+     */
+    public void finish() {
+        while (step(Integer.MAX_VALUE)) {
+            // step returns once the grey queue is empty
+        }
+    }
+
+    public MarkBitmap getMarks() {
+        return marks;
+    }
+
+    public long getBarrierShades() {
+        return barrierShades.sum();
+    }
+
+    /**
+     * Marks the cycle as abandoned, e.g. because the heap was cleared or reloaded and its
+     * marks no longer describe it.
+     */
+    public void abandon() {
+        abandoned = true;
+    }
+
+    public boolean isAbandoned() {
+        return abandoned;
+    }
+
+    private boolean greyIfWhite(long id) {
+        if (!marks.mark(id)) {
+            return false;
+        }
+        synchronized (this) {
+            if (greyCount == grey.length) {
+                grey = Arrays.copyOf(grey, grey.length * 2);
+            }
+            grey[greyCount++] = id;
+        }
+        return true;
+    }
+}
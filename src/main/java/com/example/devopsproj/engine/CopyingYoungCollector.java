@@ -0,0 +1,209 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.Generation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+/**
+ * The copying young collector ({@link YoungCollector#COPYING}) over a store and its
+ * reference graph: which young objects sit in eden and which survivor space, the tracing
+ * and copying of a young collection, and the card-marking barrier that lets it find
+ * old-to-young references without walking the old generation.
+ *
+ * <p>Follows the store's rules: {@link #addToEden} and {@link #dirtyCardIfOldToYoung} may
+ * run alongside other mutators, everything else needs the heap to itself. Persisting what
+ * a collection changed is left to the caller.
+ */
+public class CopyingYoungCollector {
+
+    private final ColumnarHeapStore heapStore;
+    private final ReferenceGraph referenceGraph;
+    private final YoungSpaces youngSpaces = new YoungSpaces();
+
+    public CopyingYoungCollector(ColumnarHeapStore heapStore, ReferenceGraph referenceGraph) {
+        this.heapStore = heapStore;
+        this.referenceGraph = referenceGraph;
+    }
+
+    public void addToEden(long id) {
+        youngSpaces.addToEden(id);
+    }
+
+    /**
+     * Rebuilds the spaces from the store's young generation: objects that never survived
+     * a collection go to eden, the rest to the from-space.
+     */
+    public void reload() {
+        youngSpaces.clear();
+        heapStore.forEachInGeneration(Generation.YOUNG, id -> {
+            if (heapStore.getAge(id) == 0) {
+                youngSpaces.addToEden(id);
+            } else {
+                youngSpaces.addToFromSpace(id);
+            }
+        });
+    }
+
+    public void clear() {
+        youngSpaces.clear();
+    }
+
+    /**
+     * Index, 0 or 1, of the survivor space currently holding survivors (S0 or S1).
+     */
+    public int getFromSpaceIndex() {
+        return youngSpaces.getFromSpaceIndex();
+    }
+
+    /**
+     * Card-marking barrier: dirties the card of an old object that now references a young
+     * one, so the next young collection scans it. Does nothing without a card table.
+     */
+    public void dirtyCardIfOldToYoung(long sourceId, long targetId) {
+        CardTable cards = heapStore.getCardTable();
+        if (cards != null
+                && heapStore.getGeneration(sourceId) == Generation.OLD
+                && heapStore.getGeneration(targetId) == Generation.YOUNG) {
+            cards.dirty(heapStore.getAddress(sourceId));
+        }
+    }
+
+    /**
+     * Collects eden and the from-space. Live young objects are those reachable through
+     * young objects from young roots and from the young targets of old objects. The old
+     * objects are those on dirty cards, or the whole old generation without a card table;
+     * all of them count as live, as in any young collection. Each survivor is aged and
+     * copied to the to-space, or tenured instead once it reaches {@code tenuringThreshold}
+     * or the to-space is full. Everything else in eden and the from-space is removed with
+     * its outgoing edges, and the survivor spaces swap.
+     *
+     * <p>{@code freed} gets the id of every removed object and {@code moved} that of every
+     * survivor once its new generation and age are set; the ages and sizes of those copied
+     * to the to-space are added to {@code survivors}.
+     */
+    public YoungCollectionResult collect(int tenuringThreshold, long survivorCapacityKB, AgeTable survivors,
+                                         LongConsumer freed, LongConsumer moved) {
+        CardTable cards = heapStore.getCardTable();
+        long[] collected = youngSpaces.collectedIds();
+        MarkBitmap live = new MarkBitmap();
+        Deque<Long> grey = new ArrayDeque<>();
+
+        for (long id : collected) {
+            if (heapStore.isRoot(id)) {
+                shadeYoung(id, live, grey);
+            }
+        }
+        long[] dirtyCards = cards != null ? cards.dirtyCards() : new long[0];
+        long[] oldObjectsScanned = {0};
+        if (cards != null) {
+            for (long card : dirtyCards) {
+                oldObjectsScanned[0] += cards.scan(card, oldId -> {
+                    if (heapStore.getGeneration(oldId) != Generation.OLD) {
+                        return false;
+                    }
+                    for (long target : referenceGraph.targets(oldId)) {
+                        shadeYoung(target, live, grey);
+                    }
+                    return true;
+                });
+            }
+        } else {
+            heapStore.forEachInGeneration(Generation.OLD, oldId -> {
+                oldObjectsScanned[0]++;
+                for (long target : referenceGraph.targets(oldId)) {
+                    shadeYoung(target, live, grey);
+                }
+            });
+        }
+        while (!grey.isEmpty()) {
+            for (long target : referenceGraph.targets(grey.pop())) {
+                shadeYoung(target, live, grey);
+            }
+        }
+
+        int objectsCollected = 0;
+        long reclaimedKB = 0;
+        int objectsSurvived = 0;
+        long survivedKB = 0;
+        int objectsPromoted = 0;
+        long promotedKB = 0;
+        List<Long> promoted = new ArrayList<>();
+        for (long id : collected) {
+            // Already removed or tenured by another collection.
+            if (heapStore.getGeneration(id) != Generation.YOUNG) {
+                continue;
+            }
+            int size = heapStore.getSizeInKB(id);
+            if (!live.isMarked(id)) {
+                heapStore.remove(id);
+                referenceGraph.removeOutgoing(id);
+                freed.accept(id);
+                objectsCollected++;
+                reclaimedKB += size;
+                continue;
+            }
+            int age = heapStore.getAge(id) + 1;
+            Generation generation;
+            if (age >= tenuringThreshold || survivedKB + size > survivorCapacityKB) {
+                generation = Generation.OLD;
+                promoted.add(id);
+                objectsPromoted++;
+                promotedKB += size;
+            } else {
+                generation = Generation.YOUNG;
+                youngSpaces.addToToSpace(id);
+                survivors.add(age, size);
+                objectsSurvived++;
+                survivedKB += size;
+            }
+            heapStore.update(id, generation, age);
+            moved.accept(id);
+        }
+        youngSpaces.flip();
+
+        if (cards != null) {
+            // A scanned card stays dirty only while one of its objects still references
+            // a young object; a tenured object referencing young ones dirties its own.
+            for (long card : dirtyCards) {
+                boolean[] oldToYoung = {false};
+                cards.scan(card, oldId -> {
+                    if (heapStore.getGeneration(oldId) != Generation.OLD) {
+                        return false;
+                    }
+                    oldToYoung[0] = oldToYoung[0] || referencesYoung(oldId);
+                    return true;
+                });
+                if (!oldToYoung[0]) {
+                    cards.clean(card);
+                }
+            }
+            for (long id : promoted) {
+                if (referencesYoung(id)) {
+                    cards.dirty(heapStore.getAddress(id));
+                }
+            }
+        }
+
+        return new YoungCollectionResult(objectsCollected, reclaimedKB, objectsSurvived, survivedKB,
+                objectsPromoted, promotedKB, dirtyCards.length, oldObjectsScanned[0]);
+    }
+
+    private void shadeYoung(long id, MarkBitmap live, Deque<Long> grey) {
+        if (heapStore.getGeneration(id) == Generation.YOUNG && heapStore.isReferenced(id) && live.mark(id)) {
+            grey.push(id);
+        }
+    }
+
+    private boolean referencesYoung(long id) {
+        for (long target : referenceGraph.targets(id)) {
+            if (heapStore.getGeneration(target) == Generation.YOUNG) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
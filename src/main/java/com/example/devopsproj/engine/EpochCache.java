@@ -0,0 +1,32 @@
+package com.example.devopsproj.engine;
+
+import java.util.function.Supplier;
+
+/**
+ * One value derived from the heap, kept for as long as the heap's mutation epoch stays
+ * where it was when the value was computed; see {@link HeapSimulationEngine#getMutationEpoch()}.
+ * Read the epoch before computing, so a change made during the computation moves the
+ * epoch past the one cached. Two threads that miss at once both compute, and the later
+ * one's value is kept.
+ */
+public class EpochCache<T> {
+
+    private volatile Entry<T> entry;
+
+    /**
+     * The value cached for {@code epoch}, computing and caching it first if the cached
+     * value is for another epoch.
+     */
+    public T get(long epoch, Supplier<T> compute) {
+        Entry<T> current = entry;
+        if (current != null && current.epoch() == epoch) {
+            return current.value();
+        }
+        T value = compute.get();
+        entry = new Entry<>(epoch, value);
+        return value;
+    }
+
+    private record Entry<T>(long epoch, T value) {
+    }
+}
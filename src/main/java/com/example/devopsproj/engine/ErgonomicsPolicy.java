@@ -0,0 +1,13 @@
+package com.example.devopsproj.engine;
+
+/**
+ * The rule that made {@link GcErgonomics} start a collection.
+ */
+public enum ErgonomicsPolicy {
+    /** The heap as a whole is about to exceed its budget: full GC. */
+    HEAP_BUDGET,
+    /** The old generation passed its initiating occupancy: major GC. */
+    OLD_OCCUPANCY,
+    /** The young generation (eden, with the copying collector) passed its trigger: minor GC. */
+    YOUNG_OCCUPANCY
+}
@@ -3,45 +3,91 @@ package com.example.devopsproj.engine;
 import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.GCType;
 import com.example.devopsproj.model.Generation;
-import com.example.devopsproj.model.HeapObject;
 import com.example.devopsproj.repository.GCEventRepository;
-import com.example.devopsproj.repository.HeapObjectRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.time.LocalDateTime;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 @Slf4j
 @RequiredArgsConstructor
 public class GarbageCollectionEngine {
 
-    private final HeapObjectRepository heapObjectRepository;
     private final GCEventRepository gcEventRepository;
     private final HeapSimulationEngine heapSimulationEngine;
-
+    private final SimulationClock simulationClock;
+    private final PlatformTransactionManager transactionManager;
+    private final Object concurrentCycleLock = new Object();
+    private final ExecutorService concurrentCycleExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "gc-concurrent-cycle");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /** The last concurrent cycle started in the background; null before the first. */
+    private volatile CompletableFuture<GCEvent> concurrentCycle;
+    private volatile GCEvent lastConcurrentEvent;
+    private final Map<GCType, PauseHistogram> pauseHistograms = newPauseHistograms();
+
+    @Value("${simulation.gc.collector:STOP_THE_WORLD}")
+    private CollectorMode collectorMode = CollectorMode.STOP_THE_WORLD;
+
+    /** Pause budget of a mixed collection, as in {@code -XX:MaxGCPauseMillis}. */
+    @Value("${simulation.gc.pause-target-ms:200}")
+    private Long pauseTargetMs = 200L;
+
+    /** Grey objects scanned per concurrent marking step. */
+    @Value("${simulation.gc.concurrent.step-objects:10000}")
+    private Integer concurrentStepObjects = 10_000;
+
+    /**
+     * Collects the young generation. The copying young collector traces from young roots
+     * and dirty cards only; otherwise the whole heap is marked first.
+     */
     @Transactional
     public GCEvent runMinorGC() {
         log.info("Running Minor GC (Young Generation)");
 
         long beforeHeap = heapSimulationEngine.getCurrentHeapSize();
-        long beforeCount = heapObjectRepository.count();
-
-        List<HeapObject> unreachableYoungObjects =
-                heapObjectRepository.findUnreachableObjectsByGeneration(Generation.YOUNG);
-
-        long reclaimedMemory = unreachableYoungObjects.stream()
-                .mapToLong(HeapObject::getSizeInKB)
-                .sum();
-
-        int objectsCollected = unreachableYoungObjects.size();
 
-        heapObjectRepository.deleteAll(unreachableYoungObjects);
-
-        heapSimulationEngine.promoteYoungObjects();
+        long reclaimedMemory;
+        int objectsCollected;
+        PromotionResult promotion;
+        long markNanos = 0;
+        long sweepNanos;
+        long promoteNanos = 0;
+        long start = System.nanoTime();
+        if (heapSimulationEngine.getYoungCollector() == YoungCollector.COPYING) {
+            YoungCollectionResult young = heapSimulationEngine.collectYoungGeneration();
+            sweepNanos = System.nanoTime() - start;
+            reclaimedMemory = young.reclaimedKB();
+            objectsCollected = young.objectsCollected();
+            promotion = new PromotionResult(young.objectsPromoted(), young.promotedKB());
+        } else {
+            heapSimulationEngine.markLiveObjects();
+            long marked = System.nanoTime();
+            SweepResult sweep = heapSimulationEngine.sweepUnreachable(Generation.YOUNG);
+            long swept = System.nanoTime();
+            reclaimedMemory = sweep.reclaimedKB();
+            objectsCollected = sweep.objectsCollected();
+            promotion = heapSimulationEngine.promoteYoungObjects();
+            markNanos = marked - start;
+            sweepNanos = swept - marked;
+            promoteNanos = System.nanoTime() - swept;
+        }
 
         long afterHeap = heapSimulationEngine.getCurrentHeapSize();
 
@@ -51,33 +97,42 @@ public class GarbageCollectionEngine {
                 .afterHeap(afterHeap)
                 .reclaimedMemory(reclaimedMemory)
                 .objectsCollected(objectsCollected)
-                .timestamp(LocalDateTime.now())
+                .objectsPromoted(promotion.objectsPromoted())
+                .promotedMemory(promotion.promotedKB())
+                .tenuringThreshold(heapSimulationEngine.getTenuringThreshold())
+                .pauseTimeNanos(markNanos + sweepNanos + promoteNanos)
+                .markTimeNanos(markNanos)
+                .sweepTimeNanos(sweepNanos)
+                .promoteTimeNanos(promoteNanos)
+                .timestamp(simulationClock.now())
                 .build();
 
-        gcEventRepository.save(gcEvent);
+        record(gcEvent);
 
-        log.info("Minor GC completed. Reclaimed: {} KB, Objects collected: {}, Heap: {} KB -> {} KB",
-                reclaimedMemory, objectsCollected, beforeHeap, afterHeap);
+        log.info("Minor GC completed. Reclaimed: {} KB, Objects collected: {}, Promoted: {} ({} KB), "
+                        + "Heap: {} KB -> {} KB", reclaimedMemory, objectsCollected, promotion.objectsPromoted(),
+                promotion.promotedKB(), beforeHeap, afterHeap);
 
         return gcEvent;
     }
 
+    /**
+     * Collects the old generation, stopping the world. With the CONCURRENT collector mode,
+     * callers start a background cycle through {@link #startConcurrentCycle()} instead.
+     */
     @Transactional
     public GCEvent runMajorGC() {
         log.info("Running Major GC (Old Generation)");
 
         long beforeHeap = heapSimulationEngine.getCurrentHeapSize();
 
-        List<HeapObject> unreachableOldObjects =
-                heapObjectRepository.findUnreachableObjectsByGeneration(Generation.OLD);
-
-        long reclaimedMemory = unreachableOldObjects.stream()
-                .mapToLong(HeapObject::getSizeInKB)
-                .sum();
-
-        int objectsCollected = unreachableOldObjects.size();
-
-        heapObjectRepository.deleteAll(unreachableOldObjects);
+        long start = System.nanoTime();
+        heapSimulationEngine.markLiveObjects();
+        long marked = System.nanoTime();
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(Generation.OLD);
+        long swept = System.nanoTime();
+        long reclaimedMemory = sweep.reclaimedKB();
+        int objectsCollected = sweep.objectsCollected();
 
         long afterHeap = heapSimulationEngine.getCurrentHeapSize();
 
@@ -87,10 +142,14 @@ public class GarbageCollectionEngine {
                 .afterHeap(afterHeap)
                 .reclaimedMemory(reclaimedMemory)
                 .objectsCollected(objectsCollected)
-                .timestamp(LocalDateTime.now())
+                .pauseTimeNanos(swept - start)
+                .markTimeNanos(marked - start)
+                .sweepTimeNanos(swept - marked)
+                .promoteTimeNanos(0L)
+                .timestamp(simulationClock.now())
                 .build();
 
-        gcEventRepository.save(gcEvent);
+        record(gcEvent);
 
         log.info("Major GC completed. Reclaimed: {} KB, Objects collected: {}, Heap: {} KB -> {} KB",
                 reclaimedMemory, objectsCollected, beforeHeap, afterHeap);
@@ -104,37 +163,250 @@ public class GarbageCollectionEngine {
 
         long beforeHeap = heapSimulationEngine.getCurrentHeapSize();
 
-        List<HeapObject> unreachableObjects = heapObjectRepository.findUnreachableObjects();
+        long start = System.nanoTime();
+        heapSimulationEngine.markLiveObjects();
+        long marked = System.nanoTime();
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(null);
+        long swept = System.nanoTime();
+        long reclaimedMemory = sweep.reclaimedKB();
+        int objectsCollected = sweep.objectsCollected();
+
+        PromotionResult promotion;
+        if (heapSimulationEngine.getYoungCollector() == YoungCollector.COPYING) {
+            // Dead young objects are already swept; this copies and tenures the survivors.
+            YoungCollectionResult young = heapSimulationEngine.collectYoungGeneration();
+            reclaimedMemory += young.reclaimedKB();
+            objectsCollected += young.objectsCollected();
+            promotion = new PromotionResult(young.objectsPromoted(), young.promotedKB());
+        } else {
+            promotion = heapSimulationEngine.promoteYoungObjects();
+        }
+        long promoted = System.nanoTime();
 
-        long reclaimedMemory = unreachableObjects.stream()
-                .mapToLong(HeapObject::getSizeInKB)
-                .sum();
+        long afterHeap = heapSimulationEngine.getCurrentHeapSize();
 
-        int objectsCollected = unreachableObjects.size();
+        GCEvent gcEvent = GCEvent.builder()
+                .gcType(GCType.FULL)
+                .beforeHeap(beforeHeap)
+                .afterHeap(afterHeap)
+                .reclaimedMemory(reclaimedMemory)
+                .objectsCollected(objectsCollected)
+                .objectsPromoted(promotion.objectsPromoted())
+                .promotedMemory(promotion.promotedKB())
+                .tenuringThreshold(heapSimulationEngine.getTenuringThreshold())
+                .pauseTimeNanos(promoted - start)
+                .markTimeNanos(marked - start)
+                .sweepTimeNanos(swept - marked)
+                .promoteTimeNanos(promoted - swept)
+                .timestamp(simulationClock.now())
+                .build();
+
+        record(gcEvent);
+
+        log.info("Full GC completed. Reclaimed: {} KB, Objects collected: {}, Promoted: {} ({} KB), "
+                        + "Heap: {} KB -> {} KB", reclaimedMemory, objectsCollected, promotion.objectsPromoted(),
+                promotion.promotedKB(), beforeHeap, afterHeap);
+
+        return gcEvent;
+    }
+
+    /**
+     * Starts a concurrent cycle on the collector's own thread and returns at once. The
+     * future completes with the cycle's event once that is committed. While a cycle is
+     * still running, that cycle is returned rather than another one queued.
+     */
+    public synchronized CompletableFuture<GCEvent> startConcurrentCycle() {
+        CompletableFuture<GCEvent> current = concurrentCycle;
+        if (current != null && !current.isDone()) {
+            return current;
+        }
+        current = CompletableFuture.supplyAsync(this::runConcurrentCycle, concurrentCycleExecutor)
+                .whenComplete((event, failure) -> {
+                    if (failure != null) {
+                        log.error("Concurrent GC cycle failed", failure);
+                    }
+                });
+        concurrentCycle = current;
+        return current;
+    }
 
-        heapObjectRepository.deleteAll(unreachableObjects);
+    public boolean isConcurrentCycleRunning() {
+        CompletableFuture<GCEvent> current = concurrentCycle;
+        return current != null && !current.isDone();
+    }
 
-        heapSimulationEngine.promoteYoungObjects();
+    /**
+     * Event of the last concurrent cycle to complete, or {@code null} before the first.
+     */
+    public GCEvent getLastConcurrentEvent() {
+        return lastConcurrentEvent;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        concurrentCycleExecutor.shutdownNow();
+    }
+
+    /**
+     * Runs one concurrent mark-sweep cycle over both generations on the calling thread: an
+     * initial-mark pause, incremental marking while allocation and reference changes carry
+     * on, then a remark pause and a sweep. Objects are not aged or promoted. Cycles run one
+     * at a time. No transaction is held while marking; the remark, the sweep and the event
+     * commit together in one short transaction, as the final pause.
+     */
+    GCEvent runConcurrentCycle() {
+        synchronized (concurrentCycleLock) {
+            log.info("Running concurrent GC cycle");
+
+            long beforeHeap = heapSimulationEngine.getCurrentHeapSize();
+            long start = System.nanoTime();
+
+            ConcurrentMarker marker = heapSimulationEngine.startConcurrentMark();
+            long initialMarkNanos = System.nanoTime() - start;
+            int steps = 0;
+            while (heapSimulationEngine.concurrentMarkStep(marker, concurrentStepObjects)) {
+                steps++;
+            }
+            int markingSteps = steps + 1;
+            GCEvent gcEvent = new TransactionTemplate(transactionManager).execute(status -> {
+                long remarkStart = System.nanoTime();
+                MarkResult mark = heapSimulationEngine.remark(marker);
+                long marked = System.nanoTime();
+                SweepResult sweep;
+                String collectedRegions = null;
+                if (heapSimulationEngine.getHeapLayout() == HeapLayout.REGIONAL) {
+                    // Like G1's cleanup: free wholly dead regions, leave the rest to mixed collections.
+                    RegionCollectionResult cleanup = heapSimulationEngine.reclaimEmptyRegions();
+                    sweep = new SweepResult(cleanup.objectsCollected(), cleanup.reclaimedKB());
+                    collectedRegions = cleanup.describeRegions();
+                } else {
+                    sweep = heapSimulationEngine.sweepUnreachable(null);
+                }
+                long swept = System.nanoTime();
+
+                long afterHeap = heapSimulationEngine.getCurrentHeapSize();
+
+                GCEvent event = GCEvent.builder()
+                        .gcType(GCType.CONCURRENT)
+                        .beforeHeap(beforeHeap)
+                        .afterHeap(afterHeap)
+                        .reclaimedMemory(sweep.reclaimedKB())
+                        .objectsCollected(sweep.objectsCollected())
+                        .collectedRegions(collectedRegions)
+                        .pauseTimeNanos(initialMarkNanos + (marked - remarkStart) + (swept - marked))
+                        .markTimeNanos(marked - start)
+                        .sweepTimeNanos(swept - marked)
+                        .promoteTimeNanos(0L)
+                        .timestamp(simulationClock.now())
+                        .build();
+
+                record(event);
+
+                log.info("Concurrent GC completed in {} ms over {} marking steps. Marked: {}, Reclaimed: {} KB, "
+                                + "Objects collected: {}, Heap: {} KB -> {} KB", (System.nanoTime() - start) / 1_000_000,
+                        markingSteps, mark.objectsMarked(), sweep.reclaimedKB(), sweep.objectsCollected(),
+                        beforeHeap, afterHeap);
+                return event;
+            });
+            lastConcurrentEvent = gcEvent;
+            return gcEvent;
+        }
+    }
+
+    @Transactional
+    public GCEvent runMixedGC() {
+        return runMixedGC(pauseTargetMs);
+    }
+
+    /**
+     * Collects the regions with the most garbage that fit in {@code pauseTargetMs}; needs
+     * the REGIONAL heap layout. Objects are not aged or promoted.
+     */
+    @Transactional
+    public GCEvent runMixedGC(long pauseTargetMs) {
+        log.info("Running Mixed GC (pause target {} ms)", pauseTargetMs);
+
+        long beforeHeap = heapSimulationEngine.getCurrentHeapSize();
+
+        long start = System.nanoTime();
+        RegionCollectionResult collection = heapSimulationEngine.collectGarbageFirst(pauseTargetMs);
+        long collectionNanos = System.nanoTime() - start;
 
         long afterHeap = heapSimulationEngine.getCurrentHeapSize();
 
         GCEvent gcEvent = GCEvent.builder()
-                .gcType(GCType.MAJOR)
+                .gcType(GCType.MIXED)
                 .beforeHeap(beforeHeap)
                 .afterHeap(afterHeap)
-                .reclaimedMemory(reclaimedMemory)
-                .objectsCollected(objectsCollected)
-                .timestamp(LocalDateTime.now())
+                .reclaimedMemory(collection.reclaimedKB())
+                .objectsCollected(collection.objectsCollected())
+                .collectedRegions(collection.describeRegions())
+                .pauseTimeNanos(collectionNanos)
+                .markTimeNanos(0L)
+                .sweepTimeNanos(collectionNanos)
+                .promoteTimeNanos(0L)
+                .timestamp(simulationClock.now())
                 .build();
 
-        gcEventRepository.save(gcEvent);
+        record(gcEvent);
 
-        log.info("Full GC completed. Reclaimed: {} KB, Objects collected: {}, Heap: {} KB -> {} KB",
-                reclaimedMemory, objectsCollected, beforeHeap, afterHeap);
+        log.info("Mixed GC completed. Regions: [{}], Reclaimed: {} KB, Objects collected: {}, Heap: {} KB -> {} KB",
+                gcEvent.getCollectedRegions(), collection.reclaimedKB(), collection.objectsCollected(),
+                beforeHeap, afterHeap);
 
         return gcEvent;
     }
 
+    /**
+     * Adds the event's pause to its type's histogram and saves it, timing the save as the
+     * persist phase. In a transaction the persist time reaches the row at commit, and the
+     * mutation epoch only moves once it has: moving it earlier would let a reader cache GC
+     * statistics that do not yet see the event under the new epoch.
+     */
+    private void record(GCEvent gcEvent) {
+        pauseHistograms.get(gcEvent.getGcType()).record(gcEvent.getPauseTimeNanos());
+        long start = System.nanoTime();
+        gcEventRepository.save(gcEvent);
+        gcEvent.setPersistTimeNanos(System.nanoTime() - start);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    heapSimulationEngine.bumpMutationEpoch();
+                }
+            });
+        } else {
+            heapSimulationEngine.bumpMutationEpoch();
+        }
+    }
+
+    private static Map<GCType, PauseHistogram> newPauseHistograms() {
+        Map<GCType, PauseHistogram> histograms = new EnumMap<>(GCType.class);
+        for (GCType gcType : GCType.values()) {
+            histograms.put(gcType, new PauseHistogram());
+        }
+        return histograms;
+    }
+
+    /**
+     * Pause times of every collection of one type since startup.
+     */
+    public PauseHistogram getPauseHistogram(GCType gcType) {
+        return pauseHistograms.get(gcType);
+    }
+
+    public HeapLayout getHeapLayout() {
+        return heapSimulationEngine.getHeapLayout();
+    }
+
+    public long getPauseTargetMs() {
+        return pauseTargetMs;
+    }
+
+    public CollectorMode getCollectorMode() {
+        return collectorMode;
+    }
+
     public List<GCEvent> getGCHistory() {
         return gcEventRepository.findAllOrderByTimestampDesc();
     }
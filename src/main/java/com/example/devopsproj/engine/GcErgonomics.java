@@ -0,0 +1,316 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.model.GCType;
+import com.example.devopsproj.repository.GCEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts collections on its own, in the spirit of HotSpot's GC ergonomics. At a fixed
+ * interval it checks, in order: the heap against its budget (full GC), the old generation
+ * against its initiating occupancy (major GC) and the young generation against its trigger
+ * (minor GC), and runs at most one collection.
+ *
+ * <p>Both occupancy triggers adapt after every check. An allocation that had to collect
+ * for itself since the last check means the trigger fired too late, so it moves down by
+ * one step. A collection whose recent events reclaimed less than the minimum efficiency
+ * (reclaimed KB over heap before, as in the GC history) ran too early, so the trigger
+ * moves up by one step. Triggers stay within the configured bounds.
+ *
+ * <p>Like HotSpot's GC overhead limit, old-generation collections (heap budget and old
+ * occupancy) back off when they stop paying: one that reclaims less than the overhead
+ * limit of the heap suspends both rules for one check, and every further such collection
+ * doubles the suspension, up to {@code max-backoff-checks}. A collection that reclaims
+ * enough ends the backoff. A heap held full by a real leak therefore gets a full GC at
+ * exponentially growing intervals instead of one on every check.
+ */
+@Component
+@Slf4j
+public class GcErgonomics {
+
+    private static final List<GCType> OLD_COLLECTIONS = List.of(GCType.MAJOR, GCType.CONCURRENT);
+
+    private final GarbageCollectionEngine garbageCollectionEngine;
+    private final HeapSimulationEngine heapSimulationEngine;
+    private final GCEventRepository gcEventRepository;
+    private final Map<ErgonomicsPolicy, Counter> triggered = new EnumMap<>(ErgonomicsPolicy.class);
+    private ScheduledExecutorService executor;
+
+    @Value("${simulation.gc.ergonomics.enabled:false}")
+    private Boolean enabled = false;
+
+    @Value("${simulation.gc.ergonomics.interval-ms:200}")
+    private Long intervalMs = 200L;
+
+    @Value("${simulation.gc.ergonomics.heap-budget-percent:95}")
+    private Integer heapBudgetPercent = 95;
+
+    @Value("${simulation.gc.ergonomics.young-trigger-percent:80}")
+    private Integer initialYoungTriggerPercent = 80;
+
+    /** Like {@code -XX:InitiatingHeapOccupancyPercent}, but of the old generation. */
+    @Value("${simulation.gc.ergonomics.old-trigger-percent:70}")
+    private Integer initialOldTriggerPercent = 70;
+
+    @Value("${simulation.gc.ergonomics.min-trigger-percent:30}")
+    private Integer minTriggerPercent = 30;
+
+    @Value("${simulation.gc.ergonomics.max-trigger-percent:90}")
+    private Integer maxTriggerPercent = 90;
+
+    @Value("${simulation.gc.ergonomics.step-percent:5}")
+    private Integer stepPercent = 5;
+
+    /** Recent collections of a kind whose efficiency is averaged. */
+    @Value("${simulation.gc.ergonomics.efficiency-window:5}")
+    private Integer efficiencyWindow = 5;
+
+    @Value("${simulation.gc.ergonomics.min-efficiency:0.1}")
+    private Double minEfficiency = 0.1;
+
+    /** Share of the heap an old-generation collection must reclaim not to count as futile. */
+    @Value("${simulation.gc.ergonomics.overhead-limit-percent:2}")
+    private Double overheadLimitPercent = 2.0;
+
+    @Value("${simulation.gc.ergonomics.max-backoff-checks:32}")
+    private Integer maxBackoffChecks = 32;
+
+    private volatile int youngTriggerPercent = 80;
+    private volatile int oldTriggerPercent = 70;
+    private long lastAllocationMinorGCs;
+    private long lastAllocationFullGCs;
+    /** Length of the current old-collection backoff in checks; 0 when not backing off. */
+    private int backoffChecks;
+    /** Checks left before old-generation collections may run again. */
+    private volatile int suspendedChecks;
+
+    public GcErgonomics(GarbageCollectionEngine garbageCollectionEngine,
+                        HeapSimulationEngine heapSimulationEngine,
+                        GCEventRepository gcEventRepository,
+                        MeterRegistry meterRegistry) {
+        this.garbageCollectionEngine = garbageCollectionEngine;
+        this.heapSimulationEngine = heapSimulationEngine;
+        this.gcEventRepository = gcEventRepository;
+        for (ErgonomicsPolicy policy : ErgonomicsPolicy.values()) {
+            triggered.put(policy, Counter.builder("heap.gc.ergonomics")
+                    .description("Collections started by GC ergonomics")
+                    .tag("policy", policy.name())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Brings the configured percentages within 0-100 and the initial triggers within their
+     * bounds, so a mistyped setting cannot make a rule fire always or never.
+     */
+    @PostConstruct
+    void configureTriggers() {
+        heapBudgetPercent = percent("heap-budget-percent", heapBudgetPercent);
+        minTriggerPercent = percent("min-trigger-percent", minTriggerPercent);
+        maxTriggerPercent = Math.max(minTriggerPercent, percent("max-trigger-percent", maxTriggerPercent));
+        youngTriggerPercent = clamp(percent("young-trigger-percent", initialYoungTriggerPercent));
+        oldTriggerPercent = clamp(percent("old-trigger-percent", initialOldTriggerPercent));
+        backoffChecks = 0;
+        suspendedChecks = 0;
+    }
+
+    private static int percent(String setting, int value) {
+        int clamped = Math.max(0, Math.min(100, value));
+        if (clamped != value) {
+            log.warn("simulation.gc.ergonomics.{} is {}, using {}", setting, value, clamped);
+        }
+        return clamped;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "gc-ergonomics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::evaluateSafely, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        log.info("GC ergonomics enabled: checking every {} ms, young trigger {}%, old trigger {}%",
+                intervalMs, youngTriggerPercent, oldTriggerPercent);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void evaluateSafely() {
+        try {
+            evaluate();
+        } catch (RuntimeException e) {
+            log.error("GC ergonomics check failed", e);
+        }
+    }
+
+    /**
+     * Runs the collection the current occupancy calls for, if any, then adapts the
+     * triggers. Returns the policy that fired, or {@code null}.
+     */
+    public synchronized ErgonomicsPolicy evaluate() {
+        ErgonomicsPolicy policy = choosePolicy();
+        if (policy != null) {
+            log.info("GC ergonomics: {} (heap {}%, old {}%, young {}%)", policy,
+                    Math.round(heapOccupancyPercent()), Math.round(oldOccupancyPercent()),
+                    Math.round(youngOccupancyPercent()));
+            switch (policy) {
+                case HEAP_BUDGET -> applyOverheadLimit(garbageCollectionEngine.runFullGC());
+                case OLD_OCCUPANCY -> collectOldGeneration();
+                case YOUNG_OCCUPANCY -> garbageCollectionEngine.runMinorGC();
+            }
+            triggered.get(policy).increment();
+        }
+        adaptTriggers(policy);
+        return policy;
+    }
+
+    /**
+     * With the CONCURRENT collector, starts a background cycle and applies the overhead
+     * limit once it completes; a check while it still runs starts nothing new.
+     */
+    private void collectOldGeneration() {
+        if (garbageCollectionEngine.getCollectorMode() != CollectorMode.CONCURRENT) {
+            applyOverheadLimit(garbageCollectionEngine.runMajorGC());
+        } else if (!garbageCollectionEngine.isConcurrentCycleRunning()) {
+            garbageCollectionEngine.startConcurrentCycle().thenAccept(this::applyOverheadLimit);
+        }
+    }
+
+    private ErgonomicsPolicy choosePolicy() {
+        if (suspendedChecks > 0) {
+            suspendedChecks--;
+        } else if (heapOccupancyPercent() >= heapBudgetPercent) {
+            return ErgonomicsPolicy.HEAP_BUDGET;
+        } else if (oldOccupancyPercent() >= oldTriggerPercent) {
+            return ErgonomicsPolicy.OLD_OCCUPANCY;
+        }
+        if (youngOccupancyPercent() >= youngTriggerPercent) {
+            return ErgonomicsPolicy.YOUNG_OCCUPANCY;
+        }
+        return null;
+    }
+
+    private void adaptTriggers(ErgonomicsPolicy policy) {
+        long allocationMinorGCs = heapSimulationEngine.getAllocationTriggeredMinorGCs();
+        long allocationFullGCs = heapSimulationEngine.getAllocationTriggeredFullGCs();
+        boolean youngTooLate = allocationMinorGCs > lastAllocationMinorGCs;
+        boolean oldTooLate = allocationFullGCs > lastAllocationFullGCs;
+        lastAllocationMinorGCs = allocationMinorGCs;
+        lastAllocationFullGCs = allocationFullGCs;
+
+        if (youngTooLate) {
+            youngTriggerPercent = clamp(youngTriggerPercent - stepPercent);
+        } else if (policy == ErgonomicsPolicy.YOUNG_OCCUPANCY && recentEfficiency(List.of(GCType.MINOR)) < minEfficiency) {
+            youngTriggerPercent = clamp(youngTriggerPercent + stepPercent);
+        }
+        if (oldTooLate) {
+            oldTriggerPercent = clamp(oldTriggerPercent - stepPercent);
+        } else if (policy == ErgonomicsPolicy.OLD_OCCUPANCY && recentEfficiency(OLD_COLLECTIONS) < minEfficiency) {
+            oldTriggerPercent = clamp(oldTriggerPercent + stepPercent);
+        }
+    }
+
+    /**
+     * Starts or extends the old-collection backoff after a futile collection, and ends it
+     * after one that reclaimed at least the overhead limit of the heap.
+     */
+    private synchronized void applyOverheadLimit(GCEvent event) {
+        double reclaimedPercent = 100.0 * event.getReclaimedMemory() / heapSimulationEngine.getMaxHeapSizeKB();
+        if (reclaimedPercent >= overheadLimitPercent) {
+            backoffChecks = 0;
+            return;
+        }
+        backoffChecks = Math.min(Math.max(1, backoffChecks * 2), maxBackoffChecks);
+        suspendedChecks = backoffChecks;
+        log.warn("GC ergonomics: {} GC reclaimed {}% of the heap, below the {}% overhead limit; "
+                        + "suspending old-generation collections for {} checks", event.getGcType(),
+                String.format("%.2f", reclaimedPercent), overheadLimitPercent, backoffChecks);
+    }
+
+    /**
+     * Average efficiency of the latest collections of the given types; 1 when there are
+     * none, so an unknown history never delays collections.
+     */
+    private double recentEfficiency(List<GCType> gcTypes) {
+        List<GCEvent> recent = gcEventRepository.findRecentByGcTypes(gcTypes, PageRequest.of(0, efficiencyWindow));
+        return recent.stream()
+                .filter(event -> event.getBeforeHeap() > 0)
+                .mapToDouble(event -> (double) event.getReclaimedMemory() / event.getBeforeHeap())
+                .average()
+                .orElse(1.0);
+    }
+
+    private int clamp(int percent) {
+        return Math.max(minTriggerPercent, Math.min(maxTriggerPercent, percent));
+    }
+
+    private double heapOccupancyPercent() {
+        return 100.0 * heapSimulationEngine.getHeapOccupancyKB() / heapSimulationEngine.getMaxHeapSizeKB();
+    }
+
+    private double oldOccupancyPercent() {
+        long capacity = heapSimulationEngine.getOldGenCapacityKB();
+        return capacity > 0 ? 100.0 * heapSimulationEngine.getOldGenSize() / capacity : 0.0;
+    }
+
+    private double youngOccupancyPercent() {
+        if (heapSimulationEngine.getYoungCollector() == YoungCollector.COPYING) {
+            return 100.0 * heapSimulationEngine.getEdenSizeKB() / heapSimulationEngine.getEdenCapacityKB();
+        }
+        return 100.0 * heapSimulationEngine.getYoungGenSize() / heapSimulationEngine.getYoungGenCapacityKB();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getYoungTriggerPercent() {
+        return youngTriggerPercent;
+    }
+
+    public int getOldTriggerPercent() {
+        return oldTriggerPercent;
+    }
+
+    /**
+     * Checks left before old-generation collections may run again; 0 unless backing off
+     * under the overhead limit.
+     */
+    public int getSuspendedChecks() {
+        return suspendedChecks;
+    }
+
+    /**
+     * Collections started so far, per policy.
+     */
+    public Map<ErgonomicsPolicy, Long> getTriggeredCollections() {
+        Map<ErgonomicsPolicy, Long> counts = new EnumMap<>(ErgonomicsPolicy.class);
+        triggered.forEach((policy, counter) -> counts.put(policy, (long) counter.count()));
+        return counts;
+    }
+}
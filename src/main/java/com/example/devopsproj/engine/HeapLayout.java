@@ -0,0 +1,14 @@
+package com.example.devopsproj.engine;
+
+/**
+ * How {@link HeapSimulationEngine} organises the simulated heap for collection.
+ */
+public enum HeapLayout {
+    /** Two flat generations; collections sweep a whole generation. */
+    GENERATIONAL,
+    /**
+     * Generations plus fixed-size address regions with live-KB accounting, enabling
+     * garbage-first mixed collections of a subset of regions.
+     */
+    REGIONAL
+}
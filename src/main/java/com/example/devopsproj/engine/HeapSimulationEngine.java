@@ -1,161 +1,1494 @@
 package com.example.devopsproj.engine;
 
+import com.example.devopsproj.exception.SimulatedOutOfMemoryException;
 import com.example.devopsproj.model.Generation;
 import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.model.HeapReference;
+import com.example.devopsproj.model.ObjectType;
 import com.example.devopsproj.repository.HeapObjectRepository;
+import com.example.devopsproj.repository.HeapObjectTotals;
+import com.example.devopsproj.repository.HeapReferenceRepository;
+import com.example.devopsproj.repository.ObjectTypeRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 @Component
 @Slf4j
 public class HeapSimulationEngine {
 
-    private final Map<Long, HeapObject> inMemoryHeap;
+    private static final int LOAD_PAGE_SIZE = 10_000;
+
+    /**
+     * Objects drawn from one split of a random allocation's generator. Fixed so that a
+     * seed yields the same sizes whatever the batch size or core count.
+     */
+    private static final int RANDOM_CHUNK_SIZE = 4096;
+
+    private final ColumnarHeapStore heapStore;
     private final AtomicLong objectIdCounter;
+    private ThreadLocalAllocationBuffers allocationBuffers;
     private final HeapObjectRepository heapObjectRepository;
+    private final HeapReferenceRepository heapReferenceRepository;
+    private final ObjectTypeRepository objectTypeRepository;
+    private final ReferenceGraph referenceGraph = new ReferenceGraph();
+    /** Mutation epoch bumps for changes the heap store does not see; see {@link #getMutationEpoch()}. */
+    private final LongAdder epochBumps = new LongAdder();
+    /**
+     * Serialises the check-then-act steps of root and reference changes, so an edge can
+     * never be added to an object at the moment it is being released.
+     */
+    private final Object referenceLock = new Object();
+    /** Edge changes awaiting the next write-behind flush, in the order they were made. */
+    private final Deque<ReferenceChange> pendingReferenceChanges = new ConcurrentLinkedDeque<>();
+    private ForkJoinPool markingPool = ForkJoinPool.commonPool();
+    /** The concurrent marking cycle in progress, if any; mutators run its write barrier. */
+    private volatile ConcurrentMarker activeMarker;
+    /** Looked up lazily: the GC engine itself depends on this engine. */
+    private final ObjectProvider<GarbageCollectionEngine> garbageCollectionEngine;
+    private final SimulationClock simulationClock;
+    private final Object allocationFailureLock = new Object();
+    private final Timer allocationStallTimer;
+    private final Counter minorGcOnAllocation;
+    private final Counter fullGcOnAllocation;
+    private final Counter allocationFailures;
+    private final Counter objectsExpired;
+    private final Timer allocationLatencyIdle;
+    private final Timer allocationLatencyDuringMark;
+    private final Timer initialMarkPause;
+    private final Timer remarkPause;
+    private final TransactionTemplate flushTransaction;
+    private final WriteBehindQueue writeBehindQueue = new WriteBehindQueue();
+    private final Object flushLock = new Object();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    /** Type dictionary entries below this id are already in {@code object_type}. */
+    private int persistedTypeCount;
+    private ScheduledExecutorService flushExecutor;
+    /** Objects allocated with a lifetime, dereferenced once it ends. */
+    private ObjectLifetimes lifetimes;
+    /** Eden, survivor spaces and card table of the COPYING young collector. */
+    private CopyingYoungCollector copyingCollector;
+
+    /**
+     * Mutators (allocation, dereference) share the read side; collections and other
+     * structural changes to the store take the write side, like a stop-the-world pause.
+     */
+    private final ReentrantReadWriteLock heapLock = new ReentrantReadWriteLock();
 
     @Value("${simulation.max-heap-size-kb:1048576}")
-    private Long maxHeapSizeKB;
+    private Long maxHeapSizeKB = 1_048_576L;
 
+    /** Old-to-young size ratio, as in {@code -XX:NewRatio}: young gets 1/(newRatio+1) of the heap. */
+    @Value("${simulation.new-ratio:2}")
+    private Integer newRatio = 2;
+
+    /** The tenuring threshold; with the ADAPTIVE policy, only the initial one. */
     @Value("${simulation.young-gen-threshold:10}")
     private Integer youngGenAgeThreshold;
 
-    public HeapSimulationEngine(HeapObjectRepository heapObjectRepository) {
+    @Value("${simulation.tenuring-policy:FIXED}")
+    private TenuringPolicy tenuringPolicy = TenuringPolicy.FIXED;
+
+    /** Upper bound of the adaptive threshold, as in {@code -XX:MaxTenuringThreshold}. */
+    @Value("${simulation.max-tenuring-threshold:15}")
+    private Integer maxTenuringThreshold = 15;
+
+    /** Survivor occupancy the adaptive threshold aims for, as in {@code -XX:TargetSurvivorRatio}. */
+    @Value("${simulation.target-survivor-ratio:50}")
+    private Integer targetSurvivorRatio = 50;
+
+    /** Threshold chosen by the last young collection under the ADAPTIVE policy; null before it. */
+    private volatile Integer adaptiveTenuringThreshold;
+
+    @Value("${simulation.allocation-batch-size:1000}")
+    private Integer allocationBatchSize;
+
+    @Value("${simulation.persistence-mode:SYNC}")
+    private PersistenceMode persistenceMode = PersistenceMode.SYNC;
+
+    @Value("${simulation.write-behind.flush-interval-ms:1000}")
+    private Long flushIntervalMs = 1000L;
+
+    @Value("${simulation.write-behind.max-dirty-objects:100000}")
+    private Integer maxDirtyObjects = 100_000;
+
+    @Value("${simulation.tlab.id-block-size:4096}")
+    private Integer tlabIdBlockSize = 4096;
+
+    @Value("${simulation.tlab.size-kb:4096}")
+    private Long tlabSizeKB = 4096L;
+
+    /** Parallelism of the mark phase; 0 shares the common fork/join pool. */
+    @Value("${simulation.gc.marking-threads:0}")
+    private Integer markingThreads = 0;
+
+    @Value("${simulation.heap-layout:GENERATIONAL}")
+    private HeapLayout heapLayout = HeapLayout.GENERATIONAL;
+
+    @Value("${simulation.regions.size-kb:1024}")
+    private Long regionSizeKB = 1024L;
+
+    /** Regions more live than this are left out of mixed collections, as in G1. */
+    @Value("${simulation.regions.live-threshold-percent:85}")
+    private Integer regionLiveThresholdPercent = 85;
+
+    /** Sweep cost assumed per object until a region collection has been measured. */
+    @Value("${simulation.regions.initial-cost-ns-per-object:1000}")
+    private Long initialRegionCostNanos = 1000L;
+
+    private PauseTimePredictor regionPausePredictor;
+
+    @Value("${simulation.young-collector:MARK_SWEEP}")
+    private YoungCollector youngCollector = YoungCollector.MARK_SWEEP;
+
+    /** Eden to one survivor space, as in {@code -XX:SurvivorRatio}. */
+    @Value("${simulation.survivor-ratio:8}")
+    private Integer survivorRatio = 8;
+
+    /** Without it a copying young collection scans the whole old generation for references. */
+    @Value("${simulation.gc.card-table:true}")
+    private Boolean cardTableEnabled = true;
+
+    @Value("${simulation.card-size-kb:16}")
+    private Long cardSizeKB = 16L;
+
+    /** Resolution of object lifetimes; expired objects are dereferenced once per tick. */
+    @Value("${simulation.lifetime.tick-ms:10}")
+    private Long lifetimeTickMs = 10L;
+
+    public HeapSimulationEngine(HeapObjectRepository heapObjectRepository,
+                                HeapReferenceRepository heapReferenceRepository,
+                                ObjectTypeRepository objectTypeRepository,
+                                PlatformTransactionManager transactionManager,
+                                ObjectProvider<GarbageCollectionEngine> garbageCollectionEngine,
+                                MeterRegistry meterRegistry,
+                                SimulationClock simulationClock) {
         this.heapObjectRepository = heapObjectRepository;
-        this.inMemoryHeap = new ConcurrentHashMap<>();
+        this.heapReferenceRepository = heapReferenceRepository;
+        this.simulationClock = simulationClock;
+        this.objectTypeRepository = objectTypeRepository;
+        this.garbageCollectionEngine = garbageCollectionEngine;
+        this.allocationStallTimer = Timer.builder("heap.allocation.stall")
+                .description("Time allocations spent waiting for allocation-failure GCs")
+                .register(meterRegistry);
+        this.minorGcOnAllocation = Counter.builder("heap.gc.on.allocation")
+                .description("GCs triggered because an allocation did not fit")
+                .tag("type", "minor")
+                .register(meterRegistry);
+        this.fullGcOnAllocation = Counter.builder("heap.gc.on.allocation")
+                .description("GCs triggered because an allocation did not fit")
+                .tag("type", "full")
+                .register(meterRegistry);
+        this.allocationFailures = Counter.builder("heap.allocation.failures")
+                .description("Allocations that failed with a simulated OutOfMemoryError")
+                .register(meterRegistry);
+        this.allocationLatencyIdle = allocationLatencyTimer("idle", meterRegistry);
+        this.allocationLatencyDuringMark = allocationLatencyTimer("concurrent-mark", meterRegistry);
+        this.initialMarkPause = gcPauseTimer("initial-mark", meterRegistry);
+        this.remarkPause = gcPauseTimer("remark", meterRegistry);
+        this.heapStore = new ColumnarHeapStore(new TypeDictionary());
         this.objectIdCounter = new AtomicLong(0);
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectsExpired = Counter.builder("heap.objects.expired")
+                .description("Objects dereferenced when their allocation lifetime ended")
+                .register(meterRegistry);
     }
 
-    public List<HeapObject> allocateObjects(int count, int sizeInKB, String objectType, boolean createReferences) {
-        List<HeapObject> allocatedObjects = new ArrayList<>();
+    private static Timer allocationLatencyTimer(String gcState, MeterRegistry meterRegistry) {
+        return Timer.builder("heap.allocation.latency")
+                .description("Time to store one allocation batch, including any wait for the heap lock")
+                .tag("gc", gcState)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
 
-        log.info("Allocating {} objects of size {} KB and type {}", count, sizeInKB, objectType);
+    private static Timer gcPauseTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder("heap.gc.pause")
+                .description("Pauses of concurrent collection cycles")
+                .tag("phase", phase)
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(meterRegistry);
+    }
 
-        for (int i = 0; i < count; i++) {
-            HeapObject heapObject = HeapObject.builder()
-                    .sizeInKB(sizeInKB)
-                    .allocationTime(LocalDateTime.now())
-                    .lastAccessTime(LocalDateTime.now())
-                    .referenced(createReferences)
-                    .objectType(objectType)
-                    .generation(Generation.YOUNG)
-                    .age(0)
-                    .build();
+    /**
+     * Builds everything that depends on the {@code simulation.*} settings, once they are
+     * injected; the only place any of it is built. Tests that construct the engine set the
+     * fields they need and then call this.
+     */
+    @PostConstruct
+    void configure() {
+        allocationBuffers = new ThreadLocalAllocationBuffers(objectIdCounter, tlabIdBlockSize, tlabSizeKB);
+        regionPausePredictor = new PauseTimePredictor(initialRegionCostNanos);
+        if (heapLayout == HeapLayout.REGIONAL) {
+            heapStore.enableRegions(new RegionTable(regionSizeKB));
+        }
+        copyingCollector = new CopyingYoungCollector(heapStore, referenceGraph);
+        if (youngCollector == YoungCollector.COPYING && cardTableEnabled) {
+            heapStore.enableCardTable(new CardTable(cardSizeKB));
+        }
+        lifetimes = new ObjectLifetimes(simulationClock, lifetimeTickMs);
+        if (markingThreads > 0) {
+            markingPool = new ForkJoinPool(markingThreads);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadPersistedHeap() {
+        if (persistenceMode == PersistenceMode.NONE) {
+            return;
+        }
+        refreshInMemoryHeap();
 
-            HeapObject savedObject = heapObjectRepository.save(heapObject);
-            inMemoryHeap.put(savedObject.getId(), savedObject);
-            allocatedObjects.add(savedObject);
+        if (persistenceMode == PersistenceMode.WRITE_BEHIND) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "heap-write-behind");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flushExecutor.scheduleWithFixedDelay(this::flushPendingWrites,
+                    flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+            log.info("Write-behind persistence enabled: flush every {} ms or at {} dirty objects",
+                    flushIntervalMs, maxDirtyObjects);
         }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startLifetimeWheel() {
+        lifetimes.start(this::expireDueObjectsSafely);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (markingPool != ForkJoinPool.commonPool()) {
+            markingPool.shutdown();
+        }
+        if (lifetimes != null) {
+            lifetimes.shutdown();
+        }
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+            flushPendingWrites();
+        }
+    }
+
+    public List<HeapObject> allocateObjects(int count, int sizeInKB, String objectType, boolean createReferences) {
+        List<HeapObject> allocatedObjects = new ArrayList<>(count);
+        allocateObjects(count, sizeInKB, objectType, createReferences, allocatedObjects::addAll);
+        return allocatedObjects;
+    }
+
+    /**
+     * Allocates objects and hands each stored batch to {@code batchConsumer}
+     * instead of collecting them, so callers that only summarise or stream the
+     * result do not hold every allocated object at once.
+     */
+    public void allocateObjects(int count, int sizeInKB, String objectType, boolean createReferences,
+                                Consumer<List<HeapObject>> batchConsumer) {
+        log.info("Allocating {} objects of size {} KB and type {}", count, sizeInKB, objectType);
+
+        allocate(count, sizeInKB, objectType, createReferences, batchConsumer);
 
         log.info("Successfully allocated {} objects. Current heap size: {} KB",
                 count, getCurrentHeapSize());
+    }
 
+    public List<HeapObject> allocateRandomObjects(int count, int minSize, int maxSize, String objectType) {
+        return allocateRandomObjects(count, minSize, maxSize, objectType, SizeDistribution.UNIFORM,
+                new SplittableRandom().nextLong());
+    }
+
+    public List<HeapObject> allocateRandomObjects(int count, int minSize, int maxSize, String objectType,
+                                                  SizeDistribution distribution, long seed) {
+        List<HeapObject> allocatedObjects = new ArrayList<>(count);
+        allocateRandomObjects(count, minSize, maxSize, objectType, distribution, seed, allocatedObjects::addAll);
         return allocatedObjects;
     }
 
-    public List<HeapObject> allocateRandomObjects(int count, int minSize, int maxSize, String objectType) {
-        List<HeapObject> allocatedObjects = new ArrayList<>();
-        Random random = new Random();
+    /**
+     * Allocates referenced objects with sizes drawn from {@code distribution}, generating
+     * and storing chunks in parallel. The objects get one contiguous id range, and chunk
+     * {@code i} draws from the {@code i}-th split of a generator seeded with {@code seed},
+     * so on a fresh heap the same seed always produces the same objects. Batches reach
+     * {@code batchConsumer} on the calling thread, in id order.
+     */
+    public void allocateRandomObjects(int count, int minSize, int maxSize, String objectType,
+                                      SizeDistribution distribution, long seed,
+                                      Consumer<List<HeapObject>> batchConsumer) {
+        if (minSize < 1 || maxSize < minSize) {
+            throw new IllegalArgumentException("Size range must satisfy 1 <= minSize <= maxSize");
+        }
+        log.info("Allocating {} {} random objects of {}-{} KB and type {} (seed {})",
+                count, distribution, minSize, maxSize, objectType, seed);
 
-        for (int i = 0; i < count; i++) {
-            int size = random.nextInt(maxSize - minSize + 1) + minSize;
-            HeapObject heapObject = HeapObject.builder()
-                    .sizeInKB(size)
-                    .allocationTime(LocalDateTime.now())
-                    .lastAccessTime(LocalDateTime.now())
+        int typeId = internType(objectType);
+        SplittableRandom root = new SplittableRandom(seed);
+        long nextId = allocationBuffers.reserveIds(count);
+        int chunksPerWave = 4 * ForkJoinPool.getCommonPoolParallelism();
+
+        for (int waveStart = 0; waveStart < count; waveStart += chunksPerWave * RANDOM_CHUNK_SIZE) {
+            int waveObjects = (int) Math.min((long) chunksPerWave * RANDOM_CHUNK_SIZE, count - waveStart);
+            int chunks = (waveObjects + RANDOM_CHUNK_SIZE - 1) / RANDOM_CHUNK_SIZE;
+            SplittableRandom[] randoms = new SplittableRandom[chunks];
+            for (int i = 0; i < chunks; i++) {
+                randoms[i] = root.split();
+            }
+
+            int[][] sizes = new int[chunks][];
+            IntStream.range(0, chunks).parallel().forEach(i -> {
+                int[] chunkSizes = new int[Math.min(RANDOM_CHUNK_SIZE, waveObjects - i * RANDOM_CHUNK_SIZE)];
+                for (int j = 0; j < chunkSizes.length; j++) {
+                    chunkSizes[j] = distribution.sample(randoms[i], minSize, maxSize);
+                }
+                sizes[i] = chunkSizes;
+            });
+
+            long[] chunkAddresses = new long[chunks];
+            long waveKB = 0;
+            for (int i = 0; i < chunks; i++) {
+                chunkAddresses[i] = waveKB;
+                for (int size : sizes[i]) {
+                    waveKB += size;
+                }
+            }
+            long baseAddress = allocationBuffers.reserveAddresses(waveKB);
+
+            long waveFirstId = nextId;
+            List<List<HeapObject>> built = new ArrayList<>(Collections.nCopies(chunks, null));
+            IntStream.range(0, chunks).parallel().forEach(i -> {
+                List<HeapObject> chunk = buildChunk(simulationClock.now(), waveFirstId + (long) i * RANDOM_CHUNK_SIZE,
+                        baseAddress + chunkAddresses[i], sizes[i], typeId, objectType);
+                // Database inserts stay on the caller's thread, inside its transaction.
+                if (persistenceMode != PersistenceMode.SYNC) {
+                    storeInBatches(chunk, typeId, batch -> { });
+                }
+                built.set(i, chunk);
+            });
+            for (List<HeapObject> chunk : built) {
+                if (persistenceMode == PersistenceMode.SYNC) {
+                    storeInBatches(chunk, typeId, batchConsumer);
+                } else {
+                    batchConsumer.accept(chunk);
+                }
+            }
+            nextId += waveObjects;
+        }
+
+        log.info("Successfully allocated {} random objects. Current heap size: {} KB",
+                count, getCurrentHeapSize());
+    }
+
+    private static List<HeapObject> buildChunk(LocalDateTime now, long firstId, long firstAddress, int[] sizes,
+                                               int typeId, String objectType) {
+        List<HeapObject> chunk = new ArrayList<>(sizes.length);
+        long address = firstAddress;
+        for (int j = 0; j < sizes.length; j++) {
+            chunk.add(HeapObject.builder()
+                    .id(firstId + j)
+                    .address(address)
+                    .sizeInKB(sizes[j])
+                    .typeId(typeId)
+                    .allocationTime(now)
+                    .lastAccessTime(now)
                     .referenced(true)
+                    .root(true)
                     .objectType(objectType)
                     .generation(Generation.YOUNG)
                     .age(0)
-                    .build();
+                    .build());
+            address += sizes[j];
+        }
+        return chunk;
+    }
 
-            HeapObject savedObject = heapObjectRepository.save(heapObject);
-            inMemoryHeap.put(savedObject.getId(), savedObject);
-            allocatedObjects.add(savedObject);
+    private void storeInBatches(List<HeapObject> objects, int typeId, Consumer<List<HeapObject>> batchConsumer) {
+        for (int from = 0; from < objects.size(); from += allocationBatchSize) {
+            storeAllocationBatch(objects.subList(from, Math.min(from + allocationBatchSize, objects.size())),
+                    typeId, batchConsumer);
         }
+    }
 
-        return allocatedObjects;
+    private void allocate(int count, int sizeInKB, String objectType, boolean referenced,
+                          Consumer<List<HeapObject>> batchConsumer) {
+        int typeId = internType(objectType);
+        List<HeapObject> batch = new ArrayList<>(Math.min(count, allocationBatchSize));
+
+        for (int i = 0; i < count; i++) {
+            LocalDateTime now = simulationClock.now();
+            batch.add(HeapObject.builder()
+                    .id(allocationBuffers.nextId())
+                    .address(allocationBuffers.allocateAddress(sizeInKB))
+                    .sizeInKB(sizeInKB)
+                    .typeId(typeId)
+                    .allocationTime(now)
+                    .lastAccessTime(now)
+                    .referenced(referenced)
+                    .root(referenced)
+                    .objectType(objectType)
+                    .generation(Generation.YOUNG)
+                    .age(0)
+                    .build());
+
+            if (batch.size() == allocationBatchSize) {
+                storeAllocationBatch(batch, typeId, batchConsumer);
+                batch = new ArrayList<>(allocationBatchSize);
+            }
+        }
+        storeAllocationBatch(batch, typeId, batchConsumer);
+    }
+
+    /**
+     * Interns an object type name. In SYNC mode a new type is written to
+     * {@code object_type} straight away; in WRITE_BEHIND mode with the next flush.
+     */
+    private int internType(String objectType) {
+        int typeId = heapStore.getTypeDictionary().intern(objectType);
+        if (persistenceMode == PersistenceMode.SYNC && typeId >= persistedTypeCount) {
+            persistNewTypes();
+        }
+        return typeId;
+    }
+
+    /**
+     * Writes dictionary entries not yet in {@code object_type} in their own transaction,
+     * so they are in place before any row referencing them.
+     */
+    private synchronized void persistNewTypes() {
+        TypeDictionary dictionary = heapStore.getTypeDictionary();
+        int size = dictionary.size();
+        if (size <= persistedTypeCount) {
+            return;
+        }
+        List<ObjectType> newTypes = new ArrayList<>(size - persistedTypeCount);
+        for (int typeId = persistedTypeCount; typeId < size; typeId++) {
+            newTypes.add(ObjectType.builder().id(typeId).name(dictionary.name(typeId)).build());
+        }
+        flushTransaction.executeWithoutResult(status -> objectTypeRepository.saveAll(newTypes));
+        persistedTypeCount = size;
+    }
+
+    /**
+     * Stores one allocation batch whose IDs and addresses are already assigned by the
+     * engine, so in SYNC mode Hibernate can group the inserts into JDBC batches without
+     * fetching keys, and in WRITE_BEHIND mode nothing touches the database. While a
+     * concurrent cycle is marking, the new objects are allocated black. With the copying
+     * young collector they are placed in eden.
+     */
+    private void storeAllocationBatch(List<HeapObject> batch, int typeId, Consumer<List<HeapObject>> batchConsumer) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Timer latency = activeMarker != null ? allocationLatencyDuringMark : allocationLatencyIdle;
+        long batchKB = 0;
+        for (HeapObject obj : batch) {
+            batchKB += obj.getSizeInKB();
+        }
+        ensureCapacity(batchKB);
+
+        heapLock.readLock().lock();
+        try {
+            if (persistenceMode == PersistenceMode.SYNC) {
+                heapObjectRepository.insertInBatches(batch, allocationBatchSize);
+            }
+            for (HeapObject obj : batch) {
+                heapStore.add(obj.getId(), obj.getSizeInKB(), obj.getAddress(),
+                        heapStore.toEpochMillis(obj.getAllocationTime()), obj.getReferenced(), typeId,
+                        Generation.YOUNG, 0);
+                recordWrite(obj.getId(), WriteBehindQueue.Operation.INSERT);
+                if (youngCollector == YoungCollector.COPYING) {
+                    copyingCollector.addToEden(obj.getId());
+                }
+            }
+            ConcurrentMarker marker = activeMarker;
+            if (marker != null) {
+                for (HeapObject obj : batch) {
+                    marker.markAllocated(obj.getId());
+                }
+            }
+        } finally {
+            heapLock.readLock().unlock();
+        }
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        requestFlushIfFull();
+        batchConsumer.accept(batch);
+    }
+
+    /**
+     * Allocation slow path, checked once per batch: when young gen cannot take
+     * {@code requestedKB} run a minor GC; if young gen or the heap as a whole is still
+     * too full run a full GC; if the heap still cannot fit the request fail with a
+     * simulated OutOfMemoryError. Concurrent mutators check independently, so the heap
+     * may overshoot by at most one batch per thread.
+     */
+    private void ensureCapacity(long requestedKB) {
+        if (youngGenFits(requestedKB) && heapFits(requestedKB)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            synchronized (allocationFailureLock) {
+                if (!youngGenFits(requestedKB)) {
+                    log.info("Allocation of {} KB does not fit in young gen, running minor GC", requestedKB);
+                    minorGcOnAllocation.increment();
+                    garbageCollectionEngine.getObject().runMinorGC();
+                }
+                if (!youngGenFits(requestedKB) || !heapFits(requestedKB)) {
+                    log.info("Allocation of {} KB still does not fit, running full GC", requestedKB);
+                    fullGcOnAllocation.increment();
+                    garbageCollectionEngine.getObject().runFullGC();
+                }
+                if (!heapFits(requestedKB)) {
+                    allocationFailures.increment();
+                    throw new SimulatedOutOfMemoryException(requestedKB, getHeapOccupancyKB(), maxHeapSizeKB);
+                }
+            }
+        } finally {
+            allocationStallTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean youngGenFits(long requestedKB) {
+        if (youngCollector == YoungCollector.COPYING) {
+            return heapStore.getEdenSizeKB() + requestedKB <= getEdenCapacityKB();
+        }
+        return getYoungGenSize() + requestedKB <= getYoungGenCapacityKB();
     }
 
+    private boolean heapFits(long requestedKB) {
+        return getHeapOccupancyKB() + requestedKB <= maxHeapSizeKB;
+    }
+
+    /**
+     * Takes objects out of the root set. An object nothing else references becomes
+     * unreachable at once; one still referenced by other objects stays live until the
+     * next mark phase shows whether those are reachable.
+     */
     public void dereferenceObjects(List<Long> objectIds) {
         log.info("Dereferencing {} objects", objectIds.size());
 
-        for (Long objectId : objectIds) {
-            HeapObject heapObject = inMemoryHeap.get(objectId);
-            if (heapObject != null) {
-                heapObject.setReferenced(false);
-                heapObjectRepository.save(heapObject);
-                inMemoryHeap.put(objectId, heapObject);
+        List<Long> released = new ArrayList<>(objectIds.size());
+        List<Long> retained = new ArrayList<>();
+        heapLock.readLock().lock();
+        try {
+            synchronized (referenceLock) {
+                for (Long objectId : objectIds) {
+                    if (objectId == null || !heapStore.removeRoot(objectId)) {
+                        continue;
+                    }
+                    if (referenceGraph.inDegree(objectId) == 0 && heapStore.dereference(objectId)) {
+                        released.add(objectId);
+                    } else {
+                        retained.add(objectId);
+                    }
+                    recordWrite(objectId, WriteBehindQueue.Operation.UPDATE);
+                }
+            }
+
+            if (persistenceMode == PersistenceMode.SYNC) {
+                forEachChunk(released, heapObjectRepository::markUnreferenced);
+                forEachChunk(retained, heapObjectRepository::removeRoots);
             }
+        } finally {
+            heapLock.readLock().unlock();
         }
+        requestFlushIfFull();
+    }
+
+    /**
+     * Dereferences {@code objectId} once {@code lifetimeMillis} of simulated time have
+     * passed, rounded up to the next lifetime tick, unless it has been dereferenced or
+     * collected by then.
+     */
+    public void expireAfter(long objectId, long lifetimeMillis) {
+        lifetimes.expireAfter(objectId, lifetimeMillis);
+    }
+
+    /**
+     * Dereferences every object whose lifetime has ended by the current simulated time,
+     * as one batch. Runs every lifetime tick in the background; returns the number of
+     * objects whose lifetime ended.
+     */
+    public int expireDueObjects() {
+        List<Long> expired = lifetimes.advance();
+        if (expired.isEmpty()) {
+            return 0;
+        }
+        if (persistenceMode == PersistenceMode.SYNC) {
+            flushTransaction.executeWithoutResult(status -> dereferenceObjects(expired));
+        } else {
+            dereferenceObjects(expired);
+        }
+        objectsExpired.increment(expired.size());
+        return expired.size();
+    }
+
+    private void expireDueObjectsSafely() {
+        try {
+            expireDueObjects();
+        } catch (RuntimeException e) {
+            log.error("Expiring objects failed", e);
+        }
+    }
+
+    /**
+     * Objects waiting for their lifetime to end, including any dereferenced or collected
+     * since they were scheduled.
+     */
+    public long getPendingExpiries() {
+        return lifetimes.size();
+    }
+
+    /**
+     * Makes {@code sourceId} reference {@code targetId}. Both objects must be referenced:
+     * the application cannot store a pointer in, or to, an object it no longer reaches.
+     */
+    public void addReference(long sourceId, long targetId) {
+        addReferences(new long[] {sourceId}, new long[] {targetId});
     }
 
-    public void promoteYoungObjects() {
+    /**
+     * Adds the edges {@code sourceIds[i] -> targetIds[i]}; see {@link #addReference}.
+     */
+    public void addReferences(long[] sourceIds, long[] targetIds) {
+        if (sourceIds.length != targetIds.length) {
+            throw new IllegalArgumentException("Every reference needs a source and a target");
+        }
+
+        List<HeapReference> added = new ArrayList<>(sourceIds.length);
+        heapLock.readLock().lock();
+        try {
+            synchronized (referenceLock) {
+                for (int i = 0; i < sourceIds.length; i++) {
+                    requireReferenced(sourceIds[i]);
+                    requireReferenced(targetIds[i]);
+                }
+                for (int i = 0; i < sourceIds.length; i++) {
+                    if (referenceGraph.add(sourceIds[i], targetIds[i])) {
+                        added.add(HeapReference.builder().sourceId(sourceIds[i]).targetId(targetIds[i]).build());
+                        recordReferenceChange(sourceIds[i], targetIds[i], true);
+                        writeBarrier(targetIds[i]);
+                        copyingCollector.dirtyCardIfOldToYoung(sourceIds[i], targetIds[i]);
+                    }
+                }
+            }
+
+            if (persistenceMode == PersistenceMode.SYNC) {
+                heapReferenceRepository.saveAll(added);
+            }
+        } finally {
+            heapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the edge {@code sourceId -> targetId}. A target left without roots or
+     * other references becomes unreachable at once.
+     */
+    public void removeReference(long sourceId, long targetId) {
+        boolean released;
+        heapLock.readLock().lock();
+        try {
+            synchronized (referenceLock) {
+                if (!referenceGraph.remove(sourceId, targetId)) {
+                    throw new IllegalArgumentException(
+                            "Object " + sourceId + " does not reference object " + targetId);
+                }
+                recordReferenceChange(sourceId, targetId, false);
+                writeBarrier(targetId);
+                released = referenceGraph.inDegree(targetId) == 0
+                        && !heapStore.isRoot(targetId)
+                        && heapStore.dereference(targetId);
+                if (released) {
+                    recordWrite(targetId, WriteBehindQueue.Operation.UPDATE);
+                }
+            }
+
+            if (persistenceMode == PersistenceMode.SYNC) {
+                heapReferenceRepository.deleteReference(sourceId, targetId);
+                if (released) {
+                    heapObjectRepository.markUnreferenced(List.of(targetId));
+                }
+            }
+        } finally {
+            heapLock.readLock().unlock();
+        }
+        requestFlushIfFull();
+    }
+
+    private void requireReferenced(long id) {
+        if (!heapStore.isReferenced(id)) {
+            throw new IllegalArgumentException("Object " + id + " does not exist or is no longer referenced");
+        }
+    }
+
+    /**
+     * Shades the target of a reference being added or removed while a concurrent cycle is
+     * marking. Shading new targets keeps a scanned (black) object from hiding a white one;
+     * shading old targets keeps everything reachable at the start of the cycle marked.
+     */
+    private void writeBarrier(long targetId) {
+        ConcurrentMarker marker = activeMarker;
+        if (marker != null) {
+            marker.shade(targetId);
+        }
+    }
+
+    private void recordReferenceChange(long sourceId, long targetId, boolean added) {
+        if (persistenceMode == PersistenceMode.WRITE_BEHIND) {
+            pendingReferenceChanges.add(new ReferenceChange(sourceId, targetId, added));
+        }
+    }
+
+    /**
+     * Mark phase: traces the reference graph from the roots on the marking pool and
+     * clears the referenced flag of every object it does not reach, so the following
+     * sweep collects unreachable cycles and objects held only by garbage. Skipped when
+     * the referenced objects are exactly the roots.
+     */
+    public MarkResult markLiveObjects() {
+        heapLock.writeLock().lock();
+        try {
+            if (referenceGraph.getEdgeCount() == 0 && heapStore.getRootCount() == heapStore.getLiveObjectCount()) {
+                return new MarkResult(heapStore.getLiveObjectCount(), 0);
+            }
+
+            long start = System.nanoTime();
+            MarkBitmap marks = ParallelMarker.mark(heapStore.rootIds(), referenceGraph, heapStore::contains,
+                    markingPool);
+            MarkResult result = clearUnmarked(marks);
+
+            log.info("Marked {} reachable objects, {} referenced objects unreachable, in {} ms",
+                    result.objectsMarked(), result.objectsUnreachable(), (System.nanoTime() - start) / 1_000_000);
+            return result;
+        } finally {
+            heapLock.writeLock().unlock();
+            requestFlushIfFull();
+        }
+    }
+
+    /**
+     * Initial-mark pause of a concurrent cycle: snapshots the roots and activates the
+     * write barrier. Mutators resume as soon as this returns; the cycle continues with
+     * {@link #concurrentMarkStep} and ends with {@link #remark}.
+     */
+    public ConcurrentMarker startConcurrentMark() {
+        long start = System.nanoTime();
+        heapLock.writeLock().lock();
+        try {
+            if (activeMarker != null) {
+                throw new IllegalStateException("A concurrent marking cycle is already running");
+            }
+            ConcurrentMarker marker = new ConcurrentMarker(heapStore.rootIds(), referenceGraph, heapStore::contains);
+            activeMarker = marker;
+            return marker;
+        } finally {
+            heapLock.writeLock().unlock();
+            initialMarkPause.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Scans up to {@code budget} grey objects alongside the mutators. Holds only the read
+     * side of the heap lock, so it excludes stop-the-world collections but not
+     * allocation or reference changes. Returns {@code true} while grey objects remain.
+     */
+    public boolean concurrentMarkStep(ConcurrentMarker marker, int budget) {
+        heapLock.readLock().lock();
+        try {
+            return !marker.isAbandoned() && marker.step(budget);
+        } finally {
+            heapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Final remark pause: drains what the write barrier greyed since the last step,
+     * deactivates the barrier and clears the referenced flag of every object left white,
+     * for the next sweep to collect. A cycle abandoned by {@link #clearHeap} or
+     * {@link #refreshInMemoryHeap} marks nothing unreachable.
+     */
+    public MarkResult remark(ConcurrentMarker marker) {
+        long start = System.nanoTime();
+        heapLock.writeLock().lock();
+        try {
+            if (activeMarker == marker) {
+                activeMarker = null;
+            }
+            if (marker.isAbandoned()) {
+                return new MarkResult(0, 0);
+            }
+            marker.finish();
+            MarkResult result = clearUnmarked(marker.getMarks());
+            log.info("Remark: {} reachable objects, {} unreachable, {} objects shaded by the write barrier",
+                    result.objectsMarked(), result.objectsUnreachable(), marker.getBarrierShades());
+            return result;
+        } finally {
+            heapLock.writeLock().unlock();
+            remarkPause.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            requestFlushIfFull();
+        }
+    }
+
+    /**
+     * Clears the referenced flag of every referenced object not in {@code marks}. Must be
+     * called holding the write lock.
+     */
+    private MarkResult clearUnmarked(MarkBitmap marks) {
+        List<Long> unreachable = new ArrayList<>();
+        heapStore.clearUnmarked(marks, id -> {
+            unreachable.add(id);
+            recordWrite(id, WriteBehindQueue.Operation.UPDATE);
+        });
+        if (persistenceMode == PersistenceMode.SYNC) {
+            forEachChunk(unreachable, heapObjectRepository::markUnreferenced);
+        }
+        return new MarkResult(marks.getMarkedCount(), unreachable.size());
+    }
+
+    private void abandonConcurrentMark() {
+        ConcurrentMarker marker = activeMarker;
+        if (marker != null) {
+            marker.abandon();
+            activeMarker = null;
+            log.info("Abandoned the concurrent marking cycle: the in-memory heap was replaced");
+        }
+    }
+
+    /**
+     * Ages every young object by one collection and tenures those reaching the threshold.
+     * In SYNC mode this is three set-based statements (count, age, promote) rather than a
+     * load and save per object.
+     */
+    public PromotionResult promoteYoungObjects() {
         log.info("Promoting old young generation objects to old generation");
 
-        List<HeapObject> youngObjects = heapObjectRepository.findByGeneration(Generation.YOUNG);
-        int promotedCount = 0;
+        PromotionResult promotion;
+        heapLock.writeLock().lock();
+        try {
+            int threshold = getTenuringThreshold();
+            AgeTable survivors = new AgeTable();
+            if (persistenceMode != PersistenceMode.SYNC) {
+                promotion = heapStore.ageYoungObjects(threshold,
+                        id -> recordWrite(id, WriteBehindQueue.Operation.UPDATE), survivors);
+            } else {
+                HeapObjectTotals tenured = heapObjectRepository.summarizeObjectsReachingAge(
+                        Generation.YOUNG, threshold - 1);
+                heapObjectRepository.incrementAge(Generation.YOUNG);
+                if (tenured.getObjectCount() > 0) {
+                    heapObjectRepository.promoteObjectsReachingAge(
+                            Generation.YOUNG, threshold, Generation.OLD);
+                }
+                heapStore.ageYoungObjects(threshold, id -> { }, survivors);
+                promotion = new PromotionResult((int) tenured.getObjectCount(), tenured.getSizeInKB());
+            }
+            updateTenuringThreshold(survivors);
+        } finally {
+            heapLock.writeLock().unlock();
+        }
+        requestFlushIfFull();
+
+        log.info("Promoted {} objects ({} KB) to OLD generation", promotion.objectsPromoted(), promotion.promotedKB());
+        return promotion;
+    }
+
+    /**
+     * Copying young collection over eden and the from-space (see
+     * {@link CopyingYoungCollector#collect}), as a stop-the-world pause: survivors are
+     * tenured at the current tenuring threshold, which is then updated, and freed and
+     * moved objects are written through according to the persistence mode.
+     */
+    public YoungCollectionResult collectYoungGeneration() {
+        heapLock.writeLock().lock();
+        try {
+            long start = System.nanoTime();
+            AgeTable survivors = new AgeTable();
+            List<Long> removed = new ArrayList<>();
+            Map<PersistedState, List<Long>> updates = new HashMap<>();
+            YoungCollectionResult result = copyingCollector.collect(getTenuringThreshold(), getSurvivorCapacityKB(),
+                    survivors, id -> {
+                        recordWrite(id, WriteBehindQueue.Operation.DELETE);
+                        removed.add(id);
+                    }, id -> {
+                        recordWrite(id, WriteBehindQueue.Operation.UPDATE);
+                        if (persistenceMode == PersistenceMode.SYNC) {
+                            updates.computeIfAbsent(new PersistedState(heapStore.isReferenced(id),
+                                    heapStore.isRoot(id), heapStore.getGeneration(id), heapStore.getAge(id)),
+                                    state -> new ArrayList<>()).add(id);
+                        }
+                    });
+            updateTenuringThreshold(survivors);
+
+            if (persistenceMode == PersistenceMode.SYNC) {
+                forEachChunk(removed, heapReferenceRepository::deleteBySourceIds);
+                forEachChunk(removed, heapObjectRepository::deleteAllByIdInBatch);
+                updates.forEach((state, ids) -> forEachChunk(ids, chunk -> heapObjectRepository.updateState(
+                        state.referenced(), state.root(), state.generation(), state.age(), chunk)));
+            }
+
+            log.info("Young collection: {} objects ({} KB) freed, {} ({} KB) copied to S{}, {} ({} KB) tenured; "
+                            + "scanned {} old objects on {} dirty cards in {} ms", result.objectsCollected(),
+                    result.reclaimedKB(), result.objectsSurvived(), result.survivedKB(),
+                    copyingCollector.getFromSpaceIndex(), result.objectsPromoted(), result.promotedKB(),
+                    result.oldObjectsScanned(), result.cardsScanned(), (System.nanoTime() - start) / 1_000_000);
+            return result;
+        } finally {
+            heapLock.writeLock().unlock();
+            requestFlushIfFull();
+        }
+    }
+
+    /**
+     * Age at which the next young collection tenures objects.
+     */
+    public int getTenuringThreshold() {
+        Integer adaptive = adaptiveTenuringThreshold;
+        return tenuringPolicy == TenuringPolicy.ADAPTIVE && adaptive != null ? adaptive : youngGenAgeThreshold;
+    }
+
+    /**
+     * Under the ADAPTIVE policy, picks the next threshold so that survivors stay within
+     * {@code targetSurvivorRatio} percent of a survivor space. Without survivor spaces
+     * (the mark-sweep young collector) the same share of the young generation is used.
+     */
+    private void updateTenuringThreshold(AgeTable survivors) {
+        if (tenuringPolicy != TenuringPolicy.ADAPTIVE) {
+            return;
+        }
+        long desiredSurvivorKB = getSurvivorCapacityKB() * targetSurvivorRatio / 100;
+        int threshold = survivors.computeTenuringThreshold(desiredSurvivorKB, maxTenuringThreshold);
+        if (!Integer.valueOf(threshold).equals(adaptiveTenuringThreshold)) {
+            log.info("Tenuring threshold {} (max {}): {} KB of survivors against a desired {} KB",
+                    threshold, maxTenuringThreshold, survivors.getTotalKB(), desiredSurvivorKB);
+        }
+        adaptiveTenuringThreshold = threshold;
+    }
 
-        for (HeapObject obj : youngObjects) {
-            obj.setAge(obj.getAge() + 1);
+    /**
+     * Removes unreferenced objects of one generation ({@code null} for both) from the
+     * heap and reports what was reclaimed.
+     */
+    public SweepResult sweepUnreachable(Generation generation) {
+        heapLock.writeLock().lock();
+        try {
+            if (persistenceMode != PersistenceMode.SYNC) {
+                return heapStore.sweepUnreachable(generation, id -> {
+                    referenceGraph.removeOutgoing(id);
+                    recordWrite(id, WriteBehindQueue.Operation.DELETE);
+                });
+            }
 
-            if (obj.getAge() >= youngGenAgeThreshold) {
-                obj.setGeneration(Generation.OLD);
-                promotedCount++;
-                log.debug("Promoted object {} to OLD generation", obj.getId());
+            // One aggregate and one bulk DELETE per generation; the rows never enter the
+            // persistence context.
+            int objectsCollected = 0;
+            long reclaimedMemory = 0;
+            for (Generation swept : generation == null ? Generation.values() : new Generation[] {generation}) {
+                HeapObjectTotals totals = heapObjectRepository.summarizeUnreachableObjects(swept);
+                if (totals.getObjectCount() == 0) {
+                    continue;
+                }
+                if (referenceGraph.getEdgeCount() > 0) {
+                    heapReferenceRepository.deleteReferencesFromUnreachable(swept);
+                }
+                heapObjectRepository.deleteUnreachableObjects(swept);
+                objectsCollected += (int) totals.getObjectCount();
+                reclaimedMemory += totals.getSizeInKB();
             }
+            heapStore.sweepUnreachable(generation, referenceGraph::removeOutgoing);
 
-            heapObjectRepository.save(obj);
-            inMemoryHeap.put(obj.getId(), obj);
+            return new SweepResult(objectsCollected, reclaimedMemory);
+        } finally {
+            heapLock.writeLock().unlock();
+            requestFlushIfFull();
         }
+    }
 
-        log.info("Promoted {} objects to OLD generation", promotedCount);
+    /**
+     * Garbage-first mixed collection: picks the regions with the most garbage, skipping
+     * those more than the live threshold full, and adds them to the collection set while
+     * the predicted pause stays within {@code pauseTargetMs} (at least one region is
+     * always taken). Only objects in the chosen regions are visited; survivors stay in
+     * place, as the simulation does not evacuate. Liveness is whatever is known now:
+     * released objects plus the results of the last mark.
+     */
+    public RegionCollectionResult collectGarbageFirst(long pauseTargetMs) {
+        heapLock.writeLock().lock();
+        try {
+            RegionTable regions = requireRegions();
+            List<RegionTable.RegionStats> candidates = regions.snapshot().stream()
+                    .filter(region -> region.garbageKB() > 0
+                            && region.livePercent() <= regionLiveThresholdPercent)
+                    .sorted(Comparator.comparingLong(RegionTable.RegionStats::garbageKB).reversed())
+                    .toList();
+
+            List<Long> collectionSet = new ArrayList<>();
+            long objects = 0;
+            double predictedMs = 0;
+            for (RegionTable.RegionStats region : candidates) {
+                double regionMs = regionPausePredictor.predictMillis(region.objectCount());
+                if (!collectionSet.isEmpty() && predictedMs + regionMs > pauseTargetMs) {
+                    break;
+                }
+                collectionSet.add(region.index());
+                objects += region.objectCount();
+                predictedMs += regionMs;
+            }
+
+            RegionCollectionResult result = collectRegions(collectionSet, objects, predictedMs);
+            log.info("Mixed collection of {} of {} candidate regions: {} objects, {} KB reclaimed "
+                            + "in {} ms (predicted {} ms, target {} ms)", collectionSet.size(), candidates.size(),
+                    result.objectsCollected(), result.reclaimedKB(), String.format("%.1f", result.pauseMs()),
+                    String.format("%.1f", predictedMs), pauseTargetMs);
+            return result;
+        } finally {
+            heapLock.writeLock().unlock();
+            requestFlushIfFull();
+        }
+    }
+
+    /**
+     * Cleanup after a concurrent mark: frees every region left without live objects,
+     * leaving partly live regions to later mixed collections.
+     */
+    public RegionCollectionResult reclaimEmptyRegions() {
+        heapLock.writeLock().lock();
+        try {
+            List<Long> empty = new ArrayList<>();
+            long objects = 0;
+            for (RegionTable.RegionStats region : requireRegions().snapshot()) {
+                if (region.liveKB() == 0) {
+                    empty.add(region.index());
+                    objects += region.objectCount();
+                }
+            }
+            return collectRegions(empty, objects, regionPausePredictor.predictMillis(objects));
+        } finally {
+            heapLock.writeLock().unlock();
+            requestFlushIfFull();
+        }
+    }
+
+    /**
+     * Sweeps the given regions and feeds the measured cost back into the predictor. Must
+     * be called holding the write lock.
+     */
+    private RegionCollectionResult collectRegions(List<Long> collectionSet, long objects, double predictedMs) {
+        long start = System.nanoTime();
+        long regionSizeKB = requireRegions().getRegionSizeKB();
+        int objectsCollected = 0;
+        long reclaimedKB = 0;
+        for (long index : collectionSet) {
+            boolean[] hadEdges = {false};
+            SweepResult sweep = heapStore.sweepRegion(index, id -> {
+                hadEdges[0] |= referenceGraph.removeOutgoing(id) > 0;
+                recordWrite(id, WriteBehindQueue.Operation.DELETE);
+            });
+            if (persistenceMode == PersistenceMode.SYNC && sweep.objectsCollected() > 0) {
+                // One bulk DELETE per region: its objects are those whose address starts in it.
+                long fromKB = index * regionSizeKB;
+                if (hadEdges[0]) {
+                    heapReferenceRepository.deleteReferencesFromUnreachableInRange(fromKB, fromKB + regionSizeKB);
+                }
+                heapObjectRepository.deleteUnreachableObjectsInRange(fromKB, fromKB + regionSizeKB);
+            }
+            objectsCollected += sweep.objectsCollected();
+            reclaimedKB += sweep.reclaimedKB();
+        }
+        long elapsed = System.nanoTime() - start;
+        regionPausePredictor.record(objects, elapsed);
+
+        return new RegionCollectionResult(objectsCollected, reclaimedKB, collectionSet, predictedMs,
+                elapsed / 1_000_000.0);
+    }
+
+    private RegionTable requireRegions() {
+        RegionTable regions = heapStore.getRegions();
+        if (regions == null) {
+            throw new IllegalStateException("Region collections need simulation.heap-layout REGIONAL");
+        }
+        return regions;
+    }
+
+    /**
+     * Per-region accounting, in region order; empty unless the heap layout is REGIONAL.
+     */
+    public List<RegionTable.RegionStats> getRegionStats() {
+        RegionTable regions = heapStore.getRegions();
+        return regions != null ? regions.snapshot() : List.of();
+    }
+
+    public HeapLayout getHeapLayout() {
+        return heapLayout;
+    }
+
+    /**
+     * Writes every pending write-behind change in one transaction: one statement batch
+     * per operation kind, with updates grouped by resulting state. Does nothing unless
+     * the engine runs in WRITE_BEHIND mode. Failed flushes are requeued.
+     */
+    public void flushPendingWrites() {
+        if (persistenceMode != PersistenceMode.WRITE_BEHIND) {
+            return;
+        }
+
+        synchronized (flushLock) {
+            Map<Long, WriteBehindQueue.Operation> drained;
+            List<ReferenceChange> referenceChanges = new ArrayList<>();
+            heapLock.writeLock().lock();
+            try {
+                drained = writeBehindQueue.drain();
+                for (ReferenceChange change; (change = pendingReferenceChanges.poll()) != null; ) {
+                    referenceChanges.add(change);
+                }
+            } finally {
+                heapLock.writeLock().unlock();
+            }
+            if (drained.isEmpty() && referenceChanges.isEmpty()) {
+                return;
+            }
+
+            List<HeapObject> inserts = new ArrayList<>();
+            Map<PersistedState, List<Long>> updates = new HashMap<>();
+            List<Long> deletes = new ArrayList<>();
+
+            heapLock.readLock().lock();
+            try {
+                drained.forEach((id, operation) -> {
+                    if (operation == WriteBehindQueue.Operation.DELETE) {
+                        deletes.add(id);
+                        return;
+                    }
+                    // Removed since the drain: its DELETE is already queued for the next flush.
+                    HeapObject current = heapStore.toHeapObject(id);
+                    if (current == null) {
+                        return;
+                    }
+                    if (operation == WriteBehindQueue.Operation.INSERT) {
+                        inserts.add(current);
+                    } else {
+                        updates.computeIfAbsent(new PersistedState(current), state -> new ArrayList<>()).add(id);
+                    }
+                });
+            } finally {
+                heapLock.readLock().unlock();
+            }
+
+            long start = System.currentTimeMillis();
+            try {
+                persistNewTypes();
+                flushTransaction.executeWithoutResult(status -> {
+                    // Edge changes first: an edge added and then orphaned by a sweep in the
+                    // same interval is removed again with its source below.
+                    for (ReferenceChange change : referenceChanges) {
+                        if (change.added()) {
+                            heapReferenceRepository.save(HeapReference.builder()
+                                    .sourceId(change.sourceId()).targetId(change.targetId()).build());
+                        } else {
+                            heapReferenceRepository.deleteReference(change.sourceId(), change.targetId());
+                        }
+                    }
+                    forEachChunk(deletes, heapReferenceRepository::deleteBySourceIds);
+                    forEachChunk(deletes, heapObjectRepository::deleteAllByIdInBatch);
+                    heapObjectRepository.insertInBatches(inserts, allocationBatchSize);
+                    updates.forEach((state, ids) -> forEachChunk(ids, chunk -> heapObjectRepository.updateState(
+                            state.referenced(), state.root(), state.generation(), state.age(), chunk)));
+                });
+            } catch (RuntimeException e) {
+                log.error("Write-behind flush failed, requeueing {} objects", drained.size(), e);
+                writeBehindQueue.requeue(drained);
+                for (int i = referenceChanges.size() - 1; i >= 0; i--) {
+                    pendingReferenceChanges.addFirst(referenceChanges.get(i));
+                }
+                return;
+            }
+
+            log.info("Write-behind flush: {} inserts, {} updates, {} deletes, {} reference changes in {} ms",
+                    inserts.size(), updates.values().stream().mapToInt(List::size).sum(), deletes.size(),
+                    referenceChanges.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public int getPendingWriteCount() {
+        return writeBehindQueue.size() + pendingReferenceChanges.size();
+    }
+
+    private void recordWrite(long id, WriteBehindQueue.Operation operation) {
+        if (persistenceMode == PersistenceMode.WRITE_BEHIND) {
+            writeBehindQueue.record(id, operation);
+        }
+    }
+
+    private void requestFlushIfFull() {
+        if (flushExecutor != null
+                && writeBehindQueue.size() >= maxDirtyObjects
+                && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flushPendingWrites();
+            });
+        }
+    }
+
+    private void forEachChunk(List<Long> ids, Consumer<List<Long>> action) {
+        for (int from = 0; from < ids.size(); from += allocationBatchSize) {
+            action.accept(ids.subList(from, Math.min(from + allocationBatchSize, ids.size())));
+        }
+    }
+
+    /**
+     * The mutable columns of {@code heap_object}; dirty objects sharing a state are
+     * written with a single UPDATE.
+     */
+    private record PersistedState(boolean referenced, boolean root, Generation generation, int age) {
+
+        PersistedState(HeapObject obj) {
+            this(obj.getReferenced(), obj.getRoot(), obj.getGeneration(), obj.getAge());
+        }
+    }
+
+    private record ReferenceChange(long sourceId, long targetId, boolean added) {
     }
 
     public long getCurrentHeapSize() {
-        Long totalSize = heapObjectRepository.calculateTotalHeapUsed();
-        return totalSize != null ? totalSize : 0L;
+        return heapStore.getLiveSizeKB();
+    }
+
+    /**
+     * Space taken by every object still on the heap, reachable or not, in KB.
+     */
+    public long getHeapOccupancyKB() {
+        return getYoungGenSize() + getOldGenSize();
+    }
+
+    public long getYoungGenCapacityKB() {
+        return maxHeapSizeKB / (newRatio + 1);
+    }
+
+    /**
+     * Eden's share of the young generation: {@code survivorRatio} parts out of
+     * {@code survivorRatio + 2}, one part going to each survivor space.
+     */
+    public long getEdenCapacityKB() {
+        return getYoungGenCapacityKB() * survivorRatio / (survivorRatio + 2);
+    }
+
+    public long getSurvivorCapacityKB() {
+        return getYoungGenCapacityKB() / (survivorRatio + 2);
+    }
+
+    public long getEdenSizeKB() {
+        return heapStore.getEdenSizeKB();
+    }
+
+    public long getSurvivorSizeKB() {
+        return heapStore.getSurvivorSizeKB();
+    }
+
+    public YoungCollector getYoungCollector() {
+        return youngCollector;
+    }
+
+    /**
+     * Minor GCs run so far because an allocation did not fit in the young generation.
+     */
+    public long getAllocationTriggeredMinorGCs() {
+        return (long) minorGcOnAllocation.count();
+    }
+
+    /**
+     * Full GCs run so far because an allocation did not fit after a minor GC.
+     */
+    public long getAllocationTriggeredFullGCs() {
+        return (long) fullGcOnAllocation.count();
+    }
+
+    public long getOldGenCapacityKB() {
+        return maxHeapSizeKB - getYoungGenCapacityKB();
+    }
+
+    public long getMaxHeapSizeKB() {
+        return maxHeapSizeKB;
     }
 
     public long getYoungGenSize() {
-        Long size = heapObjectRepository.calculateGenerationSize(Generation.YOUNG);
-        return size != null ? size : 0L;
+        return heapStore.getGenerationSizeKB(Generation.YOUNG);
     }
 
     public long getOldGenSize() {
-        Long size = heapObjectRepository.calculateGenerationSize(Generation.OLD);
-        return size != null ? size : 0L;
+        return heapStore.getGenerationSizeKB(Generation.OLD);
     }
 
     public long getLiveObjectCount() {
-        return heapObjectRepository.countLiveObjects();
+        return heapStore.getLiveObjectCount();
+    }
+
+    /**
+     * Moves on after every allocation, dereference, collection and clear. A figure derived
+     * from the heap that was computed while this read {@code n} is still current as long as
+     * it reads {@code n}, so callers can cache such figures per epoch.
+     */
+    public long getMutationEpoch() {
+        return heapStore.getModificationCount() + epochBumps.sum();
+    }
+
+    /**
+     * Moves the mutation epoch on for a change outside the heap store, such as a recorded
+     * collection that freed nothing but still counts towards GC statistics.
+     */
+    public void bumpMutationEpoch() {
+        epochBumps.increment();
     }
 
     public long getUnreachableObjectCount() {
-        return heapObjectRepository.countUnreachableObjects();
+        return heapStore.getUnreachableObjectCount();
+    }
+
+    /**
+     * Referenced objects of one generation ({@code null} for both) per type, indexed by
+     * type id; see {@link #getObjectTypeName(int)}.
+     */
+    public long[] countLiveObjectsByType(Generation generation) {
+        return heapStore.countLiveByType(generation);
+    }
+
+    /**
+     * KB of referenced objects of one generation ({@code null} for both) per type, indexed
+     * by type id.
+     */
+    public long[] sumLiveSizeKBByType(Generation generation) {
+        return heapStore.sumLiveSizeKBByType(generation);
+    }
+
+    public String getObjectTypeName(int typeId) {
+        return heapStore.getTypeDictionary().name(typeId);
     }
 
     public List<HeapObject> getAllObjects() {
-        return heapObjectRepository.findAll();
+        List<HeapObject> objects = new ArrayList<>((int) Math.min(heapStore.getObjectCount(), Integer.MAX_VALUE));
+        heapLock.readLock().lock();
+        try {
+            heapStore.forEachId(id -> objects.add(heapStore.toHeapObject(id)));
+        } finally {
+            heapLock.readLock().unlock();
+        }
+        return objects;
+    }
+
+    public ColumnarHeapStore getHeapStore() {
+        return heapStore;
+    }
+
+    public ReferenceGraph getReferenceGraph() {
+        return referenceGraph;
+    }
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public ThreadLocalAllocationBuffers getAllocationBuffers() {
+        return allocationBuffers;
     }
 
+    /**
+     * Rebuilds the in-memory heap from {@code heap_object}, paging through the table
+     * in id order. Pending write-behind changes are flushed first. Without persistence
+     * the store is the heap and nothing is reloaded.
+     */
     public void refreshInMemoryHeap() {
-        inMemoryHeap.clear();
-        List<HeapObject> allObjects = heapObjectRepository.findAll();
-        for (HeapObject obj : allObjects) {
-            inMemoryHeap.put(obj.getId(), obj);
+        if (persistenceMode == PersistenceMode.NONE) {
+            return;
         }
+        flushPendingWrites();
+
+        heapLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                TypeDictionary dictionary = heapStore.getTypeDictionary();
+                objectTypeRepository.findAllByOrderByIdAsc()
+                        .forEach(type -> dictionary.restore(type.getId(), type.getName()));
+                persistedTypeCount = Math.max(persistedTypeCount, dictionary.size());
+            }
+
+            abandonConcurrentMark();
+            heapStore.clear();
+            long lastId = Long.MIN_VALUE;
+            List<HeapObject> page;
+            do {
+                page = heapObjectRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, LOAD_PAGE_SIZE));
+                for (HeapObject obj : page) {
+                    heapStore.add(obj);
+                    lastId = obj.getId();
+                }
+            } while (page.size() == LOAD_PAGE_SIZE);
+
+            referenceGraph.clear();
+            heapReferenceRepository.findAll().forEach(reference -> {
+                referenceGraph.add(reference.getSourceId(), reference.getTargetId());
+                copyingCollector.dirtyCardIfOldToYoung(reference.getSourceId(), reference.getTargetId());
+            });
+            copyingCollector.clear();
+            if (youngCollector == YoungCollector.COPYING) {
+                copyingCollector.reload();
+            }
+            allocationBuffers.advancePast(heapStore.getHighestId(), heapStore.getHighestAddressEnd());
+        } finally {
+            heapLock.writeLock().unlock();
+        }
+
+        log.info("Loaded {} persisted objects and {} references into the in-memory heap",
+                heapStore.getObjectCount(), referenceGraph.getEdgeCount());
     }
 
     public void clearHeap() {
         log.info("Clearing entire heap");
-        heapObjectRepository.deleteAll();
-        inMemoryHeap.clear();
+        heapLock.writeLock().lock();
+        try {
+            if (persistenceMode == PersistenceMode.SYNC) {
+                heapReferenceRepository.deleteAllInBatch();
+                heapObjectRepository.deleteAllInBatch();
+            } else if (persistenceMode == PersistenceMode.WRITE_BEHIND) {
+                writeBehindQueue.clear();
+                pendingReferenceChanges.clear();
+                heapReferenceRepository.deleteAllInBatch();
+                heapObjectRepository.deleteAllInBatch();
+            }
+            abandonConcurrentMark();
+            heapStore.clear();
+            referenceGraph.clear();
+            copyingCollector.clear();
+            adaptiveTenuringThreshold = null;
+            lifetimes.clear();
+        } finally {
+            heapLock.writeLock().unlock();
+        }
     }
 }
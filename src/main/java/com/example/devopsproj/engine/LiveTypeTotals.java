@@ -0,0 +1,92 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count and KB of live (referenced) objects per type and generation, kept in step with
+ * every change the store makes, so per-type totals cost O(types) rather than a heap scan.
+ * Updates may run concurrently with each other and with reads.
+ */
+class LiveTypeTotals {
+
+    private volatile Totals[] byType = new Totals[16];
+
+    void add(int typeId, int generationOrdinal, long sizeKB) {
+        Totals totals = totals(typeId);
+        totals.count[generationOrdinal].increment();
+        totals.sizeKB[generationOrdinal].add(sizeKB);
+    }
+
+    void remove(int typeId, int generationOrdinal, long sizeKB) {
+        Totals totals = totals(typeId);
+        totals.count[generationOrdinal].decrement();
+        totals.sizeKB[generationOrdinal].add(-sizeKB);
+    }
+
+    void move(int typeId, int fromGenerationOrdinal, int toGenerationOrdinal, long sizeKB) {
+        remove(typeId, fromGenerationOrdinal, sizeKB);
+        add(typeId, toGenerationOrdinal, sizeKB);
+    }
+
+    /**
+     * Live objects per type id in {@code [0, typeCount)}, of one generation or, for
+     * {@code generationOrdinal < 0}, of both.
+     */
+    long[] counts(int generationOrdinal, int typeCount) {
+        return sum(generationOrdinal, typeCount, true);
+    }
+
+    /**
+     * Live KB per type id, like {@link #counts}.
+     */
+    long[] sizesKB(int generationOrdinal, int typeCount) {
+        return sum(generationOrdinal, typeCount, false);
+    }
+
+    synchronized void clear() {
+        byType = new Totals[16];
+    }
+
+    private long[] sum(int generationOrdinal, int typeCount, boolean counts) {
+        Totals[] snapshot = byType;
+        long[] sums = new long[typeCount];
+        for (int typeId = 0; typeId < Math.min(typeCount, snapshot.length); typeId++) {
+            Totals totals = snapshot[typeId];
+            if (totals == null) {
+                continue;
+            }
+            LongAdder[] adders = counts ? totals.count : totals.sizeKB;
+            for (int generation = 0; generation < adders.length; generation++) {
+                if (generationOrdinal < 0 || generation == generationOrdinal) {
+                    sums[typeId] += adders[generation].sum();
+                }
+            }
+        }
+        return sums;
+    }
+
+    private Totals totals(int typeId) {
+        Totals[] snapshot = byType;
+        if (typeId < snapshot.length && snapshot[typeId] != null) {
+            return snapshot[typeId];
+        }
+        synchronized (this) {
+            Totals[] current = byType;
+            if (typeId >= current.length) {
+                current = Arrays.copyOf(current, Math.max(typeId + 1, current.length * 2));
+            }
+            if (current[typeId] == null) {
+                current[typeId] = new Totals();
+            }
+            byType = current;
+            return current[typeId];
+        }
+    }
+
+    private static final class Totals {
+
+        private final LongAdder[] count = {new LongAdder(), new LongAdder()};
+        private final LongAdder[] sizeKB = {new LongAdder(), new LongAdder()};
+    }
+}
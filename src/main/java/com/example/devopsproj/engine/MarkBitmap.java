@@ -0,0 +1,81 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_MASK;
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_SHIFT;
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_SIZE;
+
+/**
+ * Mark bits for one marking cycle, one bit per object id, paged like
+ * {@link ColumnarHeapStore} so bit {@code i} of word {@code w} in page {@code p} lines up
+ * with the store's own bitsets. Setting a bit is atomic: when several markers reach the
+ * same object, exactly one of them wins and traces it.
+ */
+public class MarkBitmap {
+
+    private static final int WORDS_PER_PAGE = PAGE_SIZE / Long.SIZE;
+
+    private volatile AtomicLongArray[] pages = new AtomicLongArray[64];
+    private final LongAdder markedCount = new LongAdder();
+
+    /**
+     * Marks {@code id}. Returns {@code true} if this call set the bit.
+     */
+    public boolean mark(long id) {
+        AtomicLongArray page = pageForWrite(id);
+        int word = (int) (id & PAGE_MASK) >>> 6;
+        long mask = 1L << id;
+        if ((page.get(word) & mask) != 0) {
+            return false;
+        }
+        long previous = page.getAndAccumulate(word, mask, (bits, m) -> bits | m);
+        if ((previous & mask) != 0) {
+            return false;
+        }
+        markedCount.increment();
+        return true;
+    }
+
+    public boolean isMarked(long id) {
+        AtomicLongArray page = page(id >>> PAGE_SHIFT);
+        return page != null && (page.get((int) (id & PAGE_MASK) >>> 6) & (1L << id)) != 0;
+    }
+
+    /**
+     * The 64 mark bits of one word of a page; zero if nothing in the page was marked.
+     */
+    long word(long pageIndex, int word) {
+        AtomicLongArray page = page(pageIndex);
+        return page != null ? page.get(word) : 0L;
+    }
+
+    public long getMarkedCount() {
+        return markedCount.sum();
+    }
+
+    private AtomicLongArray page(long pageIndex) {
+        AtomicLongArray[] snapshot = pages;
+        return pageIndex < snapshot.length ? snapshot[(int) pageIndex] : null;
+    }
+
+    private AtomicLongArray pageForWrite(long id) {
+        AtomicLongArray page = page(id >>> PAGE_SHIFT);
+        return page != null ? page : createPage(id);
+    }
+
+    private synchronized AtomicLongArray createPage(long id) {
+        int pageIndex = Math.toIntExact(id >>> PAGE_SHIFT);
+        AtomicLongArray[] current = pages;
+        if (pageIndex >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, pageIndex + 1));
+        }
+        if (current[pageIndex] == null) {
+            current[pageIndex] = new AtomicLongArray(WORDS_PER_PAGE);
+        }
+        pages = current;
+        return current[pageIndex];
+    }
+}
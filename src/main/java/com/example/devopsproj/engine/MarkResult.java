@@ -0,0 +1,8 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Outcome of a mark phase: objects found reachable from the GC roots, and referenced
+ * objects found unreachable (and so left for the sweep).
+ */
+public record MarkResult(long objectsMarked, long objectsUnreachable) {
+}
@@ -0,0 +1,83 @@
+package com.example.devopsproj.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Objects allocated with a lifetime, kept in a {@link TimingWheel} keyed by lifetime tick
+ * of the simulation clock, and the background thread that looks for ended lifetimes once
+ * per tick. Deciding what an ended lifetime means (dereferencing the object) is left to
+ * the caller; ids of objects dereferenced or collected in the meantime are still reported.
+ */
+public class ObjectLifetimes {
+
+    private final SimulationClock clock;
+    private final long tickMs;
+    private final TimingWheel wheel;
+    private ScheduledExecutorService executor;
+
+    public ObjectLifetimes(SimulationClock clock, long tickMs) {
+        this.clock = clock;
+        this.tickMs = tickMs;
+        this.wheel = new TimingWheel(currentTick());
+    }
+
+    /**
+     * Schedules {@code id} to expire once {@code lifetimeMillis} of simulated time have
+     * passed, rounded up to the next tick.
+     */
+    public void expireAfter(long id, long lifetimeMillis) {
+        long deadlineMillis = clock.currentTimeMillis() + lifetimeMillis;
+        wheel.schedule(id, (deadlineMillis + tickMs - 1) / tickMs);
+    }
+
+    /**
+     * Advances to the current tick and returns the ids whose lifetime has ended since the
+     * last call, each once.
+     */
+    public List<Long> advance() {
+        List<Long> expired = new ArrayList<>();
+        wheel.advanceTo(currentTick(), expired::add);
+        return expired;
+    }
+
+    public long size() {
+        return wheel.size();
+    }
+
+    /**
+     * Forgets every scheduled lifetime.
+     */
+    public void clear() {
+        wheel.clear(currentTick());
+    }
+
+    /**
+     * Runs {@code onTick} once per tick on a daemon thread until {@link #shutdown()}.
+     */
+    public synchronized void start(Runnable onTick) {
+        if (executor != null) {
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "heap-lifetime-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(onTick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private long currentTick() {
+        return clock.currentTimeMillis() / tickMs;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.devopsproj.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.LongPredicate;
+
+/**
+ * Mark phase of the collector: marks every object reachable from the GC roots through
+ * a {@link ReferenceGraph}, in parallel on a {@link ForkJoinPool}.
+ *
+ * <p>The roots are split into ranges, one task each. A task traces depth-first from its
+ * own stack and, whenever that stack grows past {@link #SPLIT_THRESHOLD} ids, forks the
+ * older half as a new task. Idle workers steal those tasks, so a few deep or wide
+ * subgraphs are spread over the pool instead of keeping one worker busy. Objects are
+ * marked before they are pushed, and the mark is an atomic test-and-set, so each object
+ * is traced once whichever worker reaches it first.
+ */
+public final class ParallelMarker {
+
+    /** Roots handed to one task before it starts tracing. */
+    static final int ROOT_CHUNK = 4096;
+
+    /** Stack depth at which a task gives half of its work away. */
+    static final int SPLIT_THRESHOLD = 2048;
+
+    private ParallelMarker() {
+    }
+
+    /**
+     * Marks {@code roots} and everything reachable from them. Edge targets for which
+     * {@code exists} is false (objects already swept) are skipped.
+     */
+    public static MarkBitmap mark(long[] roots, ReferenceGraph graph, LongPredicate exists, ForkJoinPool pool) {
+        MarkBitmap marks = new MarkBitmap();
+        if (roots.length > 0) {
+            pool.invoke(new MarkTask(roots, 0, roots.length, false, graph, exists, marks));
+        }
+        return marks;
+    }
+
+    private static final class MarkTask extends RecursiveAction {
+
+        private final long[] ids;
+        private final int from;
+        private final int to;
+        /** Whether {@code ids} are already marked (grey) rather than unvisited roots. */
+        private final boolean marked;
+        private final ReferenceGraph graph;
+        private final LongPredicate exists;
+        private final MarkBitmap marks;
+
+        MarkTask(long[] ids, int from, int to, boolean marked, ReferenceGraph graph, LongPredicate exists,
+                 MarkBitmap marks) {
+            this.ids = ids;
+            this.from = from;
+            this.to = to;
+            this.marked = marked;
+            this.graph = graph;
+            this.exists = exists;
+            this.marks = marks;
+        }
+
+        @Override
+        protected void compute() {
+            if (!marked && to - from > ROOT_CHUNK) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new MarkTask(ids, from, mid, false, graph, exists, marks),
+                        new MarkTask(ids, mid, to, false, graph, exists, marks));
+                return;
+            }
+
+            long[] stack = new long[Math.max(16, to - from)];
+            int size = 0;
+            for (int i = from; i < to; i++) {
+                if (marked || marks.mark(ids[i])) {
+                    stack[size++] = ids[i];
+                }
+            }
+
+            List<MarkTask> forked = new ArrayList<>();
+            while (size > 0) {
+                long id = stack[--size];
+                for (long target : graph.targets(id)) {
+                    if (exists.test(target) && marks.mark(target)) {
+                        if (size == stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                        }
+                        stack[size++] = target;
+                    }
+                }
+                if (size > SPLIT_THRESHOLD) {
+                    // Give away the bottom half: the oldest entries tend to root the
+                    // largest unexplored subgraphs.
+                    int half = size >>> 1;
+                    MarkTask task = new MarkTask(Arrays.copyOf(stack, half), 0, half, true, graph, exists, marks);
+                    task.fork();
+                    forked.add(task);
+                    System.arraycopy(stack, half, stack, 0, size - half);
+                    size -= half;
+                }
+            }
+
+            for (MarkTask task : forked) {
+                task.join();
+            }
+        }
+    }
+}
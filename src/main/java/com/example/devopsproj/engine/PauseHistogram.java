@@ -0,0 +1,80 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Histogram of durations in nanoseconds with bounded relative error, laid out like
+ * HdrHistogram: values below 128 get a bucket each, and every power of two above splits
+ * into 128 linear sub-buckets, so any recorded value is reported to within 1/128 (under
+ * 0.8%) over the whole range of {@code long}. Memory is fixed at about 57 KB and
+ * recording is O(1), so the histogram can keep every pause since startup.
+ */
+public class PauseHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long totalCount;
+    private long maxValue;
+    private long sum;
+
+    public synchronized void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("Durations must not be negative: " + nanos);
+        }
+        counts[indexOf(nanos)]++;
+        totalCount++;
+        maxValue = Math.max(maxValue, nanos);
+        sum += nanos;
+    }
+
+    /**
+     * Smallest recorded value (to within the histogram's precision) that {@code percentile}
+     * percent of all recorded values do not exceed; 0 when nothing was recorded.
+     */
+    public synchronized long valueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * totalCount));
+        long seen = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            seen += counts[index];
+            if (seen >= target) {
+                return Math.min(highestValueIn(index), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    public synchronized long getTotalCount() {
+        return totalCount;
+    }
+
+    public synchronized long getMaxValue() {
+        return maxValue;
+    }
+
+    public synchronized double getMean() {
+        return totalCount > 0 ? (double) sum / totalCount : 0.0;
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long highestValueIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
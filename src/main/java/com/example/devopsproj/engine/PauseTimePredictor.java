@@ -0,0 +1,45 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Predicts how long collecting a number of objects will take, from decaying averages of
+ * the per-object cost measured in earlier collections, in the manner of G1's pause-time
+ * predictor: the prediction is the average plus half a standard deviation, so a noisy
+ * cost leads to smaller collection sets rather than missed targets.
+ */
+public class PauseTimePredictor {
+
+    private static final double DECAY = 0.3;
+    private static final double SIGMA = 0.5;
+
+    private double averageNanosPerObject;
+    private double varianceNanosPerObject;
+
+    /**
+     * @param initialNanosPerObject cost assumed until the first collection is measured
+     */
+    public PauseTimePredictor(double initialNanosPerObject) {
+        this.averageNanosPerObject = initialNanosPerObject;
+    }
+
+    public synchronized double predictMillis(long objects) {
+        double nanosPerObject = averageNanosPerObject + SIGMA * Math.sqrt(varianceNanosPerObject);
+        return objects * nanosPerObject / 1_000_000.0;
+    }
+
+    /**
+     * Folds in a measured collection of {@code objects} that took {@code nanos}.
+     */
+    public synchronized void record(long objects, long nanos) {
+        if (objects <= 0) {
+            return;
+        }
+        double sample = (double) nanos / objects;
+        double deviation = sample - averageNanosPerObject;
+        averageNanosPerObject += DECAY * deviation;
+        varianceNanosPerObject = (1 - DECAY) * (varianceNanosPerObject + DECAY * deviation * deviation);
+    }
+
+    public synchronized double getAverageNanosPerObject() {
+        return averageNanosPerObject;
+    }
+}
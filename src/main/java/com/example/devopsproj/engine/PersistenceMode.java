@@ -0,0 +1,16 @@
+package com.example.devopsproj.engine;
+
+/**
+ * How {@link HeapSimulationEngine} mirrors its in-memory heap into the database.
+ */
+public enum PersistenceMode {
+    /** Every mutation is written to {@code heap_object} inside the caller's transaction. */
+    SYNC,
+    /**
+     * The in-memory heap is the source of truth; changes are merged per object and
+     * flushed to {@code heap_object} in batches on a background thread.
+     */
+    WRITE_BEHIND,
+    /** The columnar store is the only copy of the heap; JPA is never touched. */
+    NONE
+}
@@ -0,0 +1,7 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Outcome of aging the young generation: objects tenured into the old generation.
+ */
+public record PromotionResult(int objectsPromoted, long promotedKB) {
+}
@@ -0,0 +1,183 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_MASK;
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_SHIFT;
+import static com.example.devopsproj.engine.ColumnarHeapStore.PAGE_SIZE;
+
+/**
+ * Edges between simulated objects: for every source id the ids it references, and for
+ * every id the number of edges pointing at it.
+ *
+ * <p>Paged by id like {@link ColumnarHeapStore}, with pages created only once an object
+ * in their id range takes part in an edge, so a heap without references costs nothing.
+ * Outgoing edges are copy-on-write arrays, which lets markers read them while mutators
+ * add and remove edges. Edges may outlive their target: markers must skip ids that are
+ * no longer on the heap.
+ */
+public class ReferenceGraph {
+
+    private static final long[] NO_TARGETS = new long[0];
+
+    private volatile Page[] pages = new Page[64];
+    private final LongAdder edgeCount = new LongAdder();
+
+    /**
+     * Adds the edge {@code source -> target}. Returns {@code false} if it already exists.
+     */
+    public boolean add(long source, long target) {
+        Page page = pageForWrite(source);
+        int slot = (int) (source & PAGE_MASK);
+        synchronized (page) {
+            long[] current = page.targets.get(slot);
+            if (current == null) {
+                page.targets.set(slot, new long[] {target});
+            } else {
+                for (long existing : current) {
+                    if (existing == target) {
+                        return false;
+                    }
+                }
+                long[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = target;
+                page.targets.set(slot, updated);
+            }
+        }
+        pageForWrite(target).inDegree.incrementAndGet((int) (target & PAGE_MASK));
+        edgeCount.increment();
+        return true;
+    }
+
+    /**
+     * Removes the edge {@code source -> target}. Returns {@code false} if it did not exist.
+     */
+    public boolean remove(long source, long target) {
+        Page page = page(source);
+        if (page == null) {
+            return false;
+        }
+        int slot = (int) (source & PAGE_MASK);
+        synchronized (page) {
+            long[] current = page.targets.get(slot);
+            int index = current == null ? -1 : indexOf(current, target);
+            if (index < 0) {
+                return false;
+            }
+            if (current.length == 1) {
+                page.targets.set(slot, null);
+            } else {
+                long[] updated = new long[current.length - 1];
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, updated.length - index);
+                page.targets.set(slot, updated);
+            }
+        }
+        decrementInDegree(target);
+        edgeCount.decrement();
+        return true;
+    }
+
+    /**
+     * Drops every edge leaving {@code source}, e.g. once the object has been swept.
+     * Returns the number of edges removed.
+     */
+    public int removeOutgoing(long source) {
+        Page page = page(source);
+        if (page == null) {
+            return 0;
+        }
+        long[] removed = page.targets.getAndSet((int) (source & PAGE_MASK), null);
+        if (removed == null) {
+            return 0;
+        }
+        for (long target : removed) {
+            decrementInDegree(target);
+        }
+        edgeCount.add(-removed.length);
+        return removed.length;
+    }
+
+    /**
+     * Ids referenced by {@code source}. The returned array must not be modified.
+     */
+    public long[] targets(long source) {
+        Page page = page(source);
+        if (page == null) {
+            return NO_TARGETS;
+        }
+        long[] targets = page.targets.get((int) (source & PAGE_MASK));
+        return targets != null ? targets : NO_TARGETS;
+    }
+
+    /**
+     * Number of edges pointing at {@code id}, including edges from objects that are
+     * unreachable but not yet swept.
+     */
+    public int inDegree(long id) {
+        Page page = page(id);
+        return page != null ? page.inDegree.get((int) (id & PAGE_MASK)) : 0;
+    }
+
+    public long getEdgeCount() {
+        return edgeCount.sum();
+    }
+
+    public void clear() {
+        synchronized (this) {
+            pages = new Page[64];
+        }
+        edgeCount.reset();
+    }
+
+    private void decrementInDegree(long target) {
+        Page page = page(target);
+        if (page != null) {
+            page.inDegree.decrementAndGet((int) (target & PAGE_MASK));
+        }
+    }
+
+    private static int indexOf(long[] values, long value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Page page(long id) {
+        Page[] snapshot = pages;
+        long pageIndex = id >>> PAGE_SHIFT;
+        return pageIndex < snapshot.length ? snapshot[(int) pageIndex] : null;
+    }
+
+    private Page pageForWrite(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Heap object id must not be negative: " + id);
+        }
+        Page page = page(id);
+        return page != null ? page : createPage(id);
+    }
+
+    private synchronized Page createPage(long id) {
+        int pageIndex = Math.toIntExact(id >>> PAGE_SHIFT);
+        Page[] current = pages;
+        if (pageIndex >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, pageIndex + 1));
+        }
+        if (current[pageIndex] == null) {
+            current[pageIndex] = new Page();
+        }
+        pages = current;
+        return current[pageIndex];
+    }
+
+    private static final class Page {
+        final AtomicReferenceArray<long[]> targets = new AtomicReferenceArray<>(PAGE_SIZE);
+        final AtomicIntegerArray inDegree = new AtomicIntegerArray(PAGE_SIZE);
+    }
+}
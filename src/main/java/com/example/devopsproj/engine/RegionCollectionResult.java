@@ -0,0 +1,39 @@
+package com.example.devopsproj.engine;
+
+import java.util.List;
+
+/**
+ * Outcome of collecting a set of regions: what was reclaimed, which regions were in the
+ * collection set, and the predicted and measured pause.
+ */
+public record RegionCollectionResult(int objectsCollected, long reclaimedKB, List<Long> regions,
+                                     double predictedPauseMs, double pauseMs) {
+
+    private static final int MAX_DESCRIPTION_LENGTH = 4000;
+
+    /**
+     * The collected regions as ascending ranges, e.g. {@code "3-5,9"}, shortened to fit
+     * a {@code GCEvent} column.
+     */
+    public String describeRegions() {
+        List<Long> sorted = regions.stream().sorted().toList();
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < sorted.size(); ) {
+            int end = i;
+            while (end + 1 < sorted.size() && sorted.get(end + 1) == sorted.get(end) + 1) {
+                end++;
+            }
+            String range = end == i ? sorted.get(i).toString() : sorted.get(i) + "-" + sorted.get(end);
+            if (description.length() + range.length() + 24 > MAX_DESCRIPTION_LENGTH) {
+                description.append(",... (").append(sorted.size() - i).append(" more)");
+                break;
+            }
+            if (description.length() > 0) {
+                description.append(',');
+            }
+            description.append(range);
+            i = end + 1;
+        }
+        return description.toString();
+    }
+}
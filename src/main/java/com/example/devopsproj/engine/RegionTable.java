@@ -0,0 +1,174 @@
+package com.example.devopsproj.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongPredicate;
+
+/**
+ * Splits the simulated address space into fixed-size regions, as G1 does, and keeps
+ * per-region used and live KB plus the ids of the objects placed in each region.
+ *
+ * <p>An object belongs to the region its address starts in; one larger than a region
+ * (humongous) is accounted entirely to that region. Accounting is updated by
+ * {@link ColumnarHeapStore} as objects are added, lose their last reference and are
+ * removed, so a region's garbage is known without scanning it. Regions are dropped once
+ * their last object is removed; simulated addresses are never reused.
+ *
+ * <p>{@link #add} may be called concurrently; everything else follows the store's rules
+ * for structural operations.
+ */
+public class RegionTable {
+
+    private final long regionSizeKB;
+    private final Map<Long, Region> regions = new ConcurrentHashMap<>();
+
+    public RegionTable(long regionSizeKB) {
+        if (regionSizeKB < 1) {
+            throw new IllegalArgumentException("Region size must be positive");
+        }
+        this.regionSizeKB = regionSizeKB;
+    }
+
+    public long getRegionSizeKB() {
+        return regionSizeKB;
+    }
+
+    public long regionOf(long addressKB) {
+        return addressKB / regionSizeKB;
+    }
+
+    void add(long id, long addressKB, int sizeInKB, boolean referenced) {
+        Region region = regions.computeIfAbsent(regionOf(addressKB), Region::new);
+        region.usedKB.addAndGet(sizeInKB);
+        if (referenced) {
+            region.liveKB.addAndGet(sizeInKB);
+        }
+        region.objectCount.incrementAndGet();
+        region.addId(id);
+    }
+
+    /**
+     * Moves an object's size from live to garbage.
+     */
+    void release(long addressKB, int sizeInKB) {
+        Region region = regions.get(regionOf(addressKB));
+        if (region != null) {
+            region.liveKB.addAndGet(-sizeInKB);
+        }
+    }
+
+    /**
+     * Takes a removed object out of the accounting. Its id stays in the region's list
+     * until the region is next collected.
+     */
+    void remove(long addressKB, int sizeInKB, boolean referenced) {
+        long index = regionOf(addressKB);
+        Region region = regions.get(index);
+        if (region == null) {
+            return;
+        }
+        region.usedKB.addAndGet(-sizeInKB);
+        if (referenced) {
+            region.liveKB.addAndGet(-sizeInKB);
+        }
+        if (region.objectCount.decrementAndGet() == 0) {
+            regions.remove(index, region);
+        }
+    }
+
+    /**
+     * Visits the ids placed in region {@code index}, dropping from its list every id for
+     * which {@code retain} returns {@code false}. The region may be dropped while this
+     * runs, once its last object is removed.
+     */
+    void compact(long index, LongPredicate retain) {
+        Region region = regions.get(index);
+        if (region != null) {
+            region.compact(retain);
+        }
+    }
+
+    /**
+     * Current accounting of every region, in region order.
+     */
+    public List<RegionStats> snapshot() {
+        List<RegionStats> stats = new ArrayList<>(regions.size());
+        regions.values().forEach(region -> stats.add(region.stats()));
+        stats.sort(Comparator.comparingLong(RegionStats::index));
+        return stats;
+    }
+
+    public RegionStats stats(long index) {
+        Region region = regions.get(index);
+        return region != null ? region.stats() : null;
+    }
+
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    void clear() {
+        regions.clear();
+    }
+
+    /**
+     * Used and live KB and object count of one region at one moment.
+     */
+    public record RegionStats(long index, long usedKB, long liveKB, int objectCount) {
+
+        public long garbageKB() {
+            return usedKB - liveKB;
+        }
+
+        /**
+         * Live share of the used space, 0-100; an empty region is 0% live.
+         */
+        public double livePercent() {
+            return usedKB > 0 ? 100.0 * liveKB / usedKB : 0.0;
+        }
+    }
+
+    private static final class Region {
+
+        final long index;
+        final AtomicLong usedKB = new AtomicLong();
+        final AtomicLong liveKB = new AtomicLong();
+        final AtomicInteger objectCount = new AtomicInteger();
+        private long[] ids = new long[16];
+        private int idCount;
+
+        Region(long index) {
+            this.index = index;
+        }
+
+        synchronized void addId(long id) {
+            if (idCount == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[idCount++] = id;
+        }
+
+        synchronized void compact(LongPredicate retain) {
+            int kept = 0;
+            for (int i = 0; i < idCount; i++) {
+                if (retain.test(ids[i])) {
+                    ids[kept++] = ids[i];
+                }
+            }
+            idCount = kept;
+            if (kept < ids.length / 4 && ids.length > 16) {
+                ids = Arrays.copyOf(ids, Math.max(16, kept * 2));
+            }
+        }
+
+        RegionStats stats() {
+            return new RegionStats(index, usedKB.get(), liveKB.get(), objectCount.get());
+        }
+    }
+}
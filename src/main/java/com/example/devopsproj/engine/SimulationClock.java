@@ -0,0 +1,52 @@
+package com.example.devopsproj.engine;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Source of every simulation timestamp: wall-clock time plus an offset that virtual-time
+ * scenarios push forward when they jump to their next event. Time never runs backwards,
+ * so objects, snapshots and GC events from wall-clock and virtual runs stay ordered, and
+ * rates computed from their timestamps reflect simulated rather than elapsed time.
+ */
+@Component
+public class SimulationClock {
+
+    private final Clock wallClock;
+    private final AtomicLong offsetMillis = new AtomicLong();
+
+    public SimulationClock() {
+        this(Clock.systemDefaultZone());
+    }
+
+    SimulationClock(Clock wallClock) {
+        this.wallClock = wallClock;
+    }
+
+    public long currentTimeMillis() {
+        return wallClock.millis() + offsetMillis.get();
+    }
+
+    public LocalDateTime now() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(currentTimeMillis()), wallClock.getZone());
+    }
+
+    /**
+     * Moves simulated time forward to {@code epochMillis}; does nothing if it has already
+     * passed.
+     */
+    public void advanceTo(long epochMillis) {
+        offsetMillis.accumulateAndGet(epochMillis - wallClock.millis(), Math::max);
+    }
+
+    /**
+     * How far simulated time is ahead of the wall clock.
+     */
+    public long getOffsetMillis() {
+        return offsetMillis.get();
+    }
+}
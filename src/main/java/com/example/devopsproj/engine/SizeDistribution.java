@@ -0,0 +1,74 @@
+package com.example.devopsproj.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Object size distributions for random allocation. Every distribution is shaped by the
+ * requested {@code [minSizeKB, maxSizeKB]} range and truncated to it.
+ */
+public enum SizeDistribution {
+
+    /** Every size in the range is equally likely. */
+    UNIFORM {
+        @Override
+        double draw(SplittableRandom random, int minSizeKB, int maxSizeKB) {
+            return random.nextInt(minSizeKB, maxSizeKB + 1);
+        }
+    },
+
+    /** Bell curve centred on the middle of the range, which spans six standard deviations. */
+    NORMAL {
+        @Override
+        double draw(SplittableRandom random, int minSizeKB, int maxSizeKB) {
+            return random.nextGaussian((minSizeKB + maxSizeKB) / 2.0, (maxSizeKB - minSizeKB) / 6.0);
+        }
+    },
+
+    /**
+     * Skewed towards small objects with a long tail: the logarithm of the size is normal,
+     * centred on the geometric mean of the range.
+     */
+    LOG_NORMAL {
+        @Override
+        double draw(SplittableRandom random, int minSizeKB, int maxSizeKB) {
+            double logMin = Math.log(minSizeKB);
+            double logMax = Math.log(maxSizeKB);
+            return Math.exp(random.nextGaussian((logMin + logMax) / 2, (logMax - logMin) / 6));
+        }
+    },
+
+    /**
+     * Heavy-tailed power law starting at the minimum size, with the classic 80/20 shape
+     * (alpha = log4(5) ≈ 1.16): most objects are small, a few are very large. Drawn by
+     * inverting the CDF of the power law truncated to the range, so however much of the
+     * tail lies beyond the maximum, no draw is wasted.
+     */
+    PARETO {
+        private static final double ALPHA = 1.160964;
+
+        @Override
+        double draw(SplittableRandom random, int minSizeKB, int maxSizeKB) {
+            // Up to, not including, the point where sizes start rounding past the maximum.
+            double tailBeyondMax = Math.pow(minSizeKB / (maxSizeKB + 0.5), ALPHA);
+            return minSizeKB / Math.pow(1.0 - random.nextDouble() * (1.0 - tailBeyondMax), 1.0 / ALPHA);
+        }
+    };
+
+    abstract double draw(SplittableRandom random, int minSizeKB, int maxSizeKB);
+
+    /**
+     * Draws one size in KB, rounded, from the distribution truncated to
+     * {@code [minSizeKB, maxSizeKB]}: draws that round outside the range are discarded and
+     * drawn again, rather than clamped, so the probability beyond the range is spread over
+     * it instead of piling up on its ends. The normal shapes span six standard deviations
+     * of the range and the Pareto draw is already truncated, so at most about one draw in
+     * 370 is repeated.
+     */
+    public int sample(SplittableRandom random, int minSizeKB, int maxSizeKB) {
+        double size;
+        do {
+            size = Math.rint(draw(random, minSizeKB, maxSizeKB));
+        } while (size < minSizeKB || size > maxSizeKB);
+        return (int) size;
+    }
+}
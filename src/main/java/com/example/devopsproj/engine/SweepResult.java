@@ -0,0 +1,7 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Outcome of sweeping unreachable objects out of the simulated heap.
+ */
+public record SweepResult(int objectsCollected, long reclaimedKB) {
+}
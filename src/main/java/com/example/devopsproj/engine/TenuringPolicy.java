@@ -0,0 +1,14 @@
+package com.example.devopsproj.engine;
+
+/**
+ * How the age at which young objects are tenured is chosen.
+ */
+public enum TenuringPolicy {
+    /** Always {@code simulation.young-gen-threshold}. */
+    FIXED,
+    /**
+     * Starts at {@code simulation.young-gen-threshold} and is recomputed after every young
+     * collection from the survivors' ages, as HotSpot does with {@code -XX:TargetSurvivorRatio}.
+     */
+    ADAPTIVE
+}
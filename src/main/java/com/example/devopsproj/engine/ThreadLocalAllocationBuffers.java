@@ -0,0 +1,131 @@
+package com.example.devopsproj.engine;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-thread ID and address blocks carved out of shared counters, modelled on the JVM's
+ * thread-local allocation buffers (TLABs).
+ *
+ * <p>A thread touches the shared counters only when its block runs out, so concurrent
+ * allocation requests bump private cursors instead of contending on one atomic. Objects
+ * too large for the remaining buffer either retire it (the remainder is counted as waste)
+ * or, above the refill-waste limit, are placed straight into the shared address space.
+ */
+public class ThreadLocalAllocationBuffers {
+
+    private final AtomicLong idCounter;
+    private final AtomicLong addressCounter = new AtomicLong();
+    private final int idBlockSize;
+    private final long bufferSizeKB;
+    private final long refillWasteLimitKB;
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+
+    private final LongAdder idRefills = new LongAdder();
+    private final LongAdder bufferRefills = new LongAdder();
+    private final LongAdder sharedAllocations = new LongAdder();
+    private final LongAdder wastedKB = new LongAdder();
+
+    /**
+     * @param idCounter    last id handed out; blocks are reserved above it
+     * @param idBlockSize  ids reserved per refill
+     * @param bufferSizeKB address space reserved per refill
+     */
+    public ThreadLocalAllocationBuffers(AtomicLong idCounter, int idBlockSize, long bufferSizeKB) {
+        if (idBlockSize < 1 || bufferSizeKB < 1) {
+            throw new IllegalArgumentException("TLAB id block and buffer size must be positive");
+        }
+        this.idCounter = idCounter;
+        this.idBlockSize = idBlockSize;
+        this.bufferSizeKB = bufferSizeKB;
+        this.refillWasteLimitKB = Math.max(1, bufferSizeKB / 64);
+    }
+
+    public long nextId() {
+        Buffer buffer = buffers.get();
+        if (buffer.nextId > buffer.idLimit) {
+            long last = idCounter.addAndGet(idBlockSize);
+            buffer.nextId = last - idBlockSize + 1;
+            buffer.idLimit = last;
+            idRefills.increment();
+        }
+        return buffer.nextId++;
+    }
+
+    /**
+     * Returns the simulated address (in KB) of a new object of {@code sizeInKB}.
+     */
+    public long allocateAddress(int sizeInKB) {
+        Buffer buffer = buffers.get();
+        if (buffer.top + sizeInKB <= buffer.end) {
+            long address = buffer.top;
+            buffer.top += sizeInKB;
+            return address;
+        }
+
+        long remaining = buffer.end - buffer.top;
+        if (remaining > refillWasteLimitKB || sizeInKB > bufferSizeKB) {
+            // Keep the current buffer; retiring it would waste more than the limit allows.
+            sharedAllocations.increment();
+            return addressCounter.getAndAdd(sizeInKB);
+        }
+
+        wastedKB.add(remaining);
+        bufferRefills.increment();
+        buffer.top = addressCounter.getAndAdd(bufferSizeKB);
+        buffer.end = buffer.top + bufferSizeKB;
+
+        long address = buffer.top;
+        buffer.top += sizeInKB;
+        return address;
+    }
+
+    /**
+     * Reserves {@code count} consecutive ids straight from the shared counter, bypassing
+     * the thread's block. Returns the first id.
+     */
+    public long reserveIds(int count) {
+        return idCounter.addAndGet(count) - count + 1;
+    }
+
+    /**
+     * Reserves {@code sizeKB} of contiguous address space straight from the shared
+     * counter, bypassing the thread's buffer. Returns the start address.
+     */
+    public long reserveAddresses(long sizeKB) {
+        sharedAllocations.increment();
+        return addressCounter.getAndAdd(sizeKB);
+    }
+
+    /**
+     * Moves the shared counters past ids and addresses that already exist, e.g. after
+     * reloading a persisted heap. Blocks already handed out are left alone.
+     */
+    public void advancePast(long highestId, long highestAddressEndKB) {
+        idCounter.accumulateAndGet(highestId, Math::max);
+        addressCounter.accumulateAndGet(highestAddressEndKB, Math::max);
+    }
+
+    public long getIdRefills() {
+        return idRefills.sum();
+    }
+
+    public long getBufferRefills() {
+        return bufferRefills.sum();
+    }
+
+    public long getSharedAllocations() {
+        return sharedAllocations.sum();
+    }
+
+    public long getWastedKB() {
+        return wastedKB.sum();
+    }
+
+    private static final class Buffer {
+        long nextId = 1;
+        long idLimit = 0;
+        long top;
+        long end;
+    }
+}
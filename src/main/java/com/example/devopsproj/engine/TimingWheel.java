@@ -0,0 +1,198 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of object expiries, after Varghese and Lauck. Level 0 has one
+ * slot per tick for the next 64 ticks; each level above has 64 slots that each span 64
+ * times as many ticks as a slot below. An entry goes into the lowest level whose window
+ * still reaches its deadline. When the level-0 wheel wraps, the slot of the level above
+ * that has just come into range is cascaded: its entries are spread over the lower levels.
+ * Scheduling and expiring are O(1) per entry, with at most one cascade per level, and
+ * stretches with nothing due in the lower levels are skipped rather than ticked through.
+ *
+ * <p>Deadlines beyond the highest level (2^60 ticks) wait in its furthest slot. All
+ * methods are synchronized.
+ */
+public class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 10;
+
+    private final Slot[][] wheels = new Slot[LEVELS][SLOTS];
+    private final long[] levelSizes = new long[LEVELS];
+    private long currentTick;
+    private long size;
+
+    public TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+        for (Slot[] wheel : wheels) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheel[slot] = new Slot();
+            }
+        }
+    }
+
+    /**
+     * Schedules {@code id} to expire at {@code deadlineTick}; a deadline that has already
+     * passed expires at the next tick.
+     */
+    public synchronized void schedule(long id, long deadlineTick) {
+        place(id, Math.max(deadlineTick, currentTick + 1), currentTick);
+        size++;
+    }
+
+    /**
+     * Moves the wheel forward to {@code tick}, passing every entry due by then to
+     * {@code expired} in deadline order. Returns the number of entries expired.
+     */
+    public synchronized int advanceTo(long tick, LongConsumer expired) {
+        int count = 0;
+        while (currentTick < tick) {
+            if (size == 0) {
+                currentTick = tick;
+                break;
+            }
+            // Nothing is due before the next boundary of the lowest non-empty level.
+            int level = 0;
+            while (level < LEVELS - 1 && levelSizes[level] == 0) {
+                level++;
+            }
+            if (level > 0) {
+                long boundary = currentTick | ((1L << (SLOT_BITS * level)) - 1);
+                if (boundary >= tick) {
+                    currentTick = tick;
+                    break;
+                }
+                currentTick = boundary;
+            }
+
+            long next = currentTick + 1;
+            for (int cascaded = highestWrappedLevel(next); cascaded > 0; cascaded--) {
+                Slot slot = wheels[cascaded][slotIndex(next, cascaded)];
+                levelSizes[cascaded] -= slot.count;
+                long[] ids = slot.ids;
+                long[] deadlines = slot.deadlines;
+                int slotCount = slot.count;
+                slot.reset();
+                // Every deadline here is at or after next, and now within the levels below.
+                for (int i = 0; i < slotCount; i++) {
+                    place(ids[i], deadlines[i], next);
+                }
+            }
+            currentTick = next;
+
+            Slot due = wheels[0][(int) (next & SLOT_MASK)];
+            for (int i = 0; i < due.count; i++) {
+                expired.accept(due.ids[i]);
+            }
+            count += due.count;
+            levelSizes[0] -= due.count;
+            size -= due.count;
+            due.clear();
+        }
+        return count;
+    }
+
+    public synchronized long getCurrentTick() {
+        return currentTick;
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Drops every entry and restarts the wheel at {@code tick}.
+     */
+    public synchronized void clear(long tick) {
+        for (Slot[] wheel : wheels) {
+            for (Slot slot : wheel) {
+                slot.clear();
+            }
+        }
+        Arrays.fill(levelSizes, 0);
+        size = 0;
+        currentTick = tick;
+    }
+
+    /**
+     * Puts an entry into the lowest level where its slot comes round after {@code baseTick}
+     * and before the slot's index repeats.
+     */
+    private void place(long id, long deadlineTick, long baseTick) {
+        int level = 0;
+        while (level < LEVELS - 1 && slotsAhead(deadlineTick, baseTick, level) >= SLOTS) {
+            level++;
+        }
+        long slotTick = deadlineTick;
+        if (slotsAhead(deadlineTick, baseTick, level) >= SLOTS) {
+            slotTick = ((baseTick >>> (SLOT_BITS * level)) + SLOTS - 1) << (SLOT_BITS * level);
+        }
+        wheels[level][slotIndex(slotTick, level)].add(id, deadlineTick);
+        levelSizes[level]++;
+    }
+
+    /**
+     * Highest level whose slot boundary {@code tick} crosses: 0 unless the level-0 wheel
+     * wraps.
+     */
+    private static int highestWrappedLevel(long tick) {
+        int level = 0;
+        while (level < LEVELS - 1 && (tick & ((1L << (SLOT_BITS * (level + 1))) - 1)) == 0) {
+            level++;
+        }
+        return level;
+    }
+
+    private static long slotsAhead(long deadlineTick, long baseTick, int level) {
+        return (deadlineTick >>> (SLOT_BITS * level)) - (baseTick >>> (SLOT_BITS * level));
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK);
+    }
+
+    private static final class Slot {
+
+        private static final long[] EMPTY = new long[0];
+
+        private long[] ids = EMPTY;
+        private long[] deadlines = EMPTY;
+        private int count;
+
+        void add(long id, long deadlineTick) {
+            if (count == ids.length) {
+                int capacity = Math.max(16, ids.length * 2);
+                ids = Arrays.copyOf(ids, capacity);
+                deadlines = Arrays.copyOf(deadlines, capacity);
+            }
+            ids[count] = id;
+            deadlines[count] = deadlineTick;
+            count++;
+        }
+
+        /**
+         * Forgets the entries without touching the arrays, which the caller still reads.
+         */
+        void reset() {
+            ids = EMPTY;
+            deadlines = EMPTY;
+            count = 0;
+        }
+
+        /**
+         * Forgets the entries; large arrays are released, small ones kept for reuse.
+         */
+        void clear() {
+            if (ids.length > 1024) {
+                ids = EMPTY;
+                deadlines = EMPTY;
+            }
+            count = 0;
+        }
+    }
+}
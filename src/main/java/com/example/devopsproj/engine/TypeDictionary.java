@@ -0,0 +1,62 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns object type names to small dense integer ids so the heap store keeps
+ * one {@code int} per object instead of a String reference.
+ */
+public class TypeDictionary {
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private volatile String[] namesById = new String[16];
+    private int size;
+
+    public int intern(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = idsByName.get(name);
+            if (id != null) {
+                return id;
+            }
+            String[] names = namesById;
+            if (size == names.length) {
+                names = Arrays.copyOf(names, names.length * 2);
+            }
+            names[size] = name;
+            namesById = names;
+            idsByName.put(name, size);
+            return size++;
+        }
+    }
+
+    /**
+     * Re-registers a persisted entry. Entries must arrive in id order, starting with the
+     * first id not yet known; ids already known must carry the same name.
+     */
+    public synchronized void restore(int id, String name) {
+        if (id < size) {
+            if (!namesById[id].equals(name)) {
+                throw new IllegalStateException("Type id " + id + " is " + namesById[id] + ", not " + name);
+            }
+            return;
+        }
+        if (id != size || idsByName.containsKey(name)) {
+            throw new IllegalStateException("Cannot restore type " + name + " as id " + id);
+        }
+        intern(name);
+    }
+
+    public String name(int id) {
+        return namesById[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.devopsproj.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pending database writes for {@link PersistenceMode#WRITE_BEHIND}, merged per object id.
+ *
+ * <p>An object has at most one pending operation: an insert stays an insert however
+ * often it is updated before the flush, and an insert followed by a delete cancels out,
+ * so each flush writes a dirty object exactly once.
+ */
+class WriteBehindQueue {
+
+    enum Operation {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    private volatile ConcurrentHashMap<Long, Operation> pending = new ConcurrentHashMap<>();
+
+    void record(long id, Operation operation) {
+        pending.merge(id, operation, WriteBehindQueue::combine);
+    }
+
+    int size() {
+        return pending.size();
+    }
+
+    /**
+     * Swaps in an empty set and returns the previous one. Callers must exclude
+     * concurrent {@link #record} calls while draining.
+     */
+    Map<Long, Operation> drain() {
+        Map<Long, Operation> drained = pending;
+        pending = new ConcurrentHashMap<>();
+        return drained;
+    }
+
+    /**
+     * Puts back operations from a failed flush underneath anything recorded since.
+     */
+    void requeue(Map<Long, Operation> failed) {
+        failed.forEach((id, operation) ->
+                pending.merge(id, operation, (newer, older) -> combine(older, newer)));
+    }
+
+    void clear() {
+        pending.clear();
+    }
+
+    static Operation combine(Operation earlier, Operation later) {
+        if (earlier == Operation.INSERT) {
+            return later == Operation.DELETE ? null : Operation.INSERT;
+        }
+        return later;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.devopsproj.engine;
+
+/**
+ * Outcome of one copying young collection: dead objects freed from eden and the
+ * from-space, survivors copied to the to-space and objects tenured, plus how much of
+ * the old generation had to be scanned to find old-to-young references.
+ */
+public record YoungCollectionResult(int objectsCollected, long reclaimedKB,
+                                    int objectsSurvived, long survivedKB,
+                                    int objectsPromoted, long promotedKB,
+                                    int cardsScanned, long oldObjectsScanned) {
+}
@@ -0,0 +1,14 @@
+package com.example.devopsproj.engine;
+
+/**
+ * How {@link GarbageCollectionEngine} collects the young generation.
+ */
+public enum YoungCollector {
+    /** Mark the whole heap, sweep dead young objects in place, then age every young object. */
+    MARK_SWEEP,
+    /**
+     * Trace from young roots and old-to-young references found through the card table,
+     * copying survivors from eden and one survivor space into the other.
+     */
+    COPYING
+}
@@ -0,0 +1,89 @@
+package com.example.devopsproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Membership of eden and the two survivor spaces for the copying young collector.
+ *
+ * <p>New objects go to eden. A young collection visits eden and the from-space, copies
+ * survivors into the to-space, then empties eden and the from-space and swaps the two
+ * survivor spaces, so only the young generation is ever walked. Ids of objects removed
+ * or tenured by other collections may linger until the next young collection, which
+ * skips them.
+ *
+ * <p>{@link #addToEden} may be called concurrently; everything else follows the store's
+ * rules for structural operations.
+ */
+public class YoungSpaces {
+
+    private final IdList eden = new IdList();
+    private final IdList[] survivors = {new IdList(), new IdList()};
+    private int from;
+
+    void addToEden(long id) {
+        eden.add(id);
+    }
+
+    void addToFromSpace(long id) {
+        survivors[from].add(id);
+    }
+
+    void addToToSpace(long id) {
+        survivors[1 - from].add(id);
+    }
+
+    /**
+     * Ids in eden followed by those in the from-space: what a young collection visits.
+     */
+    long[] collectedIds() {
+        long[] edenIds = eden.toArray();
+        long[] fromIds = survivors[from].toArray();
+        long[] ids = Arrays.copyOf(edenIds, edenIds.length + fromIds.length);
+        System.arraycopy(fromIds, 0, ids, edenIds.length, fromIds.length);
+        return ids;
+    }
+
+    /**
+     * Empties eden and the from-space and makes the to-space the new from-space.
+     */
+    void flip() {
+        eden.clear();
+        survivors[from].clear();
+        from = 1 - from;
+    }
+
+    /**
+     * Index, 0 or 1, of the survivor space currently holding survivors (S0 or S1).
+     */
+    public int getFromSpaceIndex() {
+        return from;
+    }
+
+    void clear() {
+        eden.clear();
+        survivors[0].clear();
+        survivors[1].clear();
+        from = 0;
+    }
+
+    private static final class IdList {
+
+        private long[] ids = new long[1024];
+        private int count;
+
+        synchronized void add(long id) {
+            if (count == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+            ids[count++] = id;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(ids, count);
+        }
+
+        synchronized void clear() {
+            count = 0;
+        }
+    }
+}
@@ -50,6 +50,28 @@ public class GlobalExceptionHandler {
                 .body(ApiResponse.error(ex.getMessage()));
     }
 
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<ApiResponse<String>> handleIllegalStateException(
+            IllegalStateException ex, WebRequest request) {
+
+        log.warn("Illegal state: {}", ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
+    @ExceptionHandler(SimulatedOutOfMemoryException.class)
+    public ResponseEntity<ApiResponse<String>> handleSimulatedOutOfMemory(
+            SimulatedOutOfMemoryException ex, WebRequest request) {
+
+        log.warn(ex.getMessage());
+
+        return ResponseEntity
+                .status(HttpStatus.INSUFFICIENT_STORAGE)
+                .body(ApiResponse.error(ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<String>> handleGlobalException(
             Exception ex, WebRequest request) {
@@ -0,0 +1,24 @@
+package com.example.devopsproj.exception;
+
+import lombok.Getter;
+
+/**
+ * The simulated heap cannot fit an allocation even after a full GC, the simulation's
+ * counterpart of {@link OutOfMemoryError}. Objects allocated before the failure stay
+ * on the heap.
+ */
+@Getter
+public class SimulatedOutOfMemoryException extends RuntimeException {
+
+    private final long requestedKB;
+    private final long usedKB;
+    private final long maxHeapSizeKB;
+
+    public SimulatedOutOfMemoryException(long requestedKB, long usedKB, long maxHeapSizeKB) {
+        super("Simulated OutOfMemoryError: Java heap space (requested " + requestedKB + " KB, "
+                + usedKB + " of " + maxHeapSizeKB + " KB in use after full GC)");
+        this.requestedKB = requestedKB;
+        this.usedKB = usedKB;
+        this.maxHeapSizeKB = maxHeapSizeKB;
+    }
+}
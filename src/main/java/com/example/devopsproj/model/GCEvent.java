@@ -39,6 +39,46 @@ public class GCEvent {
     @Column
     private Integer objectsCollected;
 
+    @Column
+    private Integer objectsPromoted;
+
+    @Column
+    private Long promotedMemory;
+
+    /**
+     * Age at which the next young collection tenures objects, as chosen by this one. Only
+     * set by collections that age the young generation.
+     */
+    @Column
+    private Integer tenuringThreshold;
+
+    /** Regions in the collection set, as ascending ranges such as {@code 3-5,9}. */
+    @Column(length = 4000)
+    private String collectedRegions;
+
+    /**
+     * Time the collection stopped the application, in nanoseconds. For a concurrent cycle
+     * this is the initial mark, remark and sweep; concurrent marking is not included.
+     */
+    @Column
+    private Long pauseTimeNanos;
+
+    /** Marking, including the concurrent part of a concurrent cycle. */
+    @Column
+    private Long markTimeNanos;
+
+    /** Removing dead objects; a copying young collection reports its single pass here. */
+    @Column
+    private Long sweepTimeNanos;
+
+    /** Aging and tenuring young objects. */
+    @Column
+    private Long promoteTimeNanos;
+
+    /** Writing this event to the database. */
+    @Column
+    private Long persistTimeNanos;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -2,5 +2,8 @@ package com.example.devopsproj.model;
 
 public enum GCType {
     MINOR,
-    MAJOR
+    MAJOR,
+    FULL,
+    CONCURRENT,
+    MIXED
 }
@@ -1,10 +1,13 @@
 package com.example.devopsproj.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDateTime;
 
@@ -16,23 +19,61 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class HeapObject {
 
+    /**
+     * Assigned by {@code HeapSimulationEngine} from its own counter, so objects can be
+     * allocated and batch-inserted without asking the database for keys.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @Column(nullable = false)
     private Integer sizeInKB;
 
+    /**
+     * Simulated start address in KB, handed out from thread-local allocation buffers.
+     */
+    @Column
+    private Long address;
+
     @Column(nullable = false)
     private LocalDateTime allocationTime;
 
     @Column
     private LocalDateTime lastAccessTime;
 
+    /**
+     * Whether the object may still be reachable: it is a root, or it was referenced by
+     * another object when last checked. Cleared objects are removed by the next sweep.
+     */
     @Column(nullable = false)
     private Boolean referenced;
 
-    @Column(nullable = false)
+    /**
+     * Whether the application holds the object directly (a GC root). Rows written before
+     * roots existed have no value and count as roots when referenced.
+     */
+    @Column(name = "gc_root")
+    private Boolean root;
+
+    /**
+     * Id of the entry in {@code object_type}; the name is not stored per row.
+     */
+    @Column(name = "type_id", nullable = false)
+    private Integer typeId;
+
+    /**
+     * Maps the foreign key from {@code type_id} to {@code object_type}; never loaded, as
+     * the engine resolves names from its own dictionary.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "type_id", insertable = false, updatable = false,
+            foreignKey = @ForeignKey(name = "fk_heap_object_type"))
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private ObjectType type;
+
+    @Transient
     private String objectType;
 
     @Enumerated(EnumType.STRING)
@@ -50,6 +91,9 @@ public class HeapObject {
         if (referenced == null) {
             referenced = true;
         }
+        if (root == null) {
+            root = referenced;
+        }
         if (generation == null) {
             generation = Generation.YOUNG;
         }
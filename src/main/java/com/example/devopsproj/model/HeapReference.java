@@ -0,0 +1,37 @@
+package com.example.devopsproj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * An edge of the object graph: {@code sourceId} holds a reference to {@code targetId}.
+ * The target stays live for as long as the source is reachable.
+ */
+@Entity
+@Table(name = "heap_reference",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"source_id", "target_id"}),
+        indexes = @Index(name = "idx_heap_reference_source", columnList = "source_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeapReference {
+
+    /**
+     * Drawn from a pooled sequence rather than an identity column, so Hibernate can group
+     * the inserts of new edges into JDBC batches instead of fetching a key after every row.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "heap_reference_seq")
+    @SequenceGenerator(name = "heap_reference_seq", sequenceName = "heap_reference_seq", allocationSize = 1000)
+    private Long id;
+
+    @Column(name = "source_id", nullable = false)
+    private Long sourceId;
+
+    @Column(name = "target_id", nullable = false)
+    private Long targetId;
+}
@@ -1,5 +1,6 @@
 package com.example.devopsproj.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -38,6 +39,14 @@ public class HeapSnapshot {
     @Column
     private Long oldGenSize;
 
+    /**
+     * Live old-generation KB and object count per type, encoded by
+     * {@link com.example.devopsproj.analyzer.TypeVector}.
+     */
+    @JsonIgnore
+    @Column(length = 1_048_576)
+    private byte[] oldGenTypeVector;
+
     @PrePersist
     protected void onCreate() {
         if (timestamp == null) {
@@ -41,6 +41,15 @@ public class LeakReport {
     @Column
     private Double liveObjectStagnation;
 
+    @Column
+    private LocalDateTime windowStart;
+
+    @Column
+    private LocalDateTime windowEnd;
+
+    @Column
+    private Integer snapshotCount;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private Verdict verdict;
@@ -0,0 +1,29 @@
+package com.example.devopsproj.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One entry of the object type dictionary. {@code heap_object.type_id} refers to it
+ * instead of repeating the type name on every row.
+ */
+@Entity
+@Table(name = "object_type")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ObjectType {
+
+    /**
+     * Dense id assigned by the engine's type dictionary.
+     */
+    @Id
+    private Integer id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+}
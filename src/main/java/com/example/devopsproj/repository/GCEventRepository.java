@@ -2,11 +2,13 @@ package com.example.devopsproj.repository;
 
 import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.GCType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -19,6 +21,12 @@ public interface GCEventRepository extends JpaRepository<GCEvent, Long> {
     @Query("SELECT g FROM GCEvent g ORDER BY g.timestamp DESC")
     List<GCEvent> findAllOrderByTimestampDesc();
 
+    /**
+     * Most recent events of the given types, newest first; page with {@code PageRequest.of(0, n)}.
+     */
+    @Query("SELECT g FROM GCEvent g WHERE g.gcType IN :gcTypes ORDER BY g.timestamp DESC, g.id DESC")
+    List<GCEvent> findRecentByGcTypes(Collection<GCType> gcTypes, Pageable pageable);
+
     @Query("SELECT AVG(g.reclaimedMemory) FROM GCEvent g")
     Double calculateAverageReclaimedMemory();
 
@@ -0,0 +1,18 @@
+package com.example.devopsproj.repository;
+
+import com.example.devopsproj.model.HeapObject;
+
+import java.util.List;
+
+/**
+ * Bulk write operations for heap objects that bypass the one-entity-at-a-time
+ * {@code save()} path so Hibernate can group inserts into JDBC batches.
+ */
+public interface HeapObjectBatchRepository {
+
+    /**
+     * Persists the given objects, flushing every {@code batchSize} entities and
+     * detaching them afterwards so the persistence context stays small.
+     */
+    void insertInBatches(List<HeapObject> objects, int batchSize);
+}
@@ -0,0 +1,31 @@
+package com.example.devopsproj.repository;
+
+import com.example.devopsproj.model.HeapObject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import java.util.List;
+
+public class HeapObjectBatchRepositoryImpl implements HeapObjectBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertInBatches(List<HeapObject> objects, int batchSize) {
+        int pending = 0;
+
+        for (int i = 0; i < objects.size(); i++) {
+            entityManager.persist(objects.get(i));
+            pending++;
+
+            if (pending == batchSize || i == objects.size() - 1) {
+                entityManager.flush();
+                for (int j = i - pending + 1; j <= i; j++) {
+                    entityManager.detach(objects.get(j));
+                }
+                pending = 0;
+            }
+        }
+    }
+}
@@ -2,22 +2,22 @@ package com.example.devopsproj.repository;
 
 import com.example.devopsproj.model.Generation;
 import com.example.devopsproj.model.HeapObject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface HeapObjectRepository extends JpaRepository<HeapObject, Long> {
+public interface HeapObjectRepository extends JpaRepository<HeapObject, Long>, HeapObjectBatchRepository {
 
     List<HeapObject> findByReferenced(Boolean referenced);
 
     List<HeapObject> findByGeneration(Generation generation);
 
-    @Query("SELECT h FROM HeapObject h WHERE h.referenced = false")
-    List<HeapObject> findUnreachableObjects();
-
     @Query("SELECT h FROM HeapObject h WHERE h.referenced = true")
     List<HeapObject> findLiveObjects();
 
@@ -33,8 +33,48 @@ public interface HeapObjectRepository extends JpaRepository<HeapObject, Long> {
     @Query("SELECT SUM(h.sizeInKB) FROM HeapObject h WHERE h.generation = :generation")
     Long calculateGenerationSize(Generation generation);
 
-    @Query("SELECT h FROM HeapObject h WHERE h.generation = :generation AND h.referenced = false")
-    List<HeapObject> findUnreachableObjectsByGeneration(Generation generation);
+    @Query("SELECT COUNT(h) AS objectCount, COALESCE(SUM(h.sizeInKB), 0) AS sizeInKB FROM HeapObject h "
+            + "WHERE h.generation = :generation AND h.referenced = false")
+    HeapObjectTotals summarizeUnreachableObjects(Generation generation);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM HeapObject h WHERE h.generation = :generation AND h.referenced = false")
+    int deleteUnreachableObjects(Generation generation);
+
+    /**
+     * Removes the unreferenced objects whose address starts in {@code [fromKB, toKB)}: one
+     * heap region.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM HeapObject h WHERE h.address >= :fromKB AND h.address < :toKB AND h.referenced = false")
+    int deleteUnreachableObjectsInRange(long fromKB, long toKB);
 
     void deleteByReferenced(Boolean referenced);
+
+    List<HeapObject> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT COUNT(h) AS objectCount, COALESCE(SUM(h.sizeInKB), 0) AS sizeInKB FROM HeapObject h "
+            + "WHERE h.generation = :generation AND h.age >= :age")
+    HeapObjectTotals summarizeObjectsReachingAge(Generation generation, int age);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HeapObject h SET h.age = h.age + 1 WHERE h.generation = :generation")
+    int incrementAge(Generation generation);
+
+    @Modifying
+    @Query("UPDATE HeapObject h SET h.generation = :target WHERE h.generation = :generation AND h.age >= :age")
+    int promoteObjectsReachingAge(Generation generation, int age, Generation target);
+
+    @Modifying
+    @Query("UPDATE HeapObject h SET h.referenced = false, h.root = false WHERE h.id IN :ids")
+    int markUnreferenced(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE HeapObject h SET h.root = false WHERE h.id IN :ids")
+    int removeRoots(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE HeapObject h SET h.referenced = :referenced, h.root = :root, h.generation = :generation, "
+            + "h.age = :age WHERE h.id IN :ids")
+    int updateState(boolean referenced, boolean root, Generation generation, int age, Collection<Long> ids);
 }
@@ -0,0 +1,12 @@
+package com.example.devopsproj.repository;
+
+/**
+ * Count and total size of a set of heap objects, computed by the database so sweeps and
+ * promotions never have to load the objects they change.
+ */
+public interface HeapObjectTotals {
+
+    long getObjectCount();
+
+    long getSizeInKB();
+}
@@ -0,0 +1,40 @@
+package com.example.devopsproj.repository;
+
+import com.example.devopsproj.model.Generation;
+import com.example.devopsproj.model.HeapReference;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+@Repository
+public interface HeapReferenceRepository extends JpaRepository<HeapReference, Long> {
+
+    @Modifying
+    @Query("DELETE FROM HeapReference r WHERE r.sourceId = :sourceId AND r.targetId = :targetId")
+    int deleteReference(Long sourceId, Long targetId);
+
+    @Modifying
+    @Query("DELETE FROM HeapReference r WHERE r.sourceId IN :sourceIds")
+    int deleteBySourceIds(Collection<Long> sourceIds);
+
+    /**
+     * Removes the edges leaving unreferenced objects of one generation; run before those
+     * objects are swept.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM HeapReference r WHERE r.sourceId IN "
+            + "(SELECT h.id FROM HeapObject h WHERE h.generation = :generation AND h.referenced = false)")
+    int deleteReferencesFromUnreachable(Generation generation);
+
+    /**
+     * Removes the edges leaving unreferenced objects whose address starts in
+     * {@code [fromKB, toKB)}; run before those objects are swept.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM HeapReference r WHERE r.sourceId IN (SELECT h.id FROM HeapObject h "
+            + "WHERE h.address >= :fromKB AND h.address < :toKB AND h.referenced = false)")
+    int deleteReferencesFromUnreachableInRange(long fromKB, long toKB);
+}
@@ -0,0 +1,13 @@
+package com.example.devopsproj.repository;
+
+import com.example.devopsproj.model.ObjectType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ObjectTypeRepository extends JpaRepository<ObjectType, Integer> {
+
+    List<ObjectType> findAllByOrderByIdAsc();
+}
@@ -0,0 +1,19 @@
+package com.example.devopsproj.scenario;
+
+/**
+ * When a scenario collects garbage.
+ */
+public enum GcPolicy {
+
+    /** Only when an allocation does not fit, as the engine's allocation path decides. */
+    ON_ALLOCATION_FAILURE,
+
+    /** Additionally run minor and full GCs at fixed intervals. */
+    PERIODIC,
+
+    /**
+     * Like {@link #PERIODIC}, with a pause-targeted mixed GC in place of each full GC.
+     * Needs the REGIONAL heap layout.
+     */
+    MIXED
+}
@@ -0,0 +1,40 @@
+package com.example.devopsproj.scenario;
+
+import java.util.SplittableRandom;
+
+/**
+ * How long objects of a scenario workload stay referenced.
+ */
+public enum LifetimeDistribution {
+
+    /** Every object lives exactly the mean lifetime. */
+    FIXED {
+        @Override
+        public long sampleTicks(SplittableRandom random, double meanTicks) {
+            return Math.max(1, Math.round(meanTicks));
+        }
+    },
+
+    /** Memoryless lifetimes around the mean: most objects die young, a few live long. */
+    EXPONENTIAL {
+        @Override
+        public long sampleTicks(SplittableRandom random, double meanTicks) {
+            return Math.max(1, Math.round(-meanTicks * Math.log(1.0 - random.nextDouble())));
+        }
+    },
+
+    /** Objects are never released: a leak. */
+    IMMORTAL {
+        @Override
+        public long sampleTicks(SplittableRandom random, double meanTicks) {
+            return NEVER;
+        }
+    };
+
+    public static final long NEVER = Long.MAX_VALUE;
+
+    /**
+     * Draws a lifetime in ticks (at least 1), or {@link #NEVER}.
+     */
+    public abstract long sampleTicks(SplittableRandom random, double meanTicks);
+}
@@ -0,0 +1,16 @@
+package com.example.devopsproj.scenario;
+
+/**
+ * How a scenario's event times map onto the simulation clock.
+ */
+public enum ScenarioClockMode {
+
+    /** Events fire as wall-clock time reaches them; a 10-minute scenario takes 10 minutes. */
+    WALL,
+
+    /**
+     * Events run back to back and the simulation clock jumps to each event's time, so
+     * timestamps and rates reflect simulated time and a day of traffic takes seconds.
+     */
+    VIRTUAL
+}
@@ -0,0 +1,235 @@
+package com.example.devopsproj.scenario;
+
+import com.example.devopsproj.dto.ScenarioRequest;
+import com.example.devopsproj.dto.ScenarioWorkload;
+import com.example.devopsproj.engine.GarbageCollectionEngine;
+import com.example.devopsproj.engine.HeapLayout;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.exception.SimulatedOutOfMemoryException;
+import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.model.LeakReport;
+import com.example.devopsproj.service.LeakAnalysisService;
+import com.example.devopsproj.service.SimulationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs submitted scenarios inside the server as a queue of events ordered by scenario
+ * time: every tick each workload allocates its share, objects are dereferenced when
+ * their lifetime ends, GCs and snapshots fire at their intervals, and the end of the
+ * scenario generates a leak report. In {@link ScenarioClockMode#WALL} mode events fire
+ * as wall-clock time reaches them; in {@link ScenarioClockMode#VIRTUAL} mode they run
+ * back to back while the {@link SimulationClock} jumps to each event's time. Events of
+ * all scenarios run on one scheduler thread, so they never interleave.
+ */
+@Component
+@Slf4j
+public class ScenarioEngine {
+
+    private final SimulationService simulationService;
+    private final GarbageCollectionEngine garbageCollectionEngine;
+    private final LeakAnalysisService leakAnalysisService;
+    private final SimulationClock simulationClock;
+    private final Map<Long, ScenarioRun> runs = new ConcurrentHashMap<>();
+    private final AtomicLong runIds = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "scenario-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ScenarioEngine(SimulationService simulationService,
+                          GarbageCollectionEngine garbageCollectionEngine,
+                          LeakAnalysisService leakAnalysisService,
+                          SimulationClock simulationClock) {
+        this.simulationService = simulationService;
+        this.garbageCollectionEngine = garbageCollectionEngine;
+        this.leakAnalysisService = leakAnalysisService;
+        this.simulationClock = simulationClock;
+    }
+
+    public ScenarioRun start(ScenarioRequest request) {
+        for (ScenarioWorkload workload : request.getWorkloads()) {
+            if (workload.getMaxSizeInKB() < workload.getMinSizeInKB()) {
+                throw new IllegalArgumentException("Workload " + workload.getObjectType()
+                        + ": maximum size must not be below minimum size");
+            }
+        }
+        if (request.getGcPolicy() == GcPolicy.MIXED && garbageCollectionEngine.getHeapLayout() != HeapLayout.REGIONAL) {
+            throw new IllegalArgumentException("The MIXED GC policy needs simulation.heap-layout REGIONAL");
+        }
+
+        long seed = request.getSeed() != null ? request.getSeed() : new SplittableRandom().nextLong();
+        long startEpochMillis = simulationClock.currentTimeMillis();
+        ScenarioRun run = new ScenarioRun(runIds.incrementAndGet(), request, seed, simulationClock.now(),
+                startEpochMillis);
+        scheduleInitialEvents(run);
+        runs.put(run.getId(), run);
+
+        log.info("Starting scenario {} '{}' on the {} clock: {} ticks of {} ms, seed {}",
+                run.getId(), request.getName(), request.getClockMode(), run.getTotalTicks(),
+                run.getTickMillis(), seed);
+
+        if (request.getClockMode() == ScenarioClockMode.VIRTUAL) {
+            run.setFuture(scheduler.submit(() -> drive(run, Long.MAX_VALUE)));
+        } else {
+            AtomicLong wallTicks = new AtomicLong();
+            run.setFuture(scheduler.scheduleAtFixedRate(
+                    () -> drive(run, wallTicks.incrementAndGet() * run.getTickMillis()),
+                    run.getTickMillis(), run.getTickMillis(), TimeUnit.MILLISECONDS));
+        }
+        return run;
+    }
+
+    public Optional<ScenarioRun> getRun(long id) {
+        return Optional.ofNullable(runs.get(id));
+    }
+
+    public Collection<ScenarioRun> getRuns() {
+        return runs.values();
+    }
+
+    /**
+     * Stops a running scenario once its current event has finished.
+     */
+    public Optional<ScenarioRun> cancel(long id) {
+        ScenarioRun run = runs.get(id);
+        if (run != null) {
+            run.requestCancel();
+            // A wall-clock scenario may be idle until its next tick; finish it now.
+            scheduler.execute(() -> drive(run, -1));
+        }
+        return Optional.ofNullable(run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void scheduleInitialEvents(ScenarioRun run) {
+        ScenarioRequest request = run.getRequest();
+        long tick = run.getTickMillis();
+
+        for (int i = 0; i < request.getWorkloads().size(); i++) {
+            run.schedule(tick, ScenarioEvent.Type.ALLOCATE, i);
+        }
+        if (request.getGcPolicy() != GcPolicy.ON_ALLOCATION_FAILURE) {
+            run.schedule(run.intervalMillis(request.getMinorGcIntervalSeconds()), ScenarioEvent.Type.MINOR_GC, -1);
+            run.schedule(run.intervalMillis(request.getFullGcIntervalSeconds()),
+                    request.getGcPolicy() == GcPolicy.MIXED ? ScenarioEvent.Type.MIXED_GC : ScenarioEvent.Type.FULL_GC,
+                    -1);
+        }
+        run.schedule(run.intervalMillis(request.getSnapshotIntervalSeconds()), ScenarioEvent.Type.SNAPSHOT, -1);
+        run.schedule(run.getEndMillis(), ScenarioEvent.Type.END, -1);
+    }
+
+    /**
+     * Runs every event due at or before scenario time {@code untilMillis}.
+     */
+    void drive(ScenarioRun run, long untilMillis) {
+        if (run.getStatus() != ScenarioStatus.RUNNING) {
+            return;
+        }
+        try {
+            ScenarioEvent event;
+            while (!run.isCancelRequested()
+                    && run.getStatus() == ScenarioStatus.RUNNING
+                    && (event = run.pollDue(untilMillis)) != null) {
+                if (run.getClockMode() == ScenarioClockMode.VIRTUAL) {
+                    simulationClock.advanceTo(run.getStartEpochMillis() + event.timeMillis());
+                }
+                handle(run, event);
+            }
+            if (run.isCancelRequested() && run.getStatus() == ScenarioStatus.RUNNING) {
+                run.finish(ScenarioStatus.CANCELLED, null,
+                        "Cancelled after " + run.getElapsedTicks() + " ticks", simulationClock.now());
+                log.info("Scenario {} cancelled", run.getId());
+            }
+        } catch (SimulatedOutOfMemoryException e) {
+            complete(run, ScenarioStatus.OUT_OF_MEMORY, e.getMessage());
+        } catch (RuntimeException e) {
+            log.error("Scenario {} failed at tick {}", run.getId(), run.getElapsedTicks(), e);
+            run.finish(ScenarioStatus.FAILED, null, e.getMessage(), simulationClock.now());
+        }
+    }
+
+    private void handle(ScenarioRun run, ScenarioEvent event) {
+        ScenarioRequest request = run.getRequest();
+
+        switch (event.type()) {
+            case EXPIRE -> {
+                List<Long> expired = run.takeExpired(event.timeMillis());
+                simulationService.dereferenceObjects(expired);
+                run.expired(expired.size());
+            }
+            case ALLOCATE -> {
+                allocate(run, event);
+                run.scheduleNext(event, run.getTickMillis());
+            }
+            case FULL_GC -> {
+                garbageCollectionEngine.runFullGC();
+                run.gcRun();
+                run.scheduleNext(event, run.intervalMillis(request.getFullGcIntervalSeconds()));
+            }
+            case MIXED_GC -> {
+                garbageCollectionEngine.runMixedGC();
+                run.gcRun();
+                run.scheduleNext(event, run.intervalMillis(request.getFullGcIntervalSeconds()));
+            }
+            case MINOR_GC -> {
+                garbageCollectionEngine.runMinorGC();
+                run.gcRun();
+                run.scheduleNext(event, run.intervalMillis(request.getMinorGcIntervalSeconds()));
+            }
+            case SNAPSHOT -> {
+                simulationService.createHeapSnapshot();
+                run.snapshotTaken();
+                run.scheduleNext(event, run.intervalMillis(request.getSnapshotIntervalSeconds()));
+            }
+            case END -> complete(run, ScenarioStatus.COMPLETED, "Completed " + run.getElapsedTicks() + " ticks");
+        }
+    }
+
+    private void allocate(ScenarioRun run, ScenarioEvent event) {
+        int count = run.objectsDue(event.workload());
+        if (count == 0) {
+            return;
+        }
+        ScenarioWorkload workload = run.getRequest().getWorkloads().get(event.workload());
+        SplittableRandom random = run.getRandom();
+        double meanLifetimeTicks = workload.getMeanLifetimeSeconds() * 1000 / run.getTickMillis();
+        // Objects outliving the scenario (including immortal ones) are never dereferenced.
+        long remainingTicks = (run.getEndMillis() - event.timeMillis()) / run.getTickMillis();
+
+        simulationService.streamRandomObjects(count, workload.getMinSizeInKB(), workload.getMaxSizeInKB(),
+                workload.getObjectType(), workload.getSizeDistribution(), random.nextLong(), batch -> {
+                    for (HeapObject obj : batch) {
+                        long lifetime = workload.getLifetimeDistribution().sampleTicks(random, meanLifetimeTicks);
+                        if (lifetime <= remainingTicks) {
+                            run.scheduleExpiry(event.timeMillis() + lifetime * run.getTickMillis(), obj.getId());
+                        }
+                    }
+                    run.allocated(batch.size());
+                });
+    }
+
+    private void complete(ScenarioRun run, ScenarioStatus status, String message) {
+        LeakReport report = leakAnalysisService.generateLeakReport();
+        run.finish(status, report, message, simulationClock.now());
+        log.info("Scenario {} '{}' finished: {} after {} ticks, verdict {}",
+                run.getId(), run.getRequest().getName(), status, run.getElapsedTicks(), report.getVerdict());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.devopsproj.scenario;
+
+/**
+ * One entry of a scenario's event queue, at {@code timeMillis} after the scenario
+ * started. Events at the same time run in {@link Type} order, then in the order they
+ * were scheduled.
+ */
+record ScenarioEvent(long timeMillis, Type type, int workload, long sequence) implements Comparable<ScenarioEvent> {
+
+    enum Type {
+        EXPIRE,
+        ALLOCATE,
+        FULL_GC,
+        MIXED_GC,
+        MINOR_GC,
+        SNAPSHOT,
+        END
+    }
+
+    @Override
+    public int compareTo(ScenarioEvent other) {
+        int byTime = Long.compare(timeMillis, other.timeMillis);
+        if (byTime != 0) {
+            return byTime;
+        }
+        int byType = type.compareTo(other.type);
+        return byType != 0 ? byType : Long.compare(sequence, other.sequence);
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.devopsproj.scenario;
+
+import com.example.devopsproj.dto.ScenarioRequest;
+import com.example.devopsproj.dto.ScenarioStatusResponse;
+import com.example.devopsproj.dto.ScenarioWorkload;
+import com.example.devopsproj.model.LeakReport;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.Future;
+
+/**
+ * State of one submitted scenario: its event queue ordered by scenario time, pending
+ * expiries and progress. Events run on the scenario scheduler thread; the progress
+ * fields are volatile so status requests can read them at any time.
+ */
+@Getter
+public class ScenarioRun {
+
+    private final long id;
+    private final ScenarioRequest request;
+    private final long seed;
+    private final long tickMillis;
+    private final long totalTicks;
+    private final long endMillis;
+    /** Simulation clock time of scenario time 0. */
+    private final long startEpochMillis;
+    private final LocalDateTime startedAt;
+
+    /** Sizes, lifetimes and per-tick allocation seeds all derive from the scenario seed. */
+    private final SplittableRandom random;
+    /** Fractional objects carried over to the next tick, per workload. */
+    private final double[] allocationCarry;
+    /** Object ids to dereference, keyed by the scenario time at which they expire. */
+    private final Map<Long, List<Long>> expiries = new HashMap<>();
+    private final PriorityQueue<ScenarioEvent> events = new PriorityQueue<>();
+    private long eventSequence;
+
+    private volatile ScenarioStatus status = ScenarioStatus.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile long timeMillis;
+    private volatile long objectsAllocated;
+    private volatile long objectsExpired;
+    private volatile int snapshotsTaken;
+    private volatile int gcRuns;
+    private volatile LeakReport leakReport;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+    private volatile Future<?> future;
+
+    ScenarioRun(long id, ScenarioRequest request, long seed, LocalDateTime startedAt, long startEpochMillis) {
+        this.id = id;
+        this.request = request;
+        this.seed = seed;
+        this.tickMillis = request.getTickMillis();
+        this.totalTicks = Math.max(1, Math.round(request.getDurationSeconds() * 1000.0 / tickMillis));
+        this.endMillis = totalTicks * tickMillis;
+        this.startedAt = startedAt;
+        this.startEpochMillis = startEpochMillis;
+        this.random = new SplittableRandom(seed);
+        this.allocationCarry = new double[request.getWorkloads().size()];
+    }
+
+    public ScenarioClockMode getClockMode() {
+        return request.getClockMode();
+    }
+
+    public long getElapsedTicks() {
+        return timeMillis / tickMillis;
+    }
+
+    /**
+     * Converts an interval in seconds to scenario milliseconds on the tick grid, at least
+     * one tick.
+     */
+    long intervalMillis(double seconds) {
+        return Math.max(1, Math.round(seconds * 1000 / tickMillis)) * tickMillis;
+    }
+
+    void schedule(long atMillis, ScenarioEvent.Type type, int workload) {
+        events.add(new ScenarioEvent(atMillis, type, workload, eventSequence++));
+    }
+
+    /**
+     * Schedules a recurring event's next occurrence unless it would fall after the end.
+     */
+    void scheduleNext(ScenarioEvent event, long intervalMillis) {
+        long next = event.timeMillis() + intervalMillis;
+        if (next <= endMillis) {
+            schedule(next, event.type(), event.workload());
+        }
+    }
+
+    /**
+     * Removes and returns the next event if it is due at or before {@code untilMillis}.
+     */
+    ScenarioEvent pollDue(long untilMillis) {
+        ScenarioEvent next = events.peek();
+        if (next == null || next.timeMillis() > untilMillis) {
+            return null;
+        }
+        timeMillis = next.timeMillis();
+        return events.poll();
+    }
+
+    /**
+     * Objects workload {@code index} allocates this tick; the fractional remainder is
+     * carried so low rates still allocate on average at the requested rate.
+     */
+    int objectsDue(int index) {
+        ScenarioWorkload workload = request.getWorkloads().get(index);
+        double due = allocationCarry[index] + workload.getObjectsPerSecond() * tickMillis / 1000.0;
+        int count = (int) Math.min(Integer.MAX_VALUE, Math.floor(due));
+        allocationCarry[index] = due - count;
+        return count;
+    }
+
+    void scheduleExpiry(long atMillis, long objectId) {
+        if (atMillis > endMillis) {
+            return;
+        }
+        expiries.computeIfAbsent(atMillis, t -> {
+            schedule(t, ScenarioEvent.Type.EXPIRE, -1);
+            return new ArrayList<>();
+        }).add(objectId);
+    }
+
+    List<Long> takeExpired(long atMillis) {
+        return expiries.remove(atMillis);
+    }
+
+    void allocated(long count) {
+        objectsAllocated += count;
+    }
+
+    void expired(long count) {
+        objectsExpired += count;
+    }
+
+    void snapshotTaken() {
+        snapshotsTaken++;
+    }
+
+    void gcRun() {
+        gcRuns++;
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+        if (status != ScenarioStatus.RUNNING) {
+            future.cancel(false);
+        }
+    }
+
+    void finish(ScenarioStatus status, LeakReport leakReport, String message, LocalDateTime finishedAt) {
+        this.leakReport = leakReport;
+        this.message = message;
+        this.finishedAt = finishedAt;
+        this.status = status;
+        expiries.clear();
+        events.clear();
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    public ScenarioStatusResponse toResponse() {
+        LeakReport report = leakReport;
+        return ScenarioStatusResponse.builder()
+                .id(id)
+                .name(request.getName())
+                .status(status)
+                .clockMode(getClockMode())
+                .seed(seed)
+                .elapsedTicks(getElapsedTicks())
+                .totalTicks(totalTicks)
+                .simulatedTime(startedAt.plusNanos(timeMillis * 1_000_000))
+                .objectsAllocated(objectsAllocated)
+                .objectsExpired(objectsExpired)
+                .snapshotsTaken(snapshotsTaken)
+                .gcRuns(gcRuns)
+                .leakReportId(report != null ? report.getId() : null)
+                .verdict(report != null ? report.getVerdict() : null)
+                .message(message)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .build();
+    }
+}
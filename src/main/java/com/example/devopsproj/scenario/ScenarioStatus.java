@@ -0,0 +1,9 @@
+package com.example.devopsproj.scenario;
+
+public enum ScenarioStatus {
+    RUNNING,
+    COMPLETED,
+    OUT_OF_MEMORY,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,53 @@
+package com.example.devopsproj.service;
+
+import com.example.devopsproj.dto.AllocationSummaryResponse;
+import com.example.devopsproj.dto.AllocationSummaryResponse.IdRange;
+import com.example.devopsproj.model.HeapObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Folds allocation batches into a fixed-size summary. Consecutive IDs are merged
+ * into ranges, so the summary stays small however many objects pass through.
+ */
+class AllocationSummaryCollector implements Consumer<List<HeapObject>> {
+
+    private final List<IdRange> idRanges = new ArrayList<>();
+    private final Map<String, Long> countsByType = new TreeMap<>();
+    private long objectCount;
+    private long totalSizeInKB;
+
+    @Override
+    public void accept(List<HeapObject> batch) {
+        for (HeapObject obj : batch) {
+            objectCount++;
+            totalSizeInKB += obj.getSizeInKB();
+            countsByType.merge(obj.getObjectType(), 1L, Long::sum);
+            addId(obj.getId());
+        }
+    }
+
+    private void addId(long id) {
+        if (!idRanges.isEmpty()) {
+            IdRange last = idRanges.get(idRanges.size() - 1);
+            if (last.getLastId() + 1 == id) {
+                last.setLastId(id);
+                return;
+            }
+        }
+        idRanges.add(new IdRange(id, id));
+    }
+
+    AllocationSummaryResponse toResponse() {
+        return AllocationSummaryResponse.builder()
+                .objectCount(objectCount)
+                .totalSizeInKB(totalSizeInKB)
+                .idRanges(idRanges)
+                .countsByType(countsByType)
+                .build();
+    }
+}
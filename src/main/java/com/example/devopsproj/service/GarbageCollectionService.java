@@ -1,13 +1,22 @@
 package com.example.devopsproj.service;
 
+import com.example.devopsproj.engine.CollectorMode;
+import com.example.devopsproj.engine.ErgonomicsPolicy;
 import com.example.devopsproj.engine.GarbageCollectionEngine;
+import com.example.devopsproj.engine.GcErgonomics;
+import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.PauseHistogram;
+import com.example.devopsproj.engine.RegionTable;
 import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.model.GCType;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
@@ -16,6 +25,8 @@ public class GarbageCollectionService {
 
     private final GarbageCollectionEngine garbageCollectionEngine;
     private final SimulationService simulationService;
+    private final HeapSimulationEngine heapSimulationEngine;
+    private final GcErgonomics gcErgonomics;
 
     @Transactional
     public GCEvent runMinorGC() {
@@ -47,6 +58,79 @@ public class GarbageCollectionService {
         return gcEvent;
     }
 
+    /**
+     * Starts a concurrent cycle in the background, or returns the one still running. A heap
+     * snapshot is taken once the cycle has committed.
+     */
+    public CompletableFuture<GCEvent> startConcurrentGC() {
+        if (garbageCollectionEngine.isConcurrentCycleRunning()) {
+            log.info("Service: Concurrent GC already running");
+        } else {
+            log.info("Service: Starting concurrent GC");
+        }
+        return garbageCollectionEngine.startConcurrentCycle().thenApply(gcEvent -> {
+            simulationService.createHeapSnapshot();
+            return gcEvent;
+        });
+    }
+
+    public boolean isConcurrentCollector() {
+        return garbageCollectionEngine.getCollectorMode() == CollectorMode.CONCURRENT;
+    }
+
+    public boolean isConcurrentCycleRunning() {
+        return garbageCollectionEngine.isConcurrentCycleRunning();
+    }
+
+    public GCEvent getLastConcurrentEvent() {
+        return garbageCollectionEngine.getLastConcurrentEvent();
+    }
+
+    @Transactional
+    public GCEvent runMixedGC(Long pauseTargetMs) {
+        log.info("Service: Running Mixed GC");
+        GCEvent gcEvent = pauseTargetMs != null
+                ? garbageCollectionEngine.runMixedGC(pauseTargetMs)
+                : garbageCollectionEngine.runMixedGC();
+
+        simulationService.createHeapSnapshot();
+
+        return gcEvent;
+    }
+
+    public List<RegionTable.RegionStats> getRegions() {
+        return heapSimulationEngine.getRegionStats();
+    }
+
+    public long getRegionSizeKB() {
+        RegionTable regions = heapSimulationEngine.getHeapStore().getRegions();
+        return regions != null ? regions.getRegionSizeKB() : 0;
+    }
+
+    public boolean isErgonomicsEnabled() {
+        return gcErgonomics.isEnabled();
+    }
+
+    public int getErgonomicsYoungTriggerPercent() {
+        return gcErgonomics.getYoungTriggerPercent();
+    }
+
+    public int getErgonomicsOldTriggerPercent() {
+        return gcErgonomics.getOldTriggerPercent();
+    }
+
+    public int getErgonomicsSuspendedChecks() {
+        return gcErgonomics.getSuspendedChecks();
+    }
+
+    public Map<ErgonomicsPolicy, Long> getErgonomicsTriggeredCollections() {
+        return gcErgonomics.getTriggeredCollections();
+    }
+
+    public PauseHistogram getPauseHistogram(GCType gcType) {
+        return garbageCollectionEngine.getPauseHistogram(gcType);
+    }
+
     public List<GCEvent> getGCHistory() {
         return garbageCollectionEngine.getGCHistory();
     }
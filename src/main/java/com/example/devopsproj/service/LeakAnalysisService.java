@@ -1,6 +1,7 @@
 package com.example.devopsproj.service;
 
 import com.example.devopsproj.analyzer.LeakAnalyzer;
+import com.example.devopsproj.analyzer.TypeGrowth;
 import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.HeapSnapshot;
 import com.example.devopsproj.model.LeakReport;
@@ -24,11 +25,25 @@ public class LeakAnalysisService {
 
     @Transactional
     public LeakReport generateLeakReport() {
+        return generateLeakReport(null, null, null);
+    }
+
+    /**
+     * Takes a snapshot, then reports on the snapshots from {@code startTime} to
+     * {@code endTime}, either open-ended when {@code null}; {@code trimPercent} overrides
+     * the share of snapshots trimmed from each end before fitting growth rates.
+     */
+    @Transactional
+    public LeakReport generateLeakReport(LocalDateTime startTime, LocalDateTime endTime, Integer trimPercent) {
         log.info("Service: Generating leak report");
 
         simulationService.createHeapSnapshot();
 
-        return leakAnalyzer.analyzeAndGenerateReport();
+        return leakAnalyzer.analyzeAndGenerateReport(startTime, endTime, trimPercent);
+    }
+
+    public List<TypeGrowth> getTopGrowingTypes(LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        return leakAnalyzer.rankTypeGrowth(startTime, endTime, limit);
     }
 
     public List<HeapSnapshot> getHeapHistory(LocalDateTime startTime, LocalDateTime endTime) {
@@ -1,17 +1,30 @@
 package com.example.devopsproj.service;
 
+import com.example.devopsproj.analyzer.LeakAnalyzer;
+import com.example.devopsproj.analyzer.TypeVector;
+import com.example.devopsproj.dto.AllocationSummaryResponse;
+import com.example.devopsproj.engine.EpochCache;
 import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.engine.SizeDistribution;
+import com.example.devopsproj.exception.SimulatedOutOfMemoryException;
 import com.example.devopsproj.model.Generation;
 import com.example.devopsproj.model.HeapObject;
 import com.example.devopsproj.model.HeapSnapshot;
 import com.example.devopsproj.repository.HeapSnapshotRepository;
+import com.example.devopsproj.scenario.LifetimeDistribution;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
 
 @Service
 @Slf4j
@@ -20,50 +33,168 @@ public class SimulationService {
 
     private final HeapSimulationEngine heapSimulationEngine;
     private final HeapSnapshotRepository heapSnapshotRepository;
+    private final SimulationClock simulationClock;
+    private final LeakAnalyzer leakAnalyzer;
+    private final EpochCache<HeapFigures> cachedHeapFigures = new EpochCache<>();
+    private final EpochCache<byte[]> cachedOldGenTypeVector = new EpochCache<>();
 
-    @Transactional
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
     public List<HeapObject> allocateObjects(int count, int sizeInKB, String objectType, boolean createReferences) {
         log.info("Service: Allocating {} objects", count);
         return heapSimulationEngine.allocateObjects(count, sizeInKB, objectType, createReferences);
     }
 
-    @Transactional
+    /**
+     * Allocates objects that are dereferenced automatically once a lifetime drawn from
+     * {@code lifetimeDistribution} around {@code lifetimeMs} has passed; with no lifetime,
+     * the same as {@link #allocateObjects(int, int, String, boolean)}.
+     */
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public List<HeapObject> allocateObjects(int count, int sizeInKB, String objectType, boolean createReferences,
+                                            Long lifetimeMs, LifetimeDistribution lifetimeDistribution) {
+        if (lifetimeMs == null) {
+            return allocateObjects(count, sizeInKB, objectType, createReferences);
+        }
+        log.info("Service: Allocating {} objects with a {} lifetime of {} ms", count, lifetimeDistribution, lifetimeMs);
+        List<HeapObject> allocatedObjects = new ArrayList<>(count);
+        heapSimulationEngine.allocateObjects(count, sizeInKB, objectType, createReferences,
+                withLifetimes(allocatedObjects::addAll, lifetimeMs, lifetimeDistribution));
+        return allocatedObjects;
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public AllocationSummaryResponse allocateObjectsSummary(int count, int sizeInKB, String objectType,
+                                                            boolean createReferences) {
+        return allocateObjectsSummary(count, sizeInKB, objectType, createReferences, null, null);
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public AllocationSummaryResponse allocateObjectsSummary(int count, int sizeInKB, String objectType,
+                                                            boolean createReferences, Long lifetimeMs,
+                                                            LifetimeDistribution lifetimeDistribution) {
+        log.info("Service: Allocating {} objects (summary response)", count);
+        AllocationSummaryCollector collector = new AllocationSummaryCollector();
+        heapSimulationEngine.allocateObjects(count, sizeInKB, objectType, createReferences,
+                withLifetimes(collector, lifetimeMs, lifetimeDistribution));
+        return collector.toResponse();
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public void streamAllocatedObjects(int count, int sizeInKB, String objectType, boolean createReferences,
+                                       Long lifetimeMs, LifetimeDistribution lifetimeDistribution,
+                                       Consumer<List<HeapObject>> batchConsumer) {
+        log.info("Service: Allocating {} objects (streamed response)", count);
+        heapSimulationEngine.allocateObjects(count, sizeInKB, objectType, createReferences,
+                withLifetimes(batchConsumer, lifetimeMs, lifetimeDistribution));
+    }
+
+    /**
+     * Schedules the expiry of every referenced object in each batch before passing the
+     * batch on. Immortal lifetimes are never scheduled.
+     */
+    private Consumer<List<HeapObject>> withLifetimes(Consumer<List<HeapObject>> batchConsumer, Long lifetimeMs,
+                                                     LifetimeDistribution lifetimeDistribution) {
+        if (lifetimeMs == null) {
+            return batchConsumer;
+        }
+        LifetimeDistribution distribution = lifetimeDistribution != null
+                ? lifetimeDistribution : LifetimeDistribution.FIXED;
+        SplittableRandom random = new SplittableRandom();
+        return batch -> {
+            for (HeapObject obj : batch) {
+                long lifetime = distribution.sampleTicks(random, lifetimeMs);
+                if (lifetime != LifetimeDistribution.NEVER && Boolean.TRUE.equals(obj.getReferenced())) {
+                    heapSimulationEngine.expireAfter(obj.getId(), lifetime);
+                }
+            }
+            batchConsumer.accept(batch);
+        };
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
     public List<HeapObject> allocateRandomObjects(int count, int minSize, int maxSize, String objectType) {
         log.info("Service: Allocating {} random objects", count);
         return heapSimulationEngine.allocateRandomObjects(count, minSize, maxSize, objectType);
     }
 
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public AllocationSummaryResponse allocateRandomObjectsSummary(int count, int minSize, int maxSize,
+                                                                  String objectType, SizeDistribution distribution,
+                                                                  Long seed) {
+        long effectiveSeed = seed != null ? seed : new SplittableRandom().nextLong();
+        log.info("Service: Allocating {} random objects (seed {})", count, effectiveSeed);
+        AllocationSummaryCollector collector = new AllocationSummaryCollector();
+        heapSimulationEngine.allocateRandomObjects(count, minSize, maxSize, objectType, distribution,
+                effectiveSeed, collector);
+        AllocationSummaryResponse summary = collector.toResponse();
+        summary.setSeed(effectiveSeed);
+        return summary;
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public void streamRandomObjects(int count, int minSize, int maxSize, String objectType,
+                                    SizeDistribution distribution, long seed,
+                                    Consumer<List<HeapObject>> batchConsumer) {
+        log.debug("Service: Allocating {} random objects (seed {})", count, seed);
+        heapSimulationEngine.allocateRandomObjects(count, minSize, maxSize, objectType, distribution, seed,
+                batchConsumer);
+    }
+
     @Transactional
     public void dereferenceObjects(List<Long> objectIds) {
         log.info("Service: Dereferencing {} objects", objectIds.size());
         heapSimulationEngine.dereferenceObjects(objectIds);
     }
 
+    /**
+     * The heap figures right now, stamped with the current time. The figures are cached
+     * until the engine's mutation epoch moves, so polling an unchanged heap costs nothing.
+     */
     public HeapSnapshot getCurrentHeapState() {
         log.info("Service: Getting current heap state");
 
-        long totalHeapUsed = heapSimulationEngine.getCurrentHeapSize();
-        int liveObjectsCount = (int) heapSimulationEngine.getLiveObjectCount();
-        int unreachableObjectsCount = (int) heapSimulationEngine.getUnreachableObjectCount();
-        long youngGenSize = heapSimulationEngine.getYoungGenSize();
-        long oldGenSize = heapSimulationEngine.getOldGenSize();
+        HeapFigures figures = cachedHeapFigures.get(heapSimulationEngine.getMutationEpoch(), () -> new HeapFigures(
+                heapSimulationEngine.getCurrentHeapSize(),
+                (int) heapSimulationEngine.getLiveObjectCount(),
+                (int) heapSimulationEngine.getUnreachableObjectCount(),
+                heapSimulationEngine.getYoungGenSize(),
+                heapSimulationEngine.getOldGenSize()));
 
         return HeapSnapshot.builder()
-                .timestamp(LocalDateTime.now())
-                .totalHeapUsed(totalHeapUsed)
-                .liveObjectsCount(liveObjectsCount)
-                .unreachableObjectsCount(unreachableObjectsCount)
-                .youngGenSize(youngGenSize)
-                .oldGenSize(oldGenSize)
+                .timestamp(simulationClock.now())
+                .totalHeapUsed(figures.totalHeapUsed())
+                .liveObjectsCount(figures.liveObjectsCount())
+                .unreachableObjectsCount(figures.unreachableObjectsCount())
+                .youngGenSize(figures.youngGenSize())
+                .oldGenSize(figures.oldGenSize())
                 .build();
     }
 
+    /**
+     * Saves a snapshot of the current heap. The leak analyzer's running statistics take it
+     * in only once the transaction commits, so a rolled-back snapshot never reaches them.
+     */
     @Transactional
     public HeapSnapshot createHeapSnapshot() {
         log.info("Service: Creating heap snapshot");
 
-        HeapSnapshot snapshot = getCurrentHeapState();
-        return heapSnapshotRepository.save(snapshot);
+        heapSimulationEngine.flushPendingWrites();
+        HeapSnapshot state = getCurrentHeapState();
+        state.setOldGenTypeVector(cachedOldGenTypeVector.get(heapSimulationEngine.getMutationEpoch(), () -> TypeVector.encode(
+                heapSimulationEngine.countLiveObjectsByType(Generation.OLD),
+                heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD))));
+        HeapSnapshot snapshot = heapSnapshotRepository.save(state);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    leakAnalyzer.recordSnapshot(snapshot);
+                }
+            });
+        } else {
+            leakAnalyzer.recordSnapshot(snapshot);
+        }
+        return snapshot;
     }
 
     public List<HeapSnapshot> getHeapHistory(LocalDateTime startTime, LocalDateTime endTime) {
@@ -104,6 +235,18 @@ public class SimulationService {
     }
 
     @Transactional
+    public void addReference(long sourceId, long targetId) {
+        log.info("Service: Adding reference {} -> {}", sourceId, targetId);
+        heapSimulationEngine.addReference(sourceId, targetId);
+    }
+
+    @Transactional
+    public void removeReference(long sourceId, long targetId) {
+        log.info("Service: Removing reference {} -> {}", sourceId, targetId);
+        heapSimulationEngine.removeReference(sourceId, targetId);
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
     public List<HeapObject> allocateCyclicReferences(int chainLength, int sizeInKB) {
         log.info("Service: Creating cyclic reference chain of length {}", chainLength);
 
@@ -113,9 +256,61 @@ public class SimulationService {
                 "CyclicReference",
                 true
         );
-
-        log.info("Created circular reference chain: {} objects forming a leak pattern", chainLength);
+        linkCycle(cyclicObjects.stream().map(HeapObject::getId).toList());
+        cyclicObjects.stream().skip(1).forEach(obj -> obj.setRoot(false));
 
         return cyclicObjects;
     }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public AllocationSummaryResponse allocateCyclicReferencesSummary(int chainLength, int sizeInKB) {
+        log.info("Service: Creating cyclic reference chain of length {} (summary response)", chainLength);
+        AllocationSummaryCollector collector = new AllocationSummaryCollector();
+        List<Long> ids = new ArrayList<>(chainLength);
+        heapSimulationEngine.allocateObjects(chainLength, sizeInKB, "CyclicReference", true,
+                collectingIds(ids, collector));
+        linkCycle(ids);
+        return collector.toResponse();
+    }
+
+    @Transactional(noRollbackFor = SimulatedOutOfMemoryException.class)
+    public void streamCyclicReferences(int chainLength, int sizeInKB, Consumer<List<HeapObject>> batchConsumer) {
+        log.info("Service: Creating cyclic reference chain of length {} (streamed response)", chainLength);
+        List<Long> ids = new ArrayList<>(chainLength);
+        heapSimulationEngine.allocateObjects(chainLength, sizeInKB, "CyclicReference", true,
+                collectingIds(ids, batchConsumer));
+        linkCycle(ids);
+    }
+
+    private static Consumer<List<HeapObject>> collectingIds(List<Long> ids, Consumer<List<HeapObject>> downstream) {
+        return batch -> {
+            batch.forEach(obj -> ids.add(obj.getId()));
+            downstream.accept(batch);
+        };
+    }
+
+    /**
+     * Links the objects into a ring, each referencing the next and the last the first,
+     * and leaves the first as the ring's only root. Dropping that root leaves a cycle
+     * that only the mark phase can find to be garbage.
+     */
+    private void linkCycle(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        long[] sources = new long[ids.size()];
+        long[] targets = new long[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            sources[i] = ids.get(i);
+            targets[i] = ids.get((i + 1) % ids.size());
+        }
+        heapSimulationEngine.addReferences(sources, targets);
+        heapSimulationEngine.dereferenceObjects(ids.subList(1, ids.size()));
+
+        log.info("Created circular reference chain: {} objects held by root {}", ids.size(), ids.get(0));
+    }
+
+    private record HeapFigures(long totalHeapUsed, int liveObjectsCount, int unreachableObjectsCount,
+                               long youngGenSize, long oldGenSize) {
+    }
 }
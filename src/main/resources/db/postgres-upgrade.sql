@@ -0,0 +1,85 @@
+-- Upgrades a PostgreSQL schema written by an earlier version in place. Runs at startup in
+-- the postgres profile, before Hibernate's schema update; every step checks the current
+-- schema first, so it does nothing on a new or already upgraded database.
+
+-- heap_object.object_type (the name on every row) became type_id, referring to the
+-- object_type dictionary. Each distinct name gets the next dense id, as the engine's
+-- TypeDictionary expects; Hibernate then adds the foreign key.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_schema = current_schema() AND table_name = 'heap_object'
+                 AND column_name = 'object_type') THEN
+        CREATE TABLE IF NOT EXISTS object_type (
+            id integer PRIMARY KEY,
+            name varchar(255) NOT NULL UNIQUE
+        );
+        INSERT INTO object_type (id, name)
+        SELECT (SELECT COALESCE(MAX(id), -1) FROM object_type) + ROW_NUMBER() OVER (ORDER BY names.name),
+               names.name
+        FROM (SELECT DISTINCT object_type AS name FROM heap_object) names
+        WHERE NOT EXISTS (SELECT 1 FROM object_type t WHERE t.name = names.name);
+        ALTER TABLE heap_object ADD COLUMN IF NOT EXISTS type_id integer;
+        UPDATE heap_object h SET type_id = t.id
+        FROM object_type t
+        WHERE h.type_id IS NULL AND t.name = h.object_type;
+        ALTER TABLE heap_object ALTER COLUMN type_id SET NOT NULL;
+        ALTER TABLE heap_object DROP COLUMN object_type;
+    END IF;
+END
+$$;
+
+-- heap_reference.id moved from an identity column to the pooled heap_reference_seq, so that
+-- edge inserts can be batched. The sequence starts past every existing id; Hibernate's
+-- pooled optimizer hands out the 1000 ids below each value it reads.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.tables
+               WHERE table_schema = current_schema() AND table_name = 'heap_reference')
+       AND NOT EXISTS (SELECT 1 FROM information_schema.sequences
+                       WHERE sequence_schema = current_schema() AND sequence_name = 'heap_reference_seq') THEN
+        EXECUTE format('CREATE SEQUENCE heap_reference_seq START WITH %s INCREMENT BY 1000',
+                       (SELECT COALESCE(MAX(id), 0) + 1001 FROM heap_reference));
+        ALTER TABLE heap_reference ALTER COLUMN id DROP IDENTITY IF EXISTS;
+    END IF;
+END
+$$;
+
+-- Hibernate guards enum columns with a CHECK on their values but does not update it when an
+-- enum grows. Full collections were recorded as MAJOR until GCType.FULL was added, so an
+-- older gc_event table would reject them. Every stale check is dropped, then the current one
+-- is added once unless an up-to-date check is already there.
+DO $$
+DECLARE
+    stale record;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.tables
+                   WHERE table_schema = current_schema() AND table_name = 'gc_event') THEN
+        RETURN;
+    END IF;
+
+    FOR stale IN
+        SELECT c.conname
+        FROM pg_constraint c
+        JOIN pg_class t ON t.oid = c.conrelid
+        WHERE t.relname = 'gc_event' AND t.relnamespace = current_schema()::regnamespace
+          AND c.contype = 'c'
+          AND pg_get_constraintdef(c.oid) LIKE '%gc_type%'
+          AND pg_get_constraintdef(c.oid) NOT LIKE '%''FULL''%'
+    LOOP
+        EXECUTE format('ALTER TABLE gc_event DROP CONSTRAINT %I', stale.conname);
+    END LOOP;
+
+    IF NOT EXISTS (
+        SELECT 1
+        FROM pg_constraint c
+        JOIN pg_class t ON t.oid = c.conrelid
+        WHERE t.relname = 'gc_event' AND t.relnamespace = current_schema()::regnamespace
+          AND c.contype = 'c'
+          AND pg_get_constraintdef(c.oid) LIKE '%gc_type%'
+    ) THEN
+        ALTER TABLE gc_event ADD CONSTRAINT gc_event_gc_type_check
+            CHECK (gc_type IN ('MINOR', 'MAJOR', 'FULL', 'CONCURRENT', 'MIXED'));
+    END IF;
+END
+$$;
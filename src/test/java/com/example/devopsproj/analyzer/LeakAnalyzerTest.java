@@ -1,6 +1,7 @@
 package com.example.devopsproj.analyzer;
 
 import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.SimulationClock;
 import com.example.devopsproj.model.*;
 import com.example.devopsproj.repository.GCEventRepository;
 import com.example.devopsproj.repository.HeapSnapshotRepository;
@@ -9,13 +10,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -34,39 +37,120 @@ class LeakAnalyzerTest {
     @Mock
     private HeapSimulationEngine heapSimulationEngine;
 
+    @Spy
+    private SimulationClock simulationClock = new SimulationClock();
+
     @InjectMocks
     private LeakAnalyzer leakAnalyzer;
 
     @Test
     void testCalculateHeapGrowthRate_WithSnapshots() {
-        HeapSnapshot first = HeapSnapshot.builder()
-                .id(1L)
-                .totalHeapUsed(1000L)
-                .timestamp(LocalDateTime.now().minusSeconds(100))
-                .build();
-
-        HeapSnapshot latest = HeapSnapshot.builder()
-                .id(2L)
-                .totalHeapUsed(2000L)
-                .timestamp(LocalDateTime.now())
-                .build();
+        LocalDateTime start = LocalDateTime.now();
+        leakAnalyzer.recordSnapshot(snapshot(1L, start, 1000L, 0L, 10));
+        leakAnalyzer.recordSnapshot(snapshot(2L, start.plusSeconds(100), 2000L, 500L, 10));
 
-        when(heapSnapshotRepository.findFirstSnapshot()).thenReturn(Optional.of(first));
-        when(heapSnapshotRepository.findLatestSnapshot()).thenReturn(Optional.of(latest));
+        assertThat(leakAnalyzer.calculateHeapGrowthRate()).isEqualTo(10.0);
+        assertThat(leakAnalyzer.calculateOldGenGrowthRate()).isEqualTo(5.0);
+        assertThat(leakAnalyzer.calculateSuspectedLeakDuration()).isEqualTo(100L);
+    }
 
+    @Test
+    void testCalculateHeapGrowthRate_NoSnapshots() {
         double growthRate = leakAnalyzer.calculateHeapGrowthRate();
 
-        assertThat(growthRate).isGreaterThan(0);
+        assertThat(growthRate).isEqualTo(0.0);
+        assertThat(leakAnalyzer.calculateSuspectedLeakDuration()).isZero();
     }
 
     @Test
-    void testCalculateHeapGrowthRate_NoSnapshots() {
-        when(heapSnapshotRepository.findFirstSnapshot()).thenReturn(Optional.empty());
-        when(heapSnapshotRepository.findLatestSnapshot()).thenReturn(Optional.empty());
+    void testGrowthWindow_FitsTrimmedLeastSquaresOverAnyRange() {
+        // Heap grows 50 KB/s with a GC dip halfway; an endpoint difference would say 40 KB/s.
+        LocalDateTime start = LocalDateTime.now();
+        long[] heapUsed = {0L, 500L, 1000L, 1500L, 2000L, 500L, 3000L, 3500L, 4000L, 4000L};
+        int[] liveObjects = {10, 20, 30, 40, 50, 60, 100, 100, 100, 100};
+        when(heapSnapshotRepository.findAllOrderByTimestampDesc()).thenReturn(new ArrayList<>(List.of(
+                snapshot(2L, start.plusSeconds(10), heapUsed[1], 0L, liveObjects[1]),
+                snapshot(1L, start, heapUsed[0], 0L, liveObjects[0]))));
+
+        for (int i = 2; i < heapUsed.length; i++) {
+            leakAnalyzer.recordSnapshot(snapshot(i + 1L, start.plusSeconds(10L * i), heapUsed[i], 0L, liveObjects[i]));
+        }
+        // Already counted when the history was loaded.
+        leakAnalyzer.recordSnapshot(snapshot(2L, start.plusSeconds(10), 999_999L, 0L, 0));
+
+        // The default 10% trim fits the eight middle snapshots.
+        assertThat(leakAnalyzer.calculateHeapGrowthRate()).isCloseTo(leastSquaresSlope(heapUsed, 1, 9), within(1e-9));
+        // The latest five live counts are 60 and 100 four times: mean 92, standard deviation 16.
+        assertThat(leakAnalyzer.calculateLiveObjectStagnation()).isCloseTo(1.0 - 16.0 / 92.0, within(1e-9));
+        assertThat(leakAnalyzer.calculateSuspectedLeakDuration()).isEqualTo(90L);
+        verify(heapSnapshotRepository, times(1)).findAllOrderByTimestampDesc();
+
+        GrowthWindow window = leakAnalyzer.calculateGrowthWindow(start.plusSeconds(20), start.plusSeconds(60), 0);
+        assertThat(window.snapshotCount()).isEqualTo(5);
+        assertThat(window.fittedSnapshotCount()).isEqualTo(5);
+        assertThat(window.heapGrowthRate()).isCloseTo(leastSquaresSlope(heapUsed, 2, 7), within(1e-9));
+        // Live counts 30, 40, 50, 60 and 100: mean 56, standard deviation 24.17.
+        assertThat(window.liveObjectStagnation()).isCloseTo(1.0 - Math.sqrt(584.0) / 56.0, within(1e-9));
+        assertThat(window.durationSeconds()).isEqualTo(40L);
+
+        assertThat(leakAnalyzer.calculateGrowthWindow(start.plusSeconds(95), null, 10).snapshotCount()).isZero();
+    }
 
-        double growthRate = leakAnalyzer.calculateHeapGrowthRate();
+    @Test
+    void testRankTypeGrowth_RanksTypesByOldGenGrowth() {
+        // Session grows 30 KB/s, Cache 10 KB/s and Buffer stays flat over 10 s; Cache only counts before 5 s.
+        LocalDateTime start = LocalDateTime.now();
+        for (int second = 0; second <= 10; second++) {
+            HeapSnapshot snapshot = snapshot(second + 1L, start.plusSeconds(second), 0L, 0L, 0);
+            snapshot.setOldGenTypeVector(TypeVector.encode(
+                    new long[]{second, Math.min(second, 5), 1},
+                    new long[]{30L * second, 10L * Math.min(second, 5), 500L}));
+            leakAnalyzer.recordSnapshot(snapshot);
+        }
+        when(heapSimulationEngine.getObjectTypeName(0)).thenReturn("Session");
+        when(heapSimulationEngine.getObjectTypeName(1)).thenReturn("Cache");
+
+        List<TypeGrowth> growth = leakAnalyzer.rankTypeGrowth(null, null, 5);
+
+        assertThat(growth).extracting(TypeGrowth::objectType).containsExactly("Session", "Cache");
+        assertThat(growth.get(0).kbPerSecond()).isCloseTo(30.0, within(1e-9));
+        assertThat(growth.get(0).liveKB()).isEqualTo(300L);
+        assertThat(growth.get(0).liveObjects()).isEqualTo(10L);
+        assertThat(growth.get(0).objectsPerSecond()).isCloseTo(1.0, within(1e-9));
+        assertThat(growth.get(0).contributionPercent() + growth.get(1).contributionPercent()).isCloseTo(100.0, within(1e-9));
+
+        List<TypeGrowth> early = leakAnalyzer.rankTypeGrowth(start, start.plusSeconds(5), 1);
+        assertThat(early).hasSize(1);
+        assertThat(early.get(0).objectType()).isEqualTo("Session");
+        assertThat(early.get(0).contributionPercent()).isCloseTo(75.0, within(1e-9));
+    }
 
-        assertThat(growthRate).isEqualTo(0.0);
+    /** Least-squares slope of {@code values[from..to)} against snapshots taken 10 s apart. */
+    private static double leastSquaresSlope(long[] values, int from, int to) {
+        double meanT = 0.0;
+        double meanValue = 0.0;
+        for (int i = from; i < to; i++) {
+            meanT += 10.0 * i / (to - from);
+            meanValue += (double) values[i] / (to - from);
+        }
+        double covariance = 0.0;
+        double varianceT = 0.0;
+        for (int i = from; i < to; i++) {
+            covariance += (10.0 * i - meanT) * (values[i] - meanValue);
+            varianceT += (10.0 * i - meanT) * (10.0 * i - meanT);
+        }
+        return covariance / varianceT;
+    }
+
+    private static HeapSnapshot snapshot(long id, LocalDateTime timestamp, long heapUsed, long oldGen, int liveObjects) {
+        return HeapSnapshot.builder()
+                .id(id)
+                .timestamp(timestamp)
+                .totalHeapUsed(heapUsed)
+                .oldGenSize(oldGen)
+                .liveObjectsCount(liveObjects)
+                .unreachableObjectsCount(0)
+                .build();
     }
 
     @Test
@@ -78,6 +162,18 @@ class LeakAnalyzerTest {
         assertThat(efficiency).isEqualTo(0.8);
     }
 
+    @Test
+    void testCalculateGCEfficiency_CachedUntilTheHeapChanges() {
+        when(heapSimulationEngine.getMutationEpoch()).thenReturn(3L, 3L, 4L);
+        when(gcEventRepository.calculateAverageGCEfficiency()).thenReturn(0.8, 0.6);
+
+        assertThat(leakAnalyzer.calculateGCEfficiency()).isEqualTo(0.8);
+        assertThat(leakAnalyzer.calculateGCEfficiency()).isEqualTo(0.8);
+        assertThat(leakAnalyzer.calculateGCEfficiency()).isEqualTo(0.6);
+
+        verify(gcEventRepository, times(2)).calculateAverageGCEfficiency();
+    }
+
     @Test
     void testCalculateLiveObjectRatio() {
         when(heapSimulationEngine.getLiveObjectCount()).thenReturn(80L);
@@ -128,19 +224,12 @@ class LeakAnalyzerTest {
 
     @Test
     void testAnalyzeAndGenerateReport() {
-        HeapSnapshot snapshot = HeapSnapshot.builder()
-                .id(1L)
-                .totalHeapUsed(1000L)
-                .timestamp(LocalDateTime.now())
-                .build();
-
-        when(heapSnapshotRepository.findFirstSnapshot()).thenReturn(Optional.of(snapshot));
-        when(heapSnapshotRepository.findLatestSnapshot()).thenReturn(Optional.of(snapshot));
+        leakAnalyzer.recordSnapshot(snapshot(1L, LocalDateTime.now(), 1000L, 0L, 50));
         when(gcEventRepository.calculateAverageGCEfficiency()).thenReturn(0.8);
         when(heapSimulationEngine.getLiveObjectCount()).thenReturn(50L);
         when(heapSimulationEngine.getUnreachableObjectCount()).thenReturn(10L);
-        when(heapSimulationEngine.getAllObjects()).thenReturn(Arrays.asList());
-        when(heapSnapshotRepository.findAllOrderByTimestampDesc()).thenReturn(Arrays.asList());
+        when(heapSimulationEngine.countLiveObjectsByType(Generation.OLD)).thenReturn(new long[0]);
+        when(heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD)).thenReturn(new long[0]);
         when(leakReportRepository.save(any(LeakReport.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
@@ -150,4 +239,16 @@ class LeakAnalyzerTest {
         assertThat(report.getVerdict()).isIn(Verdict.NO_LEAK, Verdict.POSSIBLE_LEAK, Verdict.HIGH_PROBABILITY_LEAK);
         verify(leakReportRepository).save(any(LeakReport.class));
     }
+
+    @Test
+    void testIdentifyLeakingObjectTypes_RanksByRetainedKB() {
+        when(heapSimulationEngine.countLiveObjectsByType(Generation.OLD)).thenReturn(new long[]{3L, 0L, 7L});
+        when(heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD)).thenReturn(new long[]{3_000L, 0L, 70L});
+        when(heapSimulationEngine.getObjectTypeName(0)).thenReturn("Session");
+        when(heapSimulationEngine.getObjectTypeName(2)).thenReturn("CacheEntry");
+
+        String leakingTypes = leakAnalyzer.identifyLeakingObjectTypes();
+
+        assertThat(leakingTypes).isEqualTo("Session (3000 KB, 3 objects), CacheEntry (70 KB, 7 objects)");
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.devopsproj.analyzer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SnapshotIndexTest {
+
+    @Test
+    void testRangeQueriesMatchATwoPassScan() {
+        SplittableRandom random = new SplittableRandom(42);
+        SnapshotIndex index = new SnapshotIndex();
+        int size = 1_000;
+        long[] millis = new long[size];
+        long[] heapUsed = new long[size];
+        long time = 0;
+        for (int i = 0; i < size; i++) {
+            time += 1 + random.nextInt(5_000);
+            millis[i] = time;
+            heapUsed[i] = 10L * i + random.nextInt(1_000) + (i % 50 == 0 ? 100_000 : 0);
+            index.add(time, heapUsed[i], heapUsed[i] / 2, (int) (heapUsed[i] % 997));
+        }
+
+        for (int query = 0; query < 200; query++) {
+            int from = random.nextInt(size);
+            int to = from + 1 + random.nextInt(size - from);
+            SnapshotIndex.Moments moments = index.query(from, to);
+
+            double meanT = 0.0;
+            double meanHeap = 0.0;
+            for (int i = from; i < to; i++) {
+                meanT += millis[i] / 1000.0;
+                meanHeap += heapUsed[i];
+            }
+            meanT /= to - from;
+            meanHeap /= to - from;
+            double covariance = 0.0;
+            double varianceT = 0.0;
+            double varianceHeap = 0.0;
+            for (int i = from; i < to; i++) {
+                covariance += (millis[i] / 1000.0 - meanT) * (heapUsed[i] - meanHeap);
+                varianceT += (millis[i] / 1000.0 - meanT) * (millis[i] / 1000.0 - meanT);
+                varianceHeap += (heapUsed[i] - meanHeap) * (heapUsed[i] - meanHeap);
+            }
+
+            assertThat(moments.count()).isEqualTo(to - from);
+            assertThat(moments.mean(SnapshotIndex.HEAP)).isCloseTo(meanHeap, within(1e-6));
+            assertThat(moments.variance(SnapshotIndex.HEAP)).isCloseTo(varianceHeap / (to - from),
+                    within(1e-9 * Math.max(1.0, varianceHeap)));
+            double slope = varianceT > 0 ? covariance / varianceT : 0.0;
+            assertThat(moments.slope(SnapshotIndex.HEAP)).isCloseTo(slope, within(1e-9 * Math.max(1.0, Math.abs(slope))));
+        }
+
+        assertThat(index.lowerBound(millis[10])).isEqualTo(10);
+        assertThat(index.upperBound(millis[10])).isEqualTo(11);
+        assertThat(index.lowerBound(time + 1)).isEqualTo(size);
+    }
+
+    @Test
+    void testNarrowWindowFarFromTheFirstSnapshotKeepsItsSlope() {
+        SnapshotIndex index = new SnapshotIndex();
+        // A hundred snapshots over a year, then three a millisecond apart growing 1 KB per ms.
+        long yearMillis = 365L * 24 * 3_600_000;
+        for (long millis = 0; millis < yearMillis; millis += yearMillis / 100) {
+            index.add(millis, 1_000_000_000L, 0L, 0);
+        }
+        index.add(yearMillis, 5_000_000_000L, 0L, 0);
+        index.add(yearMillis + 1, 5_000_000_001L, 0L, 0);
+        index.add(yearMillis + 2, 5_000_000_002L, 0L, 0);
+
+        int from = index.lowerBound(yearMillis);
+        SnapshotIndex.Moments moments = index.query(from, index.size());
+
+        assertThat(moments.count()).isEqualTo(3);
+        assertThat(moments.slope(SnapshotIndex.HEAP)).isCloseTo(1_000.0, within(1e-3));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.devopsproj.analyzer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TypeGrowthSeriesTest {
+
+    @Test
+    void testTrendsMatchALeastSquaresScanOverAnyWindow() {
+        SplittableRandom random = new SplittableRandom(7);
+        int snapshots = 300;
+        int types = 40;
+        long[][] sizesKB = new long[snapshots][types];
+        long[][] counts = new long[snapshots][types];
+        double[] seconds = new double[snapshots];
+        TypeGrowthSeries series = new TypeGrowthSeries();
+        for (int i = 0; i < snapshots; i++) {
+            seconds[i] = i * 2.5 + random.nextDouble();
+            for (int type = 0; type < types; type++) {
+                // Type t appears at snapshot 5t, grows t KB per snapshot, and one in four changes skip.
+                boolean changes = random.nextInt(4) > 0;
+                long previous = i > 0 ? sizesKB[i - 1][type] : 0;
+                sizesKB[i][type] = i < 5 * type ? 0 : changes ? previous + type : previous;
+                counts[i][type] = (sizesKB[i][type] + 9) / 10;
+            }
+            series.add(seconds[i], TypeVector.encode(counts[i], sizesKB[i]));
+        }
+
+        int[][] windows = {{0, snapshots}, {0, 1}, {120, 121}, {37, 211}, {250, snapshots}};
+        for (int[] window : windows) {
+            int from = window[0];
+            int to = window[1];
+            double meanT = 0.0;
+            for (int i = from; i < to; i++) {
+                meanT += seconds[i] / (to - from);
+            }
+            double squares = 0.0;
+            for (int i = from; i < to; i++) {
+                squares += (seconds[i] - meanT) * (seconds[i] - meanT);
+            }
+
+            List<TypeTrend> trends = series.trends(from, to, meanT, squares);
+
+            for (TypeTrend trend : trends) {
+                int type = trend.typeId();
+                double covariance = 0.0;
+                for (int i = from; i < to; i++) {
+                    covariance += (seconds[i] - meanT) * sizesKB[i][type];
+                }
+                double slope = squares > 0 ? covariance / squares : 0.0;
+                assertThat(trend.kbPerSecond()).isCloseTo(slope, within(1e-6 * Math.max(1.0, Math.abs(slope))));
+                assertThat(trend.liveKB()).isEqualTo(sizesKB[to - 1][type]);
+                assertThat(trend.liveObjects()).isEqualTo(counts[to - 1][type]);
+            }
+        }
+        // Type 0 has no live objects at any snapshot and is never seen.
+        assertThat(series.trends(0, snapshots, 0.0, 1.0)).hasSize(types - 1);
+    }
+
+    @Test
+    void testUnchangedTypesCostNothingPerSnapshot() {
+        TypeGrowthSeries series = new TypeGrowthSeries();
+        int types = 2_000;
+        long[] counts = new long[types];
+        long[] sizesKB = new long[types];
+        for (int type = 0; type < types; type++) {
+            counts[type] = 1;
+            sizesKB[type] = 64;
+        }
+        for (int i = 0; i < 1_000; i++) {
+            // One type changes per snapshot.
+            counts[i % types]++;
+            sizesKB[i % types] += 64;
+            series.add(i, TypeVector.encode(counts, sizesKB));
+        }
+
+        // 2,000 first appearances and 999 changes, a few bytes each.
+        assertThat(series.encodedBytes()).isLessThan(5L * (types + 1_000));
+    }
+}
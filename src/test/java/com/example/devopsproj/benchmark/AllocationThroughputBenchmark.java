@@ -0,0 +1,72 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.repository.HeapObjectRepository;
+import com.example.devopsproj.service.SimulationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures bulk allocation throughput through the service layer.
+ *
+ * <p>Disabled by default. Run against H2 with
+ * {@code ./mvnw test -Dtest=AllocationThroughputBenchmark -Dbenchmark=true} and against
+ * PostgreSQL by adding {@code -Dspring.profiles.active=postgres}. Object counts can be
+ * overridden with {@code -Dbenchmark.sizes=10000,100000}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.example.devopsproj=WARN"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AllocationThroughputBenchmark {
+
+    @Autowired
+    private SimulationService simulationService;
+
+    @Autowired
+    private HeapSimulationEngine heapSimulationEngine;
+
+    @Autowired
+    private HeapObjectRepository heapObjectRepository;
+
+    @Test
+    void allocateObjects_throughput() {
+        int[] sizes = Arrays.stream(System.getProperty("benchmark.sizes", "10000,100000,1000000").split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        // Warm up the JIT and the connection pool before measuring; small runs are
+        // dominated by interpreter time otherwise.
+        for (int i = 0; i < 3; i++) {
+            simulationService.allocateObjects(50_000, 1, "Warmup", true);
+            reset();
+        }
+
+        for (int count : sizes) {
+            long start = System.nanoTime();
+            int allocated = simulationService.allocateObjects(count, 1, "BenchmarkObject", true).size();
+            long elapsedNanos = System.nanoTime() - start;
+
+            assertThat(allocated).isEqualTo(count);
+            System.out.printf("allocate %,d objects: %,d ms, %,.0f objects/sec%n",
+                    count, elapsedNanos / 1_000_000, count / (elapsedNanos / 1e9));
+
+            reset();
+        }
+    }
+
+    private void reset() {
+        heapObjectRepository.deleteAllInBatch();
+        heapSimulationEngine.refreshInMemoryHeap();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.PersistenceMode;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.engine.ThreadLocalAllocationBuffers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures allocation throughput of the in-memory engine as concurrent mutator threads
+ * are added, with IDs and addresses handed out from thread-local allocation buffers.
+ *
+ * <p>Disabled by default. Run with
+ * {@code ./mvnw test -Dtest=ConcurrentAllocationBenchmark -Dbenchmark=true}; objects per
+ * thread can be changed with {@code -Dbenchmark.objects=500000} and the largest thread
+ * count with {@code -Dbenchmark.threads=16} (defaults to the available processors).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ConcurrentAllocationBenchmark {
+
+    @Test
+    void allocateObjects_scalesWithThreads() throws Exception {
+        int objectsPerThread = Integer.getInteger("benchmark.objects", 200_000);
+        int maxThreads = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+        // Warm up the JIT on a throwaway engine.
+        run(newEngine(), Math.max(1, maxThreads), 50_000);
+
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            HeapSimulationEngine engine = newEngine();
+            long elapsedNanos = run(engine, threads, objectsPerThread);
+            long total = (long) threads * objectsPerThread;
+            ThreadLocalAllocationBuffers buffers = engine.getAllocationBuffers();
+
+            assertThat(engine.getHeapStore().getObjectCount()).isEqualTo(total);
+            System.out.printf("%d thread(s): %,d objects in %,d ms, %,.0f objects/sec "
+                            + "(%,d id refills, %,d buffer refills, %,d KB wasted)%n",
+                    threads, total, elapsedNanos / 1_000_000, total / (elapsedNanos / 1e9),
+                    buffers.getIdRefills(), buffers.getBufferRefills(), buffers.getWastedKB());
+        }
+    }
+
+    private static long run(HeapSimulationEngine engine, int threads, int objectsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                engine.allocateObjects(objectsPerThread, 8, "Benchmark", true, batch -> {
+                });
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        return elapsedNanos;
+    }
+
+    private static HeapSimulationEngine newEngine() {
+        HeapSimulationEngine engine = new HeapSimulationEngine(null, null, null, null, null, new SimpleMeterRegistry(),
+                new SimulationClock());
+        ReflectionTestUtils.setField(engine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(engine, "allocationBatchSize", 1000);
+        ReflectionTestUtils.setField(engine, "youngGenAgeThreshold", 10);
+        ReflectionTestUtils.invokeMethod(engine, "configure");
+        return engine;
+    }
+}
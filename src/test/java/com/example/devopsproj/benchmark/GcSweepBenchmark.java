@@ -0,0 +1,65 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.GarbageCollectionEngine;
+import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.repository.HeapObjectRepository;
+import com.example.devopsproj.service.SimulationService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures how long a full GC takes to sweep a heap of dead objects.
+ *
+ * <p>Disabled by default. Run with
+ * {@code ./mvnw test -Dtest=GcSweepBenchmark -Dbenchmark=true}, adding
+ * {@code -Dspring.profiles.active=postgres} to sweep in PostgreSQL. The number of dead
+ * objects can be overridden with {@code -Dbenchmark.objects=100000}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=WARN",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+        "logging.level.com.example.devopsproj=WARN",
+        "simulation.max-heap-size-kb=1073741824"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class GcSweepBenchmark {
+
+    @Autowired
+    private SimulationService simulationService;
+
+    @Autowired
+    private GarbageCollectionEngine garbageCollectionEngine;
+
+    @Autowired
+    private HeapSimulationEngine heapSimulationEngine;
+
+    @Autowired
+    private HeapObjectRepository heapObjectRepository;
+
+    @Test
+    void fullGc_sweepsDeadObjects() {
+        int count = Integer.getInteger("benchmark.objects", 1_000_000);
+
+        simulationService.allocateObjectsSummary(50_000, 1, "Warmup", false);
+        garbageCollectionEngine.runFullGC();
+
+        simulationService.allocateObjectsSummary(count, 1, "Dead", false);
+
+        long start = System.nanoTime();
+        GCEvent event = garbageCollectionEngine.runFullGC();
+        long elapsedNanos = System.nanoTime() - start;
+
+        assertThat(event.getObjectsCollected()).isEqualTo(count);
+        assertThat(event.getReclaimedMemory()).isEqualTo(count);
+        assertThat(heapObjectRepository.count()).isZero();
+        assertThat(heapSimulationEngine.getHeapStore().getObjectCount()).isZero();
+        System.out.printf("full GC sweeping %,d dead objects: %,d ms, %,.0f objects/sec%n",
+                count, elapsedNanos / 1_000_000, count / (elapsedNanos / 1e9));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.ColumnarHeapStore;
+import com.example.devopsproj.engine.TypeDictionary;
+import com.example.devopsproj.model.Generation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures retained JVM heap per simulated object in {@link ColumnarHeapStore}.
+ *
+ * <p>Disabled by default. Run with
+ * {@code ./mvnw test -Dtest=HeapStoreFootprintBenchmark -Dbenchmark=true}; the object
+ * count can be changed with {@code -Dbenchmark.objects=20000000}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class HeapStoreFootprintBenchmark {
+
+    private static final String[] TYPES = {"Session", "CacheEntry", "Buffer", "Request", "Listener"};
+
+    @Test
+    void columnarStore_bytesPerObject() {
+        int objects = Integer.getInteger("benchmark.objects", 10_000_000);
+
+        long before = usedHeap();
+        ColumnarHeapStore store = new ColumnarHeapStore(new TypeDictionary());
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        for (int id = 1; id <= objects; id++) {
+            int typeId = store.getTypeDictionary().intern(TYPES[id % TYPES.length]);
+            store.add(id, 1 + id % 512, id * 8, now, id % 3 != 0, typeId, Generation.YOUNG, 0);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long retained = usedHeap() - before;
+
+        assertThat(store.getObjectCount()).isEqualTo(objects);
+        System.out.printf("%,d objects: %,d MB retained, %.1f bytes/object (column estimate %.1f), "
+                        + "%,.0f adds/sec%n",
+                objects, retained >> 20, (double) retained / objects,
+                (double) store.estimateFootprintBytes() / objects, objects / (elapsedNanos / 1e9));
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
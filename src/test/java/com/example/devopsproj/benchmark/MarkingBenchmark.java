@@ -0,0 +1,80 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.ColumnarHeapStore;
+import com.example.devopsproj.engine.MarkBitmap;
+import com.example.devopsproj.engine.ParallelMarker;
+import com.example.devopsproj.engine.ReferenceGraph;
+import com.example.devopsproj.engine.TypeDictionary;
+import com.example.devopsproj.model.Generation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the parallel mark phase on a random object graph as the fork/join pool grows.
+ *
+ * <p>Disabled by default. Run with {@code ./mvnw test -Dtest=MarkingBenchmark -Dbenchmark=true}.
+ * The graph defaults to 1,000,000 objects, 5,000,000 edges and 10,000 roots; override with
+ * {@code -Dbenchmark.objects}, {@code -Dbenchmark.edges} and {@code -Dbenchmark.roots}. The
+ * largest pool is {@code -Dbenchmark.threads} (defaults to the available processors).
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MarkingBenchmark {
+
+    private static final int RUNS = 5;
+
+    @Test
+    void mark_scalesWithThreads() {
+        int objects = Integer.getInteger("benchmark.objects", 1_000_000);
+        int edges = Integer.getInteger("benchmark.edges", 5_000_000);
+        int rootCount = Integer.getInteger("benchmark.roots", 10_000);
+        int maxThreads = Integer.getInteger("benchmark.threads", Runtime.getRuntime().availableProcessors());
+
+        SplittableRandom random = new SplittableRandom(42);
+        ColumnarHeapStore store = new ColumnarHeapStore(new TypeDictionary());
+        int typeId = store.getTypeDictionary().intern("Node");
+        for (long id = 0; id < objects; id++) {
+            store.add(id, 1, id, 0L, true, false, typeId, Generation.YOUNG, 0);
+        }
+        ReferenceGraph graph = new ReferenceGraph();
+        for (int i = 0; i < edges; i++) {
+            graph.add(random.nextInt(objects), random.nextInt(objects));
+        }
+        long[] roots = random.longs(rootCount, 0, objects).distinct().sorted().toArray();
+
+        long expectedMarked = -1;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                // Warm-up run, then the median of RUNS measured ones.
+                ParallelMarker.mark(roots, graph, store::contains, pool);
+                long[] nanos = new long[RUNS];
+                long marked = 0;
+                for (int run = 0; run < RUNS; run++) {
+                    long start = System.nanoTime();
+                    MarkBitmap marks = ParallelMarker.mark(roots, graph, store::contains, pool);
+                    nanos[run] = System.nanoTime() - start;
+                    marked = marks.getMarkedCount();
+                }
+                Arrays.sort(nanos);
+                long median = nanos[RUNS / 2];
+
+                if (expectedMarked < 0) {
+                    expectedMarked = marked;
+                }
+                assertThat(marked).isEqualTo(expectedMarked);
+                System.out.printf("%d thread(s): marked %,d of %,d objects (%,d edges) in %,d ms, %,.0f objects/sec, "
+                                + "%,d steals%n",
+                        threads, marked, objects, graph.getEdgeCount(), median / 1_000_000, marked / (median / 1e9),
+                        pool.getStealCount());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
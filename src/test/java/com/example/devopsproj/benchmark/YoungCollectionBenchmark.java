@@ -0,0 +1,105 @@
+package com.example.devopsproj.benchmark;
+
+import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.PersistenceMode;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.engine.YoungCollectionResult;
+import com.example.devopsproj.engine.YoungCollector;
+import com.example.devopsproj.model.HeapObject;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures copying young collections as the old generation grows, with and without the
+ * card table. Every collection sees the same young workload: a batch of new objects, most
+ * of them dropped, a few kept alive only by references from random old objects.
+ *
+ * <p>Disabled by default. Run with {@code ./mvnw test -Dtest=YoungCollectionBenchmark -Dbenchmark=true}.
+ * The old generation grows from 100,000 to {@code -Dbenchmark.objects} objects (default
+ * 1,600,000), doubling each step; each collection follows {@code -Dbenchmark.young} new
+ * objects (default 2,000), of which {@code -Dbenchmark.references} (default 20) are
+ * referenced from the old generation.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class YoungCollectionBenchmark {
+
+    private static final int RUNS = 11;
+
+    @Test
+    void minorGC_costVersusOldGenSize() {
+        int maxOld = Integer.getInteger("benchmark.objects", 1_600_000);
+        int young = Integer.getInteger("benchmark.young", 2_000);
+        int references = Integer.getInteger("benchmark.references", 20);
+
+        for (int oldObjects = 100_000; oldObjects <= maxOld; oldObjects *= 2) {
+            Measurement withCards = measure(oldObjects, young, references, true);
+            Measurement withoutCards = measure(oldObjects, young, references, false);
+
+            assertThat(withCards.survivors()).isEqualTo(withoutCards.survivors());
+            System.out.printf("%,d old objects: card table %,.2f ms (%,d old objects on %,d cards scanned), "
+                            + "no card table %,.2f ms (%,d old objects scanned)%n",
+                    oldObjects, withCards.medianMillis(), withCards.oldObjectsScanned(), withCards.cardsScanned(),
+                    withoutCards.medianMillis(), withoutCards.oldObjectsScanned());
+        }
+    }
+
+    private static Measurement measure(int oldObjects, int young, int references, boolean cardTable) {
+        HeapSimulationEngine engine = new HeapSimulationEngine(null, null, null, null, null,
+                new SimpleMeterRegistry(), new SimulationClock());
+        ReflectionTestUtils.setField(engine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(engine, "maxHeapSizeKB", Long.MAX_VALUE / 4);
+        ReflectionTestUtils.setField(engine, "allocationBatchSize", 10_000);
+        ReflectionTestUtils.setField(engine, "youngCollector", YoungCollector.COPYING);
+        ReflectionTestUtils.setField(engine, "cardTableEnabled", cardTable);
+        ReflectionTestUtils.setField(engine, "youngGenAgeThreshold", 1);
+        ReflectionTestUtils.invokeMethod(engine, "configure");
+
+        // Tenure the old generation in one collection.
+        long[] old = ids(engine.allocateObjects(oldObjects, 1, "Old", true));
+        engine.collectYoungGeneration();
+        ReflectionTestUtils.setField(engine, "youngGenAgeThreshold", 15);
+
+        SplittableRandom random = new SplittableRandom(42);
+        long[] nanos = new long[RUNS];
+        YoungCollectionResult last = null;
+        for (int run = -1; run < RUNS; run++) {
+            long[] batch = ids(engine.allocateObjects(young, 1, "Young", true));
+            long[] sources = new long[references];
+            long[] targets = new long[references];
+            for (int i = 0; i < references; i++) {
+                sources[i] = old[random.nextInt(old.length)];
+                targets[i] = batch[i];
+            }
+            engine.addReferences(sources, targets);
+            List<Long> dropped = new ArrayList<>(batch.length);
+            Arrays.stream(batch).forEach(dropped::add);
+            engine.dereferenceObjects(dropped);
+
+            long start = System.nanoTime();
+            last = engine.collectYoungGeneration();
+            // The first collection is a warm-up.
+            if (run >= 0) {
+                nanos[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        return new Measurement(nanos[RUNS / 2] / 1e6, last.cardsScanned(), last.oldObjectsScanned(),
+                last.objectsSurvived() + last.objectsPromoted());
+    }
+
+    private static long[] ids(List<HeapObject> objects) {
+        return objects.stream().mapToLong(HeapObject::getId).toArray();
+    }
+
+    private record Measurement(double medianMillis, int cardsScanned, long oldObjectsScanned, int survivors) {
+    }
+}
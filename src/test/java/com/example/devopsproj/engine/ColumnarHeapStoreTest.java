@@ -0,0 +1,282 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.Generation;
+import com.example.devopsproj.model.HeapObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarHeapStoreTest {
+
+    private ColumnarHeapStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarHeapStore(new TypeDictionary());
+    }
+
+    private void add(long id, int sizeInKB, boolean referenced, String type) {
+        store.add(id, sizeInKB, 0L, 0L, referenced, store.getTypeDictionary().intern(type), Generation.YOUNG, 0);
+    }
+
+    @Test
+    void testAddAndMaterialise() {
+        LocalDateTime allocationTime = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+        store.add(HeapObject.builder()
+                .id(42L)
+                .sizeInKB(128)
+                .address(4096L)
+                .allocationTime(allocationTime)
+                .referenced(true)
+                .objectType("Session")
+                .generation(Generation.OLD)
+                .age(3)
+                .build());
+
+        HeapObject view = store.toHeapObject(42L);
+
+        assertThat(view.getSizeInKB()).isEqualTo(128);
+        assertThat(view.getAddress()).isEqualTo(4096L);
+        assertThat(view.getAllocationTime()).isEqualTo(allocationTime);
+        assertThat(view.getObjectType()).isEqualTo("Session");
+        assertThat(view.getGeneration()).isEqualTo(Generation.OLD);
+        assertThat(view.getAge()).isEqualTo(3);
+        assertThat(view.getReferenced()).isTrue();
+        assertThat(store.toHeapObject(43L)).isNull();
+    }
+
+    @Test
+    void testDuplicateIdRejected() {
+        add(1L, 10, true, "A");
+
+        assertThatThrownBy(() -> add(1L, 10, true, "A")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testDereferenceCountsOnce() {
+        add(1L, 10, true, "A");
+
+        assertThat(store.dereference(1L)).isTrue();
+        assertThat(store.dereference(1L)).isFalse();
+        assertThat(store.dereference(99L)).isFalse();
+        assertThat(store.getLiveObjectCount()).isZero();
+        assertThat(store.getUnreachableObjectCount()).isEqualTo(1L);
+        assertThat(store.getLiveSizeKB()).isZero();
+    }
+
+    @Test
+    void testClearUnmarkedKeepsMarkedObjectsReferenced() {
+        add(1L, 10, true, "A");
+        add(2L, 20, true, "A");
+        add(3L, 30, true, "A");
+        store.removeRoot(2L);
+        store.removeRoot(3L);
+        MarkBitmap marks = new MarkBitmap();
+        marks.mark(1L);
+        marks.mark(2L);
+        List<Long> cleared = new ArrayList<>();
+
+        long count = store.clearUnmarked(marks, cleared::add);
+
+        assertThat(store.rootIds()).containsExactly(1L);
+        assertThat(count).isEqualTo(1L);
+        assertThat(cleared).containsExactly(3L);
+        assertThat(store.isReferenced(2L)).isTrue();
+        assertThat(store.getLiveSizeKB()).isEqualTo(30L);
+    }
+
+    @Test
+    void testSweepUnreachableByGeneration() {
+        add(1L, 10, false, "A");
+        add(2L, 20, true, "A");
+        add(3L, 30, false, "B");
+        store.update(3L, Generation.OLD, 10);
+
+        SweepResult young = store.sweepUnreachable(Generation.YOUNG);
+        SweepResult rest = store.sweepUnreachable(null);
+
+        assertThat(young).isEqualTo(new SweepResult(1, 10L));
+        assertThat(rest).isEqualTo(new SweepResult(1, 30L));
+        assertThat(store.contains(2L)).isTrue();
+        assertThat(store.getObjectCount()).isEqualTo(1L);
+        assertThat(store.getGenerationSizeKB(Generation.YOUNG)).isEqualTo(20L);
+        assertThat(store.getGenerationSizeKB(Generation.OLD)).isZero();
+    }
+
+    @Test
+    void testRegionAccountingAndSweep() {
+        store.enableRegions(new RegionTable(100));
+        int typeId = store.getTypeDictionary().intern("A");
+        // Region 0 holds ids 1-3, region 1 holds ids 4-5.
+        for (long id = 1; id <= 5; id++) {
+            store.add(id, 40, (id - 1) * 40, 0L, true, typeId, Generation.YOUNG, 0);
+        }
+        store.dereference(1L);
+        store.dereference(2L);
+        store.dereference(5L);
+        store.remove(2L);
+
+        assertThat(store.getRegions().snapshot()).containsExactly(
+                new RegionTable.RegionStats(0, 80, 40, 2),
+                new RegionTable.RegionStats(1, 80, 40, 2));
+
+        List<Long> removed = new ArrayList<>();
+        SweepResult sweep = store.sweepRegion(0, removed::add);
+
+        assertThat(sweep).isEqualTo(new SweepResult(1, 40L));
+        assertThat(removed).containsExactly(1L);
+        assertThat(store.contains(5L)).isTrue();
+        assertThat(store.getRegions().stats(0)).isEqualTo(new RegionTable.RegionStats(0, 40, 40, 1));
+
+        store.dereference(3L);
+        store.sweepRegion(0, id -> { });
+
+        assertThat(store.getRegions().stats(0)).isNull();
+        assertThat(store.getRegions().getRegionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testLiveTotalsByTypeMatchAScanAfterEveryKindOfChange() {
+        SplittableRandom random = new SplittableRandom(11);
+        String[] types = {"Session", "Cache", "Buffer", "Request"};
+        for (long id = 0; id < 20_000; id++) {
+            add(id, random.nextInt(1, 100), random.nextInt(10) > 0, types[random.nextInt(types.length)]);
+        }
+        for (long id = 0; id < 20_000; id += 7) {
+            store.dereference(id);
+        }
+        store.ageYoungObjects(1, id -> { }, new AgeTable());
+        for (long id = 3; id < 20_000; id += 11) {
+            store.update(id, Generation.YOUNG, 0);
+        }
+        MarkBitmap marks = new MarkBitmap();
+        for (long id = 0; id < 20_000; id += 2) {
+            marks.mark(id);
+        }
+        store.clearUnmarked(marks, id -> { });
+        for (long id = 20_000; id < 25_000; id++) {
+            add(id, random.nextInt(1, 100), true, types[random.nextInt(types.length)]);
+        }
+        store.sweepUnreachable(Generation.OLD);
+        for (long id = 5; id < 25_000; id += 13) {
+            store.remove(id);
+        }
+
+        for (Generation generation : new Generation[] {Generation.YOUNG, Generation.OLD, null}) {
+            long[] counts = new long[types.length];
+            long[] sizesKB = new long[types.length];
+            store.forEachId(id -> {
+                HeapObject obj = store.toHeapObject(id);
+                if (obj.getReferenced() && (generation == null || obj.getGeneration() == generation)) {
+                    counts[obj.getTypeId()]++;
+                    sizesKB[obj.getTypeId()] += obj.getSizeInKB();
+                }
+            });
+            assertThat(store.countLiveByType(generation)).containsExactly(counts);
+            assertThat(store.sumLiveSizeKBByType(generation)).containsExactly(sizesKB);
+        }
+
+        store.clear();
+        assertThat(store.countLiveByType(null)).containsOnly(0L);
+    }
+
+    @Test
+    void testSurvivorAccountingAndCardRegistration() {
+        CardTable cards = new CardTable(16);
+        store.enableCardTable(cards);
+        int typeId = store.getTypeDictionary().intern("A");
+        store.add(1L, 10, 0L, 0L, true, typeId, Generation.YOUNG, 0);
+        store.add(2L, 20, 10L, 0L, true, typeId, Generation.YOUNG, 1);
+        store.add(3L, 30, 40L, 0L, true, typeId, Generation.OLD, 4);
+
+        assertThat(store.getEdenSizeKB()).isEqualTo(10L);
+        assertThat(store.getSurvivorSizeKB()).isEqualTo(20L);
+
+        store.ageYoungObjects(2);
+
+        // 1 moved to a survivor space, 2 was tenured onto card 0.
+        assertThat(store.getEdenSizeKB()).isZero();
+        assertThat(store.getSurvivorSizeKB()).isEqualTo(10L);
+        List<Long> card0 = new ArrayList<>();
+        List<Long> card2 = new ArrayList<>();
+        assertThat(cards.scan(0, card0::add)).isEqualTo(1);
+        assertThat(cards.scan(2, card2::add)).isEqualTo(1);
+        assertThat(card0).containsExactly(2L);
+        assertThat(card2).containsExactly(3L);
+
+        store.remove(1L);
+        cards.dirty(45L);
+
+        assertThat(store.getSurvivorSizeKB()).isZero();
+        assertThat(cards.dirtyCards()).containsExactly(2L);
+        // Ids the visitor rejects are dropped from the card.
+        assertThat(cards.scan(0, id -> false)).isEqualTo(1);
+        assertThat(cards.scan(0, id -> true)).isZero();
+    }
+
+    @Test
+    void testAgeYoungObjectsPromotesAtThreshold() {
+        add(1L, 10, true, "A");
+        add(2L, 20, true, "A");
+        store.update(2L, Generation.YOUNG, 1);
+
+        PromotionResult promoted = store.ageYoungObjects(2);
+
+        assertThat(promoted).isEqualTo(new PromotionResult(1, 20L));
+        assertThat(store.toHeapObject(1L).getAge()).isEqualTo(1);
+        assertThat(store.toHeapObject(2L).getGeneration()).isEqualTo(Generation.OLD);
+        assertThat(store.getGenerationSizeKB(Generation.OLD)).isEqualTo(20L);
+    }
+
+    @Test
+    void testEmptyPagesAreReleased() {
+        int objects = ColumnarHeapStore.PAGE_SIZE * 3;
+        for (long id = 0; id < objects; id++) {
+            add(id, 1, id >= 2L * ColumnarHeapStore.PAGE_SIZE, "A");
+        }
+        long footprint = store.estimateFootprintBytes();
+
+        store.sweepUnreachable(null);
+
+        assertThat(store.estimateFootprintBytes()).isEqualTo(footprint / 3);
+        List<Long> ids = new ArrayList<>();
+        store.forEachId(ids::add);
+        assertThat(ids).hasSize(ColumnarHeapStore.PAGE_SIZE).startsWith(2L * ColumnarHeapStore.PAGE_SIZE);
+    }
+
+    @Test
+    void testReleasedPageTakesIdsStillReservedInIt() {
+        // A thread's allocation buffer may still hold unused ids of a page whose objects are
+        // all gone; the page is released anyway and comes back when one of them is used.
+        add(1L, 10, true, "A");
+        add(ColumnarHeapStore.PAGE_SIZE + 1L, 10, true, "A");
+        long footprint = store.estimateFootprintBytes();
+
+        store.remove(1L);
+        assertThat(store.estimateFootprintBytes()).isEqualTo(footprint / 2);
+
+        add(2L, 10, true, "A");
+        assertThat(store.contains(2L)).isTrue();
+        assertThat(store.estimateFootprintBytes()).isEqualTo(footprint);
+    }
+
+    @Test
+    void testHighestIdFollowsRemovals() {
+        assertThat(store.getHighestId()).isEqualTo(-1L);
+        add(5L, 10, true, "A");
+        add(ColumnarHeapStore.PAGE_SIZE + 7L, 10, true, "A");
+
+        assertThat(store.getHighestId()).isEqualTo(ColumnarHeapStore.PAGE_SIZE + 7L);
+
+        store.remove(ColumnarHeapStore.PAGE_SIZE + 7L);
+
+        assertThat(store.getHighestId()).isEqualTo(5L);
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.repository.GCEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs concurrent collection cycles back to back while mutator threads allocate, link,
+ * unlink and drop objects, and checks that no object reachable from a root is ever swept.
+ *
+ * <p>Each mutator owns a disjoint subgraph, so whatever it can walk to from its own roots
+ * is known to be live at that moment and must still be on the heap and referenced.
+ */
+class ConcurrentCollectionStressTest {
+
+    private static final int MUTATORS = 4;
+    private static final long DURATION_MS = 2_000;
+    private static final int CHAIN_LENGTH = 2_000;
+    private static final int MAX_ROOTS = 64;
+
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    @Test
+    void testConcurrentCyclesNeverSweepReachableObjects() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        HeapSimulationEngine engine = new HeapSimulationEngine(null, null, null, null, null, meterRegistry,
+                new SimulationClock());
+        ReflectionTestUtils.setField(engine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(engine, "maxHeapSizeKB", Long.MAX_VALUE / 4);
+        ReflectionTestUtils.setField(engine, "allocationBatchSize", 16);
+        ReflectionTestUtils.setField(engine, "youngGenAgeThreshold", 3);
+        engine.configure();
+        GarbageCollectionEngine collector = new GarbageCollectionEngine(mock(GCEventRepository.class), engine,
+                new SimulationClock(), mock(PlatformTransactionManager.class));
+        // Small steps keep each cycle marking for long enough to overlap the mutators.
+        ReflectionTestUtils.setField(collector, "concurrentStepObjects", 64);
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch started = new CountDownLatch(MUTATORS);
+        List<Thread> mutators = new ArrayList<>();
+        List<List<Long>> rootsByMutator = new ArrayList<>();
+        for (int i = 0; i < MUTATORS; i++) {
+            List<Long> roots = new ArrayList<>();
+            rootsByMutator.add(roots);
+            Thread thread = new Thread(new Mutator(engine, roots, i, running, started), "mutator-" + i);
+            mutators.add(thread);
+            thread.start();
+        }
+        started.await();
+
+        AtomicLong objectsCollected = new AtomicLong();
+        long cycles = 0;
+        long deadline = System.currentTimeMillis() + DURATION_MS;
+        while (System.currentTimeMillis() < deadline && failures.isEmpty()) {
+            GCEvent event = cycles % 10 == 9 ? collector.runMinorGC() : collector.runConcurrentCycle();
+            objectsCollected.addAndGet(event.getObjectsCollected());
+            cycles++;
+        }
+        running.set(false);
+        for (Thread thread : mutators) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        objectsCollected.addAndGet(collector.runConcurrentCycle().getObjectsCollected());
+
+        assertThat(failures).isEmpty();
+        assertThat(cycles).isGreaterThan(1);
+        assertThat(objectsCollected.get()).isPositive();
+        assertThat(meterRegistry.get("heap.allocation.latency").tag("gc", "concurrent-mark").timer().count())
+                .isPositive();
+        assertThat(meterRegistry.get("heap.gc.pause").tag("phase", "remark").timer().count()).isEqualTo(cycles
+                - cycles / 10 + 1);
+
+        // After the final cycle, everything reachable from any root is still on the heap.
+        ColumnarHeapStore store = engine.getHeapStore();
+        Set<Long> visited = new HashSet<>();
+        Deque<Long> stack = new ArrayDeque<>();
+        for (long root : store.rootIds()) {
+            stack.push(root);
+        }
+        for (List<Long> roots : rootsByMutator) {
+            roots.forEach(stack::push);
+        }
+        while (!stack.isEmpty()) {
+            long id = stack.pop();
+            if (!visited.add(id)) {
+                continue;
+            }
+            assertThat(store.isReferenced(id)).as("reachable object %d is live", id).isTrue();
+            for (long target : engine.getReferenceGraph().targets(id)) {
+                stack.push(target);
+            }
+        }
+        assertThat(visited).hasSizeGreaterThanOrEqualTo(MUTATORS * CHAIN_LENGTH);
+        assertThat(engine.getLiveObjectCount()).isEqualTo(visited.size());
+    }
+
+    /**
+     * Mutates a private subgraph: one permanent root holding a long chain, plus a churning
+     * set of short-lived roots linked to each other and into the chain.
+     */
+    private final class Mutator implements Runnable {
+
+        private final HeapSimulationEngine engine;
+        private final List<Long> roots;
+        private final SplittableRandom random;
+        private final AtomicBoolean running;
+        private final CountDownLatch started;
+        private final String type;
+        private final Set<Long> chain = new HashSet<>();
+
+        Mutator(HeapSimulationEngine engine, List<Long> roots, int index, AtomicBoolean running,
+                CountDownLatch started) {
+            this.engine = engine;
+            this.roots = roots;
+            this.random = new SplittableRandom(index);
+            this.running = running;
+            this.started = started;
+            this.type = "Mutator" + index;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long[] links = ids(engine.allocateObjects(CHAIN_LENGTH, 1, type, true));
+                engine.addReferences(sources(links), targets(links));
+                List<Long> interior = new ArrayList<>(CHAIN_LENGTH - 1);
+                for (int i = 0; i < links.length; i++) {
+                    chain.add(links[i]);
+                    if (i > 0) {
+                        interior.add(links[i]);
+                    }
+                }
+                engine.dereferenceObjects(interior);
+                roots.add(links[0]);
+                started.countDown();
+
+                while (running.get() && failures.isEmpty()) {
+                    mutate();
+                }
+            } catch (RuntimeException e) {
+                failures.add(Thread.currentThread().getName() + ": " + e);
+                started.countDown();
+            }
+        }
+
+        private void mutate() {
+            int operation = random.nextInt(10);
+            if (operation < 3 || roots.size() < 2) {
+                for (long id : ids(engine.allocateObjects(1 + random.nextInt(4), 1, type, true))) {
+                    roots.add(id);
+                }
+            } else if (operation < 5) {
+                List<Long> reachable = walk();
+                if (reachable.size() > 1) {
+                    long source = reachable.get(random.nextInt(reachable.size()));
+                    long target = reachable.get(random.nextInt(reachable.size()));
+                    engine.addReference(source, target);
+                }
+            } else if (operation < 7) {
+                List<Long> reachable = walk();
+                long source = reachable.get(random.nextInt(reachable.size()));
+                long[] targets = engine.getReferenceGraph().targets(source);
+                // Never cut the permanent chain: it is what keeps each cycle busy marking.
+                if (targets.length > 0 && !chain.contains(source)) {
+                    engine.removeReference(source, targets[random.nextInt(targets.length)]);
+                }
+            } else if (roots.size() > MAX_ROOTS / 2 || operation == 9) {
+                int index = 1 + random.nextInt(roots.size() - 1);
+                engine.dereferenceObjects(List.of(roots.remove(index)));
+            } else {
+                walk();
+            }
+        }
+
+        /**
+         * Follows random edges from a random root, checking that every object on the way
+         * is still live. Returns the objects visited.
+         */
+        private List<Long> walk() {
+            List<Long> visited = new ArrayList<>();
+            long id = roots.get(random.nextInt(roots.size()));
+            for (int depth = 0; depth < 32; depth++) {
+                if (!engine.getHeapStore().isReferenced(id)) {
+                    failures.add("Reachable object " + id + " of " + type + " was collected");
+                    break;
+                }
+                visited.add(id);
+                long[] targets = engine.getReferenceGraph().targets(id);
+                if (targets.length == 0) {
+                    break;
+                }
+                id = targets[random.nextInt(targets.length)];
+            }
+            return visited;
+        }
+    }
+
+    private static long[] ids(List<HeapObject> objects) {
+        return objects.stream().mapToLong(HeapObject::getId).toArray();
+    }
+
+    private static long[] sources(long[] chain) {
+        long[] sources = new long[chain.length - 1];
+        System.arraycopy(chain, 0, sources, 0, sources.length);
+        return sources;
+    }
+
+    private static long[] targets(long[] chain) {
+        long[] targets = new long[chain.length - 1];
+        System.arraycopy(chain, 1, targets, 0, targets.length);
+        return targets;
+    }
+}
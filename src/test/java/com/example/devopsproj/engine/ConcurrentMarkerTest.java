@@ -0,0 +1,48 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConcurrentMarkerTest {
+
+    private final ReferenceGraph graph = new ReferenceGraph();
+
+    @Test
+    void testMarksIncrementallyWithinBudget() {
+        // A chain 1 -> 2 -> ... -> 10 from root 1; 11 is detached.
+        for (long id = 1; id < 10; id++) {
+            graph.add(id, id + 1);
+        }
+        ConcurrentMarker marker = new ConcurrentMarker(new long[] {1L}, graph, id -> true);
+
+        assertThat(marker.step(3)).isTrue();
+        assertThat(marker.getMarks().getMarkedCount()).isEqualTo(4L);
+
+        marker.finish();
+
+        assertThat(LongStream.rangeClosed(1, 11).filter(marker.getMarks()::isMarked))
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L);
+        assertThat(marker.step(1)).isFalse();
+    }
+
+    @Test
+    void testBarrierShadesObjectsHiddenBehindScannedOnes() {
+        // Root 1 is scanned (black) while 2 is still grey; the mutator then moves 3 from 2
+        // to 1. Without the barrier 3 would stay white although it is still reachable.
+        graph.add(2L, 3L);
+        ConcurrentMarker marker = new ConcurrentMarker(new long[] {2L, 1L}, graph, id -> true);
+        assertThat(marker.step(1)).isTrue();
+        graph.add(1L, 3L);
+        marker.shade(3L);
+        graph.remove(2L, 3L);
+        marker.markAllocated(4L);
+
+        marker.finish();
+
+        assertThat(LongStream.rangeClosed(1, 4).allMatch(marker.getMarks()::isMarked)).isTrue();
+        assertThat(marker.getBarrierShades()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.Generation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CopyingYoungCollectorTest {
+
+    private ColumnarHeapStore store;
+    private ReferenceGraph graph;
+    private CopyingYoungCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        store = new ColumnarHeapStore(new TypeDictionary());
+        store.enableCardTable(new CardTable(16));
+        graph = new ReferenceGraph();
+        collector = new CopyingYoungCollector(store, graph);
+    }
+
+    private void add(long id, long address, boolean root, Generation generation) {
+        store.add(id, 1, address, 0L, true, root, store.getTypeDictionary().intern("Node"), generation, 0);
+        if (generation == Generation.YOUNG) {
+            collector.addToEden(id);
+        }
+    }
+
+    @Test
+    void testCollectKeepsYoungObjectsReachableFromRootsAndDirtyCards() {
+        add(1, 0, true, Generation.OLD);
+        add(2, 100, true, Generation.YOUNG);
+        add(3, 101, false, Generation.YOUNG);
+        add(4, 102, false, Generation.YOUNG);
+        add(5, 103, false, Generation.YOUNG);
+        // 2 -> 3 from a young root, 1 -> 4 from an old object; 5 is garbage.
+        graph.add(2, 3);
+        graph.add(1, 4);
+        collector.dirtyCardIfOldToYoung(1, 4);
+        List<Long> freed = new ArrayList<>();
+        List<Long> moved = new ArrayList<>();
+        AgeTable survivors = new AgeTable();
+
+        YoungCollectionResult result = collector.collect(15, 1_000, survivors, freed::add, moved::add);
+
+        assertThat(freed).containsExactly(5L);
+        assertThat(moved).containsExactlyInAnyOrder(2L, 3L, 4L);
+        assertThat(store.contains(5)).isFalse();
+        assertThat(store.getAge(4)).isEqualTo(1);
+        assertThat(survivors.getSizeKB(1)).isEqualTo(3);
+        assertThat(result.objectsCollected()).isEqualTo(1);
+        assertThat(result.objectsSurvived()).isEqualTo(3);
+        assertThat(result.cardsScanned()).isEqualTo(1);
+        assertThat(result.oldObjectsScanned()).isEqualTo(1);
+        assertThat(collector.getFromSpaceIndex()).isEqualTo(1);
+        // The old object still references a young survivor, so its card stays dirty.
+        assertThat(store.getCardTable().getDirtyCardCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testTenuredSurvivorsLeaveTheYoungSpaces() {
+        add(1, 0, true, Generation.YOUNG);
+
+        YoungCollectionResult result = collector.collect(1, 1_000, new AgeTable(), id -> { }, id -> { });
+        YoungCollectionResult next = collector.collect(1, 1_000, new AgeTable(), id -> { }, id -> { });
+
+        assertThat(result.objectsPromoted()).isEqualTo(1);
+        assertThat(store.getGeneration(1)).isEqualTo(Generation.OLD);
+        assertThat(next.objectsSurvived() + next.objectsPromoted() + next.objectsCollected()).isZero();
+    }
+}
@@ -3,49 +3,53 @@ package com.example.devopsproj.engine;
 import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.GCType;
 import com.example.devopsproj.model.Generation;
-import com.example.devopsproj.model.HeapObject;
 import com.example.devopsproj.repository.GCEventRepository;
-import com.example.devopsproj.repository.HeapObjectRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class GarbageCollectionEngineTest {
 
-    @Mock
-    private HeapObjectRepository heapObjectRepository;
-
     @Mock
     private GCEventRepository gcEventRepository;
 
     @Mock
     private HeapSimulationEngine heapSimulationEngine;
 
+    @Spy
+    private SimulationClock simulationClock = new SimulationClock();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private GarbageCollectionEngine garbageCollectionEngine;
 
     @Test
     void testRunMinorGC_Success() {
-        HeapObject unreachableObj = HeapObject.builder()
-                .id(1L)
-                .sizeInKB(100)
-                .referenced(false)
-                .generation(Generation.YOUNG)
-                .build();
-
         when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L, 900L);
-        when(heapObjectRepository.findUnreachableObjectsByGeneration(Generation.YOUNG))
-                .thenReturn(Arrays.asList(unreachableObj));
+        when(heapSimulationEngine.sweepUnreachable(Generation.YOUNG)).thenReturn(new SweepResult(1, 100L));
+        when(heapSimulationEngine.promoteYoungObjects()).thenReturn(new PromotionResult(3, 30L));
         when(gcEventRepository.save(any(GCEvent.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
@@ -54,22 +58,16 @@ class GarbageCollectionEngineTest {
         assertThat(result).isNotNull();
         assertThat(result.getGcType()).isEqualTo(GCType.MINOR);
         assertThat(result.getReclaimedMemory()).isEqualTo(100L);
-        verify(heapObjectRepository).deleteAll(anyList());
+        assertThat(result.getObjectsCollected()).isEqualTo(1);
+        assertThat(result.getObjectsPromoted()).isEqualTo(3);
+        assertThat(result.getPromotedMemory()).isEqualTo(30L);
         verify(heapSimulationEngine).promoteYoungObjects();
     }
 
     @Test
     void testRunMajorGC_Success() {
-        HeapObject unreachableObj = HeapObject.builder()
-                .id(1L)
-                .sizeInKB(200)
-                .referenced(false)
-                .generation(Generation.OLD)
-                .build();
-
         when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(2000L, 1800L);
-        when(heapObjectRepository.findUnreachableObjectsByGeneration(Generation.OLD))
-                .thenReturn(Arrays.asList(unreachableObj));
+        when(heapSimulationEngine.sweepUnreachable(Generation.OLD)).thenReturn(new SweepResult(1, 200L));
         when(gcEventRepository.save(any(GCEvent.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
@@ -78,7 +76,96 @@ class GarbageCollectionEngineTest {
         assertThat(result).isNotNull();
         assertThat(result.getGcType()).isEqualTo(GCType.MAJOR);
         assertThat(result.getReclaimedMemory()).isEqualTo(200L);
-        verify(heapObjectRepository).deleteAll(anyList());
+        verify(heapSimulationEngine, never()).promoteYoungObjects();
+    }
+
+    @Test
+    void testRunFullGC_SweepsBothGenerations() {
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(3000L, 2500L);
+        when(heapSimulationEngine.sweepUnreachable(null)).thenReturn(new SweepResult(4, 500L));
+        when(heapSimulationEngine.promoteYoungObjects()).thenReturn(new PromotionResult(0, 0L));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        GCEvent result = garbageCollectionEngine.runFullGC();
+
+        assertThat(result.getGcType()).isEqualTo(GCType.FULL);
+        assertThat(result.getReclaimedMemory()).isEqualTo(500L);
+        assertThat(result.getObjectsCollected()).isEqualTo(4);
+        verify(heapSimulationEngine).promoteYoungObjects();
+    }
+
+    @Test
+    void testStartConcurrentCycle_MarksInBackgroundAndCommitsOnlyTheFinalPause() throws Exception {
+        ConcurrentMarker marker = new ConcurrentMarker(new long[0], new ReferenceGraph(), id -> true);
+        CountDownLatch marking = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(2000L, 1500L);
+        when(heapSimulationEngine.startConcurrentMark()).thenReturn(marker);
+        when(heapSimulationEngine.concurrentMarkStep(eq(marker), anyInt())).thenAnswer(invocation -> {
+            marking.countDown();
+            release.await(10, TimeUnit.SECONDS);
+            return false;
+        });
+        when(heapSimulationEngine.remark(marker)).thenReturn(new MarkResult(10, 5));
+        when(heapSimulationEngine.sweepUnreachable(null)).thenReturn(new SweepResult(5, 500L));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        CompletableFuture<GCEvent> cycle = garbageCollectionEngine.startConcurrentCycle();
+
+        assertThat(marking.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(cycle).isNotDone();
+        assertThat(garbageCollectionEngine.isConcurrentCycleRunning()).isTrue();
+        assertThat(garbageCollectionEngine.startConcurrentCycle()).isSameAs(cycle);
+        verify(transactionManager, never()).getTransaction(any());
+
+        release.countDown();
+        GCEvent result = cycle.get(10, TimeUnit.SECONDS);
+
+        assertThat(result.getGcType()).isEqualTo(GCType.CONCURRENT);
+        assertThat(result.getObjectsCollected()).isEqualTo(5);
+        assertThat(result.getReclaimedMemory()).isEqualTo(500L);
+        assertThat(garbageCollectionEngine.getLastConcurrentEvent()).isSameAs(result);
+        assertThat(garbageCollectionEngine.isConcurrentCycleRunning()).isFalse();
+        InOrder inOrder = inOrder(heapSimulationEngine, transactionManager, gcEventRepository);
+        inOrder.verify(heapSimulationEngine).concurrentMarkStep(marker, 10_000);
+        inOrder.verify(transactionManager).getTransaction(any());
+        inOrder.verify(heapSimulationEngine).remark(marker);
+        inOrder.verify(heapSimulationEngine).sweepUnreachable(null);
+        inOrder.verify(gcEventRepository).save(any(GCEvent.class));
+        inOrder.verify(transactionManager).commit(any());
+        verify(heapSimulationEngine, never()).promoteYoungObjects();
+    }
+
+    @Test
+    void testRunMajorGC_StopsTheWorldEvenWithConcurrentCollector() {
+        ReflectionTestUtils.setField(garbageCollectionEngine, "collectorMode", CollectorMode.CONCURRENT);
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(2000L, 1800L);
+        when(heapSimulationEngine.sweepUnreachable(Generation.OLD)).thenReturn(new SweepResult(1, 200L));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        GCEvent result = garbageCollectionEngine.runMajorGC();
+
+        assertThat(result.getGcType()).isEqualTo(GCType.MAJOR);
+        verify(heapSimulationEngine, never()).startConcurrentMark();
+    }
+
+    @Test
+    void testRunMixedGC_RecordsCollectedRegions() {
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L, 700L);
+        when(heapSimulationEngine.collectGarbageFirst(50L))
+                .thenReturn(new RegionCollectionResult(30, 300L, List.of(7L, 2L, 3L), 12.0, 9.5));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        GCEvent result = garbageCollectionEngine.runMixedGC(50L);
+
+        assertThat(result.getGcType()).isEqualTo(GCType.MIXED);
+        assertThat(result.getCollectedRegions()).isEqualTo("2-3,7");
+        assertThat(result.getObjectsCollected()).isEqualTo(30);
+        assertThat(result.getReclaimedMemory()).isEqualTo(300L);
     }
 
     @Test
@@ -89,4 +176,58 @@ class GarbageCollectionEngineTest {
 
         assertThat(efficiency).isEqualTo(0.75);
     }
+
+    @Test
+    void testCollectionsRecordPhaseTimesAndPauseHistogram() {
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L, 900L, 900L, 800L, 800L, 700L);
+        when(heapSimulationEngine.sweepUnreachable(Generation.YOUNG)).thenReturn(new SweepResult(1, 100L));
+        when(heapSimulationEngine.sweepUnreachable(Generation.OLD)).thenReturn(new SweepResult(1, 100L));
+        when(heapSimulationEngine.sweepUnreachable(null)).thenReturn(new SweepResult(1, 100L));
+        when(heapSimulationEngine.promoteYoungObjects()).thenReturn(new PromotionResult(0, 0L));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        GCEvent minor = garbageCollectionEngine.runMinorGC();
+        GCEvent major = garbageCollectionEngine.runMajorGC();
+        GCEvent full = garbageCollectionEngine.runFullGC();
+
+        assertThat(minor.getPauseTimeNanos())
+                .isEqualTo(minor.getMarkTimeNanos() + minor.getSweepTimeNanos() + minor.getPromoteTimeNanos());
+        assertThat(minor.getPersistTimeNanos()).isNotNull().isNotNegative();
+        assertThat(major.getPauseTimeNanos()).isEqualTo(major.getMarkTimeNanos() + major.getSweepTimeNanos());
+        assertThat(major.getPromoteTimeNanos()).isZero();
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.MINOR).getTotalCount()).isEqualTo(1);
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.MAJOR).getTotalCount()).isEqualTo(1);
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.MAJOR).getMaxValue())
+                .isEqualTo(major.getPauseTimeNanos());
+        // Full collections keep their own histogram rather than inflating the old-generation one.
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.FULL).getTotalCount()).isEqualTo(1);
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.FULL).getMaxValue())
+                .isEqualTo(full.getPauseTimeNanos());
+        assertThat(garbageCollectionEngine.getPauseHistogram(GCType.CONCURRENT).getTotalCount()).isZero();
+    }
+
+    @Test
+    void testMutationEpochMovesOnlyAfterCommit() {
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L, 900L);
+        when(heapSimulationEngine.sweepUnreachable(Generation.YOUNG)).thenReturn(new SweepResult(1, 100L));
+        when(heapSimulationEngine.promoteYoungObjects()).thenReturn(new PromotionResult(0, 0L));
+        when(gcEventRepository.save(any(GCEvent.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            garbageCollectionEngine.runMinorGC();
+
+            // Readers caching GC statistics must not see a new epoch before the event is visible.
+            verify(heapSimulationEngine, never()).bumpMutationEpoch();
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(heapSimulationEngine).bumpMutationEpoch();
+    }
 }
@@ -0,0 +1,160 @@
+package com.example.devopsproj.engine;
+
+import com.example.devopsproj.model.GCEvent;
+import com.example.devopsproj.model.GCType;
+import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.repository.GCEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GcErgonomicsTest {
+
+    private final List<GCEvent> events = new ArrayList<>();
+    private HeapSimulationEngine heapSimulationEngine;
+    private GcErgonomics ergonomics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        GCEventRepository gcEventRepository = mock(GCEventRepository.class);
+        when(gcEventRepository.save(any(GCEvent.class))).thenAnswer(invocation -> {
+            GCEvent event = invocation.getArgument(0);
+            events.add(event);
+            return event;
+        });
+        when(gcEventRepository.findRecentByGcTypes(any(), any())).thenAnswer(invocation -> {
+            Collection<GCType> types = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return events.stream()
+                    .filter(event -> types.contains(event.getGcType()))
+                    .sorted(Comparator.comparingInt(events::indexOf).reversed())
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+
+        ObjectProvider<GarbageCollectionEngine> provider = mock(ObjectProvider.class);
+        heapSimulationEngine = new HeapSimulationEngine(null, null, null, null, provider,
+                new SimpleMeterRegistry(), new SimulationClock());
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(heapSimulationEngine, "maxHeapSizeKB", 30_000L);
+        ReflectionTestUtils.setField(heapSimulationEngine, "allocationBatchSize", 50);
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 3);
+        heapSimulationEngine.configure();
+        GarbageCollectionEngine garbageCollectionEngine = new GarbageCollectionEngine(gcEventRepository,
+                heapSimulationEngine, new SimulationClock(), mock(PlatformTransactionManager.class));
+        when(provider.getObject()).thenReturn(garbageCollectionEngine);
+
+        ergonomics = new GcErgonomics(garbageCollectionEngine, heapSimulationEngine, gcEventRepository,
+                new SimpleMeterRegistry());
+        ergonomics.configureTriggers();
+    }
+
+    @Test
+    void testSteadyAllocationStaysWithinBudgetWithoutAllocationFailureGCs() {
+        // Each step allocates 5% of young gen; one object in ten lives for 40 steps.
+        Deque<List<Long>> retained = new ArrayDeque<>();
+        for (int step = 0; step < 400; step++) {
+            List<Long> ids = heapSimulationEngine.allocateObjects(50, 10, "Request", true).stream()
+                    .map(HeapObject::getId).toList();
+            heapSimulationEngine.dereferenceObjects(ids.subList(5, ids.size()));
+            retained.addLast(ids.subList(0, 5));
+            if (retained.size() > 40) {
+                heapSimulationEngine.dereferenceObjects(retained.removeFirst());
+            }
+
+            ergonomics.evaluate();
+
+            assertThat(heapSimulationEngine.getHeapOccupancyKB()).isLessThanOrEqualTo(30_000L);
+        }
+
+        assertThat(heapSimulationEngine.getAllocationTriggeredMinorGCs()).isZero();
+        assertThat(heapSimulationEngine.getAllocationTriggeredFullGCs()).isZero();
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.YOUNG_OCCUPANCY)).isPositive();
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.OLD_OCCUPANCY)).isPositive();
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.HEAP_BUDGET)).isZero();
+        assertThat(events).hasSize((int) ergonomics.getTriggeredCollections().values().stream()
+                .mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testTriggersAdaptToWastedCollectionsAndAllocationFailures() {
+        assertThat(ergonomics.evaluate()).isNull();
+        assertThat(ergonomics.getYoungTriggerPercent()).isEqualTo(80);
+
+        // Young gen 10,000 KB: 8,000 KB of objects that all survive reach the trigger,
+        // and the minor GC reclaims nothing, so the trigger moves up.
+        heapSimulationEngine.allocateObjects(80, 100, "Cache", true);
+        assertThat(ergonomics.evaluate()).isEqualTo(ErgonomicsPolicy.YOUNG_OCCUPANCY);
+        assertThat(ergonomics.getYoungTriggerPercent()).isEqualTo(85);
+
+        // Allocating past young capacity collects for itself: the trigger came too late.
+        heapSimulationEngine.allocateObjects(10, 1_000, "Cache", false);
+        assertThat(heapSimulationEngine.getAllocationTriggeredMinorGCs()).isEqualTo(1L);
+        ergonomics.evaluate();
+        assertThat(ergonomics.getYoungTriggerPercent()).isEqualTo(80);
+    }
+
+    @Test
+    void testLeakingHeapBacksOffInsteadOfThrashing() {
+        // Everything allocated stays referenced: 29,000 KB of a 30,000 KB heap.
+        List<Long> leaked = new ArrayList<>();
+        for (int i = 0; i < 58; i++) {
+            heapSimulationEngine.allocateObjects(50, 10, "Leak", true).forEach(obj -> leaked.add(obj.getId()));
+        }
+        events.clear();
+
+        for (int check = 0; check < 200; check++) {
+            ergonomics.evaluate();
+        }
+
+        // Full GCs at checks 1, 3, 6, 11, 20, 37, then every 33rd: 10 instead of 200.
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.HEAP_BUDGET)).isEqualTo(10L);
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.OLD_OCCUPANCY)).isZero();
+        // Young collections are never suspended; one tenures what the first full GC left young.
+        assertThat(ergonomics.getTriggeredCollections().get(ErgonomicsPolicy.YOUNG_OCCUPANCY)).isEqualTo(1L);
+        assertThat(events).hasSize(11);
+        assertThat(ergonomics.getSuspendedChecks()).isPositive();
+
+        // Once the leak is fixed, the next full GC pays off and the backoff ends.
+        heapSimulationEngine.dereferenceObjects(leaked);
+        int checks = 1;
+        while (ergonomics.evaluate() != ErgonomicsPolicy.HEAP_BUDGET) {
+            checks++;
+        }
+        assertThat(checks).isLessThanOrEqualTo(33);
+        assertThat(heapSimulationEngine.getHeapOccupancyKB()).isZero();
+        assertThat(ergonomics.getSuspendedChecks()).isZero();
+    }
+
+    @Test
+    void testConfiguredPercentagesAreClamped() {
+        ReflectionTestUtils.setField(ergonomics, "heapBudgetPercent", 150);
+        ReflectionTestUtils.setField(ergonomics, "minTriggerPercent", -10);
+        ReflectionTestUtils.setField(ergonomics, "maxTriggerPercent", 120);
+        ReflectionTestUtils.setField(ergonomics, "initialYoungTriggerPercent", 250);
+        ReflectionTestUtils.setField(ergonomics, "initialOldTriggerPercent", -5);
+
+        ergonomics.configureTriggers();
+
+        assertThat(ReflectionTestUtils.getField(ergonomics, "heapBudgetPercent")).isEqualTo(100);
+        assertThat(ergonomics.getYoungTriggerPercent()).isEqualTo(100);
+        assertThat(ergonomics.getOldTriggerPercent()).isZero();
+    }
+}
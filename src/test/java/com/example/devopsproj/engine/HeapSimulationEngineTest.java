@@ -1,22 +1,40 @@
 package com.example.devopsproj.engine;
 
+import com.example.devopsproj.exception.SimulatedOutOfMemoryException;
+import com.example.devopsproj.model.GCEvent;
 import com.example.devopsproj.model.Generation;
 import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.model.HeapReference;
+import com.example.devopsproj.model.ObjectType;
+import com.example.devopsproj.repository.GCEventRepository;
 import com.example.devopsproj.repository.HeapObjectRepository;
+import com.example.devopsproj.repository.ObjectTypeRepository;
+import com.example.devopsproj.repository.HeapObjectTotals;
+import com.example.devopsproj.repository.HeapReferenceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,89 +43,172 @@ class HeapSimulationEngineTest {
     @Mock
     private HeapObjectRepository heapObjectRepository;
 
-    @InjectMocks
+    @Mock
+    private HeapReferenceRepository heapReferenceRepository;
+
+    @Mock
+    private ObjectTypeRepository objectTypeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GCEventRepository gcEventRepository;
+
+    @Mock
+    private ObjectProvider<GarbageCollectionEngine> garbageCollectionEngineProvider;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private HeapSimulationEngine heapSimulationEngine;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        heapSimulationEngine = newEngine();
         ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 10);
         ReflectionTestUtils.setField(heapSimulationEngine, "maxHeapSizeKB", 1048576L);
+        ReflectionTestUtils.setField(heapSimulationEngine, "allocationBatchSize", 2);
     }
 
     @Test
     void testAllocateObjects_Success() {
-        HeapObject mockObject = HeapObject.builder()
-                .id(1L)
-                .sizeInKB(100)
-                .objectType("TestObject")
-                .referenced(true)
-                .generation(Generation.YOUNG)
-                .age(0)
-                .build();
-
-        when(heapObjectRepository.save(any(HeapObject.class))).thenReturn(mockObject);
-
         List<HeapObject> result = heapSimulationEngine.allocateObjects(5, 100, "TestObject", true);
 
         assertThat(result).hasSize(5);
-        verify(heapObjectRepository, times(5)).save(any(HeapObject.class));
+        assertThat(result).extracting(HeapObject::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        verify(heapObjectRepository, times(3)).insertInBatches(anyList(), eq(2));
+        verify(heapObjectRepository, never()).save(any(HeapObject.class));
     }
 
     @Test
     void testAllocateRandomObjects_Success() {
-        HeapObject mockObject = HeapObject.builder()
-                .id(1L)
-                .sizeInKB(50)
-                .objectType("RandomObject")
-                .referenced(true)
-                .generation(Generation.YOUNG)
-                .build();
-
-        when(heapObjectRepository.save(any(HeapObject.class))).thenReturn(mockObject);
-
         List<HeapObject> result = heapSimulationEngine.allocateRandomObjects(3, 10, 100, "RandomObject");
 
         assertThat(result).hasSize(3);
-        verify(heapObjectRepository, times(3)).save(any(HeapObject.class));
+        assertThat(result).allSatisfy(obj -> assertThat(obj.getSizeInKB()).isBetween(10, 100));
+        verify(heapObjectRepository, times(2)).insertInBatches(anyList(), eq(2));
     }
 
     @Test
-    void testDereferenceObjects_Success() {
-        heapSimulationEngine.dereferenceObjects(Arrays.asList(1L, 2L));
+    void testAllocateRandomObjects_SameSeedGivesSameHeap() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        HeapSimulationEngine other = newEngine();
+        ReflectionTestUtils.setField(other, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(other, "allocationBatchSize", 1000);
+        ReflectionTestUtils.setField(heapSimulationEngine, "maxHeapSizeKB", Long.MAX_VALUE / 4);
+        ReflectionTestUtils.setField(other, "maxHeapSizeKB", Long.MAX_VALUE / 4);
+
+        List<HeapObject> first = heapSimulationEngine.allocateRandomObjects(
+                10_000, 1, 4096, "Random", SizeDistribution.LOG_NORMAL, 42L);
+        List<HeapObject> second = other.allocateRandomObjects(
+                10_000, 1, 4096, "Random", SizeDistribution.LOG_NORMAL, 42L);
+        List<HeapObject> reseeded = other.allocateRandomObjects(
+                10_000, 1, 4096, "Random", SizeDistribution.LOG_NORMAL, 43L);
+
+        assertThat(first).extracting(HeapObject::getId).isEqualTo(second.stream().map(HeapObject::getId).toList());
+        assertThat(first).extracting(HeapObject::getSizeInKB)
+                .isEqualTo(second.stream().map(HeapObject::getSizeInKB).toList())
+                .isNotEqualTo(reseeded.stream().map(HeapObject::getSizeInKB).toList());
+        assertThat(first).extracting(HeapObject::getAddress)
+                .isEqualTo(second.stream().map(HeapObject::getAddress).toList());
+        assertThat(heapSimulationEngine.getCurrentHeapSize()).isEqualTo(
+                first.stream().mapToLong(HeapObject::getSizeInKB).sum());
+    }
 
-        verify(heapObjectRepository, times(0)).save(any(HeapObject.class));
+    @Test
+    void testAllocateRandomObjects_DistributionsStayInRange() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(heapSimulationEngine, "maxHeapSizeKB", Long.MAX_VALUE / 4);
+
+        for (SizeDistribution distribution : SizeDistribution.values()) {
+            List<HeapObject> objects = heapSimulationEngine.allocateRandomObjects(
+                    5_000, 16, 1024, distribution.name(), distribution, 7L);
+
+            assertThat(objects).allSatisfy(obj -> assertThat(obj.getSizeInKB()).isBetween(16, 1024));
+        }
+        double paretoMedian = heapSimulationEngine.getAllObjects().stream()
+                .filter(obj -> obj.getObjectType().equals("PARETO"))
+                .mapToInt(HeapObject::getSizeInKB)
+                .sorted()
+                .skip(2_500)
+                .findFirst()
+                .orElseThrow();
+        // Pareto with alpha ~1.16 has its median at about 1.8x the minimum.
+        assertThat(paretoMedian).isBetween(24.0, 40.0);
     }
 
     @Test
-    void testPromoteYoungObjects_Success() {
-        HeapObject youngObject = HeapObject.builder()
-                .id(1L)
-                .generation(Generation.YOUNG)
-                .age(15)
-                .build();
+    @SuppressWarnings("unchecked")
+    void testObjectTypes_PersistedOnceAndReferencedById() {
+        ArgumentCaptor<List<ObjectType>> saved = ArgumentCaptor.forClass(List.class);
+
+        List<HeapObject> sessions = heapSimulationEngine.allocateObjects(2, 10, "Session", true);
+        heapSimulationEngine.allocateObjects(2, 10, "Session", true);
+        List<HeapObject> buffers = heapSimulationEngine.allocateObjects(1, 10, "Buffer", true);
+
+        verify(objectTypeRepository, times(2)).saveAll(saved.capture());
+        assertThat(saved.getAllValues()).containsExactly(
+                List.of(new ObjectType(0, "Session")),
+                List.of(new ObjectType(1, "Buffer")));
+        assertThat(sessions).extracting(HeapObject::getTypeId).containsOnly(0);
+        assertThat(buffers).extracting(HeapObject::getTypeId).containsOnly(1);
+    }
 
-        when(heapObjectRepository.findByGeneration(Generation.YOUNG))
-                .thenReturn(Arrays.asList(youngObject));
-        when(heapObjectRepository.save(any(HeapObject.class))).thenReturn(youngObject);
+    @Test
+    void testRefreshInMemoryHeap_RestoresTypeDictionary() {
+        when(objectTypeRepository.findAllByOrderByIdAsc())
+                .thenReturn(List.of(new ObjectType(0, "Session"), new ObjectType(1, "Buffer")));
+        when(heapObjectRepository.findByIdGreaterThanOrderByIdAsc(any(), any())).thenReturn(List.of(
+                HeapObject.builder().id(7L).sizeInKB(10).typeId(1).referenced(true)
+                        .allocationTime(LocalDateTime.now()).generation(Generation.OLD).age(10).build()));
+
+        heapSimulationEngine.refreshInMemoryHeap();
+        List<HeapObject> allocated = heapSimulationEngine.allocateObjects(1, 10, "Buffer", true);
+
+        assertThat(heapSimulationEngine.getAllObjects().get(0).getObjectType()).isEqualTo("Buffer");
+        assertThat(allocated.get(0).getTypeId()).isEqualTo(1);
+        assertThat(allocated.get(0).getId()).isEqualTo(8L);
+        assertThat(heapSimulationEngine.countLiveObjectsByType(Generation.OLD)).containsExactly(0L, 1L);
+        verify(objectTypeRepository, never()).saveAll(any());
+    }
 
-        heapSimulationEngine.promoteYoungObjects();
+    @Test
+    void testDereferenceObjects_Success() {
+        heapSimulationEngine.dereferenceObjects(Arrays.asList(1L, 2L));
 
-        verify(heapObjectRepository).save(any(HeapObject.class));
+        verify(heapObjectRepository, times(0)).save(any(HeapObject.class));
+    }
+
+    @Test
+    void testPromoteYoungObjects_AgesAndTenuresInBulk() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 1);
+        heapSimulationEngine.allocateObjects(3, 10, "Test", true);
+        when(heapObjectRepository.summarizeObjectsReachingAge(Generation.YOUNG, 0)).thenReturn(totals(3, 30L));
+
+        PromotionResult promotion = heapSimulationEngine.promoteYoungObjects();
+
+        assertThat(promotion).isEqualTo(new PromotionResult(3, 30L));
+        assertThat(heapSimulationEngine.getOldGenSize()).isEqualTo(30L);
+        verify(heapObjectRepository).incrementAge(Generation.YOUNG);
+        verify(heapObjectRepository).promoteObjectsReachingAge(Generation.YOUNG, 1, Generation.OLD);
+        verify(heapObjectRepository, never()).save(any(HeapObject.class));
+        verify(heapObjectRepository, never()).findByGeneration(any());
     }
 
     @Test
-    void testGetCurrentHeapSize_Success() {
-        when(heapObjectRepository.calculateTotalHeapUsed()).thenReturn(5000L);
+    void testGetCurrentHeapSize_CountsReferencedObjects() {
+        heapSimulationEngine.allocateObjects(3, 100, "Live", true);
+        heapSimulationEngine.allocateObjects(2, 50, "Dead", false);
 
         long heapSize = heapSimulationEngine.getCurrentHeapSize();
 
-        assertThat(heapSize).isEqualTo(5000L);
+        assertThat(heapSize).isEqualTo(300L);
+        assertThat(heapSimulationEngine.getYoungGenSize()).isEqualTo(400L);
     }
 
     @Test
-    void testGetCurrentHeapSize_NullReturnsZero() {
-        when(heapObjectRepository.calculateTotalHeapUsed()).thenReturn(null);
-
+    void testGetCurrentHeapSize_EmptyHeapReturnsZero() {
         long heapSize = heapSimulationEngine.getCurrentHeapSize();
 
         assertThat(heapSize).isEqualTo(0L);
@@ -115,17 +216,514 @@ class HeapSimulationEngineTest {
 
     @Test
     void testGetLiveObjectCount() {
-        when(heapObjectRepository.countLiveObjects()).thenReturn(10L);
+        List<HeapObject> allocated = heapSimulationEngine.allocateObjects(10, 10, "Test", true);
+
+        heapSimulationEngine.dereferenceObjects(List.of(allocated.get(0).getId(), allocated.get(1).getId()));
+
+        assertThat(heapSimulationEngine.getLiveObjectCount()).isEqualTo(8L);
+        assertThat(heapSimulationEngine.getUnreachableObjectCount()).isEqualTo(2L);
+        verify(heapObjectRepository).markUnreferenced(List.of(1L, 2L));
+    }
+
+    @Test
+    void testSweepUnreachable_BulkDeletesPerGeneration() {
+        heapSimulationEngine.allocateObjects(4, 10, "Test", true);
+        heapSimulationEngine.addReference(2L, 3L);
+        heapSimulationEngine.dereferenceObjects(List.of(1L, 2L));
+        heapSimulationEngine.markLiveObjects();
+        when(heapObjectRepository.summarizeUnreachableObjects(Generation.YOUNG)).thenReturn(totals(2, 20L));
+        when(heapObjectRepository.summarizeUnreachableObjects(Generation.OLD)).thenReturn(totals(0, 0L));
+
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(null);
+
+        assertThat(sweep).isEqualTo(new SweepResult(2, 20L));
+        assertThat(heapSimulationEngine.getAllObjects()).extracting(HeapObject::getId).containsExactly(3L, 4L);
+        verify(heapReferenceRepository).deleteReferencesFromUnreachable(Generation.YOUNG);
+        verify(heapObjectRepository).deleteUnreachableObjects(Generation.YOUNG);
+        verify(heapObjectRepository, never()).deleteUnreachableObjects(Generation.OLD);
+        verify(heapObjectRepository, never()).deleteAllByIdInBatch(any());
+        verify(heapObjectRepository, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void testPersistenceModeNone_NeverTouchesRepository() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 2);
+
+        List<HeapObject> allocated = heapSimulationEngine.allocateObjects(5, 10, "Test", true);
+        heapSimulationEngine.dereferenceObjects(List.of(allocated.get(0).getId()));
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(Generation.YOUNG);
+        heapSimulationEngine.promoteYoungObjects();
+        heapSimulationEngine.promoteYoungObjects();
+
+        assertThat(allocated).extracting(HeapObject::getId).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(sweep).isEqualTo(new SweepResult(1, 10L));
+        assertThat(heapSimulationEngine.getOldGenSize()).isEqualTo(40L);
+        assertThat(heapSimulationEngine.getAllObjects())
+                .extracting(HeapObject::getGeneration)
+                .containsOnly(Generation.OLD);
+        verifyNoInteractions(heapObjectRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWriteBehind_MergesChangesUntilFlush() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.WRITE_BEHIND);
+        ArgumentCaptor<List<HeapObject>> inserted = ArgumentCaptor.forClass(List.class);
+
+        heapSimulationEngine.allocateObjects(3, 10, "Test", true);
+        heapSimulationEngine.dereferenceObjects(List.of(1L, 2L));
+        heapSimulationEngine.sweepUnreachable(Generation.YOUNG);
+        verifyNoInteractions(heapObjectRepository);
+        assertThat(heapSimulationEngine.getPendingWriteCount()).isEqualTo(1);
+
+        heapSimulationEngine.flushPendingWrites();
+
+        verify(heapObjectRepository).insertInBatches(inserted.capture(), eq(2));
+        assertThat(inserted.getValue()).extracting(HeapObject::getId).containsExactly(3L);
+        verify(heapObjectRepository, never()).deleteAllByIdInBatch(any());
+        verify(heapObjectRepository, never()).updateState(anyBoolean(), anyBoolean(), any(), anyInt(), any());
 
-        long count = heapSimulationEngine.getLiveObjectCount();
+        heapSimulationEngine.dereferenceObjects(List.of(3L));
+        heapSimulationEngine.promoteYoungObjects();
+        heapSimulationEngine.flushPendingWrites();
+
+        verify(heapObjectRepository).updateState(false, false, Generation.YOUNG, 1, List.of(3L));
 
-        assertThat(count).isEqualTo(10L);
+        heapSimulationEngine.sweepUnreachable(null);
+        heapSimulationEngine.flushPendingWrites();
+
+        verify(heapObjectRepository).deleteAllByIdInBatch(List.of(3L));
+        assertThat(heapSimulationEngine.getPendingWriteCount()).isZero();
     }
 
     @Test
     void testClearHeap() {
         heapSimulationEngine.clearHeap();
 
-        verify(heapObjectRepository).deleteAll();
+        verify(heapReferenceRepository).deleteAllInBatch();
+        verify(heapObjectRepository).deleteAllInBatch();
+        verify(heapObjectRepository, never()).deleteAll();
+    }
+
+    @Test
+    void testAllocation_MinorGcFreesYoungGen() {
+        useRealGarbageCollector(900L);
+
+        List<HeapObject> garbage = heapSimulationEngine.allocateObjects(2, 100, "Garbage", true);
+        heapSimulationEngine.dereferenceObjects(garbage.stream().map(HeapObject::getId).toList());
+        heapSimulationEngine.allocateObjects(2, 100, "Live", true);
+
+        assertThat(heapSimulationEngine.getHeapOccupancyKB()).isEqualTo(200L);
+        assertThat(meterRegistry.get("heap.gc.on.allocation").tag("type", "minor").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("heap.gc.on.allocation").tag("type", "full").counter().count()).isZero();
+        assertThat(meterRegistry.get("heap.allocation.stall").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    void testAllocation_EscalatesToFullGcThenFails() {
+        useRealGarbageCollector(900L);
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 1);
+
+        List<HeapObject> old = heapSimulationEngine.allocateObjects(4, 100, "Old", true);
+        heapSimulationEngine.promoteYoungObjects();
+        heapSimulationEngine.dereferenceObjects(List.of(old.get(0).getId(), old.get(1).getId()));
+        heapSimulationEngine.allocateObjects(6, 100, "Live", true);
+
+        assertThat(heapSimulationEngine.getHeapOccupancyKB()).isEqualTo(800L);
+        assertThat(meterRegistry.get("heap.gc.on.allocation").tag("type", "full").counter().count())
+                .isGreaterThanOrEqualTo(1.0);
+
+        assertThatThrownBy(() -> heapSimulationEngine.allocateObjects(2, 100, "Overflow", true))
+                .isInstanceOf(SimulatedOutOfMemoryException.class)
+                .hasMessageContaining("800 of 900 KB");
+        assertThat(meterRegistry.get("heap.allocation.failures").counter().count()).isEqualTo(1.0);
+        assertThat(heapSimulationEngine.getHeapOccupancyKB()).isEqualTo(800L);
+    }
+
+    @Test
+    void testReferences_KeepTargetsAliveUntilSourceIsUnreachable() {
+        useRealGarbageCollector(1_048_576L);
+        GarbageCollectionEngine gc = garbageCollectionEngineProvider.getObject();
+        List<HeapObject> objects = heapSimulationEngine.allocateObjects(3, 10, "Node", true);
+        long a = objects.get(0).getId();
+        long b = objects.get(1).getId();
+        long c = objects.get(2).getId();
+
+        heapSimulationEngine.addReference(a, b);
+        heapSimulationEngine.dereferenceObjects(List.of(b, c));
+        gc.runFullGC();
+
+        assertThat(heapSimulationEngine.getAllObjects()).extracting(HeapObject::getId).containsExactly(a, b);
+
+        heapSimulationEngine.dereferenceObjects(List.of(a));
+        assertThat(heapSimulationEngine.getLiveObjectCount()).isEqualTo(1L);
+        gc.runFullGC();
+
+        assertThat(heapSimulationEngine.getAllObjects()).isEmpty();
+        assertThat(heapSimulationEngine.getReferenceGraph().getEdgeCount()).isZero();
+    }
+
+    @Test
+    void testMarkPhase_CollectsUnreachableCycles() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        List<Long> ring = heapSimulationEngine.allocateObjects(4, 10, "Ring", true).stream()
+                .map(HeapObject::getId).toList();
+        heapSimulationEngine.addReferences(
+                ring.stream().mapToLong(Long::longValue).toArray(),
+                new long[] {ring.get(1), ring.get(2), ring.get(3), ring.get(0)});
+        heapSimulationEngine.dereferenceObjects(ring.subList(1, 4));
+        heapSimulationEngine.allocateObjects(1, 10, "Live", true);
+
+        MarkResult held = heapSimulationEngine.markLiveObjects();
+        heapSimulationEngine.dereferenceObjects(List.of(ring.get(0)));
+        MarkResult dropped = heapSimulationEngine.markLiveObjects();
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(null);
+
+        assertThat(held).isEqualTo(new MarkResult(5, 0));
+        assertThat(dropped).isEqualTo(new MarkResult(1, 4));
+        assertThat(sweep).isEqualTo(new SweepResult(4, 40L));
+    }
+
+    @Test
+    void testConcurrentMark_BarrierAndAllocateBlackKeepMutatedObjectsLive() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        heapSimulationEngine.allocateObjects(3, 10, "Node", true);
+        heapSimulationEngine.addReference(2L, 3L);
+        heapSimulationEngine.dereferenceObjects(List.of(3L));
+
+        ConcurrentMarker marker = heapSimulationEngine.startConcurrentMark();
+        assertThat(marker.getMarks().isMarked(3L)).isFalse();
+        // Move 3 from 2 to 1, then make 2 unreachable, all while the cycle is marking.
+        heapSimulationEngine.addReference(1L, 3L);
+        heapSimulationEngine.removeReference(2L, 3L);
+        heapSimulationEngine.dereferenceObjects(List.of(2L));
+        long allocated = heapSimulationEngine.allocateObjects(1, 10, "Node", true).get(0).getId();
+
+        assertThat(marker.getMarks().isMarked(3L)).isTrue();
+        assertThat(marker.getMarks().isMarked(allocated)).isTrue();
+        assertThatThrownBy(heapSimulationEngine::startConcurrentMark).isInstanceOf(IllegalStateException.class);
+
+        while (heapSimulationEngine.concurrentMarkStep(marker, 1)) {
+            // marking one grey object per step
+        }
+        MarkResult result = heapSimulationEngine.remark(marker);
+        SweepResult sweep = heapSimulationEngine.sweepUnreachable(null);
+
+        assertThat(result).isEqualTo(new MarkResult(4, 0));
+        assertThat(sweep).isEqualTo(new SweepResult(1, 10L));
+        assertThat(heapSimulationEngine.getHeapStore().isReferenced(3L)).isTrue();
+        assertThat(meterRegistry.get("heap.allocation.latency").tag("gc", "concurrent-mark").timer().count())
+                .isEqualTo(1L);
+        assertThat(meterRegistry.get("heap.gc.pause").tag("phase", "remark").timer().count()).isEqualTo(1L);
+    }
+
+    @Test
+    void testConcurrentMark_AbandonedWhenHeapIsCleared() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        heapSimulationEngine.allocateObjects(2, 10, "Node", true);
+        ConcurrentMarker marker = heapSimulationEngine.startConcurrentMark();
+
+        heapSimulationEngine.clearHeap();
+        heapSimulationEngine.allocateObjects(2, 10, "Node", true);
+
+        assertThat(heapSimulationEngine.concurrentMarkStep(marker, 10)).isFalse();
+        assertThat(heapSimulationEngine.remark(marker)).isEqualTo(new MarkResult(0, 0));
+        assertThat(heapSimulationEngine.getLiveObjectCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void testMixedCollection_PicksMostGarbageWithinPauseTarget() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        assertThatThrownBy(() -> heapSimulationEngine.collectGarbageFirst(25))
+                .isInstanceOf(IllegalStateException.class);
+        ReflectionTestUtils.setField(heapSimulationEngine, "heapLayout", HeapLayout.REGIONAL);
+        ReflectionTestUtils.setField(heapSimulationEngine, "regionSizeKB", 100L);
+        // 1 ms per object until measured: 10 ms per region of ten 10 KB objects.
+        ReflectionTestUtils.setField(heapSimulationEngine, "initialRegionCostNanos", 1_000_000L);
+        heapSimulationEngine.configure();
+        List<Long> ids = heapSimulationEngine.allocateObjects(50, 10, "Node", true).stream()
+                .map(HeapObject::getId).toList();
+
+        // Garbage per region: 0 -> 100 KB, 1 -> 50 KB, 2 -> 90 KB, 3 -> 10 KB (90% live), 4 -> none.
+        heapSimulationEngine.dereferenceObjects(ids.subList(0, 10));
+        heapSimulationEngine.dereferenceObjects(ids.subList(10, 15));
+        heapSimulationEngine.dereferenceObjects(ids.subList(20, 29));
+        heapSimulationEngine.dereferenceObjects(ids.subList(30, 31));
+
+        RegionCollectionResult first = heapSimulationEngine.collectGarbageFirst(25);
+
+        assertThat(first.regions()).containsExactly(0L, 2L);
+        assertThat(first.objectsCollected()).isEqualTo(19);
+        assertThat(first.reclaimedKB()).isEqualTo(190L);
+        assertThat(first.predictedPauseMs()).isEqualTo(20.0);
+
+        RegionCollectionResult second = heapSimulationEngine.collectGarbageFirst(25);
+
+        assertThat(second.regions()).containsExactly(1L);
+        assertThat(heapSimulationEngine.getRegionStats())
+                .extracting(RegionTable.RegionStats::index, RegionTable.RegionStats::garbageKB)
+                .containsExactly(tuple(1L, 0L), tuple(2L, 0L), tuple(3L, 10L), tuple(4L, 0L));
+    }
+
+    @Test
+    void testMixedCollection_BulkDeletesPerRegion() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "heapLayout", HeapLayout.REGIONAL);
+        ReflectionTestUtils.setField(heapSimulationEngine, "regionSizeKB", 100L);
+        heapSimulationEngine.configure();
+        heapSimulationEngine.allocateObjects(20, 10, "Node", true);
+        heapSimulationEngine.addReference(1L, 2L);
+        heapSimulationEngine.dereferenceObjects(List.of(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L, 10L));
+        heapSimulationEngine.markLiveObjects();
+
+        RegionCollectionResult result = heapSimulationEngine.collectGarbageFirst(25);
+
+        assertThat(result.regions()).containsExactly(0L);
+        assertThat(result.objectsCollected()).isEqualTo(10);
+        verify(heapReferenceRepository).deleteReferencesFromUnreachableInRange(0L, 100L);
+        verify(heapObjectRepository).deleteUnreachableObjectsInRange(0L, 100L);
+        verify(heapObjectRepository, never()).deleteAllByIdInBatch(any());
+    }
+
+    @Test
+    void testCopyingYoungCollection_DirtyCardKeepsOldToYoungTargetLive() {
+        useCopyingYoungCollector();
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 2);
+        long holder = heapSimulationEngine.allocateObjects(1, 10, "Holder", true).get(0).getId();
+        heapSimulationEngine.collectYoungGeneration();
+        heapSimulationEngine.collectYoungGeneration();
+        assertThat(heapSimulationEngine.getHeapStore().getGeneration(holder)).isEqualTo(Generation.OLD);
+
+        List<Long> young = heapSimulationEngine.allocateObjects(2, 10, "Node", true).stream()
+                .map(HeapObject::getId).toList();
+        heapSimulationEngine.addReference(holder, young.get(0));
+        heapSimulationEngine.dereferenceObjects(young);
+
+        YoungCollectionResult first = heapSimulationEngine.collectYoungGeneration();
+
+        // Only the old holder references young.get(0); its dirty card is the only way to find it.
+        assertThat(first).isEqualTo(new YoungCollectionResult(1, 10L, 1, 10L, 0, 0L, 1, 1L));
+        assertThat(heapSimulationEngine.getHeapStore().isReferenced(young.get(0))).isTrue();
+        assertThat(heapSimulationEngine.getSurvivorSizeKB()).isEqualTo(10L);
+        assertThat(heapSimulationEngine.getEdenSizeKB()).isZero();
+        assertThat(heapSimulationEngine.getHeapStore().getCardTable().getDirtyCardCount()).isEqualTo(1);
+
+        heapSimulationEngine.removeReference(holder, young.get(0));
+        YoungCollectionResult second = heapSimulationEngine.collectYoungGeneration();
+
+        assertThat(second.objectsCollected()).isEqualTo(1);
+        assertThat(heapSimulationEngine.getHeapStore().contains(young.get(0))).isFalse();
+        assertThat(heapSimulationEngine.getHeapStore().getCardTable().getDirtyCardCount()).isZero();
+        assertThat(heapSimulationEngine.getLiveObjectCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void testCopyingYoungCollection_ScansWholeOldGenWithoutCardTable() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "cardTableEnabled", false);
+        useCopyingYoungCollector();
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 1);
+        List<Long> old = heapSimulationEngine.allocateObjects(3, 10, "Holder", true).stream()
+                .map(HeapObject::getId).toList();
+        heapSimulationEngine.collectYoungGeneration();
+        long target = heapSimulationEngine.allocateObjects(1, 10, "Node", true).get(0).getId();
+        heapSimulationEngine.addReference(old.get(2), target);
+        heapSimulationEngine.dereferenceObjects(List.of(target));
+
+        YoungCollectionResult result = heapSimulationEngine.collectYoungGeneration();
+
+        assertThat(result.cardsScanned()).isZero();
+        assertThat(result.oldObjectsScanned()).isEqualTo(3L);
+        assertThat(result.objectsPromoted()).isEqualTo(1);
+        assertThat(heapSimulationEngine.getHeapStore().getGeneration(target)).isEqualTo(Generation.OLD);
+    }
+
+    @Test
+    void testCopyingMinorGC_TenuresSurvivorsThatOverflowTheToSpace() {
+        useRealGarbageCollector(1_048_576L);
+        useCopyingYoungCollector();
+        // Young gen 349,525 KB: eden 279,620 KB and two survivor spaces of 34,952 KB.
+        assertThat(heapSimulationEngine.getEdenCapacityKB()).isEqualTo(279_620L);
+        assertThat(heapSimulationEngine.getSurvivorCapacityKB()).isEqualTo(34_952L);
+        heapSimulationEngine.allocateObjects(2, 20_000, "Buffer", true);
+        heapSimulationEngine.allocateObjects(1, 500, "Garbage", false);
+
+        GCEvent event = garbageCollectionEngineProvider.getObject().runMinorGC();
+
+        assertThat(event.getObjectsCollected()).isEqualTo(1);
+        assertThat(event.getReclaimedMemory()).isEqualTo(500L);
+        assertThat(event.getObjectsPromoted()).isEqualTo(1);
+        assertThat(event.getPromotedMemory()).isEqualTo(20_000L);
+        assertThat(heapSimulationEngine.getSurvivorSizeKB()).isEqualTo(20_000L);
+        assertThat(heapSimulationEngine.getOldGenSize()).isEqualTo(20_000L);
+    }
+
+    @Test
+    void testAdaptiveTenuring_KeepsMediumLivedObjectsOutOfOldGen() {
+        useRealGarbageCollector(1_048_576L);
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngGenAgeThreshold", 2);
+
+        List<GCEvent> fixed = runMediumLivedWorkload();
+        long fixedOldGenKB = heapSimulationEngine.getOldGenSize();
+        heapSimulationEngine.clearHeap();
+        ReflectionTestUtils.setField(heapSimulationEngine, "tenuringPolicy", TenuringPolicy.ADAPTIVE);
+        List<GCEvent> adaptive = runMediumLivedWorkload();
+
+        // Each batch lives through four minor GCs, so a threshold of 2 tenures all but the last.
+        assertThat(fixed).extracting(GCEvent::getTenuringThreshold).containsOnly(2);
+        assertThat(fixedOldGenKB).isEqualTo(19_000L);
+        // About 4,000 KB of survivors stay well below half a survivor space (17,476 KB).
+        assertThat(adaptive).extracting(GCEvent::getTenuringThreshold).containsOnly(15);
+        assertThat(heapSimulationEngine.getOldGenSize()).isZero();
+    }
+
+    @Test
+    void testAdaptiveTenuring_LowersThresholdWhenSurvivorsExceedTarget() {
+        useRealGarbageCollector(1_048_576L);
+        ReflectionTestUtils.setField(heapSimulationEngine, "tenuringPolicy", TenuringPolicy.ADAPTIVE);
+        GarbageCollectionEngine garbageCollectionEngine = garbageCollectionEngineProvider.getObject();
+
+        heapSimulationEngine.allocateObjects(10, 1_000, "Session", true);
+        assertThat(garbageCollectionEngine.runMinorGC().getTenuringThreshold()).isEqualTo(15);
+        heapSimulationEngine.allocateObjects(10, 1_000, "Session", true);
+        GCEvent event = garbageCollectionEngine.runMinorGC();
+
+        // 20,000 KB of survivors aged 1 and 2: the 10,000 KB aged 2 overflow the target.
+        assertThat(event.getTenuringThreshold()).isEqualTo(3);
+        assertThat(garbageCollectionEngine.runMinorGC().getObjectsPromoted()).isEqualTo(10);
+        assertThat(heapSimulationEngine.getOldGenSize()).isEqualTo(10_000L);
+    }
+
+    @Test
+    void testExpireAfter_DereferencesObjectsWhenTheirLifetimeEnds() {
+        SimulationClock clock = new SimulationClock();
+        HeapSimulationEngine engine = new HeapSimulationEngine(null, null, null, null, garbageCollectionEngineProvider,
+                meterRegistry, clock);
+        engine.configure();
+        ReflectionTestUtils.setField(engine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(engine, "allocationBatchSize", 100);
+        List<HeapObject> objects = engine.allocateObjects(300, 10, "Session", true);
+        for (int i = 0; i < objects.size(); i++) {
+            // 100 objects each live 1 second, 1 minute and 1 hour.
+            engine.expireAfter(objects.get(i).getId(), 1_000L * (long) Math.pow(60, i / 100));
+        }
+        long start = clock.currentTimeMillis();
+
+        assertThat(engine.expireDueObjects()).isZero();
+        clock.advanceTo(start + 61_000);
+        assertThat(engine.expireDueObjects()).isEqualTo(200);
+        assertThat(engine.getCurrentHeapSize()).isEqualTo(1_000L);
+        assertThat(engine.getPendingExpiries()).isEqualTo(100L);
+
+        // An object dereferenced in the meantime is simply skipped.
+        engine.dereferenceObjects(List.of(objects.get(299).getId()));
+        clock.advanceTo(start + 3_601_000);
+        assertThat(engine.expireDueObjects()).isEqualTo(100);
+        assertThat(engine.getCurrentHeapSize()).isZero();
+        assertThat(meterRegistry.counter("heap.objects.expired").count()).isEqualTo(300.0);
+
+        engine.expireAfter(engine.allocateObjects(1, 10, "Session", true).get(0).getId(), 1_000L);
+        engine.clearHeap();
+        assertThat(engine.getPendingExpiries()).isZero();
+    }
+
+    private List<GCEvent> runMediumLivedWorkload() {
+        GarbageCollectionEngine garbageCollectionEngine = garbageCollectionEngineProvider.getObject();
+        List<List<Long>> batches = new ArrayList<>();
+        List<GCEvent> events = new ArrayList<>();
+        for (int cycle = 0; cycle < 20; cycle++) {
+            batches.add(heapSimulationEngine.allocateObjects(100, 10, "Request", true).stream()
+                    .map(HeapObject::getId).toList());
+            if (cycle >= 4) {
+                heapSimulationEngine.dereferenceObjects(batches.get(cycle - 4));
+            }
+            events.add(garbageCollectionEngine.runMinorGC());
+        }
+        return events;
+    }
+
+    @Test
+    void testReferences_PersistedAndReleasedInSyncMode() {
+        heapSimulationEngine.allocateObjects(2, 10, "Node", true);
+        heapSimulationEngine.addReference(1L, 2L);
+        heapSimulationEngine.dereferenceObjects(List.of(2L));
+
+        verify(heapReferenceRepository).saveAll(List.of(HeapReference.builder().sourceId(1L).targetId(2L).build()));
+        verify(heapObjectRepository).removeRoots(List.of(2L));
+        verify(heapObjectRepository, never()).markUnreferenced(any());
+
+        heapSimulationEngine.removeReference(1L, 2L);
+
+        verify(heapReferenceRepository).deleteReference(1L, 2L);
+        verify(heapObjectRepository).markUnreferenced(List.of(2L));
+        assertThat(heapSimulationEngine.getUnreachableObjectCount()).isEqualTo(1L);
+        assertThatThrownBy(() -> heapSimulationEngine.addReference(1L, 2L))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Object 2");
+    }
+
+    @Test
+    void testMutationEpoch_MovesOnEveryChangeAndOnlyThen() {
+        useRealGarbageCollector(1_048_576L);
+        GarbageCollectionEngine garbageCollectionEngine = garbageCollectionEngineProvider.getObject();
+        long epoch = heapSimulationEngine.getMutationEpoch();
+
+        List<HeapObject> objects = heapSimulationEngine.allocateObjects(3, 10, "Session", true);
+        assertThat(heapSimulationEngine.getMutationEpoch()).isGreaterThan(epoch);
+
+        epoch = heapSimulationEngine.getMutationEpoch();
+        heapSimulationEngine.getCurrentHeapSize();
+        heapSimulationEngine.countLiveObjectsByType(Generation.OLD);
+        heapSimulationEngine.getAllObjects();
+        assertThat(heapSimulationEngine.getMutationEpoch()).isEqualTo(epoch);
+
+        heapSimulationEngine.dereferenceObjects(List.of(objects.get(0).getId()));
+        assertThat(heapSimulationEngine.getMutationEpoch()).isGreaterThan(epoch);
+
+        // A collection counts even when it frees nothing: it adds a GC event.
+        garbageCollectionEngine.runMinorGC();
+        epoch = heapSimulationEngine.getMutationEpoch();
+        garbageCollectionEngine.runMinorGC();
+        assertThat(heapSimulationEngine.getMutationEpoch()).isGreaterThan(epoch);
+
+        epoch = heapSimulationEngine.getMutationEpoch();
+        heapSimulationEngine.clearHeap();
+        assertThat(heapSimulationEngine.getMutationEpoch()).isGreaterThan(epoch);
+    }
+
+    private void useCopyingYoungCollector() {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(heapSimulationEngine, "youngCollector", YoungCollector.COPYING);
+        heapSimulationEngine.configure();
+    }
+
+    private void useRealGarbageCollector(long maxHeapSizeKB) {
+        ReflectionTestUtils.setField(heapSimulationEngine, "persistenceMode", PersistenceMode.NONE);
+        ReflectionTestUtils.setField(heapSimulationEngine, "maxHeapSizeKB", maxHeapSizeKB);
+        when(gcEventRepository.save(any(GCEvent.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(garbageCollectionEngineProvider.getObject())
+                .thenReturn(new GarbageCollectionEngine(gcEventRepository, heapSimulationEngine, new SimulationClock(),
+                        mock(PlatformTransactionManager.class)));
+    }
+
+    private static HeapObjectTotals totals(long objectCount, long sizeInKB) {
+        return new HeapObjectTotals() {
+            @Override
+            public long getObjectCount() {
+                return objectCount;
+            }
+
+            @Override
+            public long getSizeInKB() {
+                return sizeInKB;
+            }
+        };
+    }
+
+    private HeapSimulationEngine newEngine() {
+        HeapSimulationEngine engine = new HeapSimulationEngine(heapObjectRepository, heapReferenceRepository,
+                objectTypeRepository, transactionManager, garbageCollectionEngineProvider, meterRegistry,
+                new SimulationClock());
+        engine.configure();
+        return engine;
     }
 }
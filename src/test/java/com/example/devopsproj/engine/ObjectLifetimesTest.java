@@ -0,0 +1,50 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ObjectLifetimesTest {
+
+    private static final long START = 1_700_000_000_000L;
+
+    private final SimulationClock clock = new SimulationClock(Clock.fixed(Instant.ofEpochMilli(START), ZoneOffset.UTC));
+
+    @Test
+    void testLifetimesEndAtTheFirstTickPastTheirDeadline() {
+        ObjectLifetimes lifetimes = new ObjectLifetimes(clock, 10);
+        lifetimes.expireAfter(1, 5);
+        lifetimes.expireAfter(2, 10);
+        lifetimes.expireAfter(3, 25);
+
+        assertThat(lifetimes.advance()).isEmpty();
+        assertThat(lifetimes.size()).isEqualTo(3);
+
+        // A deadline between ticks is rounded up to the next one.
+        clock.advanceTo(START + 9);
+        assertThat(lifetimes.advance()).isEmpty();
+        clock.advanceTo(START + 10);
+        assertThat(lifetimes.advance()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(lifetimes.advance()).isEmpty();
+
+        clock.advanceTo(START + 30);
+        assertThat(lifetimes.advance()).containsExactly(3L);
+        assertThat(lifetimes.size()).isZero();
+    }
+
+    @Test
+    void testClearForgetsScheduledLifetimes() {
+        ObjectLifetimes lifetimes = new ObjectLifetimes(clock, 10);
+        lifetimes.expireAfter(1, 100);
+
+        lifetimes.clear();
+        clock.advanceTo(START + 1_000);
+
+        assertThat(lifetimes.size()).isZero();
+        assertThat(lifetimes.advance()).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelMarkerTest {
+
+    private final ReferenceGraph graph = new ReferenceGraph();
+
+    @Test
+    void testMarksReachableObjectsOnly() {
+        // 1 -> 2 -> 3 -> 1 is reachable from root 1; 4 <-> 5 is a detached cycle;
+        // 6 points at the already swept object 7.
+        graph.add(1L, 2L);
+        graph.add(2L, 3L);
+        graph.add(3L, 1L);
+        graph.add(4L, 5L);
+        graph.add(5L, 4L);
+        graph.add(3L, 6L);
+        graph.add(6L, 7L);
+
+        MarkBitmap marks = ParallelMarker.mark(new long[] {1L}, graph, id -> id != 7L, ForkJoinPool.commonPool());
+
+        assertThat(LongStream.rangeClosed(1, 7).filter(marks::isMarked)).containsExactly(1L, 2L, 3L, 6L);
+        assertThat(marks.getMarkedCount()).isEqualTo(4L);
+    }
+
+    @Test
+    void testParallelMarkingMatchesSequentialTraversal() {
+        int nodes = 200_000;
+        SplittableRandom random = new SplittableRandom(7);
+        // A wide fan-out from node 0 forces tasks to split and be stolen.
+        for (long target = 1; target <= 10_000; target++) {
+            graph.add(0L, target);
+        }
+        for (int i = 0; i < nodes * 3; i++) {
+            graph.add(random.nextInt(nodes), random.nextInt(nodes));
+        }
+        long[] roots = LongStream.concat(LongStream.of(0L), random.longs(50, 0, nodes)).toArray();
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MarkBitmap marks = ParallelMarker.mark(roots, graph, id -> true, pool);
+
+            BitSet expected = traverse(roots);
+            assertThat(marks.getMarkedCount()).isEqualTo(expected.cardinality());
+            assertThat(LongStream.range(0, nodes).allMatch(id -> marks.isMarked(id) == expected.get((int) id)))
+                    .isTrue();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private BitSet traverse(long[] roots) {
+        BitSet visited = new BitSet();
+        Deque<Long> pending = new ArrayDeque<>();
+        for (long root : roots) {
+            if (!visited.get((int) root)) {
+                visited.set((int) root);
+                pending.push(root);
+            }
+        }
+        while (!pending.isEmpty()) {
+            for (long target : graph.targets(pending.pop())) {
+                if (!visited.get((int) target)) {
+                    visited.set((int) target);
+                    pending.push(target);
+                }
+            }
+        }
+        return visited;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class PauseHistogramTest {
+
+    @Test
+    void testPercentilesStayWithinRelativePrecision() {
+        PauseHistogram histogram = new PauseHistogram();
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-uniform between 10 µs and 1 s, like a long-tailed pause distribution.
+            values[i] = (long) Math.exp(Math.log(10_000) + random.nextDouble() * Math.log(100_000));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[] {50.0, 99.0, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100.0 * values.length) - 1];
+            long reported = histogram.valueAtPercentile(percentile);
+            assertThat(reported).isGreaterThanOrEqualTo(exact);
+            assertThat((double) reported).isCloseTo(exact, within(exact / 128.0));
+        }
+        assertThat(histogram.valueAtPercentile(100.0)).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.getTotalCount()).isEqualTo(values.length);
+        assertThat(histogram.getMaxValue()).isEqualTo(values[values.length - 1]);
+        assertThat(histogram.getMean()).isCloseTo(Arrays.stream(values).average().orElseThrow(), within(1.0));
+    }
+
+    @Test
+    void testBucketBoundariesAndEmptyHistogram() {
+        PauseHistogram histogram = new PauseHistogram();
+        assertThat(histogram.valueAtPercentile(99.0)).isZero();
+        assertThat(histogram.getMean()).isZero();
+
+        for (long value : new long[] {0, 127, 128, 255, 256, 1_000_000_007L, Long.MAX_VALUE}) {
+            int index = PauseHistogram.indexOf(value);
+            assertThat(PauseHistogram.highestValueIn(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0) {
+                assertThat(PauseHistogram.highestValueIn(index - 1)).isLessThan(value);
+            }
+        }
+        assertThatThrownBy(() -> histogram.record(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceGraphTest {
+
+    private final ReferenceGraph graph = new ReferenceGraph();
+
+    @Test
+    void testAddAndRemoveTrackInDegree() {
+        assertThat(graph.add(1L, 2L)).isTrue();
+        assertThat(graph.add(1L, 2L)).isFalse();
+        assertThat(graph.add(3L, 2L)).isTrue();
+        assertThat(graph.add(1L, 3L)).isTrue();
+
+        assertThat(graph.targets(1L)).containsExactly(2L, 3L);
+        assertThat(graph.inDegree(2L)).isEqualTo(2);
+        assertThat(graph.getEdgeCount()).isEqualTo(3L);
+
+        assertThat(graph.remove(1L, 2L)).isTrue();
+        assertThat(graph.remove(1L, 2L)).isFalse();
+
+        assertThat(graph.targets(1L)).containsExactly(3L);
+        assertThat(graph.inDegree(2L)).isEqualTo(1);
+        assertThat(graph.getEdgeCount()).isEqualTo(2L);
+    }
+
+    @Test
+    void testRemoveOutgoingReleasesTargets() {
+        long far = ColumnarHeapStore.PAGE_SIZE * 5L + 1;
+        graph.add(1L, 2L);
+        graph.add(1L, far);
+
+        assertThat(graph.removeOutgoing(1L)).isEqualTo(2);
+
+        assertThat(graph.targets(1L)).isEmpty();
+        assertThat(graph.inDegree(far)).isZero();
+        assertThat(graph.getEdgeCount()).isZero();
+        assertThat(graph.removeOutgoing(far)).isZero();
+    }
+}
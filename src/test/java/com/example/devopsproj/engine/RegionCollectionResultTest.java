@@ -0,0 +1,27 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RegionCollectionResultTest {
+
+    @Test
+    void testDescribesRegionsAsRanges() {
+        RegionCollectionResult result = new RegionCollectionResult(0, 0, List.of(9L, 3L, 4L, 5L, 12L, 13L), 0, 0);
+
+        assertThat(result.describeRegions()).isEqualTo("3-5,9,12-13");
+    }
+
+    @Test
+    void testLongDescriptionsAreShortened() {
+        List<Long> everyOther = LongStream.range(0, 10_000).map(i -> i * 2).boxed().toList();
+
+        String description = new RegionCollectionResult(0, 0, everyOther, 0, 0).describeRegions();
+
+        assertThat(description).hasSizeLessThanOrEqualTo(4000).endsWith("more)");
+    }
+}
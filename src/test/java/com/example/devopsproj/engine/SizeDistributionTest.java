@@ -0,0 +1,40 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SizeDistributionTest {
+
+    private static final int SAMPLES = 100_000;
+
+    private static int[] histogram(SizeDistribution distribution, int minSizeKB, int maxSizeKB) {
+        SplittableRandom random = new SplittableRandom(11);
+        int[] counts = new int[maxSizeKB + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[distribution.sample(random, minSizeKB, maxSizeKB)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void testParetoTailIsTruncatedRatherThanPiledOnTheMaximum() {
+        int[] counts = histogram(SizeDistribution.PARETO, 1, 8);
+
+        // Truncated to [0.5, 8.5) after rounding, P(8) = (7.5^-a - 8.5^-a) / (1 - 8.5^-a) ~ 1.4%;
+        // clamping would have put the whole tail beyond 7.5, about 9.6%, there.
+        assertThat(counts[8] / (double) SAMPLES).isBetween(0.010, 0.019);
+        assertThat(counts[7]).isGreaterThan(counts[8]);
+    }
+
+    @Test
+    void testLogNormalTailIsTruncatedRatherThanPiledOnTheEnds() {
+        int[] counts = histogram(SizeDistribution.LOG_NORMAL, 1, 4096);
+
+        // Clamping would put the 0.13% of draws beyond each end, about 130 samples, on it.
+        assertThat(counts[4096]).isLessThan(10);
+        assertThat(counts[1]).isLessThan(counts[2] + counts[3]);
+    }
+}
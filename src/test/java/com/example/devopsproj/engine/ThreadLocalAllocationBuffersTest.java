@@ -0,0 +1,95 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThreadLocalAllocationBuffersTest {
+
+    @Test
+    void testIdsComeFromOneBlockPerRefill() {
+        AtomicLong counter = new AtomicLong();
+        ThreadLocalAllocationBuffers buffers = new ThreadLocalAllocationBuffers(counter, 4, 64);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(buffers.nextId());
+        }
+
+        assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(counter.get()).isEqualTo(8L);
+        assertThat(buffers.getIdRefills()).isEqualTo(2L);
+    }
+
+    @Test
+    void testAddressesBumpWithinBufferAndRetireSmallRemainders() {
+        ThreadLocalAllocationBuffers buffers = new ThreadLocalAllocationBuffers(new AtomicLong(), 1, 128);
+
+        assertThat(buffers.allocateAddress(100)).isZero();
+        assertThat(buffers.allocateAddress(27)).isEqualTo(100L);
+        // 1 KB left is within the waste limit (128 / 64), so the buffer is retired.
+        assertThat(buffers.allocateAddress(10)).isEqualTo(128L);
+
+        assertThat(buffers.getBufferRefills()).isEqualTo(2L);
+        assertThat(buffers.getWastedKB()).isEqualTo(1L);
+    }
+
+    @Test
+    void testLargeObjectsBypassTheBuffer() {
+        ThreadLocalAllocationBuffers buffers = new ThreadLocalAllocationBuffers(new AtomicLong(), 1, 128);
+
+        buffers.allocateAddress(10);
+        long large = buffers.allocateAddress(500);
+
+        assertThat(large).isEqualTo(128L);
+        assertThat(buffers.allocateAddress(10)).isEqualTo(10L);
+        assertThat(buffers.getSharedAllocations()).isEqualTo(1L);
+    }
+
+    @Test
+    void testAdvancePastSkipsExistingIdsAndAddresses() {
+        ThreadLocalAllocationBuffers buffers = new ThreadLocalAllocationBuffers(new AtomicLong(), 16, 64);
+
+        buffers.advancePast(1000L, 5000L);
+
+        assertThat(buffers.nextId()).isEqualTo(1001L);
+        assertThat(buffers.allocateAddress(8)).isEqualTo(5000L);
+    }
+
+    @Test
+    void testConcurrentThreadsNeverShareIdsOrAddresses() throws Exception {
+        ThreadLocalAllocationBuffers buffers = new ThreadLocalAllocationBuffers(new AtomicLong(), 32, 256);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        Set<Long> addresses = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    ids.add(buffers.nextId());
+                    addresses.add(buffers.allocateAddress(1 + i % 7));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(ids).hasSize(40_000);
+        assertThat(new HashSet<>(addresses)).hasSize(40_000);
+    }
+}
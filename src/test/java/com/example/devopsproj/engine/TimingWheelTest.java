@@ -0,0 +1,64 @@
+package com.example.devopsproj.engine;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    @Test
+    void testEveryEntryExpiresAtTheFirstAdvancePastItsDeadline() {
+        long start = 1_700_000_000_123L;
+        TimingWheel wheel = new TimingWheel(start);
+        SplittableRandom random = new SplittableRandom(7);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long id = 0;
+        long now = start;
+
+        for (int round = 0; round < 2_000; round++) {
+            for (int i = 0; i < 50; i++) {
+                // Deadlines from the next tick to hundreds of millions of ticks away.
+                long delay = (long) Math.pow(10, random.nextDouble(0, 8.5));
+                deadlines.put(id, now + delay);
+                wheel.schedule(id++, now + delay);
+            }
+            long target = now + (random.nextInt(10) == 0 ? random.nextLong(1, 50_000_000) : random.nextLong(1, 200));
+            long previous = now;
+            List<Long> expired = new ArrayList<>();
+            wheel.advanceTo(target, expired::add);
+            now = target;
+
+            assertThat(wheel.getCurrentTick()).isEqualTo(target);
+            long last = Long.MIN_VALUE;
+            for (long expiredId : expired) {
+                long deadline = deadlines.remove(expiredId);
+                assertThat(deadline).isGreaterThan(previous).isLessThanOrEqualTo(target).isGreaterThanOrEqualTo(last);
+                last = deadline;
+            }
+            assertThat(deadlines.values()).allMatch(deadline -> deadline > target);
+            assertThat(wheel.size()).isEqualTo(deadlines.size());
+        }
+    }
+
+    @Test
+    void testPastDeadlinesExpireAtTheNextTickAndClearDropsEverything() {
+        TimingWheel wheel = new TimingWheel(100);
+        wheel.schedule(1, 50);
+        wheel.schedule(2, 100);
+        wheel.schedule(3, 5_000);
+
+        List<Long> expired = new ArrayList<>();
+        assertThat(wheel.advanceTo(101, expired::add)).isEqualTo(2);
+        assertThat(expired).containsExactlyInAnyOrder(1L, 2L);
+
+        wheel.clear(200);
+        assertThat(wheel.size()).isZero();
+        assertThat(wheel.advanceTo(10_000, expired::add)).isZero();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.devopsproj.scenario;
+
+import com.example.devopsproj.dto.ScenarioRequest;
+import com.example.devopsproj.dto.ScenarioWorkload;
+import com.example.devopsproj.engine.GarbageCollectionEngine;
+import com.example.devopsproj.engine.HeapLayout;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.engine.SizeDistribution;
+import com.example.devopsproj.exception.SimulatedOutOfMemoryException;
+import com.example.devopsproj.model.HeapObject;
+import com.example.devopsproj.model.LeakReport;
+import com.example.devopsproj.model.Verdict;
+import com.example.devopsproj.service.LeakAnalysisService;
+import com.example.devopsproj.service.SimulationService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScenarioEngineTest {
+
+    @Mock
+    private SimulationService simulationService;
+
+    @Mock
+    private GarbageCollectionEngine garbageCollectionEngine;
+
+    @Mock
+    private LeakAnalysisService leakAnalysisService;
+
+    private SimulationClock simulationClock;
+
+    private ScenarioEngine scenarioEngine;
+
+    @BeforeEach
+    void setUp() {
+        simulationClock = new SimulationClock();
+        scenarioEngine = new ScenarioEngine(simulationService, garbageCollectionEngine, leakAnalysisService,
+                simulationClock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scenarioEngine.shutdown();
+    }
+
+    @Test
+    void testScenarioAllocatesExpiresCollectsAndReports() throws InterruptedException {
+        stubAllocation();
+        when(leakAnalysisService.generateLeakReport())
+                .thenReturn(LeakReport.builder().id(7L).verdict(Verdict.NO_LEAK).build());
+
+        ScenarioRun run = scenarioEngine.start(ScenarioRequest.builder()
+                .name("short-lived")
+                .durationSeconds(1)
+                .tickMillis(100)
+                .snapshotIntervalSeconds(1)
+                .gcPolicy(GcPolicy.PERIODIC)
+                .minorGcIntervalSeconds(1)
+                .seed(1L)
+                .workloads(List.of(ScenarioWorkload.builder()
+                        .objectType("Request")
+                        .objectsPerSecond(20.0)
+                        .minSizeInKB(1)
+                        .maxSizeInKB(1)
+                        .sizeDistribution(SizeDistribution.UNIFORM)
+                        .lifetimeDistribution(LifetimeDistribution.FIXED)
+                        .meanLifetimeSeconds(0.3)
+                        .build()))
+                .build());
+
+        awaitFinished(run);
+
+        assertThat(run.getStatus()).isEqualTo(ScenarioStatus.COMPLETED);
+        assertThat(run.getElapsedTicks()).isEqualTo(10L);
+        assertThat(run.getObjectsAllocated()).isEqualTo(20L);
+        // Objects allocated in ticks 1-7 reach their 3-tick lifetime before the end.
+        assertThat(run.getObjectsExpired()).isEqualTo(14L);
+        assertThat(run.toResponse().getLeakReportId()).isEqualTo(7L);
+        verify(simulationService, times(7)).dereferenceObjects(anyList());
+        verify(simulationService).createHeapSnapshot();
+        verify(garbageCollectionEngine).runMinorGC();
+        verify(garbageCollectionEngine, never()).runFullGC();
+    }
+
+    @Test
+    void testScenarioEndsWithReportOnOutOfMemory() throws InterruptedException {
+        doThrow(new SimulatedOutOfMemoryException(10, 100, 100))
+                .when(simulationService)
+                .streamRandomObjects(anyInt(), anyInt(), anyInt(), anyString(), any(), anyLong(), any());
+        when(leakAnalysisService.generateLeakReport())
+                .thenReturn(LeakReport.builder().id(8L).verdict(Verdict.HIGH_PROBABILITY_LEAK).build());
+
+        ScenarioRun run = scenarioEngine.start(ScenarioRequest.builder()
+                .name("leak")
+                .durationSeconds(60)
+                .tickMillis(10)
+                .workloads(List.of(ScenarioWorkload.builder()
+                        .objectType("Session")
+                        .objectsPerSecond(1000.0)
+                        .minSizeInKB(10)
+                        .maxSizeInKB(10)
+                        .lifetimeDistribution(LifetimeDistribution.IMMORTAL)
+                        .build()))
+                .build());
+
+        awaitFinished(run);
+
+        assertThat(run.getStatus()).isEqualTo(ScenarioStatus.OUT_OF_MEMORY);
+        assertThat(run.toResponse().getVerdict()).isEqualTo(Verdict.HIGH_PROBABILITY_LEAK);
+        assertThat(run.getElapsedTicks()).isEqualTo(1L);
+    }
+
+    @Test
+    void testVirtualClockRunsAnHourInstantly() throws InterruptedException {
+        stubAllocation();
+        when(leakAnalysisService.generateLeakReport())
+                .thenReturn(LeakReport.builder().id(9L).verdict(Verdict.POSSIBLE_LEAK).build());
+        long start = simulationClock.currentTimeMillis();
+
+        ScenarioRun run = scenarioEngine.start(ScenarioRequest.builder()
+                .name("hour")
+                .clockMode(ScenarioClockMode.VIRTUAL)
+                .durationSeconds(3600)
+                .snapshotIntervalSeconds(60)
+                .gcPolicy(GcPolicy.PERIODIC)
+                .workloads(List.of(ScenarioWorkload.builder()
+                        .objectType("Request")
+                        .objectsPerSecond(2.0)
+                        .minSizeInKB(1)
+                        .maxSizeInKB(1)
+                        .meanLifetimeSeconds(10.0)
+                        .build()))
+                .build());
+
+        awaitFinished(run);
+
+        assertThat(run.getStatus()).isEqualTo(ScenarioStatus.COMPLETED);
+        assertThat(run.getObjectsAllocated()).isEqualTo(7200L);
+        assertThat(run.getSnapshotsTaken()).isEqualTo(60);
+        assertThat(simulationClock.currentTimeMillis() - start).isGreaterThanOrEqualTo(3_600_000L);
+        assertThat(run.toResponse().getSimulatedTime()).isEqualTo(run.getStartedAt().plusHours(1));
+        verify(garbageCollectionEngine, times(720)).runMinorGC();
+        verify(garbageCollectionEngine, times(60)).runFullGC();
+    }
+
+    @Test
+    void testMixedPolicyRunsMixedCollectionsOnRegionalHeap() throws InterruptedException {
+        ScenarioRequest request = ScenarioRequest.builder()
+                .name("g1")
+                .clockMode(ScenarioClockMode.VIRTUAL)
+                .durationSeconds(600)
+                .snapshotIntervalSeconds(60)
+                .gcPolicy(GcPolicy.MIXED)
+                .fullGcIntervalSeconds(60)
+                .workloads(List.of(ScenarioWorkload.builder()
+                        .objectType("Request")
+                        .objectsPerSecond(2.0)
+                        .minSizeInKB(1)
+                        .maxSizeInKB(1)
+                        .meanLifetimeSeconds(10.0)
+                        .build()))
+                .build();
+        assertThatThrownBy(() -> scenarioEngine.start(request)).isInstanceOf(IllegalArgumentException.class);
+
+        stubAllocation();
+        when(garbageCollectionEngine.getHeapLayout()).thenReturn(HeapLayout.REGIONAL);
+        when(leakAnalysisService.generateLeakReport())
+                .thenReturn(LeakReport.builder().id(10L).verdict(Verdict.NO_LEAK).build());
+
+        ScenarioRun run = scenarioEngine.start(request);
+        awaitFinished(run);
+
+        assertThat(run.getStatus()).isEqualTo(ScenarioStatus.COMPLETED);
+        verify(garbageCollectionEngine, times(10)).runMixedGC();
+        verify(garbageCollectionEngine, times(120)).runMinorGC();
+        verify(garbageCollectionEngine, never()).runFullGC();
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubAllocation() {
+        AtomicLong ids = new AtomicLong();
+        doAnswer(invocation -> {
+            int count = invocation.getArgument(0);
+            List<HeapObject> batch = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                batch.add(HeapObject.builder().id(ids.incrementAndGet()).sizeInKB(1).build());
+            }
+            ((Consumer<List<HeapObject>>) invocation.getArgument(6)).accept(batch);
+            return null;
+        }).when(simulationService).streamRandomObjects(anyInt(), anyInt(), anyInt(), anyString(), any(), anyLong(), any());
+    }
+
+    private static void awaitFinished(ScenarioRun run) throws InterruptedException {
+        for (int i = 0; i < 500 && run.getStatus() == ScenarioStatus.RUNNING; i++) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.example.devopsproj.service;
 
+import com.example.devopsproj.analyzer.LeakAnalyzer;
+import com.example.devopsproj.dto.AllocationSummaryResponse;
 import com.example.devopsproj.engine.HeapSimulationEngine;
+import com.example.devopsproj.engine.SimulationClock;
+import com.example.devopsproj.model.Generation;
 import com.example.devopsproj.model.HeapObject;
 import com.example.devopsproj.model.HeapSnapshot;
 import com.example.devopsproj.repository.HeapSnapshotRepository;
@@ -8,13 +12,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,6 +35,12 @@ class SimulationServiceTest {
     @Mock
     private HeapSnapshotRepository heapSnapshotRepository;
 
+    @Mock
+    private LeakAnalyzer leakAnalyzer;
+
+    @Spy
+    private SimulationClock simulationClock = new SimulationClock();
+
     @InjectMocks
     private SimulationService simulationService;
 
@@ -42,6 +57,30 @@ class SimulationServiceTest {
         verify(heapSimulationEngine).allocateObjects(5, 100, "Test", true);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testAllocateObjectsSummary_MergesConsecutiveIds() {
+        doAnswer(invocation -> {
+            Consumer<List<HeapObject>> sink = invocation.getArgument(4);
+            sink.accept(List.of(object(1L, 10), object(2L, 10)));
+            sink.accept(List.of(object(3L, 10), object(7L, 10)));
+            return null;
+        }).when(heapSimulationEngine).allocateObjects(eq(4), eq(10), eq("Test"), eq(true), any(Consumer.class));
+
+        AllocationSummaryResponse summary = simulationService.allocateObjectsSummary(4, 10, "Test", true);
+
+        assertThat(summary.getObjectCount()).isEqualTo(4L);
+        assertThat(summary.getTotalSizeInKB()).isEqualTo(40L);
+        assertThat(summary.getCountsByType()).containsEntry("Test", 4L);
+        assertThat(summary.getIdRanges()).containsExactly(
+                new AllocationSummaryResponse.IdRange(1L, 3L),
+                new AllocationSummaryResponse.IdRange(7L, 7L));
+    }
+
+    private HeapObject object(long id, int sizeInKB) {
+        return HeapObject.builder().id(id).sizeInKB(sizeInKB).objectType("Test").build();
+    }
+
     @Test
     void testDereferenceObjects_Success() {
         List<Long> objectIds = Arrays.asList(1L, 2L);
@@ -66,18 +105,58 @@ class SimulationServiceTest {
         assertThat(snapshot.getLiveObjectsCount()).isEqualTo(50);
     }
 
+    @Test
+    void testGetCurrentHeapState_CachedUntilTheHeapChanges() {
+        when(heapSimulationEngine.getMutationEpoch()).thenReturn(7L, 7L, 8L);
+        when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L, 1500L);
+
+        assertThat(simulationService.getCurrentHeapState().getTotalHeapUsed()).isEqualTo(1000L);
+        assertThat(simulationService.getCurrentHeapState().getTotalHeapUsed()).isEqualTo(1000L);
+        assertThat(simulationService.getCurrentHeapState().getTotalHeapUsed()).isEqualTo(1500L);
+
+        verify(heapSimulationEngine, times(2)).getCurrentHeapSize();
+        verify(heapSimulationEngine, times(2)).getOldGenSize();
+    }
+
     @Test
     void testCreateHeapSnapshot_Success() {
         when(heapSimulationEngine.getCurrentHeapSize()).thenReturn(1000L);
         when(heapSimulationEngine.getLiveObjectCount()).thenReturn(50L);
         when(heapSimulationEngine.getUnreachableObjectCount()).thenReturn(10L);
+        when(heapSimulationEngine.countLiveObjectsByType(Generation.OLD)).thenReturn(new long[]{0L, 4L});
+        when(heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD)).thenReturn(new long[]{0L, 400L});
         when(heapSnapshotRepository.save(any(HeapSnapshot.class)))
                 .thenAnswer(i -> i.getArgument(0));
 
         HeapSnapshot snapshot = simulationService.createHeapSnapshot();
 
         assertThat(snapshot).isNotNull();
+        // Type 1 only: a gap of one type id, 400 KB and 4 objects.
+        assertThat(snapshot.getOldGenTypeVector()).containsExactly(1, 0x90, 0x03, 4);
         verify(heapSnapshotRepository).save(any(HeapSnapshot.class));
+        verify(leakAnalyzer).recordSnapshot(snapshot);
+    }
+
+    @Test
+    void testCreateHeapSnapshot_ReachesAnalyzerOnlyAfterCommit() {
+        when(heapSimulationEngine.countLiveObjectsByType(Generation.OLD)).thenReturn(new long[0]);
+        when(heapSimulationEngine.sumLiveSizeKBByType(Generation.OLD)).thenReturn(new long[0]);
+        when(heapSnapshotRepository.save(any(HeapSnapshot.class)))
+                .thenAnswer(i -> i.getArgument(0));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            HeapSnapshot snapshot = simulationService.createHeapSnapshot();
+
+            // A rollback would leave the analyzer's running statistics untouched.
+            verify(leakAnalyzer, never()).recordSnapshot(any());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+            verify(leakAnalyzer).recordSnapshot(snapshot);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test